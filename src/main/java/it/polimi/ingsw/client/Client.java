@@ -1,22 +1,42 @@
 package it.polimi.ingsw.client;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.net.SocketException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import it.polimi.ingsw.client.cli.utils.PrintHelper;
-import java.net.SocketException;
-import java.util.concurrent.Executors;
+import it.polimi.ingsw.metrics.RttEstimator;
 import it.polimi.ingsw.protocol.answers.*;
+import it.polimi.ingsw.protocol.codec.FrameCodec;
+import it.polimi.ingsw.protocol.codec.FrameInflater;
+import it.polimi.ingsw.protocol.commands.CapabilitiesCommand;
 import it.polimi.ingsw.protocol.commands.Command;
 import it.polimi.ingsw.protocol.commands.PingCommand;
+import it.polimi.ingsw.protocol.commands.ResumeSessionCommand;
+import it.polimi.ingsw.protocol.commands.ResyncCommand;
 import it.polimi.ingsw.protocol.messages.ActionMessage;
 import it.polimi.ingsw.protocol.updates.*;
 
 public class Client implements Runnable
 {
+    /**
+     * Number of messages each stage of the receiving pipeline can hold.
+     */
+    private static final int QUEUE_CAPACITY = 256;
+
+    /**
+     * Marks the end of the stream in the receive queue.
+     */
+    private static final Object END_OF_STREAM = new Object();
+
     private String playerName;
 
     private String ip;
@@ -25,14 +45,59 @@ public class Client implements Runnable
 
     private Socket socket;
 
-    private ObjectOutputStream outputStream;
+    private DataOutputStream outputStream;
+
+    private DataInputStream inputStream;
 
-    private ObjectInputStream inputStream;
+    /**
+     * Decompressor of the frames received, the server compresses the big ones once the client declares it supports them.
+     */
+    private FrameInflater inflater;
 
-    private Visualizable visualizer;
+    private ModelMirror visualizer;
 
     private boolean active = false;
 
+    /**
+     * Frames read from the socket and waiting to be decoded, plus the notifications of the reader.
+     */
+    private volatile BlockingQueue<Object> receiveQueue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    /**
+     * Decoded messages waiting for the visualizer.
+     */
+    private volatile DispatchQueue dispatchQueue = new DispatchQueue(QUEUE_CAPACITY);
+
+    /**
+     * Token of the session, received with the SetNameAnswer, null before.
+     */
+    private volatile String sessionToken = null;
+
+    /**
+     * Sequence number of the last model update handled.
+     */
+    private volatile long lastSequence = 0;
+
+    /**
+     * Value of System.nanoTime() when the last message was sent, the heartbeats are sent only after some silence.
+     */
+    private volatile long lastSentNanos = System.nanoTime();
+
+    /**
+     * Round trip time measured with the PongAnswers.
+     */
+    private final RttEstimator rtt = new RttEstimator();
+
+    /**
+     * Server timestamp of the last PongAnswer, to echo in the next PingCommand. 0 if already echoed.
+     */
+    private long pongTimestamp = 0;
+
+    /**
+     * Value of System.nanoTime() when the last PongAnswer arrived.
+     */
+    private long pongReceivedNanos = 0;
+
     public Client()
     {
         this("127.0.0.1");
@@ -50,13 +115,13 @@ public class Client implements Runnable
     }
 
     /**
-     * Set a visualizer either a CLI or a GameView.
+     * Set a visualizer either a CLI or a GameView. It is wrapped in a ModelMirror, which turns the delta updates into full ones.
      *
      * @param visualizer to use.
      */
     public void setVisualizer(Visualizable visualizer)
     {
-        this.visualizer = visualizer;
+        this.visualizer = new ModelMirror(visualizer);
     }
 
     /**
@@ -79,8 +144,14 @@ public class Client implements Runnable
         socket = new Socket();
         socket.connect(new InetSocketAddress(ip, port), 2000);
 
-        outputStream = new ObjectOutputStream(socket.getOutputStream());
-        inputStream = new ObjectInputStream(socket.getInputStream());
+        outputStream = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        inputStream = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        inflater = new FrameInflater();
+        receiveQueue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        dispatchQueue = new DispatchQueue(QUEUE_CAPACITY);
+
+        // Before anything else, so that even the first big frames can be compressed
+        FrameCodec.writeObject(outputStream, new CapabilitiesCommand(CapabilitiesCommand.DEFLATE));
     }
 
     /**
@@ -95,9 +166,8 @@ public class Client implements Runnable
         {
             synchronized (outputStream)
             {
-                outputStream.writeObject(command);
-                outputStream.flush();
-                outputStream.reset();
+                FrameCodec.writeObject(outputStream, command);
+                lastSentNanos = System.nanoTime();
             }
         } catch (SocketException e)
         {
@@ -110,6 +180,21 @@ public class Client implements Runnable
         }
     }
 
+    /**
+     * Logs in again with the session of the previous connection, to be called instead of sending a SetNameCommand after connecting again. If the
+     * player was in a match, the server sends only the updates missed since the last one handled.
+     *
+     * @throws IOException if there ia a problem while sending.
+     * @throws IllegalStateException if the client never logged in.
+     */
+    public void resumeSession() throws IOException
+    {
+        if (sessionToken == null)
+            throw new IllegalStateException("[Client] No session to resume");
+
+        sendCommand(new ResumeSessionCommand(sessionToken, lastSequence));
+    }
+
     /**
      * Send an ActionMessage to the server.
      *
@@ -122,9 +207,8 @@ public class Client implements Runnable
         {
             synchronized (outputStream)
             {
-                outputStream.writeObject(action);
-                outputStream.flush();
-                outputStream.reset();
+                FrameCodec.writeObject(outputStream, action);
+                lastSentNanos = System.nanoTime();
             }
         } catch (SocketException e)
         {
@@ -163,39 +247,219 @@ public class Client implements Runnable
         return active;
     }
 
+    /**
+     * Returns the smoothed round trip time to the server in milliseconds, 0 if not measured yet.
+     */
+    public long getRttMillis()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(rtt.getSmoothedNanos());
+    }
+
+    /**
+     * Returns the smoothed variation of the round trip time to the server in milliseconds.
+     */
+    public long getRttVariationMillis()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(rtt.getVariationNanos());
+    }
+
+    /**
+     * Returns the number of frames read and waiting to be decoded.
+     */
+    public int getReceiveQueueDepth()
+    {
+        return receiveQueue.size();
+    }
+
+    /**
+     * Returns the number of messages decoded and waiting for the visualizer.
+     */
+    public int getDispatchQueueDepth()
+    {
+        return dispatchQueue.size();
+    }
+
+    /**
+     * Returns the number of model updates dropped because the visualizer was too slow, each overflow is followed by a resync.
+     */
+    public long getDroppedUpdates()
+    {
+        return dispatchQueue.getDroppedUpdates();
+    }
+
     @Override
     /**
-     * Starts a thread that sends PingCommand to the server every second, so that the server knows if this
+     * Starts a thread that sends a PingCommand to the server after every second without other messages sent, so that the server knows if this
      * client is still connected.
-     * In this method the client receives messages from the server and sort Answer and ModelUpdate.
+     * In this method the client reads the frames from the server, which are decoded and dispatched to the visualizer by two other threads: a
+     * slow visualizer never stops the reading.
      */
     public void run()
     {
         active = true;
 
-        // Start a ping thread
-        Executors.newCachedThreadPool().submit(() -> {
+        // The stages of a previous connection may still be draining its queues
+        BlockingQueue<Object> receiveQueue = this.receiveQueue;
+        DispatchQueue dispatchQueue = this.dispatchQueue;
+        FrameInflater inflater = this.inflater;
+        DataInputStream inputStream = this.inputStream;
+        DataOutputStream outputStream = this.outputStream;
+
+        new Thread(() -> decode(receiveQueue, dispatchQueue, inflater), "client-decoder").start();
+        new Thread(() -> dispatch(dispatchQueue), "client-dispatcher").start();
+
+        Thread heartbeat = new Thread(() -> sendHeartbeats(outputStream), "client-heartbeat");
+        heartbeat.setDaemon(true);
+        heartbeat.start();
+
+        try
+        {
+            while (isActive())
+                receiveQueue.put(FrameCodec.readFrame(inputStream, true));
+        } catch (SocketException e)
+        {
+            // This exception is thrown when the server goes down
+            queueNotification(receiveQueue,
+                    () -> visualizer.displayConnectionError(new ErrorAnswer("The server is currently down, the match ends here.")));
+        } catch (IOException e)
+        {
+            queueNotification(receiveQueue,
+                    () -> visualizer.displayError(new ErrorAnswer("[Client] Error while reading an object: " + e.getMessage())));
+        } catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        } catch (Error e)
+        {
+            queueNotification(receiveQueue, () -> visualizer.displayError(new ErrorAnswer("[Client] Generic error: " + e.getMessage())));
+        } finally
+        {
+            endOfStream(receiveQueue);
+        }
+    }
+
+    /**
+     * Decodes the frames read, in a thread of its own.
+     */
+    private void decode(BlockingQueue<Object> receiveQueue, DispatchQueue dispatchQueue, FrameInflater inflater)
+    {
+        try
+        {
             while (true)
+            {
+                Object frame = receiveQueue.take();
+
+                if (frame == END_OF_STREAM)
+                    break;
+
+                // Notifications of the reader, queued after the frames read before them
+                if (frame instanceof Runnable)
+                {
+                    dispatchQueue.put(frame);
+                    continue;
+                }
+
                 try
                 {
-                    synchronized (outputStream)
-                    {
-                        outputStream.writeObject(new PingCommand());
-                        outputStream.flush();
-                        outputStream.reset();
-                    }
-                    Thread.sleep(1000);
-                } catch (Exception e)
+                    Object message = FrameCodec.decodeFrame((byte[]) frame, inflater);
+
+                    // Handled here, so that the time spent waiting for the visualizer isn't part of the round trip
+                    if (message instanceof PongAnswer pong)
+                        receivePong(pong);
+                    else
+                        dispatchQueue.put(message);
+                } catch (IOException e)
                 {
+                    dispatchQueue.put(
+                            (Runnable) () -> visualizer.displayError(new ErrorAnswer("[Client] Error while reading an object: " + e.getMessage())));
+                    stop();
+                    break;
+                } catch (ClassNotFoundException e)
+                {
+                    dispatchQueue.put((Runnable) () -> visualizer.displayError(new ErrorAnswer("SEVERE ERROR! " + e.getMessage())));
+                    stop();
                     break;
                 }
-        });
+            }
+        } catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        } catch (IOException e)
+        {
+            // Closing the socket, nothing else can be done
+        } finally
+        {
+            dispatchQueue.close();
+        }
+    }
 
+    /**
+     * Sends a PingCommand whenever nothing has been sent for a heartbeat interval, in a thread of its own.
+     */
+    private void sendHeartbeats(DataOutputStream outputStream)
+    {
         try
         {
             while (isActive())
             {
-                Object input = inputStream.readObject();
+                long silence = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastSentNanos);
+
+                if (silence >= PingCommand.HEARTBEAT_INTERVAL)
+                {
+                    synchronized (outputStream)
+                    {
+                        FrameCodec.writeObject(outputStream, nextPing());
+                        lastSentNanos = System.nanoTime();
+                    }
+                    silence = 0;
+                }
+
+                Thread.sleep(PingCommand.HEARTBEAT_INTERVAL - silence);
+            }
+        } catch (Exception e)
+        {
+            // The connection is closed, the reader reports it
+        }
+    }
+
+    /**
+     * Builds the next PingCommand, echoing the timestamp of the last PongAnswer so that the server can measure the round trip time.
+     */
+    private synchronized PingCommand nextPing()
+    {
+        long now = System.nanoTime();
+
+        if (pongTimestamp == 0)
+            return new PingCommand(now, 0, 0);
+
+        PingCommand ping = new PingCommand(now, pongTimestamp, now - pongReceivedNanos);
+        pongTimestamp = 0;
+        return ping;
+    }
+
+    private synchronized void receivePong(PongAnswer pong)
+    {
+        long now = System.nanoTime();
+
+        rtt.sample(now - pong.getEchoTimestamp());
+        pongTimestamp = pong.getTimestamp();
+        pongReceivedNanos = now;
+    }
+
+    /**
+     * Hands the decoded messages to the visualizer, in a thread of its own.
+     */
+    private void dispatch(DispatchQueue dispatchQueue)
+    {
+        try
+        {
+            Object input;
+            while ((input = dispatchQueue.take()) != null)
+            {
+                // Position in the update log of the match, to resume from after a reconnection
+                if (input instanceof SequencedUpdate sequenced)
+                    lastSequence = sequenced.getSequence();
+                else if (input instanceof SetNameAnswer answer)
+                    sessionToken = answer.getSessionToken();
 
                 // Updates
                 if (input instanceof ModelUpdate)
@@ -205,23 +469,56 @@ public class Client implements Runnable
                 else if (input instanceof Answer)
                     ((Answer) input).handleAnswer(visualizer);
 
+                // Notifications
+                else if (input instanceof Runnable)
+                    ((Runnable) input).run();
+
                 // Unrecognized
                 else
                     visualizer.displayError(new ErrorAnswer("[Client] Unable to recognize the received object: " + input.getClass().getName()));
+
+                // The updates dropped are replaced by the whole state of the match
+                if (dispatchQueue.takeResyncNeeded() && isActive())
+                    sendCommand(new ResyncCommand());
+
+                // Only the sections that don't match the server's digest are sent again
+                int staleSections = visualizer.takeStaleSections();
+                if (staleSections != 0 && isActive())
+                    sendCommand(new ResyncCommand(staleSections));
             }
-        } catch (SocketException e)
+        } catch (InterruptedException e)
         {
-            // This exception is thrown when the server goes down
-            visualizer.displayConnectionError(new ErrorAnswer("The server is currently down, the match ends here."));
+            Thread.currentThread().interrupt();
         } catch (IOException e)
         {
-            visualizer.displayError(new ErrorAnswer("[Client] Error while reading an object: " + e.getMessage()));
-        } catch (ClassNotFoundException e)
+            visualizer.displayError(new ErrorAnswer("[Client] Error while requesting the match state: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Queues a notification of the reader behind the frames already read.
+     */
+    private static void queueNotification(BlockingQueue<Object> receiveQueue, Runnable notification)
+    {
+        try
+        {
+            receiveQueue.put(notification);
+        } catch (InterruptedException e)
         {
-            visualizer.displayError(new ErrorAnswer("SEVERE ERROR! " + e.getMessage()));
-        } catch (Error e)
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void endOfStream(BlockingQueue<Object> receiveQueue)
+    {
+        try
+        {
+            receiveQueue.put(END_OF_STREAM);
+        } catch (InterruptedException e)
         {
-            visualizer.displayError(new ErrorAnswer("[Client] Generic error: " + e.getMessage()));
+            // The decoder must end anyway
+            receiveQueue.clear();
+            receiveQueue.offer(END_OF_STREAM);
         }
     }
 
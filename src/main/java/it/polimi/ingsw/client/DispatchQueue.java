@@ -0,0 +1,114 @@
+package it.polimi.ingsw.client;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import it.polimi.ingsw.protocol.updates.ModelUpdate;
+
+/**
+ * Bounded queue between the decoding of the messages and the visualizer, so that a slow view never stops the reading from the socket.
+ *
+ * When the queue is full the model updates waiting in it are dropped, and so are the next ones until the queue is empty again: at that point the
+ * client has to ask the server for the whole state, which replaces the dropped updates. Answers and notifications are never dropped.
+ */
+class DispatchQueue
+{
+    private final int capacity;
+
+    private final Deque<Object> messages = new ArrayDeque<>();
+
+    /**
+     * Set when some updates have been dropped, until the resync is requested.
+     */
+    private boolean overflowed = false;
+
+    private long droppedUpdates = 0;
+
+    private boolean closed = false;
+
+    DispatchQueue(int capacity)
+    {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("[DispatchQueue] The capacity must be positive");
+
+        this.capacity = capacity;
+    }
+
+    /**
+     * Adds a message to dispatch, a ModelUpdate, an Answer or a Runnable to run on the dispatcher.
+     */
+    synchronized void put(Object message)
+    {
+        if (closed)
+            return;
+
+        boolean droppable = message instanceof ModelUpdate;
+        if (droppable && overflowed)
+        {
+            droppedUpdates++;
+            return;
+        }
+
+        if (messages.size() >= capacity)
+        {
+            int size = messages.size();
+            messages.removeIf(queued -> queued instanceof ModelUpdate);
+            droppedUpdates += size - messages.size();
+            overflowed = true;
+
+            if (droppable)
+            {
+                droppedUpdates++;
+                return;
+            }
+        }
+
+        messages.add(message);
+        notifyAll();
+    }
+
+    /**
+     * Waits for the next message.
+     *
+     * @return The next message, or null if the queue has been closed and is empty.
+     * @throws InterruptedException Thrown if the thread is interrupted while waiting.
+     */
+    synchronized Object take() throws InterruptedException
+    {
+        while (messages.isEmpty() && !closed)
+            wait();
+
+        return messages.poll();
+    }
+
+    /**
+     * Tells if the dispatcher has caught up after an overflow. Returns true only once, the caller has to ask the server for the whole state.
+     */
+    synchronized boolean takeResyncNeeded()
+    {
+        if (!overflowed || !messages.isEmpty())
+            return false;
+
+        overflowed = false;
+        return true;
+    }
+
+    /**
+     * Stops accepting messages, the dispatcher ends once the queued ones have been dispatched.
+     */
+    synchronized void close()
+    {
+        closed = true;
+        notifyAll();
+    }
+
+    synchronized int size()
+    {
+        return messages.size();
+    }
+
+    synchronized long getDroppedUpdates()
+    {
+        return droppedUpdates;
+    }
+}
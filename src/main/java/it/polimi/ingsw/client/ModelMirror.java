@@ -0,0 +1,234 @@
+package it.polimi.ingsw.client;
+
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import it.polimi.ingsw.model.Island;
+import it.polimi.ingsw.model.SchoolBoard;
+import it.polimi.ingsw.protocol.answers.*;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
+import it.polimi.ingsw.protocol.codec.ModelCodec;
+import it.polimi.ingsw.protocol.updates.*;
+
+/**
+ * Visualizer placed in front of the real one that keeps a copy of the last islands, school boards and matches list received. The delta updates are
+ * applied on this copy and the view receives full updates, so it doesn't need to know about the deltas.
+ *
+ * The copy is hashed as the server hashes its state, and compared with the digest the server attaches to the turn changes.
+ */
+public class ModelMirror implements Visualizable
+{
+    private final Visualizable view;
+
+    private IslandsUpdate islands = null;
+
+    private final Map<Integer, SchoolBoardUpdate> boards = new HashMap<>();
+
+    private MatchesListAnswer matchesList = null;
+
+    private final StateDigest.Tracker digests = new StateDigest.Tracker();
+
+    /**
+     * Last digest received from the server, checked once the frame carrying it has been handled. Null if already checked.
+     */
+    private StateDigest pendingDigest = null;
+
+    public ModelMirror(Visualizable view)
+    {
+        if (view == null)
+            throw new NullPointerException("[ModelMirror] Null view");
+
+        this.view = view;
+    }
+
+    @Override
+    public void displayIslands(IslandsUpdate update)
+    {
+        islands = update;
+        digests.record(update);
+        view.displayIslands(update);
+    }
+
+    @Override
+    public void displaySchoolboard(SchoolBoardUpdate update)
+    {
+        boards.put(update.getPlayerIndex(), update);
+        digests.record(update);
+        view.displaySchoolboard(update);
+    }
+
+    @Override
+    public void displayIslandsDelta(IslandsDeltaUpdate update)
+    {
+        // Without a base the delta can't be applied, the next full update realigns the mirror
+        if (islands == null || islands.getIslands().size() != update.getIslandsNumber())
+            return;
+
+        // The view may still be using the previous islands, the changed ones are copied before being modified
+        List<Island> newIslands = new ArrayList<>(islands.getIslands());
+        for (IslandsDeltaUpdate.IslandChange change : update.getChanges())
+        {
+            Island island = copy(newIslands.get(change.getIndex()));
+            change.applyTo(island);
+            newIslands.set(change.getIndex(), island);
+        }
+
+        displayIslands(new IslandsUpdate(newIslands, update.getMotherNatureIndex()));
+    }
+
+    @Override
+    public void displaySchoolBoardDelta(SchoolBoardDeltaUpdate update)
+    {
+        SchoolBoardUpdate previous = boards.get(update.getPlayerIndex());
+        if (previous == null)
+            return;
+
+        SchoolBoard board = copy(previous.getBoard());
+        update.applyTo(board);
+
+        displaySchoolboard(new SchoolBoardUpdate(board, update.getPlayer(), update.getPlayerIndex()));
+    }
+
+    @Override
+    public void displayAssistantCards(AssistantCardsUpdate update)
+    {
+        view.displayAssistantCards(update);
+    }
+
+    @Override
+    public void displayCharacterCardPayload(CharacterCardPayloadUpdate update)
+    {
+        view.displayCharacterCardPayload(update);
+    }
+
+    @Override
+    public void displayCharacterCards(CharacterCardsUpdate update)
+    {
+        view.displayCharacterCards(update);
+    }
+
+    @Override
+    public void displayCloudTiles(CloudTilesUpdate update)
+    {
+        digests.record(update);
+        view.displayCloudTiles(update);
+    }
+
+    @Override
+    public void displayPlayedAssistantCard(PlayedAssistantCardUpdate update)
+    {
+        view.displayPlayedAssistantCard(update);
+    }
+
+    @Override
+    public void setCurrentPlayer(CurrentPlayerUpdate update)
+    {
+        update.getDigest().ifPresent(digest -> pendingDigest = digest);
+        view.setCurrentPlayer(update);
+    }
+
+    @Override
+    public void displayEndMatch(EndMatchAnswer answer)
+    {
+        islands = null;
+        boards.clear();
+        digests.reset();
+        pendingDigest = null;
+        view.displayEndMatch(answer);
+    }
+
+    @Override
+    public void displayError(ErrorAnswer answer)
+    {
+        view.displayError(answer);
+    }
+
+    @Override
+    public void displayJoinedMatch(JoinedMatchAnswer answer)
+    {
+        view.displayJoinedMatch(answer);
+    }
+
+    @Override
+    public void displayMatchesList(MatchesListAnswer answer)
+    {
+        matchesList = answer;
+        view.displayMatchesList(answer);
+    }
+
+    @Override
+    public void displayMatchesListDelta(MatchesListDeltaAnswer answer)
+    {
+        // The server sends the changes only after a full list, but the view may have been reset meanwhile
+        if (matchesList == null)
+            return;
+
+        matchesList = answer.applyTo(matchesList);
+        view.displayMatchesList(matchesList);
+    }
+
+    @Override
+    public void displaySetName(SetNameAnswer answer)
+    {
+        view.displaySetName(answer);
+    }
+
+    @Override
+    public void displayStartMatch(StartMatchAnswer answer)
+    {
+        view.displayStartMatch(answer);
+    }
+
+    @Override
+    public void displayConnectionError(ErrorAnswer answer)
+    {
+        view.displayConnectionError(answer);
+    }
+
+    /**
+     * Compares the copy with the last digest received, to be called after a whole frame has been handled.
+     *
+     * @return The bits of the sections that differ from the server's ones, see StateDigest. 0 if they are the same or there is nothing to check.
+     */
+    public int takeStaleSections()
+    {
+        if (pendingDigest == null)
+            return 0;
+
+        int sections = pendingDigest.compare(digests.current());
+        pendingDigest = null;
+        return sections;
+    }
+
+    private static Island copy(Island island)
+    {
+        BinaryWriter writer = new BinaryWriter();
+        ModelCodec.writeIsland(writer, island);
+
+        try
+        {
+            return ModelCodec.readIsland(new BinaryReader(writer.toByteArray(), 0, writer.size()));
+        } catch (StreamCorruptedException e)
+        {
+            throw new IllegalStateException("[ModelMirror] Unable to copy the island", e);
+        }
+    }
+
+    private static SchoolBoard copy(SchoolBoard board)
+    {
+        BinaryWriter writer = new BinaryWriter();
+        ModelCodec.writeSchoolBoard(writer, board);
+
+        try
+        {
+            return ModelCodec.readSchoolBoard(new BinaryReader(writer.toByteArray(), 0, writer.size()));
+        } catch (StreamCorruptedException e)
+        {
+            throw new IllegalStateException("[ModelMirror] Unable to copy the school board", e);
+        }
+    }
+}
@@ -23,6 +23,18 @@ public interface Visualizable
 
     void setCurrentPlayer(CurrentPlayerUpdate update);
 
+    /**
+     * Applies the differences to the islands. The views receive the full islands rebuilt by the ModelMirror, so they don't need to implement it.
+     */
+    default void displayIslandsDelta(IslandsDeltaUpdate update)
+    {}
+
+    /**
+     * Applies the differences to a school board. The views receive the full board rebuilt by the ModelMirror, so they don't need to implement it.
+     */
+    default void displaySchoolBoardDelta(SchoolBoardDeltaUpdate update)
+    {}
+
     // Answers
 
     void displayEndMatch(EndMatchAnswer answer);
@@ -33,6 +45,12 @@ public interface Visualizable
 
     void displayMatchesList(MatchesListAnswer answer);
 
+    /**
+     * Applies the changes to the matches list. The views receive the full list rebuilt by the ModelMirror, so they don't need to implement it.
+     */
+    default void displayMatchesListDelta(MatchesListDeltaAnswer answer)
+    {}
+
     void displaySetName(SetNameAnswer answer);
 
     void displayStartMatch(StartMatchAnswer answer);
@@ -46,6 +46,11 @@ public class CLI implements Visualizable, Runnable
 
     private MatchesListAnswer matchesList;
 
+    /**
+     * Number of matches asked for at a time, as many as fit above the errors area.
+     */
+    private static final int MATCHES_PAGE_SIZE = 8;
+
     private Client client;
 
     private Scanner scanner;
@@ -193,7 +198,8 @@ public class CLI implements Visualizable, Runnable
         msg += "\t2 - Create match\n";
         msg += "\t3 - Get matches list\n";
         msg += "\t4 - Join match\n";
-        msg += "\t5 - Quit game\n";
+        msg += "\t5 - Spectate match\n";
+        msg += "\t6 - Quit game\n";
         PrintHelper.print(msg);
 
         // I need this when the match ends
@@ -228,8 +234,15 @@ public class CLI implements Visualizable, Runnable
             }
             case 3:
             {
-                client.sendCommand(new GetMatchesListCommand());
-                // displayMatchesList(scanner);
+                // The matches come a page at a time, the cursor of the page shown asks for the next one
+                String cursor = null;
+                if (matchesList != null && matchesList.getNextCursor().isPresent())
+                {
+                    PrintHelper.print("Type 'N' to see the next page of matches, anything else to see the first one: ");
+                    if (scanner.nextLine().toUpperCase().equals("N"))
+                        cursor = matchesList.getNextCursor().get();
+                }
+                client.sendCommand(new GetMatchesListCommand(MatchesFilter.ALL, GetMatchesListCommand.Order.ID_ASCENDING, cursor, MATCHES_PAGE_SIZE));
                 break;
             }
             case 4:
@@ -241,6 +254,14 @@ public class CLI implements Visualizable, Runnable
                 break;
             }
             case 5:
+            {
+                PrintHelper.print("Match name: ");
+                String matchId = scanner.nextLine();
+                PrintHelper.printAbsoluteAndReset(24, 1, PrintHelper.ERASE_FROM_CURSOR_TILL_BEGINNING_OF_SCREEN);
+                client.sendCommand(new SpectateMatchCommand(matchId));
+                break;
+            }
+            case 6:
             {
                 PrintHelper.print("Are you sure to quit the game? Type 'Y' if you are sure\n");
                 if (scanner.nextLine().toUpperCase().equals("Y"))
@@ -647,7 +668,8 @@ public class CLI implements Visualizable, Runnable
 
         if (!isMatchStarted)
         {
-            PrintHelper.printAbsoluteAndReset(15, 2, "Matches list:");
+            String title = matchesList.getNextCursor().isPresent() ? "Matches list, more in the next page:" : "Matches list:";
+            PrintHelper.printAbsoluteAndReset(15, 2, title);
             int counter = 0;
 
             // Create the string with all the matches
@@ -655,9 +677,10 @@ public class CLI implements Visualizable, Runnable
             {
                 counter++;
 
-                if (counter <= 8)
+                if (counter <= MATCHES_PAGE_SIZE)
                     PrintHelper.printAbsoluteAndReset(15 + counter, 2, matchesList.singleMatchToString(key));
             }
+
         }
     }
 
@@ -10,6 +10,7 @@ import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
+import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
@@ -28,9 +29,18 @@ public class LobbySceneController implements Controllable
     private TableColumn<MatchLine, GameMode> modeColumn;
     @FXML
     private TableColumn<MatchLine, String> playersColumn;
+    @FXML
+    private Button pageButton;
 
     private SceneController controller;
 
+    /**
+     * Cursor of the page following the one shown, null if it is the last one.
+     */
+    private String nextCursor = null;
+
+    private boolean firstPage = true;
+
     @Override
     /**
      * Sends a GetMatchesList to the client in order to display the current available matches, otherwise displays a message.
@@ -51,6 +61,15 @@ public class LobbySceneController implements Controllable
         controller.setRoot("/Lobby/createMatch.fxml");
     }
 
+    /**
+     * Method executed when the player presses the page button, it asks for the next page of matches or, after the last one, for the first.
+     */
+    public void changePage(ActionEvent event)
+    {
+        firstPage = nextCursor == null;
+        controller.sendCommand(new GetMatchesListCommand(nextCursor));
+    }
+
     /**
      * Shows the list of the available matches.
      * 
@@ -58,6 +77,10 @@ public class LobbySceneController implements Controllable
      */
     public void displayMatchesList(MatchesListAnswer answer)
     {
+        nextCursor = answer.getNextCursor().orElse(null);
+        pageButton.setText(nextCursor != null ? "Next page" : "First page");
+        pageButton.setVisible(nextCursor != null || !firstPage);
+
         nameColumn.setCellValueFactory(new PropertyValueFactory<MatchLine, String>("name"));
         modeColumn.setCellValueFactory(new PropertyValueFactory<MatchLine, GameMode>("mode"));
         playersColumn.setCellValueFactory(new PropertyValueFactory<MatchLine, String>("playersNumber"));
@@ -69,10 +92,11 @@ public class LobbySceneController implements Controllable
             for (String matchName : answer.getNumPlayers().keySet())
                 list.add(new MatchLine(matchName, answer.getGameModes().get(matchName),
                         answer.getNumPlayers().get(matchName) + "/" + answer.getMaxNumPlayers().get(matchName)));
-
-            matchesTableView.setItems(list);
         } else
             matchesTableView.setPlaceholder(new Label("There aren't matches at the moment"));
+
+        // An empty page replaces the previous one too
+        matchesTableView.setItems(list);
     }
 
     /**
@@ -1,14 +1,20 @@
 package it.polimi.ingsw.controller;
 
 import it.polimi.ingsw.controller.fsm.EndGamePhase;
+import it.polimi.ingsw.controller.fsm.Phase;
+import it.polimi.ingsw.logging.Log;
+import it.polimi.ingsw.logging.Logger;
 import it.polimi.ingsw.model.GameMode;
 import it.polimi.ingsw.model.Player;
 import it.polimi.ingsw.model.TowerColor;
 import it.polimi.ingsw.model.exceptions.*;
 import it.polimi.ingsw.model.game.Game;
 import it.polimi.ingsw.network.Match;
+import it.polimi.ingsw.network.ServerMetrics;
 import it.polimi.ingsw.protocol.answers.StartMatchAnswer;
 import it.polimi.ingsw.protocol.messages.ActionMessage;
+import it.polimi.ingsw.tracing.ActionTrace;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -18,6 +24,8 @@ import java.util.List;
  */
 public class Controller
 {
+    private static final Logger LOGGER = Log.getLogger(Controller.class);
+
     /**
      * The game instance that needs to be controlled.
      */
@@ -58,6 +66,28 @@ public class Controller
         game = new Game(playersNumber, mode);
     }
 
+    /**
+     * Creates the controller of a game restored from a checkpoint, already set up.
+     *
+     * @param match The match server.
+     * @param game The restored game.
+     * @param phase The phase the game was in.
+     * @param tableIndex Whether the selected player index of the game refers to the table order.
+     * @throws NullPointerException If the server, the game or the phase are null.
+     */
+    public Controller(Match match, Game game, Phase phase, boolean tableIndex) throws NullPointerException
+    {
+        if (match == null)
+            throw new NullPointerException("[Controller] The server is null");
+
+        if (game == null)
+            throw new NullPointerException("[Controller] The game is null");
+
+        this.match = match;
+        this.game = game;
+        actionHandler = new GameActionHandler(game, phase, tableIndex);
+    }
+
     /**
      * The method is called when the game is ended. It determines the winner.
      */
@@ -163,6 +193,13 @@ public class Controller
             return;
         }
 
+        long startNanos = System.nanoTime();
+
+        // The random draws are journaled with the action, so that it can be replayed with the same outcome
+        game.getRandomSource().startRecording();
+
+        // All the updates produced by the action are sent together at the end
+        match.beginUpdates();
         try
         {
             actionHandler.handleAction(message, playerName);
@@ -243,7 +280,13 @@ public class Controller
             actionHandler.setGamePhase(new EndGamePhase());
             match.endMatch("Oh no, we are sorry but an internal error occurred, we will fix it as soon as possible, error: " + e.getMessage() + " "
                     + e.getClass().getName());
-            e.printStackTrace();
+            LOGGER.error(() -> "Internal error while performing an action", e);
+        } finally
+        {
+            ActionTrace.mark(ActionTrace.Stage.APPLIED);
+            match.journalAction(message, playerName, game.getRandomSource().stopRecording());
+            match.commitUpdates();
+            ServerMetrics.actionHandled(startNanos);
         }
     }
 
@@ -349,6 +392,11 @@ public class Controller
         return game;
     }
 
+    public Match getMatch()
+    {
+        return match;
+    }
+
     /**
      * Allow dis/activate a player.
      *
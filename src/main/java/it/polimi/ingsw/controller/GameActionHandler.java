@@ -3,11 +3,14 @@ package it.polimi.ingsw.controller;
 import com.sun.jdi.InvalidModuleException;
 import it.polimi.ingsw.controller.fsm.Phase;
 import it.polimi.ingsw.controller.fsm.PlanPhase;
+import it.polimi.ingsw.jfr.ActionHandledEvent;
 import it.polimi.ingsw.model.*;
 import it.polimi.ingsw.model.exceptions.*;
 import it.polimi.ingsw.model.game.CharacterCard;
 import it.polimi.ingsw.model.game.Game;
 import it.polimi.ingsw.protocol.messages.ActionMessage;
+import it.polimi.ingsw.tracing.ActionTrace;
+
 import java.security.InvalidParameterException;
 import java.util.ArrayList;
 import java.util.List;
@@ -58,6 +61,26 @@ public class GameActionHandler
         gamePhase = new PlanPhase();
     }
 
+    /**
+     * Creates the handler of a game restored between two turns. The selected player of the game is kept and no update is sent.
+     *
+     * @param game The game instance to be controlled
+     * @param gamePhase The phase the game was in
+     * @param tableIndex Whether the selected player index refers to the table order
+     * @throws NullPointerException When the game or the phase are null
+     */
+    public GameActionHandler(Game game, Phase gamePhase, boolean tableIndex)
+    {
+        if (game == null)
+            throw new NullPointerException("[GameActionHandler] Null game pointer");
+        if (gamePhase == null)
+            throw new NullPointerException("[GameActionHandler] Null phase");
+
+        this.game = game;
+        this.gamePhase = gamePhase;
+        this.tableIndex = tableIndex;
+    }
+
     /**
      * This method is called by the Controller object to handle an action message incoming from a player.
      * 
@@ -70,12 +93,43 @@ public class GameActionHandler
         if (message == null)
             throw new NullPointerException("[GameActionHandler] Null action message");
 
+        ActionHandledEvent event = new ActionHandledEvent();
+        event.begin();
+        Phase receivedPhase = gamePhase;
+        String outcome = "Error";
+
+        try
+        {
+            applyAction(message, playerName);
+            outcome = "Completed";
+        } catch (RuntimeException e)
+        {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally
+        {
+            event.end();
+            if (event.shouldCommit())
+            {
+                event.player = playerName;
+                event.action = message.getBaseGameAction().name();
+                event.phase = receivedPhase.getClass().getSimpleName();
+                event.outcome = outcome;
+                event.commit();
+            }
+        }
+    }
+
+    private void applyAction(ActionMessage message, String playerName)
+    {
         if (game.getSelectedPlayer().isEmpty())
             throw new NoSelectedPlayerException("[GameActionHandler]");
 
         if (!gamePhase.isLegitAction(this, playerName, message.getBaseGameAction()))
             throw new NoLegitActionException();
 
+        ActionTrace.mark(ActionTrace.Stage.VALIDATED);
+
         if (game.getGameMode() == GameMode.EXPERT)
         {
             // Before calling the action, if the current card is activated i substitute
@@ -27,6 +27,18 @@ public class PlanPhase implements Phase
         bestPlayerIndex = 0;
     }
 
+    /**
+     * Creates the phase in the middle of the planning, e.g. when a game is restored.
+     *
+     * @param count Number of players that already played an assistant card.
+     * @param bestPlayerIndex Table index of the player who played the first assistant card of the round.
+     */
+    public PlanPhase(int count, int bestPlayerIndex)
+    {
+        this.count = count;
+        this.bestPlayerIndex = bestPlayerIndex;
+    }
+
     @Override
     public void onValidAction(GameActionHandler handler)
     {
@@ -96,4 +108,9 @@ public class PlanPhase implements Phase
     {
         return count;
     }
+
+    public int getBestPlayerIndex()
+    {
+        return bestPlayerIndex;
+    }
 }
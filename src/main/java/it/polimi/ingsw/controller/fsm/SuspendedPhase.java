@@ -5,8 +5,8 @@ import it.polimi.ingsw.controller.GameActionHandler;
 import it.polimi.ingsw.model.BaseGameAction;
 import it.polimi.ingsw.model.exceptions.NoSelectedPlayerException;
 import it.polimi.ingsw.model.exceptions.WrongPlayerException;
+import it.polimi.ingsw.network.ServerExecutor;
 
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
 /**
@@ -24,18 +24,24 @@ public class SuspendedPhase implements Phase
     {
         this.previousPhase = previousPhase;
 
-        timeout = Executors.newCachedThreadPool().submit(() -> {
+        timeout = ServerExecutor.get().submit(() -> {
             try
             {
                 // 1 minute timeout
                 Thread.sleep(60000);
 
                 // The timeout wasn't interrupted so the game ends
-                controller.endGame();
+                controller.getMatch().submit(() -> {
+                    if (isCurrentPhase(controller))
+                        controller.endGame();
+                });
             } catch (InterruptedException e)
             {
                 // The timeout was interrupted so the game continues from the previous phase
-                onValidAction(controller.getGameHandler());
+                controller.getMatch().submit(() -> {
+                    if (isCurrentPhase(controller))
+                        onValidAction(controller.getGameHandler());
+                });
             }
         });
     }
@@ -78,8 +84,24 @@ public class SuspendedPhase implements Phase
         return false;
     }
 
+    /**
+     * Tells whether the game is still in this phase. The timer events are run on the match mailbox, by then the phase may have already changed.
+     */
+    private boolean isCurrentPhase(Controller controller)
+    {
+        return controller.getGameHandler().getGamePhase() == this;
+    }
+
     public Future<?> getTimeout()
     {
         return timeout;
     }
+
+    /**
+     * Returns the phase the game goes back to when the suspension ends.
+     */
+    public Phase getPreviousPhase()
+    {
+        return previousPhase;
+    }
 }
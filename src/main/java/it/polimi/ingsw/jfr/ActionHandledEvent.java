@@ -0,0 +1,33 @@
+package it.polimi.ingsw.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of a player action applied to the game.
+ */
+@Name("it.polimi.ingsw.ActionHandled")
+@Label("Action Handled")
+@Category({ "Eriantys", "Game" })
+@Description("Player action applied by the game action handler")
+@StackTrace(false)
+public class ActionHandledEvent extends Event
+{
+    @Label("Player")
+    public String player;
+
+    @Label("Action")
+    public String action;
+
+    @Label("Phase")
+    @Description("Game phase the action has been received in")
+    public String phase;
+
+    @Label("Outcome")
+    @Description("Completed, or the name of the exception that rejected the action")
+    public String outcome;
+}
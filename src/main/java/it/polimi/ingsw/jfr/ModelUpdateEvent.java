@@ -0,0 +1,29 @@
+package it.polimi.ingsw.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of a model update published by a game to its match.
+ */
+@Name("it.polimi.ingsw.ModelUpdate")
+@Label("Model Update")
+@Category({ "Eriantys", "Game" })
+@Description("Model update published by the game")
+@StackTrace(false)
+public class ModelUpdateEvent extends Event
+{
+    @Label("Match")
+    public String matchId;
+
+    @Label("Update Type")
+    public String updateType;
+
+    @Label("Destination")
+    @Description("Player the update is meant for, empty if it is for every player")
+    public String destination;
+}
@@ -0,0 +1,26 @@
+package it.polimi.ingsw.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of a packet received from a player, from when it has been decoded until its command has been applied or its action has
+ * been queued on the match.
+ */
+@Name("it.polimi.ingsw.PacketHandled")
+@Label("Packet Handled")
+@Category({ "Eriantys", "Network" })
+@Description("Packet decoded and handled by a player connection")
+@StackTrace(false)
+public class PacketHandledEvent extends Event
+{
+    @Label("Player")
+    public String player;
+
+    @Label("Packet Type")
+    public String packetType;
+}
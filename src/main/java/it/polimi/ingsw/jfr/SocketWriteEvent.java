@@ -0,0 +1,30 @@
+package it.polimi.ingsw.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of a write to a player connection.
+ */
+@Name("it.polimi.ingsw.SocketWrite")
+@Label("Player Socket Write")
+@Category({ "Eriantys", "Network" })
+@Description("Frame bytes written to a player connection")
+@StackTrace(false)
+public class SocketWriteEvent extends Event
+{
+    @Label("Player")
+    public String player;
+
+    @Label("Frame Type")
+    public String frameType;
+
+    @Label("Bytes Written")
+    @DataAmount
+    public long bytes;
+}
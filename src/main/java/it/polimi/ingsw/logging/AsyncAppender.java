@@ -0,0 +1,206 @@
+package it.polimi.ingsw.logging;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Appender that puts the events in a bounded ring buffer, drained by a background thread into the target appender. Logging threads never wait
+ * for the output: when the buffer is full the event is dropped and counted, and the number of dropped events is written once there is room again.
+ *
+ * The buffer is a lock free multi producer, single consumer ring: every slot has a sequence number telling whether it is free for the producer
+ * of a given position or ready for the consumer.
+ */
+public class AsyncAppender implements LogAppender
+{
+    /**
+     * Time the writer sleeps when the buffer is empty, producers wake it up earlier.
+     */
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final LogAppender target;
+
+    private final int mask;
+
+    private final AtomicReferenceArray<LogEvent> slots;
+
+    private final AtomicLongArray sequences;
+
+    /**
+     * Next position to claim for the producers.
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Next position to read, used only by the writer thread.
+     */
+    private long head = 0;
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final Thread writer;
+
+    private volatile boolean sleeping = false;
+
+    private volatile boolean active = true;
+
+    /**
+     * Creates the appender and starts its writer thread.
+     *
+     * @param target Appender the events are written to, used only by the writer thread.
+     * @param capacity Number of events the buffer can hold, rounded up to a power of two.
+     */
+    public AsyncAppender(LogAppender target, int capacity)
+    {
+        if (target == null)
+            throw new NullPointerException("[AsyncAppender] Null target");
+        if (capacity <= 0)
+            throw new IllegalArgumentException("[AsyncAppender] The capacity must be positive");
+
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity)
+            size <<= 1;
+
+        this.target = target;
+        mask = size - 1;
+        slots = new AtomicReferenceArray<>(size);
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++)
+            sequences.set(i, i);
+
+        writer = new Thread(this::drain, "log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void append(LogEvent event)
+    {
+        while (true)
+        {
+            long position = tail.get();
+            int index = (int) (position & mask);
+            long available = sequences.get(index) - position;
+
+            if (available == 0)
+            {
+                if (!tail.compareAndSet(position, position + 1))
+                    continue;
+
+                slots.set(index, event);
+                sequences.set(index, position + 1);
+
+                if (sleeping)
+                    LockSupport.unpark(writer);
+                return;
+            }
+
+            if (available < 0)
+            {
+                // The writer is behind by a whole buffer
+                dropped.incrementAndGet();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of events dropped because the buffer was full.
+     */
+    public long getDroppedCount()
+    {
+        return dropped.get();
+    }
+
+    /**
+     * Stops the writer thread after it has written the events already in the buffer.
+     */
+    @Override
+    public void close()
+    {
+        active = false;
+        LockSupport.unpark(writer);
+
+        try
+        {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        target.close();
+    }
+
+    @Override
+    public void flush()
+    {
+        // The writer flushes the target as soon as the buffer is empty
+    }
+
+    private void drain()
+    {
+        long reportedDrops = 0;
+
+        while (true)
+        {
+            LogEvent event = poll();
+
+            if (event != null)
+            {
+                write(event);
+                continue;
+            }
+
+            long drops = dropped.get();
+            if (drops != reportedDrops)
+            {
+                write(new LogEvent(LogLevel.WARN, "AsyncAppender", (drops - reportedDrops) + " log events dropped, the buffer was full", null));
+                reportedDrops = drops;
+            }
+
+            target.flush();
+
+            if (!active)
+                return;
+
+            // Checked again after announcing the sleep, an event published meanwhile wouldn't wake the writer
+            sleeping = true;
+            if (isEmpty())
+                LockSupport.parkNanos(this, IDLE_NANOS);
+            sleeping = false;
+        }
+    }
+
+    private LogEvent poll()
+    {
+        int index = (int) (head & mask);
+        if (sequences.get(index) != head + 1)
+            return null;
+
+        LogEvent event = slots.get(index);
+        slots.set(index, null);
+        sequences.set(index, head + mask + 1);
+        head++;
+
+        return event;
+    }
+
+    private boolean isEmpty()
+    {
+        return sequences.get((int) (head & mask)) != head + 1;
+    }
+
+    private void write(LogEvent event)
+    {
+        try
+        {
+            target.append(event);
+        } catch (RuntimeException e)
+        {
+            // The log can't be written anywhere else, the writer must not die
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package it.polimi.ingsw.logging;
+
+/**
+ * Appender that prints the events on the standard output, or on the standard error for the warnings and errors. It writes on the caller thread,
+ * so it is meant to be used as the target of an AsyncAppender or where the logging volume is low.
+ */
+public class ConsoleAppender implements LogAppender
+{
+    @Override
+    public void append(LogEvent event)
+    {
+        if (event.getLevel().compareTo(LogLevel.WARN) >= 0)
+            System.err.println(event.format());
+        else
+            System.out.println(event.format());
+    }
+}
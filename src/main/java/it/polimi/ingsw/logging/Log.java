@@ -0,0 +1,77 @@
+package it.polimi.ingsw.logging;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Entry point of the logging facade: creates the loggers and holds the level and the appender shared by all of them.
+ *
+ * Until configured, the events of level INFO and above are printed directly on the console, as the plain prints did. The server replaces the
+ * appender with an asynchronous one at startup.
+ */
+public class Log
+{
+    private static final Map<String, Logger> loggers = new ConcurrentHashMap<>();
+
+    private static volatile LogLevel level = LogLevel.INFO;
+
+    private static volatile LogAppender appender = new ConsoleAppender();
+
+    private Log()
+    {}
+
+    /**
+     * Returns the logger named after the simple name of the given class.
+     */
+    public static Logger getLogger(Class<?> type)
+    {
+        return loggers.computeIfAbsent(type.getSimpleName(), Logger::new);
+    }
+
+    public static LogLevel getLevel()
+    {
+        return level;
+    }
+
+    /**
+     * Sets the minimum level of the events written.
+     */
+    public static void setLevel(LogLevel newLevel)
+    {
+        if (newLevel == null)
+            throw new NullPointerException("[Log] Null level");
+
+        level = newLevel;
+    }
+
+    /**
+     * Replaces the appender, closing the previous one.
+     */
+    public static synchronized void setAppender(LogAppender newAppender)
+    {
+        if (newAppender == null)
+            throw new NullPointerException("[Log] Null appender");
+
+        LogAppender previous = appender;
+        appender = newAppender;
+        previous.close();
+    }
+
+    /**
+     * Writes the pending events and goes back to the console appender, e.g. when the server stops.
+     */
+    public static void shutdown()
+    {
+        setAppender(new ConsoleAppender());
+    }
+
+    static boolean isEnabled(LogLevel eventLevel)
+    {
+        return eventLevel.compareTo(level) >= 0;
+    }
+
+    static void append(LogEvent event)
+    {
+        appender.append(event);
+    }
+}
@@ -0,0 +1,24 @@
+package it.polimi.ingsw.logging;
+
+/**
+ * Destination of the log events.
+ */
+public interface LogAppender
+{
+    /**
+     * Writes or queues the event.
+     */
+    void append(LogEvent event);
+
+    /**
+     * Writes the buffered events, called by the AsyncAppender when it has no more events to write.
+     */
+    default void flush()
+    {}
+
+    /**
+     * Writes the pending events and releases the resources of the appender.
+     */
+    default void close()
+    {}
+}
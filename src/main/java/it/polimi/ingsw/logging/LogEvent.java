@@ -0,0 +1,62 @@
+package it.polimi.ingsw.logging;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * A single log message, already built, waiting to be written.
+ */
+public final class LogEvent
+{
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    private final long timestamp;
+
+    private final LogLevel level;
+
+    private final String loggerName;
+
+    private final String threadName;
+
+    private final String message;
+
+    private final Throwable error;
+
+    LogEvent(LogLevel level, String loggerName, String message, Throwable error)
+    {
+        this.timestamp = System.currentTimeMillis();
+        this.level = level;
+        this.loggerName = loggerName;
+        this.threadName = Thread.currentThread().getName();
+        this.message = message;
+        this.error = error;
+    }
+
+    public LogLevel getLevel()
+    {
+        return level;
+    }
+
+    /**
+     * Formats the event as a line of text, followed by the stack trace of the error if there is one. The formatting is done by the appender, off
+     * the thread that logged the event.
+     */
+    public String format()
+    {
+        StringBuilder line = new StringBuilder(64 + message.length());
+        line.append(TIME_FORMAT.format(Instant.ofEpochMilli(timestamp))).append(' ').append(level).append(" [").append(loggerName).append("] (")
+                .append(threadName).append(") ").append(message);
+
+        if (error != null)
+        {
+            StringWriter trace = new StringWriter();
+            error.printStackTrace(new PrintWriter(trace));
+            line.append(System.lineSeparator()).append(trace.toString().stripTrailing());
+        }
+
+        return line.toString();
+    }
+}
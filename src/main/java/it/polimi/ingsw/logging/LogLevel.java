@@ -0,0 +1,26 @@
+package it.polimi.ingsw.logging;
+
+/**
+ * Severity of a log message, from the most verbose to the most severe.
+ */
+public enum LogLevel
+{
+    DEBUG,
+    INFO,
+    WARN,
+    ERROR;
+
+    /**
+     * Parses a level name, ignoring the case.
+     *
+     * @throws IllegalArgumentException Thrown if the name isn't a level.
+     */
+    public static LogLevel parse(String name) throws IllegalArgumentException
+    {
+        for (LogLevel level : values())
+            if (level.name().equalsIgnoreCase(name))
+                return level;
+
+        throw new IllegalArgumentException("[LogLevel] Unknown log level " + name);
+    }
+}
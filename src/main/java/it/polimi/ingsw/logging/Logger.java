@@ -0,0 +1,61 @@
+package it.polimi.ingsw.logging;
+
+import java.util.function.Supplier;
+
+/**
+ * Named logger. The messages are given as suppliers, so they are built only if their level is enabled: a disabled log call costs a volatile read
+ * and nothing else.
+ */
+public final class Logger
+{
+    private final String name;
+
+    Logger(String name)
+    {
+        this.name = name;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public boolean isEnabled(LogLevel level)
+    {
+        return Log.isEnabled(level);
+    }
+
+    public void debug(Supplier<String> message)
+    {
+        log(LogLevel.DEBUG, message, null);
+    }
+
+    public void info(Supplier<String> message)
+    {
+        log(LogLevel.INFO, message, null);
+    }
+
+    public void warn(Supplier<String> message)
+    {
+        log(LogLevel.WARN, message, null);
+    }
+
+    public void error(Supplier<String> message)
+    {
+        log(LogLevel.ERROR, message, null);
+    }
+
+    /**
+     * Logs an error together with the exception that caused it.
+     */
+    public void error(Supplier<String> message, Throwable error)
+    {
+        log(LogLevel.ERROR, message, error);
+    }
+
+    private void log(LogLevel level, Supplier<String> message, Throwable error)
+    {
+        if (Log.isEnabled(level))
+            Log.append(new LogEvent(level, name, message.get(), error));
+    }
+}
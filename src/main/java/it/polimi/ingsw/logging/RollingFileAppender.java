@@ -0,0 +1,139 @@
+package it.polimi.ingsw.logging;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appender that writes the events to a file. When the file exceeds the maximum size it is renamed to "name.1", the previous "name.1" to "name.2"
+ * and so on, keeping a fixed number of old files. It isn't thread safe, it is meant to be the target of an AsyncAppender.
+ */
+public class RollingFileAppender implements LogAppender
+{
+    private final Path file;
+
+    private final long maxBytes;
+
+    private final int maxBackups;
+
+    private Writer output;
+
+    private long size;
+
+    /**
+     * @param file File to write.
+     * @param maxBytes Size after which the file is rolled.
+     * @param maxBackups Number of old files to keep.
+     * @throws IOException Thrown if the file can't be opened.
+     */
+    public RollingFileAppender(Path file, long maxBytes, int maxBackups) throws IOException
+    {
+        if (maxBytes <= 0 || maxBackups < 0)
+            throw new IllegalArgumentException("[RollingFileAppender] Invalid size limits");
+
+        this.file = file;
+        this.maxBytes = maxBytes;
+        this.maxBackups = maxBackups;
+        open();
+    }
+
+    @Override
+    public void append(LogEvent event)
+    {
+        if (output == null)
+            return;
+
+        try
+        {
+            String line = event.format() + System.lineSeparator();
+            output.write(line);
+
+            // Counting the characters is close enough to the bytes for the log lines
+            size += line.length();
+
+            if (size >= maxBytes)
+                roll();
+        } catch (IOException e)
+        {
+            System.err.println("[RollingFileAppender] Error while writing the log, logging stops: " + e.getMessage());
+            closeOutput();
+        }
+    }
+
+    @Override
+    public void flush()
+    {
+        if (output == null)
+            return;
+
+        try
+        {
+            output.flush();
+        } catch (IOException e)
+        {
+            System.err.println("[RollingFileAppender] Error while writing the log, logging stops: " + e.getMessage());
+            closeOutput();
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        closeOutput();
+    }
+
+    private void open() throws IOException
+    {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null)
+            Files.createDirectories(parent);
+
+        output = new BufferedWriter(new OutputStreamWriter(
+                Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND), StandardCharsets.UTF_8));
+        size = Files.size(file);
+    }
+
+    private void roll() throws IOException
+    {
+        closeOutput();
+
+        if (maxBackups == 0)
+            Files.deleteIfExists(file);
+        else
+        {
+            Files.deleteIfExists(backup(maxBackups));
+            for (int i = maxBackups - 1; i >= 1; i--)
+                if (Files.exists(backup(i)))
+                    Files.move(backup(i), backup(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            Files.move(file, backup(1), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        open();
+    }
+
+    private Path backup(int index)
+    {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+
+    private void closeOutput()
+    {
+        if (output == null)
+            return;
+
+        try
+        {
+            output.close();
+        } catch (IOException e)
+        {
+            // Nothing else can be done
+        }
+        output = null;
+    }
+}
@@ -0,0 +1,32 @@
+package it.polimi.ingsw.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonic counter. Increments from many threads don't contend, the value is summed only when read.
+ */
+public final class Counter
+{
+    private final LongAdder value = new LongAdder();
+
+    Counter()
+    {}
+
+    public void increment()
+    {
+        value.increment();
+    }
+
+    public void add(long amount)
+    {
+        if (amount < 0)
+            throw new IllegalArgumentException("[Counter] A counter can't decrease");
+
+        value.add(amount);
+    }
+
+    public long get()
+    {
+        return value.sum();
+    }
+}
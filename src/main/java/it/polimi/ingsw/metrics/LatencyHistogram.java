@@ -0,0 +1,119 @@
+package it.polimi.ingsw.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of durations with log-linear buckets, as in HDR histograms: every power of two is split into 16 linear buckets, so any value is
+ * recorded with a relative error below 1/16 using a fixed array and no allocation. Recording is lock free.
+ */
+public final class LatencyHistogram
+{
+    /**
+     * Number of bits of the sub-bucket index, each power of two is split into 2^SUB_BITS buckets.
+     */
+    private static final int SUB_BITS = 4;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder sum = new LongAdder();
+
+    LatencyHistogram()
+    {}
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos Duration in nanoseconds, negative values are recorded as 0.
+     */
+    public void record(long nanos)
+    {
+        long value = Math.max(0, nanos);
+
+        buckets.incrementAndGet(indexOf(value));
+        count.increment();
+        sum.add(value);
+    }
+
+    /**
+     * Records the time elapsed since the given System.nanoTime value.
+     */
+    public void recordSince(long startNanos)
+    {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public long getCount()
+    {
+        return count.sum();
+    }
+
+    /**
+     * Returns the sum of the recorded durations in nanoseconds.
+     */
+    public long getSum()
+    {
+        return sum.sum();
+    }
+
+    /**
+     * Returns an estimate of the given quantile, in nanoseconds. The buckets are read while values keep being recorded, so the result is
+     * approximate under load.
+     *
+     * @param quantile Quantile between 0 and 1.
+     * @return The upper bound of the bucket containing the quantile, 0 if nothing was recorded.
+     */
+    public long getQuantile(double quantile)
+    {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++)
+        {
+            snapshot[i] = buckets.get(i);
+            total += snapshot[i];
+        }
+
+        if (total == 0)
+            return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++)
+        {
+            seen += snapshot[i];
+            if (seen >= rank)
+                return upperBoundOf(i);
+        }
+
+        return upperBoundOf(BUCKETS - 1);
+    }
+
+    static int indexOf(long value)
+    {
+        if (value < SUB_BUCKETS)
+            return (int) value;
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BITS;
+        int sub = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+
+        return (shift + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long upperBoundOf(int index)
+    {
+        if (index < SUB_BUCKETS)
+            return index;
+
+        int shift = index / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+
+        return lower + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,64 @@
+package it.polimi.ingsw.metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Serves the metrics of a registry at "/metrics" in the Prometheus text format, using the HTTP server included in the JDK.
+ */
+public class MetricsHttpServer
+{
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final HttpServer httpServer;
+
+    /**
+     * Creates and starts the HTTP server. Requests are served one at a time on the server's own thread, scrapes are rare and cheap.
+     *
+     * @param registry Registry to expose.
+     * @param port Port to listen on.
+     * @throws IOException Thrown if the port can't be bound.
+     */
+    public MetricsHttpServer(MetricsRegistry registry, int port) throws IOException
+    {
+        httpServer = HttpServer.create(new InetSocketAddress(port), 0);
+        httpServer.createContext("/metrics", exchange -> respond(exchange, registry));
+        httpServer.start();
+    }
+
+    public int getPort()
+    {
+        return httpServer.getAddress().getPort();
+    }
+
+    public void stop()
+    {
+        httpServer.stop(0);
+    }
+
+    private static void respond(HttpExchange exchange, MetricsRegistry registry) throws IOException
+    {
+        try (exchange)
+        {
+            if (!exchange.getRequestMethod().equals("GET"))
+            {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            byte[] body = registry.scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+
+            try (OutputStream output = exchange.getResponseBody())
+            {
+                output.write(body);
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package it.polimi.ingsw.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Named metrics of the server, rendered in the Prometheus text format. Metrics are created on first use and then reused, so the instrumented code
+ * can ask for them every time or keep them in a constant.
+ *
+ * A metric can have a single label, e.g. the message type, every value of the label is a separate series of the same family.
+ */
+public class MetricsRegistry
+{
+    /**
+     * Quantiles exported for the latency histograms.
+     */
+    private static final double[] QUANTILES = { 0.5, 0.9, 0.99, 0.999 };
+
+    private enum Type
+    {
+        COUNTER("counter"),
+        GAUGE("gauge"),
+        SUMMARY("summary");
+
+        private final String name;
+
+        Type(String name)
+        {
+            this.name = name;
+        }
+    }
+
+    private final ConcurrentMap<String, Family> families = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the counter with the given name, creating it if needed.
+     */
+    public Counter counter(String name, String help)
+    {
+        return counter(name, help, null, "");
+    }
+
+    /**
+     * Returns the series of the counter with the given label value, creating it if needed.
+     *
+     * @param name Name of the metric.
+     * @param help Description of the metric.
+     * @param label Name of the label.
+     * @param labelValue Value of the label for this series.
+     */
+    public Counter counter(String name, String help, String label, String labelValue)
+    {
+        return (Counter) family(name, help, Type.COUNTER, label).series.computeIfAbsent(labelValue, value -> new Counter());
+    }
+
+    /**
+     * Registers a gauge whose value is read when the metrics are rendered. A gauge registered again with the same name replaces the previous one.
+     */
+    public void gauge(String name, String help, LongSupplier value)
+    {
+        family(name, help, Type.GAUGE, null).series.put("", value);
+    }
+
+    /**
+     * Returns the latency histogram with the given name, creating it if needed. It is exported in seconds.
+     */
+    public LatencyHistogram histogram(String name, String help)
+    {
+        return (LatencyHistogram) family(name, help, Type.SUMMARY, null).series.computeIfAbsent("", value -> new LatencyHistogram());
+    }
+
+    /**
+     * Renders all the metrics in the Prometheus text exposition format.
+     */
+    public String scrape()
+    {
+        StringBuilder output = new StringBuilder(4096);
+
+        for (Family family : new TreeMap<>(families).values())
+        {
+            output.append("# HELP ").append(family.name).append(' ').append(family.help).append('\n');
+            output.append("# TYPE ").append(family.name).append(' ').append(family.type.name).append('\n');
+
+            for (Map.Entry<String, Object> series : new TreeMap<>(family.series).entrySet())
+            {
+                String labels = family.label == null ? "" : "{" + family.label + "=\"" + escape(series.getKey()) + "\"}";
+                Object metric = series.getValue();
+
+                if (metric instanceof Counter counter)
+                    output.append(family.name).append(labels).append(' ').append(counter.get()).append('\n');
+                else if (metric instanceof LongSupplier gauge)
+                    output.append(family.name).append(labels).append(' ').append(gauge.getAsLong()).append('\n');
+                else if (metric instanceof LatencyHistogram histogram)
+                {
+                    for (double quantile : QUANTILES)
+                        output.append(family.name).append("{quantile=\"").append(quantile).append("\"} ")
+                                .append(toSeconds(histogram.getQuantile(quantile))).append('\n');
+                    output.append(family.name).append("_sum ").append(toSeconds(histogram.getSum())).append('\n');
+                    output.append(family.name).append("_count ").append(histogram.getCount()).append('\n');
+                }
+            }
+        }
+
+        return output.toString();
+    }
+
+    private Family family(String name, String help, Type type, String label)
+    {
+        Family family = families.computeIfAbsent(name, key -> new Family(name, help, type, label));
+
+        if (family.type != type || (family.label == null ? label != null : !family.label.equals(label)))
+            throw new IllegalArgumentException("[MetricsRegistry] The metric " + name + " is already registered with a different type or label");
+
+        return family;
+    }
+
+    private static String toSeconds(long nanos)
+    {
+        return Double.toString(nanos / 1e9);
+    }
+
+    private static String escape(String value)
+    {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /**
+     * Metrics sharing the same name, one for each value of the label.
+     */
+    private static class Family
+    {
+        private final String name;
+
+        private final String help;
+
+        private final Type type;
+
+        private final String label;
+
+        private final ConcurrentMap<String, Object> series = new ConcurrentHashMap<>();
+
+        private Family(String name, String help, Type type, String label)
+        {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+            this.label = label;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package it.polimi.ingsw.metrics;
+
+/**
+ * Smoothed round trip time and its variation, computed from the samples as TCP does (RFC 6298): each new sample weighs 1/8 on the average and 1/4
+ * on the variation, so a single late reply doesn't move the estimate much.
+ */
+public final class RttEstimator
+{
+    private long smoothedNanos = 0;
+
+    private long variationNanos = 0;
+
+    private long samples = 0;
+
+    /**
+     * Adds a measured round trip time.
+     *
+     * @param rttNanos Round trip time in nanoseconds, negative values are ignored.
+     */
+    public synchronized void sample(long rttNanos)
+    {
+        if (rttNanos < 0)
+            return;
+
+        if (samples == 0)
+        {
+            smoothedNanos = rttNanos;
+            variationNanos = rttNanos / 2;
+        } else
+        {
+            variationNanos = (3 * variationNanos + Math.abs(smoothedNanos - rttNanos)) / 4;
+            smoothedNanos = (7 * smoothedNanos + rttNanos) / 8;
+        }
+
+        samples++;
+    }
+
+    public synchronized boolean hasSamples()
+    {
+        return samples > 0;
+    }
+
+    /**
+     * Returns the smoothed round trip time in nanoseconds, 0 before the first sample.
+     */
+    public synchronized long getSmoothedNanos()
+    {
+        return smoothedNanos;
+    }
+
+    /**
+     * Returns the smoothed variation of the round trip time in nanoseconds, i.e. the jitter of the link.
+     */
+    public synchronized long getVariationNanos()
+    {
+        return variationNanos;
+    }
+
+    /**
+     * Returns the time within which a reply is expected to arrive, the smoothed round trip time plus four times its variation.
+     */
+    public synchronized long getReplyBoundNanos()
+    {
+        return smoothedNanos + 4 * variationNanos;
+    }
+}
@@ -146,6 +146,35 @@ public class Player implements Publisher<ModelUpdate>
         throw new NoSuchAssistantCardException("[Player]");
     }
 
+    /**
+     * Restores the assistant card selection of the player, e.g. when the game is read from a checkpoint. The subscriber isn't notified.
+     *
+     * @param turnOrder Turn order of the selected card, null if the player has never selected one.
+     * @param playedCard Whether the player has played the card in the current round.
+     * @throws NoSuchAssistantCardException If the player hasn't got the card.
+     */
+    public void restoreSelectedCard(Integer turnOrder, boolean playedCard) throws NoSuchAssistantCardException
+    {
+        selectedCard = Optional.empty();
+        lastAssistantCardUsed = 0;
+
+        if (turnOrder != null)
+        {
+            int index = -1;
+            for (int i = 0; i < cards.size() && index < 0; i++)
+                if (cards.get(i).getTurnOrder() == turnOrder)
+                    index = i;
+
+            if (index < 0)
+                throw new NoSuchAssistantCardException("[Player]");
+
+            selectedCard = Optional.of(cards.get(index));
+            lastAssistantCardUsed = index;
+        }
+
+        hasPlayedCard = playedCard;
+    }
+
     /**
      * Notifies the subscribers.
      */
@@ -451,6 +451,16 @@ public class SchoolBoard implements Serializable
         return movableStudents - (maxStudentsInEntrance - entrance.size());
     }
 
+    /**
+     * Tells whether the players number has been set, and with it the maximum number of students in the entrance and of towers.
+     * 
+     * @return True if the players number has been set.
+     */
+    public boolean hasPlayersNumber()
+    {
+        return maxStudentsInEntrance != null && maxTowers != null;
+    }
+
     /**
      * Returns the maximum number of students in the entrance.
      * 
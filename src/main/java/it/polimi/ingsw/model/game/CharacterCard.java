@@ -199,6 +199,47 @@ public abstract class CharacterCard extends Game implements Serializable
         return cloned;
     }
 
+    /**
+     * Restores the payload of a card created outside a game. Cards without a payload ignore it.
+     * 
+     * @param students Students placed on the card.
+     * @param noEntryTiles No entry tiles placed on the card.
+     */
+    protected void restorePayload(List<Student> students, int noEntryTiles)
+    {}
+
+    /**
+     * Creates a card detached from any game, like the ones produced by clone, with the given state. It is used to rebuild the cards received from
+     * the network.
+     * 
+     * @param type Type of the card.
+     * @param cost Current cost of the card.
+     * @param activated Whether the card is active.
+     * @param firstUsed Whether the card has already been used.
+     * @param students Students placed on the card, used only by the cards with students.
+     * @param noEntryTiles No entry tiles on the card, used only by the cards with no entry tiles.
+     * @return The new card.
+     * @throws NullPointerException Thrown if the type or the students list are null.
+     */
+    public static CharacterCard createDetachedCharacterCard(CharacterCardType type, int cost, boolean activated, boolean firstUsed,
+            List<Student> students, int noEntryTiles) throws NullPointerException
+    {
+        if (students == null)
+            throw new NullPointerException("[CharacterCard] Null students list");
+
+        CharacterCard card = createCharacterCard(type, new Game());
+
+        // Null the instance
+        card.instance = null;
+        // Copy the properties
+        card.cost = cost;
+        card.activated = activated;
+        card.firstUsed = firstUsed;
+        card.restorePayload(students, noEntryTiles);
+
+        return card;
+    }
+
     /**
      * Method that vary based on the actual card.
      * 
@@ -326,6 +367,11 @@ public abstract class CharacterCard extends Game implements Serializable
         return instance.getStudentFromBag();
     }
 
+    public RandomSource getRandomSource()
+    {
+        return instance.getRandomSource();
+    }
+
     public void addStudentToBag(Student student)
     {
         instance.addStudentToBag(student);
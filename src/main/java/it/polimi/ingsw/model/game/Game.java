@@ -31,7 +31,7 @@ public class Game implements Publisher<ModelUpdate>
     /**
      * It is used to sort accurately the players based on turnOrder when two players play the same card.
      */
-    private int bestPreviousPlayerIndex;
+    protected int bestPreviousPlayerIndex;
 
     protected GameMode gameMode;
 
@@ -57,6 +57,11 @@ public class Game implements Publisher<ModelUpdate>
 
     protected Optional<Subscriber<? super ModelUpdate>> subscriber;
 
+    /**
+     * Source of all the random choices of the game.
+     */
+    protected RandomSource randomSource;
+
     public Game() throws NullPointerException
     {
         this(2, GameMode.CLASSIC);
@@ -89,6 +94,7 @@ public class Game implements Publisher<ModelUpdate>
         motherNatureMoved = false;
         subscriber = Optional.empty();
         bestPreviousPlayerIndex = 0;
+        randomSource = new RandomSource();
     }
 
     /**
@@ -700,7 +706,7 @@ public class Game implements Publisher<ModelUpdate>
 
     private int getRandomNumber(int startInclusive, int endExclusive)
     {
-        return (int) Math.round(startInclusive + Math.random() * (endExclusive - startInclusive) - 0.5);
+        return startInclusive + randomSource.nextInt(endExclusive - startInclusive);
     }
 
     /**
@@ -862,6 +868,11 @@ public class Game implements Publisher<ModelUpdate>
         return playersNumber;
     }
 
+    public RandomSource getRandomSource()
+    {
+        return randomSource;
+    }
+
     public void notifyPlayers()
     {
         if (subscriber.isPresent())
@@ -0,0 +1,154 @@
+package it.polimi.ingsw.model.game;
+
+import java.io.StreamCorruptedException;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+import it.polimi.ingsw.model.AssistantCard;
+import it.polimi.ingsw.model.CloudTile;
+import it.polimi.ingsw.model.GameMode;
+import it.polimi.ingsw.model.Player;
+import it.polimi.ingsw.model.Professor;
+import it.polimi.ingsw.model.SchoolColor;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
+import it.polimi.ingsw.protocol.codec.ModelCodec;
+
+/**
+ * Compact binary image of a game, used to save the running matches and to restore them after a restart of the server.
+ *
+ * The image is meant to be taken between two turns: no character card is active and the players have no pending selections, so only the pieces
+ * on the table, the bag, the cards and the turn order are written. The pieces are written with the protocol codec, reduced to their colors.
+ */
+public class GameCheckpoint
+{
+    /**
+     * Version of the layout, checkpoints written with a different one are refused.
+     */
+    private static final int VERSION = 1;
+
+    private GameCheckpoint()
+    {}
+
+    /**
+     * Writes the image of the given game, already set up.
+     *
+     * @param writer Writer receiving the image.
+     * @param game Game to write, not a character card decorating it.
+     * @throws IllegalStateException Thrown if the game hasn't been set up.
+     */
+    public static void write(BinaryWriter writer, Game game) throws IllegalStateException
+    {
+        if (game.motherNatureIndex.isEmpty())
+            throw new IllegalStateException("[GameCheckpoint] The game hasn't been set up");
+
+        writer.writeInt(VERSION);
+        writer.writeInt(game.getPlayersNumber());
+        writer.writeEnum(game.gameMode);
+
+        writer.writeInt(game.players.size());
+        for (Player player : game.players)
+        {
+            writer.writeString(player.getNickname());
+            ModelCodec.writeSchoolBoard(writer, player.getBoard());
+
+            writer.writeInt(player.getCards().size());
+            for (AssistantCard card : player.getCards())
+                ModelCodec.writeAssistantCard(writer, card);
+
+            writer.writeNullableInt(player.getSelectedCard().map(AssistantCard::getTurnOrder).orElse(null));
+            writer.writeBoolean(player.hasPlayedCard());
+        }
+
+        ModelCodec.writeIslands(writer, game.islands);
+        writer.writeInt(game.motherNatureIndex.get());
+
+        writer.writeInt(game.cloudTiles.size());
+        for (CloudTile cloudTile : game.cloudTiles)
+            ModelCodec.writeCloudTile(writer, cloudTile);
+
+        // The bag keeps its order, so that the draws following a restore can be replayed
+        ModelCodec.writeStudents(writer, game.studentBag);
+        ModelCodec.writeColors(writer, game.professors.stream().map(Professor::getColor).toList());
+
+        writer.writeInt(game.characterCards.size());
+        for (CharacterCard card : game.characterCards)
+            ModelCodec.writeCharacterCard(writer, card);
+
+        writer.writeNullableInt(game.currentPlayerIndex.orElse(null));
+        writer.writeInt(game.currentPlayerIndexByTable);
+        writer.writeInt(game.bestPreviousPlayerIndex);
+    }
+
+    /**
+     * Reads a game written by write. The game has no subscriber and all its players are inactive.
+     *
+     * @param reader Reader positioned at the beginning of the image.
+     * @return The restored game.
+     * @throws StreamCorruptedException Thrown if the image isn't valid or has been written by another version.
+     */
+    public static Game read(BinaryReader reader) throws StreamCorruptedException
+    {
+        int version = reader.readInt();
+        if (version != VERSION)
+            throw new StreamCorruptedException("[GameCheckpoint] Unsupported checkpoint version " + version);
+
+        try
+        {
+            Game game = new Game(reader.readInt(), reader.readEnum(GameMode.values()));
+            if (game.gameMode == null)
+                throw new StreamCorruptedException("[GameCheckpoint] Null game mode");
+
+            int playersNumber = reader.readCount();
+            if (playersNumber != game.getPlayersNumber())
+                throw new StreamCorruptedException("[GameCheckpoint] Expected " + game.getPlayersNumber() + " players, found " + playersNumber);
+
+            for (int i = 0; i < playersNumber; i++)
+            {
+                Player player = new Player(reader.readString(), ModelCodec.readSchoolBoard(reader));
+
+                int cards = reader.readCount();
+                for (int j = 0; j < cards; j++)
+                    player.addCard(ModelCodec.readAssistantCard(reader));
+
+                player.restoreSelectedCard(reader.readNullableInt(), reader.readBoolean());
+                game.players.add(player);
+            }
+
+            game.islands.addAll(ModelCodec.readIslands(reader));
+            int motherNatureIndex = reader.readInt();
+            if (motherNatureIndex < 0 || motherNatureIndex >= game.islands.size())
+                throw new StreamCorruptedException("[GameCheckpoint] Invalid mother nature index " + motherNatureIndex);
+            game.motherNatureIndex = Optional.of(motherNatureIndex);
+
+            int cloudTiles = reader.readCount();
+            for (int i = 0; i < cloudTiles; i++)
+                game.cloudTiles.add(ModelCodec.readCloudTile(reader));
+
+            game.studentBag.addAll(ModelCodec.readStudents(reader));
+            for (SchoolColor color : ModelCodec.readColors(reader))
+                game.professors.add(new Professor(color));
+
+            int characterCards = reader.readCount();
+            for (int i = 0; i < characterCards; i++)
+            {
+                // The card is read detached, like the ones received by the clients, and then decorates the restored game
+                CharacterCard card = ModelCodec.readCharacterCard(reader);
+                card.instance = game;
+                game.characterCards.add(card);
+            }
+
+            Integer currentPlayerIndex = reader.readNullableInt();
+            if (currentPlayerIndex != null && (currentPlayerIndex < 0 || currentPlayerIndex >= playersNumber))
+                throw new StreamCorruptedException("[GameCheckpoint] Invalid current player index " + currentPlayerIndex);
+            game.currentPlayerIndex = Optional.ofNullable(currentPlayerIndex);
+            game.currentPlayerIndexByTable = reader.readInt();
+            game.bestPreviousPlayerIndex = reader.readInt();
+
+            return game;
+        } catch (NullPointerException | IllegalArgumentException | NoSuchElementException e)
+        {
+            throw new StreamCorruptedException("[GameCheckpoint] Invalid game: " + e.getMessage());
+        }
+    }
+}
@@ -4,6 +4,7 @@ import it.polimi.ingsw.client.cli.utils.GamePieces;
 import it.polimi.ingsw.client.cli.utils.PrintHelper;
 import it.polimi.ingsw.model.ExpertGameAction;
 import it.polimi.ingsw.model.Island;
+import it.polimi.ingsw.model.Student;
 import it.polimi.ingsw.model.exceptions.NoMoreNoEntryTilesException;
 import it.polimi.ingsw.model.exceptions.NoSelectedIslandException;
 import it.polimi.ingsw.model.exceptions.NoSelectedPlayerException;
@@ -165,6 +166,12 @@ public class GrandmaHerbs extends CharacterCard
         return CharacterCardType.GRANDMA_HERBS;
     }
 
+    @Override
+    protected void restorePayload(List<Student> students, int noEntryTiles)
+    {
+        this.noEntryTiles = noEntryTiles;
+    }
+
     public int getNoEntryTiles()
     {
         return noEntryTiles;
@@ -208,6 +208,12 @@ public class Joker extends CharacterCard
         super.deactivate();
     }
 
+    @Override
+    protected void restorePayload(List<Student> students, int noEntryTiles)
+    {
+        this.students = new ArrayList<>(students);
+    }
+
     public List<Student> getStudents()
     {
         return new ArrayList<>(students);
@@ -155,6 +155,12 @@ public class Monk extends CharacterCard
         return CharacterCardType.MONK;
     }
 
+    @Override
+    protected void restorePayload(List<Student> students, int noEntryTiles)
+    {
+        this.students = new ArrayList<>(students);
+    }
+
     public List<Student> getStudents()
     {
         return new ArrayList<>(students);
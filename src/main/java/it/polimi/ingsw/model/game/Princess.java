@@ -163,6 +163,12 @@ public class Princess extends CharacterCard
         return CharacterCardType.PRINCESS;
     }
 
+    @Override
+    protected void restorePayload(List<Student> students, int noEntryTiles)
+    {
+        this.students = new ArrayList<>(students);
+    }
+
     public List<Student> getStudents()
     {
         return new ArrayList<>(students);
@@ -0,0 +1,103 @@
+package it.polimi.ingsw.model.game;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Source of the random numbers drawn by a game, e.g. to pick the students from the bag.
+ *
+ * The draws can be recorded while an action is handled and fed back later, so that the action can be replayed on a copy of the game with the same
+ * outcome.
+ */
+public class RandomSource
+{
+    private static final int[] NO_DRAWS = new int[0];
+
+    private final Random random = new Random();
+
+    private boolean recording = false;
+
+    private int[] draws = new int[8];
+
+    private int drawsCount = 0;
+
+    /**
+     * Draws to return before going back to the random generator.
+     */
+    private int[] replay = NO_DRAWS;
+
+    private int replayIndex = 0;
+
+    /**
+     * Returns a random number between 0, included, and the given bound, excluded.
+     *
+     * @param bound Upper bound, must be positive.
+     * @return The drawn number, taken from the draws to replay if any is left.
+     * @throws IllegalArgumentException Thrown if the bound isn't positive.
+     */
+    public int nextInt(int bound) throws IllegalArgumentException
+    {
+        if (bound <= 0)
+            throw new IllegalArgumentException("[RandomSource] The bound must be positive");
+
+        int value = -1;
+        if (replayIndex < replay.length)
+            value = replay[replayIndex++];
+
+        // A replayed draw out of bound means that the game isn't in the recorded state, a new draw keeps it valid
+        if (value < 0 || value >= bound)
+            value = random.nextInt(bound);
+
+        if (recording)
+        {
+            if (drawsCount == draws.length)
+                draws = Arrays.copyOf(draws, drawsCount * 2);
+            draws[drawsCount++] = value;
+        }
+
+        return value;
+    }
+
+    /**
+     * Starts recording the draws, forgetting the ones recorded before.
+     */
+    public void startRecording()
+    {
+        recording = true;
+        drawsCount = 0;
+    }
+
+    /**
+     * Stops recording the draws.
+     *
+     * @return The draws made since the recording started, in order.
+     */
+    public int[] stopRecording()
+    {
+        recording = false;
+        return drawsCount == 0 ? NO_DRAWS : Arrays.copyOf(draws, drawsCount);
+    }
+
+    /**
+     * Makes the next draws return the given values, in order, e.g. the ones recorded while an action was first handled.
+     *
+     * @param draws Values to return.
+     * @throws NullPointerException Thrown if the draws are null.
+     */
+    public void replay(int[] draws) throws NullPointerException
+    {
+        if (draws == null)
+            throw new NullPointerException("[RandomSource] Null draws");
+
+        replay = draws;
+        replayIndex = 0;
+    }
+
+    /**
+     * Returns the number of replayed draws not used yet.
+     */
+    public int getPendingReplays()
+    {
+        return replay.length - replayIndex;
+    }
+}
@@ -0,0 +1,525 @@
+package it.polimi.ingsw.network;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32C;
+
+import it.polimi.ingsw.logging.Log;
+import it.polimi.ingsw.logging.Logger;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
+import it.polimi.ingsw.protocol.codec.FrameCodec;
+import it.polimi.ingsw.protocol.messages.ActionMessage;
+
+/**
+ * Write ahead journal of the changes made to the matches since their last checkpoint: the actions handled, with the random draws they consumed,
+ * and the players leaving and coming back. After a restart the checkpoint of a match plus the following entries rebuild its exact state.
+ *
+ * Appending an entry only encodes it and queues it, the caller never waits for the disk. A single writer thread writes everything queued while
+ * the previous batch was being forced, and then forces the new batch, so a single force covers the entries of many matches. An entry is durable
+ * at most one force after it has been appended.
+ *
+ * The entries made useless by a checkpoint stay in the file until it grows too much, then the entries still needed are copied to a new file that
+ * replaces the old one.
+ */
+class ActionJournal implements Runnable
+{
+    private static final Logger LOGGER = Log.getLogger(ActionJournal.class);
+
+    /**
+     * Minimum size of the file before it is compacted.
+     */
+    static final long MIN_COMPACTION_SIZE = 4 * 1024 * 1024;
+
+    private static final int FILE_MAGIC = 0x45524a4c;
+
+    private static final int FILE_VERSION = 1;
+
+    private static final int FILE_HEADER_SIZE = 8;
+
+    private static final int RECORD_MAGIC = 0x4a524e31;
+
+    /**
+     * Magic, length of the body and CRC of the body.
+     */
+    private static final int RECORD_HEADER_SIZE = 12;
+
+    /**
+     * Change made to a match, read back from the journal.
+     */
+    static class Entry
+    {
+        /**
+         * Position of the entry among the ones of its match.
+         */
+        final long sequence;
+
+        final String playerName;
+
+        /**
+         * Action handled, null if the entry records a player leaving or coming back.
+         */
+        final ActionMessage action;
+
+        /**
+         * Random draws consumed by the action.
+         */
+        final int[] draws;
+
+        /**
+         * Whether the player came back or left, for the entries without an action.
+         */
+        final boolean active;
+
+        private Entry(long sequence, String playerName, ActionMessage action, int[] draws, boolean active)
+        {
+            this.sequence = sequence;
+            this.playerName = playerName;
+            this.action = action;
+            this.draws = draws;
+            this.active = active;
+        }
+    }
+
+    private final Path file;
+
+    private final CheckpointStore checkpoints;
+
+    private FileChannel channel;
+
+    private long size;
+
+    /**
+     * Size the file must reach before the next compaction.
+     */
+    private long compactionSize = MIN_COMPACTION_SIZE;
+
+    /**
+     * Records appended and not written yet.
+     */
+    private List<byte[]> pending = new ArrayList<>();
+
+    /**
+     * Records of every match since its last checkpoint, the ones copied by a compaction.
+     */
+    private final Map<String, List<byte[]>> tails = new HashMap<>();
+
+    /**
+     * Entries read when the journal has been opened, by match.
+     */
+    private Map<String, List<Entry>> recovered = new HashMap<>();
+
+    private boolean active = false;
+
+    private Thread writer;
+
+    private ActionJournal(Path file, CheckpointStore checkpoints)
+    {
+        this.file = file;
+        this.checkpoints = checkpoints;
+    }
+
+    /**
+     * Opens the journal, creating it if it doesn't exist, and reads the entries it contains. Entries aren't written until start is called.
+     *
+     * @param file Path of the file.
+     * @param checkpoints Store of the checkpoints the entries follow, forced before the entries they cover are dropped.
+     * @return The opened journal.
+     * @throws IOException Thrown if the file can't be opened or isn't a journal.
+     */
+    static ActionJournal open(Path file, CheckpointStore checkpoints) throws IOException
+    {
+        ActionJournal journal = new ActionJournal(file, checkpoints);
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null)
+            Files.createDirectories(parent);
+
+        journal.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try
+        {
+            if (journal.channel.size() == 0)
+            {
+                journal.channel.write(header(), 0);
+                journal.channel.force(false);
+            }
+            journal.scan();
+        } catch (IOException e)
+        {
+            journal.channel.close();
+            throw e;
+        }
+
+        return journal;
+    }
+
+    /**
+     * Returns the entries of the match read when the journal has been opened, in the order they were appended.
+     */
+    synchronized List<Entry> getRecoveredEntries(String matchId)
+    {
+        return recovered.getOrDefault(matchId, Collections.emptyList());
+    }
+
+    /**
+     * Starts writing the entries. The entries read from the file of the matches not in the given set are dropped at the next compaction.
+     *
+     * @param restoredMatches Ids of the matches restored from their checkpoint.
+     */
+    synchronized void start(Set<String> restoredMatches)
+    {
+        if (active)
+            return;
+
+        tails.keySet().retainAll(restoredMatches);
+        recovered = new HashMap<>();
+        active = true;
+
+        writer = new Thread(this, "action-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Writes the entries still queued and stops the writer.
+     */
+    void stop()
+    {
+        Thread thread;
+        synchronized (this)
+        {
+            active = false;
+            notifyAll();
+            thread = writer;
+        }
+
+        if (thread == null)
+            return;
+
+        try
+        {
+            thread.join();
+            channel.close();
+        } catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        } catch (IOException e)
+        {
+            LOGGER.warn(() -> "Error while closing the journal: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Appends an action handled by a match.
+     *
+     * @param matchId Id of the match.
+     * @param sequence Sequence number of the entry in the match.
+     * @param playerName Player performing the action.
+     * @param action Action handled.
+     * @param draws Random draws consumed by the action.
+     */
+    void appendAction(String matchId, long sequence, String playerName, ActionMessage action, int[] draws)
+    {
+        byte[] frame;
+        try
+        {
+            frame = FrameCodec.encode(action);
+        } catch (IOException e)
+        {
+            LOGGER.error(() -> "Can't journal an action of match " + matchId, e);
+            return;
+        }
+
+        // The frame header isn't needed, the record has its own length
+        BinaryWriter writer = startRecord(matchId, sequence, playerName, frame.length + 4 * draws.length + 16);
+        writer.writeBoolean(true);
+        writer.writeInt(frame.length - FrameCodec.HEADER_SIZE);
+        writer.writeBytes(frame, FrameCodec.HEADER_SIZE, frame.length - FrameCodec.HEADER_SIZE);
+        writer.writeInt(draws.length);
+        for (int draw : draws)
+            writer.writeInt(draw);
+
+        append(matchId, endRecord(writer));
+    }
+
+    /**
+     * Appends a player of a match leaving or coming back.
+     *
+     * @param matchId Id of the match.
+     * @param sequence Sequence number of the entry in the match.
+     * @param playerName Player leaving or coming back.
+     * @param active True if the player came back.
+     */
+    void appendPresence(String matchId, long sequence, String playerName, boolean active)
+    {
+        BinaryWriter writer = startRecord(matchId, sequence, playerName, 0);
+        writer.writeBoolean(false);
+        writer.writeBoolean(active);
+
+        append(matchId, endRecord(writer));
+    }
+
+    /**
+     * Forgets the entries of the match appended so far, because a checkpoint now covers them or because the match has ended.
+     */
+    synchronized void release(String matchId)
+    {
+        tails.remove(matchId);
+    }
+
+    @Override
+    public void run()
+    {
+        while (true)
+        {
+            List<byte[]> batch;
+            synchronized (this)
+            {
+                while (pending.isEmpty() && active)
+                {
+                    try
+                    {
+                        wait();
+                    } catch (InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+
+                if (pending.isEmpty())
+                    return;
+
+                batch = pending;
+                pending = new ArrayList<>();
+            }
+
+            long startNanos = System.nanoTime();
+            try
+            {
+                int bytes = write(channel, batch);
+                channel.force(false);
+                size += bytes;
+                ServerMetrics.journalCommitted(batch.size(), bytes, startNanos);
+
+                if (size > compactionSize)
+                    compact();
+            } catch (IOException e)
+            {
+                LOGGER.error(() -> "Can't write " + batch.size() + " entries to the journal", e);
+            }
+        }
+    }
+
+    private synchronized void append(String matchId, byte[] record)
+    {
+        pending.add(record);
+        tails.computeIfAbsent(matchId, id -> new ArrayList<>()).add(record);
+
+        // Only the writer waits on the journal
+        if (pending.size() == 1)
+            notifyAll();
+    }
+
+    private static BinaryWriter startRecord(String matchId, long sequence, String playerName, int sizeHint)
+    {
+        BinaryWriter writer = new BinaryWriter(RECORD_HEADER_SIZE + 48 + sizeHint);
+        writer.writeFixedInt(RECORD_MAGIC);
+        writer.writeFixedInt(0);
+        writer.writeFixedInt(0);
+
+        writer.writeString(matchId);
+        writer.writeLong(sequence);
+        writer.writeString(playerName);
+        return writer;
+    }
+
+    private static byte[] endRecord(BinaryWriter writer)
+    {
+        byte[] record = writer.toByteArray();
+        CRC32C crc = new CRC32C();
+        crc.update(record, RECORD_HEADER_SIZE, record.length - RECORD_HEADER_SIZE);
+
+        writer.setFixedInt(4, record.length - RECORD_HEADER_SIZE);
+        writer.setFixedInt(8, (int) crc.getValue());
+        return writer.toByteArray();
+    }
+
+    /**
+     * Reads the entries from the beginning of the file, stopping at the first one missing or damaged, and cuts the file there.
+     */
+    private void scan() throws IOException
+    {
+        long fileSize = channel.size();
+        if (fileSize > Integer.MAX_VALUE)
+            throw new IOException("[ActionJournal] " + file + " is too big");
+
+        ByteBuffer content = ByteBuffer.allocate((int) fileSize);
+        while (content.hasRemaining() && channel.read(content, content.position()) >= 0)
+            ;
+
+        if (fileSize < FILE_HEADER_SIZE || content.getInt(0) != FILE_MAGIC || content.getInt(4) != FILE_VERSION)
+            throw new IOException("[ActionJournal] " + file + " isn't a journal of this version");
+
+        int position = FILE_HEADER_SIZE;
+        int entries = 0;
+        while (position + RECORD_HEADER_SIZE <= fileSize && content.getInt(position) == RECORD_MAGIC)
+        {
+            int length = content.getInt(position + 4);
+            if (length <= 0 || position + RECORD_HEADER_SIZE + length > fileSize)
+                break;
+
+            CRC32C crc = new CRC32C();
+            crc.update(content.array(), position + RECORD_HEADER_SIZE, length);
+            if ((int) crc.getValue() != content.getInt(position + 8))
+                break;
+
+            try
+            {
+                BinaryReader reader = new BinaryReader(content.array(), position + RECORD_HEADER_SIZE, length);
+                String matchId = reader.readString();
+                recovered.computeIfAbsent(matchId, id -> new ArrayList<>()).add(readEntry(reader));
+
+                byte[] record = new byte[RECORD_HEADER_SIZE + length];
+                content.get(position, record);
+                tails.computeIfAbsent(matchId, id -> new ArrayList<>()).add(record);
+            } catch (StreamCorruptedException e)
+            {
+                break;
+            }
+
+            position += RECORD_HEADER_SIZE + length;
+            entries++;
+        }
+
+        if (position < fileSize)
+        {
+            int torn = position;
+            LOGGER.warn(() -> "The journal is damaged after byte " + torn + ", the following entries are ignored");
+            channel.truncate(position);
+            channel.force(false);
+        }
+
+        size = position;
+        channel.position(size);
+
+        int entriesCount = entries;
+        LOGGER.info(() -> "Read " + entriesCount + " journal entries of " + recovered.size() + " matches from " + file);
+    }
+
+    private static Entry readEntry(BinaryReader reader) throws StreamCorruptedException
+    {
+        long sequence = reader.readLong();
+        String playerName = reader.readString();
+        if (playerName == null)
+            throw new StreamCorruptedException("[ActionJournal] Null player name");
+
+        if (!reader.readBoolean())
+            return new Entry(sequence, playerName, null, null, reader.readBoolean());
+
+        byte[] payload = reader.readBytes(reader.readCount());
+        Object action;
+        try
+        {
+            action = FrameCodec.decode(payload, 0, payload.length);
+        } catch (IOException | ClassNotFoundException e)
+        {
+            throw new StreamCorruptedException("[ActionJournal] Invalid action: " + e.getMessage());
+        }
+        if (!(action instanceof ActionMessage))
+            throw new StreamCorruptedException("[ActionJournal] The entry doesn't contain an action");
+
+        int[] draws = new int[reader.readCount()];
+        for (int i = 0; i < draws.length; i++)
+            draws[i] = reader.readInt();
+
+        return new Entry(sequence, playerName, (ActionMessage) action, draws, true);
+    }
+
+    /**
+     * Writes the entries of every match since its last checkpoint to a new file and replaces the current file with it. Runs on the writer thread.
+     */
+    private void compact() throws IOException
+    {
+        List<byte[]> live = new ArrayList<>();
+        synchronized (this)
+        {
+            for (List<byte[]> tail : tails.values())
+                live.addAll(tail);
+
+            // The queued records are among the copied ones
+            pending.clear();
+        }
+
+        // The checkpoints that made the other entries useless must be on the disk before the entries are dropped
+        checkpoints.sync();
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.deleteIfExists(temporary);
+        FileChannel compacted = FileChannel.open(temporary, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long compactedSize;
+        try
+        {
+            compacted.write(header());
+            compactedSize = FILE_HEADER_SIZE + write(compacted, live);
+            compacted.force(false);
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e)
+        {
+            compacted.close();
+            throw e;
+        }
+
+        long previousSize = size;
+        channel.close();
+        channel = compacted;
+        size = compactedSize;
+
+        // Half of the space stays free, so that the compactions don't follow each other
+        compactionSize = Math.max(MIN_COMPACTION_SIZE, 2 * compactedSize);
+
+        LOGGER.info(() -> "Compacted the journal from " + previousSize + " to " + compactedSize + " bytes, " + live.size() + " entries");
+    }
+
+    /**
+     * Writes the records at the current position of the channel with as few system calls as possible.
+     *
+     * @return The number of bytes written.
+     */
+    private static int write(FileChannel channel, List<byte[]> records) throws IOException
+    {
+        ByteBuffer[] buffers = new ByteBuffer[records.size()];
+        int bytes = 0;
+        for (int i = 0; i < buffers.length; i++)
+        {
+            buffers[i] = ByteBuffer.wrap(records.get(i));
+            bytes += buffers[i].remaining();
+        }
+
+        long written = 0;
+        while (written < bytes)
+            written += channel.write(buffers);
+
+        return bytes;
+    }
+
+    private static ByteBuffer header()
+    {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+        header.putInt(0, FILE_MAGIC);
+        header.putInt(4, FILE_VERSION);
+        return header;
+    }
+}
@@ -0,0 +1,202 @@
+package it.polimi.ingsw.network;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+import it.polimi.ingsw.jfr.SocketWriteEvent;
+import it.polimi.ingsw.logging.Log;
+import it.polimi.ingsw.logging.Logger;
+import it.polimi.ingsw.protocol.codec.EncodedFrame;
+import it.polimi.ingsw.protocol.codec.FrameCodec;
+
+/**
+ * Player connection backed by a non blocking socket channel. The connection doesn't own any thread, its reads and writes are performed by the IoLoop
+ * it is registered on.
+ */
+public class ChannelPlayerConnection extends PlayerConnection
+{
+    private static final Logger LOGGER = Log.getLogger(ChannelPlayerConnection.class);
+
+    private static final int INITIAL_BUFFER_SIZE = 8192;
+
+    private final SocketChannel channel;
+
+    private final IoLoop loop;
+
+    private SelectionKey key;
+
+    /**
+     * Buffer where the incoming bytes are accumulated until a complete frame is available. Between reads it is kept in write mode.
+     */
+    private ByteBuffer readBuffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+    /**
+     * Frame currently being written on the channel, null if none.
+     */
+    private ByteBuffer pendingWrite = null;
+
+    /**
+     * Frame the pending buffer belongs to.
+     */
+    private EncodedFrame pendingFrame = null;
+
+    private volatile boolean closed = false;
+
+    /**
+     * Creates a new ChannelPlayerConnection object.
+     *
+     * @param server Server instance which creates the player connection.
+     * @param channel Non blocking channel accepted by the server.
+     * @param loop Loop which will serve the connection.
+     */
+    ChannelPlayerConnection(Server server, SocketChannel channel, IoLoop loop)
+    {
+        super(server);
+        this.channel = channel;
+        this.loop = loop;
+    }
+
+    public SocketChannel getChannel()
+    {
+        return channel;
+    }
+
+    /**
+     * Registers the channel on the loop selector and adds the player to the lobby. Must be called from the loop thread.
+     */
+    void register()
+    {
+        try
+        {
+            key = channel.register(loop.getSelector(), SelectionKey.OP_READ, this);
+            onConnected();
+        } catch (ClosedChannelException e)
+        {
+            LOGGER.warn(() -> "The channel was closed before the registration");
+        }
+    }
+
+    /**
+     * Reads the available bytes and handles every complete frame received. Called by the loop when the channel is readable.
+     *
+     * @throws IOException Thrown if the channel is closed or a corrupted frame is received.
+     */
+    void onReadable() throws IOException
+    {
+        if (channel.read(readBuffer) < 0)
+            throw new ClosedChannelException();
+
+        readBuffer.flip();
+        while (!closed && readBuffer.remaining() >= FrameCodec.HEADER_SIZE)
+        {
+            int length = readBuffer.getInt(readBuffer.position());
+            FrameCodec.checkPayloadLength(length);
+
+            if (readBuffer.remaining() < FrameCodec.HEADER_SIZE + length)
+            {
+                // The frame is incomplete, make sure it will fit in the buffer
+                if (FrameCodec.HEADER_SIZE + length > readBuffer.capacity())
+                {
+                    ByteBuffer larger = ByteBuffer.allocate(FrameCodec.HEADER_SIZE + length);
+                    larger.put(readBuffer);
+                    readBuffer = larger;
+                    return;
+                }
+                break;
+            }
+
+            int start = readBuffer.position() + FrameCodec.HEADER_SIZE;
+            readBuffer.position(start + length);
+
+            try
+            {
+                handlePacket(FrameCodec.decode(readBuffer.array(), readBuffer.arrayOffset() + start, length));
+            } catch (ClassNotFoundException e)
+            {
+                LOGGER.error(() -> "Received an unknown class: " + e.getMessage());
+            }
+        }
+        readBuffer.compact();
+    }
+
+    /**
+     * Writes as many queued frames as the channel accepts. Called by the loop when the channel is writable.
+     *
+     * @throws IOException Thrown if an error occurs while writing.
+     */
+    void onWritable() throws IOException
+    {
+        while (true)
+        {
+            if (pendingWrite == null)
+            {
+                EncodedFrame frame = nextFrame();
+                if (frame == null)
+                {
+                    // The key is cancelled if the connection has just written its last answers
+                    if (key.isValid())
+                        key.interestOps(SelectionKey.OP_READ);
+                    return;
+                }
+                byte[] compressed = compress(frame);
+                pendingWrite = compressed != null ? ByteBuffer.wrap(compressed) : frame.asByteBuffer();
+                pendingFrame = frame;
+            }
+
+            SocketWriteEvent event = new SocketWriteEvent();
+            event.begin();
+
+            int written = channel.write(pendingWrite);
+
+            event.end();
+            if (event.shouldCommit())
+            {
+                event.player = getPlayerName().orElse("");
+                event.frameType = pendingFrame.getTypeName();
+                event.bytes = written;
+                event.commit();
+            }
+
+            // The socket buffer is full, wait for the next writable event
+            if (pendingWrite.hasRemaining())
+            {
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                return;
+            }
+            pendingWrite = null;
+            onFrameWritten(pendingFrame);
+            pendingFrame = null;
+        }
+    }
+
+    @Override
+    protected void startWriter()
+    {
+        if (closed)
+            return;
+
+        // The actual write happens on the loop thread
+        loop.execute(() -> {
+            if (key == null || !key.isValid())
+                return;
+
+            try
+            {
+                onWritable();
+            } catch (IOException e)
+            {
+                abort();
+            }
+        });
+    }
+
+    @Override
+    protected void closeTransport() throws IOException
+    {
+        closed = true;
+        channel.close();
+    }
+}
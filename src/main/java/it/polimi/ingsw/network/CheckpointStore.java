@@ -0,0 +1,348 @@
+package it.polimi.ingsw.network;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+import it.polimi.ingsw.logging.Log;
+import it.polimi.ingsw.logging.Logger;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
+
+/**
+ * File holding the last checkpoint of every running match, so that the matches survive a restart of the server.
+ *
+ * The file is a log of records mapped in memory: saving a checkpoint appends a record to the mapping, which is just a copy, and the operating
+ * system writes the pages in the background. The pages are also forced to the disk periodically. Every record carries a CRC, so a record torn by
+ * a crash is recognized and the file is read up to the last complete one. A match removed gets an empty record, and when the log is full the
+ * last record of each match is copied to a new file that replaces the old one.
+ */
+class CheckpointStore
+{
+    private static final Logger LOGGER = Log.getLogger(CheckpointStore.class);
+
+    /**
+     * Default size of the file, a checkpoint takes around a kilobyte.
+     */
+    static final int DEFAULT_CAPACITY = 16 * 1024 * 1024;
+
+    /**
+     * Interval between two forces of the written pages to the disk.
+     */
+    static final long SYNC_INTERVAL_MILLIS = 1000;
+
+    private static final int FILE_MAGIC = 0x45524350;
+
+    private static final int FILE_VERSION = 2;
+
+    private static final int FILE_HEADER_SIZE = 8;
+
+    private static final int RECORD_MAGIC = 0x52454331;
+
+    /**
+     * Magic, length of the body and CRC of the body.
+     */
+    private static final int RECORD_HEADER_SIZE = 12;
+
+    private final Path file;
+
+    private final int minCapacity;
+
+    private MappedByteBuffer buffer;
+
+    /**
+     * Position where the next record is written.
+     */
+    private int position;
+
+    /**
+     * Position of the last record of every match still running.
+     */
+    private Map<String, Integer> records = new HashMap<>();
+
+    /**
+     * Set when records have been written after the last force.
+     */
+    private boolean dirty = false;
+
+    private CheckpointStore(Path file, int minCapacity)
+    {
+        this.file = file;
+        this.minCapacity = minCapacity;
+    }
+
+    /**
+     * Opens the checkpoint file, creating it if it doesn't exist, and reads the records it contains.
+     *
+     * @param file Path of the file.
+     * @param capacity Initial size of the file, it grows when needed.
+     * @return The opened store.
+     * @throws IOException Thrown if the file can't be mapped or isn't a checkpoint file.
+     */
+    static CheckpointStore open(Path file, int capacity) throws IOException
+    {
+        if (capacity < FILE_HEADER_SIZE + RECORD_HEADER_SIZE)
+            throw new IllegalArgumentException("[CheckpointStore] Capacity too small");
+
+        CheckpointStore store = new CheckpointStore(file, capacity);
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null)
+            Files.createDirectories(parent);
+
+        long size = Files.exists(file) ? Files.size(file) : 0;
+        store.buffer = map(file, (int) Math.min(Integer.MAX_VALUE, Math.max(size, capacity)));
+
+        if (size == 0)
+            store.writeHeader();
+        else if (store.buffer.getInt(0) != FILE_MAGIC || store.buffer.getInt(4) != FILE_VERSION)
+            throw new IOException("[CheckpointStore] " + file + " isn't a checkpoint file of this version");
+
+        store.scan();
+        return store;
+    }
+
+    /**
+     * Returns the last checkpoint of every match that was running, by match id.
+     */
+    synchronized Map<String, byte[]> load()
+    {
+        Map<String, byte[]> checkpoints = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> record : records.entrySet())
+        {
+            try
+            {
+                byte[] body = readBody(record.getValue());
+                BinaryReader reader = new BinaryReader(body, 0, body.length);
+                reader.readString();
+                reader.readBoolean();
+                checkpoints.put(record.getKey(), reader.readBytes(reader.remaining()));
+            } catch (StreamCorruptedException e)
+            {
+                // The body has already been checked by the scan
+                LOGGER.warn(() -> "Unreadable checkpoint of match " + record.getKey() + ": " + e.getMessage());
+            }
+        }
+        return checkpoints;
+    }
+
+    /**
+     * Saves the checkpoint of the match, replacing the previous one.
+     *
+     * @param matchId Id of the match.
+     * @param checkpoint Encoded state of the match.
+     */
+    void save(String matchId, byte[] checkpoint)
+    {
+        append(matchId, encodeRecord(matchId, checkpoint), true);
+    }
+
+    /**
+     * Forgets the checkpoint of the match, e.g. because it has ended.
+     */
+    void remove(String matchId)
+    {
+        synchronized (this)
+        {
+            if (!records.containsKey(matchId))
+                return;
+        }
+
+        append(matchId, encodeRecord(matchId, null), false);
+    }
+
+    /**
+     * Forces the records written so far to the disk.
+     */
+    void sync()
+    {
+        MappedByteBuffer target;
+        synchronized (this)
+        {
+            if (!dirty)
+                return;
+            dirty = false;
+            target = buffer;
+        }
+
+        // Forcing can take a while, the records keep being appended meanwhile
+        target.force();
+    }
+
+    /**
+     * Returns the number of matches with a checkpoint.
+     */
+    synchronized int size()
+    {
+        return records.size();
+    }
+
+    /**
+     * Builds the record outside of the lock, so that concurrent saves only contend for the copy into the mapping.
+     */
+    private static byte[] encodeRecord(String matchId, byte[] checkpoint)
+    {
+        BinaryWriter writer = new BinaryWriter(RECORD_HEADER_SIZE + 32 + (checkpoint == null ? 0 : checkpoint.length));
+        writer.writeFixedInt(RECORD_MAGIC);
+        writer.writeFixedInt(0);
+        writer.writeFixedInt(0);
+
+        writer.writeString(matchId);
+        writer.writeBoolean(checkpoint != null);
+        if (checkpoint != null)
+            writer.writeBytes(checkpoint, 0, checkpoint.length);
+
+        byte[] record = writer.toByteArray();
+        CRC32C crc = new CRC32C();
+        crc.update(record, RECORD_HEADER_SIZE, record.length - RECORD_HEADER_SIZE);
+
+        writer.setFixedInt(4, record.length - RECORD_HEADER_SIZE);
+        writer.setFixedInt(8, (int) crc.getValue());
+        return writer.toByteArray();
+    }
+
+    private synchronized void append(String matchId, byte[] record, boolean live)
+    {
+        try
+        {
+            if (position + record.length > buffer.capacity())
+                compact(record.length);
+        } catch (IOException e)
+        {
+            LOGGER.error(() -> "Can't compact the checkpoint file, the checkpoint of match " + matchId + " is lost", e);
+            return;
+        }
+
+        buffer.put(position, record);
+
+        if (live)
+            records.put(matchId, position);
+        else
+            records.remove(matchId);
+
+        position += record.length;
+        dirty = true;
+    }
+
+    /**
+     * Reads the records from the beginning of the file, stopping at the first one missing or damaged.
+     */
+    private void scan()
+    {
+        position = FILE_HEADER_SIZE;
+        while (position + RECORD_HEADER_SIZE <= buffer.capacity() && buffer.getInt(position) == RECORD_MAGIC)
+        {
+            int length = buffer.getInt(position + 4);
+            if (length <= 0 || position + RECORD_HEADER_SIZE + length > buffer.capacity())
+                break;
+
+            byte[] body = readBody(position);
+            CRC32C crc = new CRC32C();
+            crc.update(body, 0, length);
+            if ((int) crc.getValue() != buffer.getInt(position + 8))
+                break;
+
+            try
+            {
+                BinaryReader reader = new BinaryReader(body, 0, length);
+                String matchId = reader.readString();
+                if (reader.readBoolean())
+                    records.put(matchId, position);
+                else
+                    records.remove(matchId);
+            } catch (StreamCorruptedException e)
+            {
+                break;
+            }
+
+            position += RECORD_HEADER_SIZE + length;
+        }
+
+        // A torn record is cleared, so that its leftovers can't be taken for records once the following ones are written over it
+        if (position + 4 <= buffer.capacity() && buffer.getInt(position) != 0)
+        {
+            int torn = position;
+            LOGGER.warn(() -> "The checkpoint file is damaged after byte " + torn + ", the following records are ignored");
+            for (int i = position; i < buffer.capacity(); i++)
+                buffer.put(i, (byte) 0);
+            dirty = true;
+        }
+
+        LOGGER.info(() -> "Read " + records.size() + " match checkpoints from " + file);
+    }
+
+    /**
+     * Writes the last record of every match to a new file, large enough for them and the given record, and replaces the current file with it.
+     */
+    private void compact(int needed) throws IOException
+    {
+        int live = 0;
+        for (int offset : records.values())
+            live += RECORD_HEADER_SIZE + buffer.getInt(offset + 4);
+
+        // Half of the new file stays free, so that the compactions don't follow each other
+        long capacity = Math.max(minCapacity, 2L * (FILE_HEADER_SIZE + live + needed));
+        if (capacity > Integer.MAX_VALUE)
+            throw new IOException("[CheckpointStore] The checkpoints don't fit in a single file");
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.deleteIfExists(temporary);
+        MappedByteBuffer compacted = map(temporary, (int) capacity);
+        compacted.putInt(0, FILE_MAGIC);
+        compacted.putInt(4, FILE_VERSION);
+
+        Map<String, Integer> compactedRecords = new HashMap<>();
+        int compactedPosition = FILE_HEADER_SIZE;
+        for (Map.Entry<String, Integer> record : records.entrySet())
+        {
+            int length = RECORD_HEADER_SIZE + buffer.getInt(record.getValue() + 4);
+            compacted.put(compactedPosition, buffer, record.getValue(), length);
+            compactedRecords.put(record.getKey(), compactedPosition);
+            compactedPosition += length;
+        }
+
+        compacted.force();
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        int previousSize = position;
+        int compactedSize = compactedPosition;
+        buffer = compacted;
+        records = compactedRecords;
+        position = compactedPosition;
+
+        LOGGER.info(() -> "Compacted the checkpoint file from " + previousSize + " to " + compactedSize + " bytes, " + compactedRecords.size()
+                + " matches");
+    }
+
+    private void writeHeader()
+    {
+        buffer.putInt(0, FILE_MAGIC);
+        buffer.putInt(4, FILE_VERSION);
+        dirty = true;
+    }
+
+    private byte[] readBody(int offset)
+    {
+        byte[] body = new byte[buffer.getInt(offset + 4)];
+        buffer.get(offset + RECORD_HEADER_SIZE, body);
+        return body;
+    }
+
+    private static MappedByteBuffer map(Path path, int size) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE))
+        {
+            // The mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package it.polimi.ingsw.network;
+
+/**
+ * Management interface of a player connection, registered as "it.polimi.ingsw:type=Connection,id=..." while the connection is open.
+ */
+public interface ConnectionMXBean
+{
+    /**
+     * Returns the name of the player, empty if it hasn't logged in yet.
+     */
+    String getPlayerName();
+
+    /**
+     * Returns the id of the match the player is in, empty if it is in the lobby.
+     */
+    String getMatchId();
+
+    /**
+     * Returns the number of frames waiting to be written.
+     */
+    int getQueueDepth();
+
+    boolean isSlowConsumer();
+
+    /**
+     * Returns the time in milliseconds since the last packet received.
+     */
+    long getLastPingAgeMillis();
+
+    /**
+     * Returns the smoothed round trip time in milliseconds, 0 if not measured yet.
+     */
+    long getRttMillis();
+
+    long getRttVariationMillis();
+
+    /**
+     * Returns the time in milliseconds the connection can stay silent before being closed, adapted to the round trip time.
+     */
+    long getWatchdogTimeoutMillis();
+
+    /**
+     * Closes the connection.
+     */
+    void disconnect();
+}
@@ -0,0 +1,209 @@
+package it.polimi.ingsw.network;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Hashed timing wheel that tracks the liveness deadline of every player connection with a single thread.
+ *
+ * Each connection owns an Entry placed in the slot of its deadline. Moving the deadline forward only writes the new value into the entry, the entry
+ * is moved to the right slot lazily when the wheel reaches the old one. This way a ping costs a single volatile write, with no allocation and no new
+ * thread.
+ */
+public class HeartbeatWheel implements Runnable
+{
+    /**
+     * Liveness deadline of a single connection.
+     */
+    public static class Entry
+    {
+        private volatile long timeout;
+
+        private final Runnable onExpire;
+
+        private volatile long deadline;
+
+        private volatile boolean cancelled = false;
+
+        private Entry(long timeout, Runnable onExpire)
+        {
+            this.timeout = timeout;
+            this.onExpire = onExpire;
+            this.deadline = now() + timeout;
+        }
+
+        /**
+         * Moves the deadline forward by the entry's timeout, starting from now.
+         */
+        public void touch()
+        {
+            deadline = now() + timeout;
+        }
+
+        /**
+         * Changes the entry's timeout and moves the deadline forward by it, starting from now. A shorter timeout is applied when the wheel reaches
+         * the previous deadline.
+         *
+         * @param timeout New time in milliseconds the entry can stay without being touched.
+         */
+        public void touch(long timeout)
+        {
+            this.timeout = timeout;
+            deadline = now() + timeout;
+        }
+
+        public long getTimeout()
+        {
+            return timeout;
+        }
+
+        /**
+         * Removes the entry from the wheel, its expiration task will never run.
+         */
+        public void cancel()
+        {
+            cancelled = true;
+        }
+
+        public long getDeadline()
+        {
+            return deadline;
+        }
+    }
+
+    private final long tickMillis;
+
+    private final List<Entry>[] slots;
+
+    private final Queue<Entry> pending = new ConcurrentLinkedQueue<>();
+
+    private long currentTick;
+
+    private volatile boolean active = false;
+
+    /**
+     * Creates a new wheel.
+     *
+     * @param tickMillis Resolution of the wheel in milliseconds.
+     * @param slotsNumber Number of slots, the wheel spans tickMillis * slotsNumber milliseconds before wrapping around.
+     * @throws IllegalArgumentException Thrown if the parameters are not positive.
+     */
+    @SuppressWarnings("unchecked")
+    public HeartbeatWheel(long tickMillis, int slotsNumber) throws IllegalArgumentException
+    {
+        if (tickMillis <= 0 || slotsNumber <= 0)
+            throw new IllegalArgumentException("[HeartbeatWheel] The tick and the number of slots must be positive");
+
+        this.tickMillis = tickMillis;
+        slots = (List<Entry>[]) new List<?>[slotsNumber];
+        for (int i = 0; i < slotsNumber; i++)
+            slots[i] = new ArrayList<>();
+    }
+
+    /**
+     * Starts the wheel thread, if not already running.
+     */
+    public synchronized void start()
+    {
+        if (active)
+            return;
+
+        active = true;
+        currentTick = now() / tickMillis;
+
+        Thread thread = new Thread(this, "heartbeat-wheel");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void stop()
+    {
+        active = false;
+    }
+
+    /**
+     * Adds a new entry to the wheel.
+     *
+     * @param timeout Time in milliseconds the entry can stay without being touched.
+     * @param onExpire Task to run when the deadline passes. It runs on the server executor, not on the wheel thread.
+     * @return The entry to touch to keep it alive.
+     */
+    public Entry schedule(long timeout, Runnable onExpire)
+    {
+        Entry entry = new Entry(timeout, onExpire);
+        pending.add(entry);
+        return entry;
+    }
+
+    @Override
+    public void run()
+    {
+        while (active)
+        {
+            // Process every tick elapsed since the last iteration
+            long lastTick = now() / tickMillis;
+            while (currentTick <= lastTick)
+            {
+                Entry entry;
+                while ((entry = pending.poll()) != null)
+                    insert(entry, currentTick);
+
+                expire(currentTick);
+                currentTick++;
+            }
+
+            try
+            {
+                Thread.sleep(tickMillis);
+            } catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Goes through the slot of the given tick, expiring the entries whose deadline passed and moving the others to their current slot.
+     */
+    private void expire(long tick)
+    {
+        int index = Math.floorMod(tick, slots.length);
+        List<Entry> slot = slots[index];
+
+        if (slot.isEmpty())
+            return;
+
+        slots[index] = new ArrayList<>(slot.size());
+        long now = now();
+
+        for (Entry entry : slot)
+        {
+            if (entry.cancelled)
+                continue;
+
+            if (entry.deadline <= now)
+            {
+                entry.cancelled = true;
+                ServerExecutor.get().execute(entry.onExpire);
+            } else
+                insert(entry, tick + 1);
+        }
+    }
+
+    /**
+     * Places the entry in the slot of its deadline, or in the slot of the given tick if the deadline comes before it.
+     */
+    private void insert(Entry entry, long minTick)
+    {
+        long tick = Math.max(entry.deadline / tickMillis, minTick);
+        slots[Math.floorMod(tick, slots.length)].add(entry);
+    }
+
+    private static long now()
+    {
+        return System.nanoTime() / 1_000_000;
+    }
+}
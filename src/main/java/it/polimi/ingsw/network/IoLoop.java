@@ -0,0 +1,128 @@
+package it.polimi.ingsw.network;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import it.polimi.ingsw.logging.Log;
+import it.polimi.ingsw.logging.Logger;
+
+/**
+ * Event loop that owns a selector and serves all the channel connections registered on it.
+ *
+ * Every operation on the selector or on the selection keys is performed by the loop thread, other threads submit tasks through execute which are
+ * run right after the selector wakes up.
+ */
+class IoLoop implements Runnable
+{
+    private static final Logger LOGGER = Log.getLogger(IoLoop.class);
+
+    /**
+     * Set on the loop threads, which must never wait for a match.
+     */
+    private static final ThreadLocal<Boolean> LOOP_THREAD = ThreadLocal.withInitial(() -> false);
+
+    private final Selector selector;
+
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean active = true;
+
+    IoLoop() throws IOException
+    {
+        selector = Selector.open();
+    }
+
+    Selector getSelector()
+    {
+        return selector;
+    }
+
+    /**
+     * Runs the given task on the loop thread. The task is always deferred, even when the caller is the loop thread itself, so that a failure while
+     * writing never closes a connection in the middle of another player's handling.
+     *
+     * @param task Task to run.
+     */
+    void execute(Runnable task)
+    {
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    /**
+     * Tells whether the calling thread is running a loop.
+     */
+    static boolean isLoopThread()
+    {
+        return LOOP_THREAD.get();
+    }
+
+    /**
+     * Stops the loop, the connections still registered are left untouched.
+     */
+    void stop()
+    {
+        active = false;
+        selector.wakeup();
+    }
+
+    @Override
+    public void run()
+    {
+        LOOP_THREAD.set(true);
+
+        while (active)
+        {
+            try
+            {
+                selector.select();
+            } catch (IOException e)
+            {
+                LOGGER.error(() -> "Error while selecting: " + e.getMessage());
+                break;
+            }
+
+            runTasks();
+
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext())
+            {
+                SelectionKey key = keys.next();
+                keys.remove();
+
+                ChannelPlayerConnection connection = (ChannelPlayerConnection) key.attachment();
+                try
+                {
+                    if (key.isValid() && key.isReadable())
+                        connection.onReadable();
+                    if (key.isValid() && key.isWritable())
+                        connection.onWritable();
+                } catch (IOException | CancelledKeyException e)
+                {
+                    // The player suddenly disconnected, remove it from the server
+                    connection.abort();
+                }
+            }
+        }
+
+        try
+        {
+            selector.close();
+        } catch (IOException e)
+        {
+            LOGGER.warn(() -> "Error while closing the selector: " + e.getMessage());
+        }
+    }
+
+    private void runTasks()
+    {
+        Runnable task;
+        while ((task = tasks.poll()) != null)
+            task.run();
+    }
+}
@@ -0,0 +1,119 @@
+package it.polimi.ingsw.network;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import it.polimi.ingsw.protocol.answers.MatchesListDeltaAnswer;
+import it.polimi.ingsw.protocol.commands.MatchesFilter;
+
+/**
+ * Keeps the lobby players informed about the matches list. A player receives a page of the list when it enters the lobby or asks for it, and
+ * from then on only the changes to the matches satisfying its filter. The changes happening within a short window are sent together, so a
+ * burst of creations and joins costs a single small answer. Players with the same filter share the same answer.
+ */
+class LobbyFeed
+{
+    /**
+     * Time the changes are collected for before being sent.
+     */
+    static final long DEBOUNCE_MILLIS = 200;
+
+    private final Server server;
+
+    /**
+     * Players that received the list and are waiting for the changes, with the filter they asked for.
+     */
+    private final ConcurrentMap<PlayerConnection, MatchesFilter> subscribers = new ConcurrentHashMap<>();
+
+    /**
+     * Ids of the matches changed since the last answer sent.
+     */
+    private Set<String> changedMatches = new LinkedHashSet<>();
+
+    private boolean flushScheduled = false;
+
+    LobbyFeed(Server server)
+    {
+        this.server = server;
+    }
+
+    /**
+     * Starts sending the changes to the player, replacing its previous filter. Must be called before building the list sent to the player, the
+     * changes made meanwhile are sent again and applying them twice is harmless.
+     *
+     * @param player Player in the lobby.
+     * @param filter Filter of the matches the player is interested in.
+     */
+    void subscribe(PlayerConnection player, MatchesFilter filter)
+    {
+        subscribers.put(player, filter);
+    }
+
+    /**
+     * Stops sending the changes to the player, e.g. because it has left the lobby.
+     */
+    void unsubscribe(PlayerConnection player)
+    {
+        subscribers.remove(player);
+    }
+
+    /**
+     * Records that the match has been created, removed or its players have changed. Whether it still exists is checked when the changes are sent.
+     *
+     * @param matchId Id of the changed match.
+     */
+    synchronized void publish(String matchId)
+    {
+        changedMatches.add(matchId);
+
+        if (!flushScheduled)
+        {
+            flushScheduled = true;
+            server.getHeartbeatWheel().schedule(DEBOUNCE_MILLIS, this::flush);
+        }
+    }
+
+    private void flush()
+    {
+        Set<String> changes;
+        synchronized (this)
+        {
+            changes = changedMatches;
+            changedMatches = new LinkedHashSet<>();
+            flushScheduled = false;
+        }
+
+        if (subscribers.isEmpty())
+            return;
+
+        Map<MatchesFilter, List<PlayerConnection>> recipients = new HashMap<>();
+        for (Map.Entry<PlayerConnection, MatchesFilter> subscriber : subscribers.entrySet())
+            recipients.computeIfAbsent(subscriber.getValue(), filter -> new ArrayList<>()).add(subscriber.getKey());
+
+        for (Map.Entry<MatchesFilter, List<PlayerConnection>> entry : recipients.entrySet())
+        {
+            MatchesFilter filter = entry.getKey();
+            MatchesListDeltaAnswer answer = new MatchesListDeltaAnswer();
+
+            for (String matchId : changes)
+            {
+                Match match = server.getRegistry().getMatch(matchId);
+
+                // Matches no longer satisfying the filter, e.g. because they are full, leave the list
+                if (match != null && filter.accepts(match.getController().getGameMode(), match.getController().getPlayersNumber(), match.isOpen()))
+                    answer.putMatch(matchId, match);
+                else
+                    answer.removeMatch(matchId);
+            }
+
+            if (!answer.isEmpty())
+                PlayerConnection.broadcast(entry.getValue(), answer);
+        }
+    }
+}
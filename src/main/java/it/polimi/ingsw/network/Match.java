@@ -1,43 +1,145 @@
 package it.polimi.ingsw.network;
 
+import java.io.StreamCorruptedException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Flow.Subscriber;
 import java.util.concurrent.Flow.Subscription;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
 import it.polimi.ingsw.controller.Controller;
 import it.polimi.ingsw.controller.GameActionHandler;
 import it.polimi.ingsw.controller.fsm.EndTurnPhase;
+import it.polimi.ingsw.controller.fsm.MoveStudentPhase;
 import it.polimi.ingsw.controller.fsm.Phase;
 import it.polimi.ingsw.controller.fsm.PlanPhase;
 import it.polimi.ingsw.controller.fsm.SuspendedPhase;
+import it.polimi.ingsw.jfr.ModelUpdateEvent;
+import it.polimi.ingsw.logging.Log;
+import it.polimi.ingsw.logging.Logger;
 import it.polimi.ingsw.model.GameMode;
 import it.polimi.ingsw.model.Player;
 import it.polimi.ingsw.model.exceptions.NoSelectedPlayerException;
-import it.polimi.ingsw.model.exceptions.TooManyPlayersException;
+import it.polimi.ingsw.model.game.Game;
+import it.polimi.ingsw.model.game.GameCheckpoint;
 import it.polimi.ingsw.protocol.answers.*;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
 import it.polimi.ingsw.protocol.messages.ActionMessage;
 import it.polimi.ingsw.protocol.messages.EndTurnMessage;
+import it.polimi.ingsw.protocol.updates.CloudTilesUpdate;
+import it.polimi.ingsw.protocol.updates.CurrentPlayerUpdate;
+import it.polimi.ingsw.protocol.updates.IslandsUpdate;
 import it.polimi.ingsw.protocol.updates.ModelUpdate;
+import it.polimi.ingsw.protocol.updates.SchoolBoardUpdate;
+import it.polimi.ingsw.protocol.updates.SequencedUpdate;
+import it.polimi.ingsw.protocol.updates.StateDigest;
+import it.polimi.ingsw.protocol.updates.UpdatesBatch;
+import it.polimi.ingsw.tracing.ActionTrace;
 
 /**
  * Class used to manges a match. All players in the match are saved and the game controller used to play the game.
+ *
+ * Every change to the match (actions, joins, leaves and timeouts) runs on the match mailbox, one at a time, so the game is never accessed
+ * concurrently and no locks are needed.
  */
 public class Match implements Subscriber<ModelUpdate>
 {
+    private static final Logger LOGGER = Log.getLogger(Match.class);
+
+    /**
+     * Number of updates kept for the players resuming their session.
+     */
+    static final int UPDATE_LOG_CAPACITY = 512;
+
+    /**
+     * Time the players of a restored match have to come back, as long as the suspension of a match left with a single player.
+     */
+    static final long RESTORE_GRACE_MILLIS = 60000;
+
     private Server server;
 
-    // Connected players
+    // Connected players, read by the server outside of the mailbox
     private List<PlayerConnection> players;
 
-    // Disconnected players
+    // Disconnected players, read by the server outside of the mailbox
     private List<String> missingPlayers;
 
+    // Read only observers, read by the server outside of the mailbox
+    private final List<PlayerConnection> spectators = new CopyOnWriteArrayList<>();
+
     private Controller gameController;
 
     private String matchId;
 
+    /**
+     * Last state sent to the players, used to send only the differences of the islands and the school boards.
+     */
+    private UpdateBaseline baseline;
+
+    /**
+     * Last updates sent, numbered so that a player resuming its session receives only the ones it missed.
+     */
+    private final UpdateLog updateLog = new UpdateLog(UPDATE_LOG_CAPACITY);
+
+    /**
+     * Hashes of the board state sent to the players, attached to the CurrentPlayerUpdates so that the clients can check their copy.
+     */
+    private final StateDigest.Tracker digests = new StateDigest.Tracker();
+
+    /**
+     * Connection receiving a snapshot, while set the model updates are sent only to it.
+     */
+    private PlayerConnection snapshotTarget = null;
+
+    /**
+     * Number of update transactions currently open, while positive the model updates are collected instead of being sent.
+     */
+    private int openTransactions = 0;
+
+    private List<ModelUpdate> pendingUpdates = new ArrayList<>();
+
+    /**
+     * Set when the current player changes, the match is checkpointed once the change has been handled.
+     */
+    private boolean turnChanged = false;
+
+    /**
+     * Size of the last checkpoint, used to size the buffer of the next one.
+     */
+    private int checkpointSize = 1024;
+
+    /**
+     * Sequence number of the last change journaled, written in the checkpoints to know which journal entries follow them.
+     */
+    private long journalSequence = 0;
+
+    /**
+     * Set while the journal entries are replayed, so that they aren't journaled again.
+     */
+    private boolean replaying = false;
+
+    /**
+     * Number of connected and missing players, published by the mailbox for the lobby and the registry's index.
+     */
+    private volatile int playersNumber = 0;
+
+    /**
+     * Name of the current game phase, published by the mailbox for the management interface.
+     */
+    private volatile String phaseName = "Waiting";
+
+    /**
+     * Serial executor running all the changes to the match.
+     */
+    private final MatchMailbox mailbox;
+
     /**
      * Creates a new Match object.
      * 
@@ -48,45 +150,106 @@ public class Match implements Subscriber<ModelUpdate>
      */
     public Match(Server server, String matchId, int playersNumber, GameMode mode)
     {
-        this.server = server;
-        this.matchId = matchId;
-        players = new ArrayList<>();
-        missingPlayers = new ArrayList<>();
+        this(server, matchId);
         gameController = new Controller(this, playersNumber, mode);
         gameController.getGame().subscribe(this);
     }
 
+    private Match(Server server, String matchId)
+    {
+        this.server = server;
+        this.matchId = matchId;
+        players = new CopyOnWriteArrayList<>();
+        missingPlayers = new CopyOnWriteArrayList<>();
+        baseline = new UpdateBaseline();
+        mailbox = new MatchMailbox(matchId);
+    }
+
     /**
-     * Adds a player to the match. If all the players are connected the game is setup.
+     * Rebuilds a match from its checkpoint. The players are as active as they were when the checkpoint was taken, until replayJournal is called.
+     * All the players are missing and get their place back when they log in again.
      *
-     * @throws NullPointerException If the nickname is null.
-     * @throws IllegalArgumentException If already exists a player with such nickname.
-     * @throws TooManyPlayersException If there are too many players.
-     * @return true if the player is added, else false.
+     * @param server Server the match belongs to.
+     * @param matchId Id of the match.
+     * @param checkpoint Checkpoint written by writeCheckpoint.
+     * @return The restored match.
+     * @throws StreamCorruptedException Thrown if the checkpoint isn't valid.
      */
-    public boolean addPlayer(PlayerConnection player) throws NullPointerException, IllegalArgumentException, TooManyPlayersException
+    static Match restore(Server server, String matchId, byte[] checkpoint) throws StreamCorruptedException
     {
+        BinaryReader reader = new BinaryReader(checkpoint, 0, checkpoint.length);
+
+        Phase phase = reader.readBoolean() ? new PlanPhase(reader.readInt(), reader.readInt()) : new MoveStudentPhase();
+        boolean tableIndex = reader.readBoolean();
+        long journalSequence = reader.readLong();
+        Game game = GameCheckpoint.read(reader);
+
+        Match match = new Match(server, matchId);
+        match.gameController = new Controller(match, game, phase, tableIndex);
+        game.subscribe(match);
+        for (Player player : game.getPlayerTableList())
+        {
+            player.setActive(reader.readBoolean());
+            player.subscribe(match);
+            match.missingPlayers.add(player.getNickname());
+        }
+        match.checkpointSize = checkpoint.length;
+        match.journalSequence = journalSequence;
+        match.publishState();
+
+        return match;
+    }
+
+    /**
+     * Adds a player to the match, if all the players are connected the game is setup. If the player was disconnected it receives the updates
+     * following the given sequence number, or the whole state of the game if they are no longer in the log.
+     *
+     * The player is added on the match mailbox and the caller doesn't wait for it, it can be a loop thread serving many connections.
+     *
+     * @param player Player to add.
+     * @param lastSequence Sequence number of the last update the player handled, 0 if it has no state of the match.
+     * @param done Run on the mailbox with true if the player has been added, false if it has been refused and told why.
+     */
+    public void addPlayer(PlayerConnection player, long lastSequence, Consumer<Boolean> done)
+    {
+        submit(() -> {
+            boolean added = addPlayerInMailbox(player, lastSequence);
+            publishState();
+            done.accept(added);
+        });
+    }
+
+    private boolean addPlayerInMailbox(PlayerConnection player, long lastSequence)
+    {
+        // The match may have ended while the player was waiting
+        if (server.getRegistry().getMatch(matchId) != this)
+        {
+            player.sendAnswer(new ErrorAnswer("The match " + matchId + " has ended"));
+            return false;
+        }
+
         try
         {
             players.add(player);
 
-            System.out.print("[Match] Current players list: ");
-            for (PlayerConnection p : players)
-                System.out.print(p.getPlayerName().get() + " ");
-            System.out.println();
+            LOGGER.debug(() -> "Current players list: " + players.stream().map(p -> p.getPlayerName().get()).collect(Collectors.joining(" ")));
 
             if (!missingPlayers.contains(player.getPlayerName().get()))
             {
+                // The new player has no previous state, everyone receives full updates again
+                baseline.reset();
+
                 gameController.addPlayer(player.getPlayerName().get());
-                gameController.setPlayerActive(player.getPlayerName().get(), true);
+                setPlayerActive(player.getPlayerName().get(), true);
                 gameController.getGame().getPlayerTableList().stream().filter((p) -> p.getNickname().equals(player.getPlayerName().get())).findFirst()
                         .ifPresent((p) -> p.subscribe(this));
 
-                System.out.println("[Match] New player added to the match");
+                LOGGER.info(() -> "New player added to the match " + matchId);
             } else
             {
                 missingPlayers.remove(player.getPlayerName().get());
-                gameController.setPlayerActive(player.getPlayerName().get(), true);
+                server.getRegistry().removeMissingPlayer(player.getPlayerName().get(), this);
+                setPlayerActive(player.getPlayerName().get(), true);
 
                 // Interrupt the timeout
                 Phase currentPhase = gameController.getGameHandler().getGamePhase();
@@ -95,16 +258,14 @@ public class Match implements Subscriber<ModelUpdate>
 
                 player.sendAnswer(new JoinedMatchAnswer(matchId));
 
-                Map<String, Integer> players = new HashMap<>();
-                for (Player gamePlayer : gameController.getGame().getPlayerTableList())
-                    players.put(gamePlayer.getNickname(), gameController.getGame().getPlayerTableList().indexOf(gamePlayer));
-
                 // Notify the match's players
-                player.sendAnswer(new StartMatchAnswer(players));
+                player.sendAnswer(new StartMatchAnswer(getTableIndexes()));
 
-                // Send the current status of the game to the player
-                gameController.getGame().notifyPlayers();
-                System.out.println("[Match] Previously disconnected player added to the match " + player.getPlayerName().get());
+                // Send the missed updates, or the current status of the game, only to the player. Both bring it to the state of the baseline,
+                // so the others keep receiving deltas
+                if (!replayUpdates(player, lastSequence))
+                    sendSnapshotInMailbox(player);
+                LOGGER.info(() -> "Previously disconnected player added to the match " + player.getPlayerName().get());
             }
 
             return true;
@@ -112,79 +273,225 @@ public class Match implements Subscriber<ModelUpdate>
         } catch (Exception e)
         {
             players.remove(player);
-            System.out.print(e);
+            LOGGER.warn(() -> "Player not added to the match " + matchId + ": " + e);
             player.sendAnswer(new ErrorAnswer(e.getMessage()));
             return false;
         }
     }
 
     /**
-     * Remove the player from the match. Method used only to remove a player who quits or disconnects.
+     * Adds a read only observer to the match. It receives the updates meant for all the players, starting from the whole state of the game if the
+     * game has already started. The caller doesn't wait for it.
+     *
+     * @param spectator Connection watching the match.
+     * @param done Run on the mailbox with true if the spectator is watching the match, false if the match has ended meanwhile.
+     */
+    public void addSpectator(PlayerConnection spectator, Consumer<Boolean> done)
+    {
+        submit(() -> done.accept(addSpectatorInMailbox(spectator)));
+    }
+
+    private boolean addSpectatorInMailbox(PlayerConnection spectator)
+    {
+        if (server.getRegistry().getMatch(matchId) != this)
+            return false;
+        if (spectators.contains(spectator))
+            return true;
+
+        spectators.add(spectator);
+        spectator.sendAnswer(new JoinedMatchAnswer(matchId));
+
+        // Joining during the game, the spectator needs the state the next updates apply to
+        if (gameController.getGame().getMotherNatureIndex().isPresent())
+        {
+            spectator.sendAnswer(new StartMatchAnswer(getTableIndexes()));
+            sendSnapshotInMailbox(spectator);
+        }
+
+        LOGGER.info(() -> "New spectator of the match " + matchId + ", " + spectators.size() + " watching");
+        return true;
+    }
+
+    /**
+     * Stops sending the updates to the spectator.
+     */
+    public void removeSpectator(PlayerConnection spectator)
+    {
+        submit(() -> spectators.remove(spectator));
+    }
+
+    /**
+     * Remove the player from the match. Method used only to remove a player who quits or disconnects. The caller doesn't wait for it.
      *
      * @param player to remove.
+     * @param done Run on the mailbox once the player has been removed.
      */
-    public void removePlayer(PlayerConnection player)
+    public void removePlayer(PlayerConnection player, Runnable done)
     {
         if (player == null)
         {
             return;
         }
 
+        submit(() -> {
+            removePlayerInMailbox(player);
+            publishState();
+            done.run();
+        });
+    }
+
+    private void removePlayerInMailbox(PlayerConnection player)
+    {
+        // Refused when it tried to join
+        if (!players.contains(player))
+            return;
+
         // Check if the game is started
-        if (getPlayersNumber() == gameController.getPlayersNumber())
+        if (countPlayers() == gameController.getPlayersNumber())
         {
             missingPlayers.add(player.getPlayerName().get());
+            server.getRegistry().addMissingPlayer(player.getPlayerName().get(), this);
             players.remove(player);
-            gameController.setPlayerActive(player.getPlayerName().get(), false);
-            for (PlayerConnection activePlayer : players)
-                activePlayer.sendAnswer(new ErrorAnswer(player.getPlayerName().get() + " has just disconnected"));
-
-            Phase currentPhase = gameController.getGameHandler().getGamePhase();
+            setPlayerActive(player.getPlayerName().get(), false);
+            sendAllAnswer(new ErrorAnswer(player.getPlayerName().get() + " has just disconnected"));
 
-            // If remains only one active player the GameActionHandler moves to SuspendedPhase
-            if (players.size() == 1)
+            handleDeparture(player.getPlayerName().get());
+        }
+        // The game has not started yet
+        else
+        {
+            try
+            {
+                players.remove(player);
+                gameController.removePlayer(player.getPlayerName().get());
+                sendAllAnswer(new ErrorAnswer(player.getPlayerName().get() + " has just disconnected"));
+            } catch (NoSelectedPlayerException e)
             {
-                GameActionHandler handler = gameController.getGameHandler();
-                players.get(0).sendAnswer(
-                        new ErrorAnswer("You are the only active player," + " if no other player reconnects before 1 minute you will win"));
-                handler.setGamePhase(new SuspendedPhase(handler.getGamePhase(), gameController));
+                LOGGER.warn(() -> "The player to remove wasn't in a match.");
             }
-            // If the disconnected player was the current player, its turn ends
-            else if (currentPhase instanceof PlanPhase)
+        }
+    }
+
+    /**
+     * Changes whether the player takes part in the turns and journals the change, the next turns depend on it.
+     */
+    private void setPlayerActive(String playerName, boolean active)
+    {
+        gameController.setPlayerActive(playerName, active);
+
+        journalSequence++;
+        ActionJournal journal = server.getJournal();
+        if (journal != null && !replaying && server.getRegistry().getMatch(matchId) == this)
+            journal.appendPresence(matchId, journalSequence, playerName, active);
+    }
+
+    /**
+     * Journals an action handled by the game controller, whether it has been accepted or not: a refused action can still clear the selections
+     * and the card of the player.
+     *
+     * @param action Action handled.
+     * @param playerName Player performing the action.
+     * @param draws Random draws consumed by the action.
+     */
+    public void journalAction(ActionMessage action, String playerName, int[] draws)
+    {
+        journalSequence++;
+        ActionJournal journal = server.getJournal();
+        if (journal != null && !replaying && server.getRegistry().getMatch(matchId) == this)
+            journal.appendAction(matchId, journalSequence, playerName, action, draws);
+    }
+
+    /**
+     * Replays the journal entries following the checkpoint the match has been restored from, and then makes all the players leave, since none is
+     * connected.
+     *
+     * @param entries Journal entries of the match, in order. The ones already in the checkpoint are skipped.
+     * @return The number of entries replayed.
+     */
+    int replayJournal(List<ActionJournal.Entry> entries)
+    {
+        return callInMailbox(() -> {
+            int replayed = 0;
+            replaying = true;
+            try
             {
-                // Check if the player disconnected was the current one, we are in PlanPhase so the order
-                // is based on table order
-                if (gameController.getGame().getPlayerTableList().get(gameController.getGame().getSelectedPlayerIndex().get()).getNickname()
-                        .equals(player.getPlayerName().get()))
+                for (ActionJournal.Entry entry : entries)
                 {
-                    // The game is in plan phase so it moves on
-                    currentPhase.onValidAction(gameController.getGameHandler());
+                    if (entry.sequence <= journalSequence)
+                        continue;
+
+                    // A missing entry means that the following ones can't be applied to this state
+                    if (entry.sequence != journalSequence + 1)
+                    {
+                        LOGGER.warn(() -> "Journal entry " + (journalSequence + 1) + " of match " + matchId + " missing, the following are ignored");
+                        break;
+                    }
+
+                    if (entry.action == null)
+                        setPlayerActive(entry.playerName, entry.active);
+                    else
+                    {
+                        gameController.getGame().getRandomSource().replay(entry.draws);
+                        gameController.performAction(entry.action, entry.playerName);
+                    }
+                    replayed++;
                 }
-            } else
+            } finally
             {
-                // Check if the player disconnected was the current one, we are not in PlanPhase so the order
-                // is based on sorted order
-                if (gameController.getGame().getSortedPlayerList().get(gameController.getGame().getSelectedPlayerIndex().get()).getNickname()
-                        .equals(player.getPlayerName().get()))
-                {
-                    // If the game isn't in plan phase, the player's turn ends
-                    gameController.getGameHandler().setGamePhase(new EndTurnPhase());
-                    gameController.performAction(new EndTurnMessage(), player.getPlayerName().get());
-                }
+                replaying = false;
+                gameController.getGame().getRandomSource().replay(new int[0]);
             }
+
+            // Neither journaled nor numbered: they leave again after every restart, and the next entries must follow the replayed ones
+            for (Player player : gameController.getGame().getPlayerTableList())
+                if (player.isActive())
+                    gameController.setPlayerActive(player.getNickname(), false);
+
+            return replayed;
+        });
+    }
+
+    /**
+     * Lets the game go on without a player that is no longer connected.
+     *
+     * @param playerName Name of the missing player.
+     */
+    private void handleDeparture(String playerName)
+    {
+        Phase currentPhase = gameController.getGameHandler().getGamePhase();
+
+        // If remains only one active player the GameActionHandler moves to SuspendedPhase
+        if (players.size() == 1)
+        {
+            if (currentPhase instanceof SuspendedPhase)
+                return;
+
+            GameActionHandler handler = gameController.getGameHandler();
+            players.get(0).sendAnswer(
+                    new ErrorAnswer("You are the only active player," + " if no other player reconnects before 1 minute you will win"));
+            handler.setGamePhase(new SuspendedPhase(handler.getGamePhase(), gameController));
         }
-        // The game has not started yet
-        else
+        // If the disconnected player was the current player, its turn ends
+        else if (currentPhase instanceof PlanPhase)
         {
-            try
+            // Check if the player disconnected was the current one, we are in PlanPhase so the order
+            // is based on table order
+            if (gameController.getGame().getPlayerTableList().get(gameController.getGame().getSelectedPlayerIndex().get()).getNickname()
+                    .equals(playerName))
             {
-                players.remove(player);
-                gameController.removePlayer(player.getPlayerName().get());
-                for (PlayerConnection activePlayer : players)
-                    activePlayer.sendAnswer(new ErrorAnswer(player.getPlayerName().get() + " has just disconnected"));
-            } catch (NoSelectedPlayerException e)
+                // The game is in plan phase so it moves on
+                currentPhase.onValidAction(gameController.getGameHandler());
+            }
+        } else
+        {
+            // Check if the player disconnected was the current one, we are not in PlanPhase so the order
+            // is based on sorted order
+            if (gameController.getGame().getSortedPlayerList().get(gameController.getGame().getSelectedPlayerIndex().get()).getNickname()
+                    .equals(playerName))
             {
-                System.out.println("[Match] The player to remove wasn't in a match.");
+                // If the game isn't in plan phase, the player's turn ends
+                gameController.getGameHandler().setGamePhase(new EndTurnPhase());
+                gameController.performAction(new EndTurnMessage(), playerName);
             }
         }
     }
@@ -196,8 +503,7 @@ public class Match implements Subscriber<ModelUpdate>
      */
     public void sendAllAnswer(Answer answer)
     {
-        for (PlayerConnection player : players)
-            player.sendAnswer(answer);
+        PlayerConnection.broadcast(getAudience(), answer);
     }
 
     /**
@@ -215,36 +521,359 @@ public class Match implements Subscriber<ModelUpdate>
     }
 
     /**
-     * Ends the match by removing it from the server.
+     * Ends the match by removing it from the server. Nothing happens if the match has already ended.
      * 
      * @param message Message to send to the players.
      */
     public void endMatch(String message)
     {
+        // Already ended, e.g. by the operator while the last turn was being played
+        if (server.getRegistry().getMatch(matchId) != this)
+            return;
+
+        // The last updates are sent before the end of the match
+        flushUpdates();
+
         server.removeMatch(this, message);
         for (PlayerConnection player : players)
             players.remove(player);
     }
 
     /**
-     * Applies and action by executing it on the game controller.
+     * Applies and action by executing it on the game controller. The action is queued on the match mailbox, the caller doesn't wait for it.
      * 
      * @param action Action to perform.
      * @param player Player performing the action.
+     * @param trace Trace of the action, current while the action is handled.
+     */
+    public void applyAction(ActionMessage action, PlayerConnection player, ActionTrace trace)
+    {
+        mailbox.execute(() -> {
+            trace.run(() -> gameController.performAction(action, player.getPlayerName().get()));
+            finishTask();
+        });
+    }
+
+    /**
+     * Queues a task on the match mailbox, e.g. a timer event. Tasks run one at a time in the order they are submitted.
+     *
+     * @param task Task to run.
      */
-    public void applyAction(ActionMessage action, PlayerConnection player)
+    public void submit(Runnable task)
     {
-        gameController.performAction(action, player.getPlayerName().get());
+        mailbox.execute(() -> {
+            task.run();
+            finishTask();
+        });
     }
 
     /**
-     * Returns the total number of players registered in the match.
+     * Runs the task on the mailbox and waits for it, rethrowing its unchecked exceptions. Must not be called by a loop thread, use submit instead.
+     */
+    <T> T callInMailbox(Callable<T> task)
+    {
+        // A loop thread waiting for a match would stall all the connections it serves
+        if (IoLoop.isLoopThread())
+            throw new IllegalStateException("[Match] A loop thread can't wait for the match " + matchId);
+
+        try
+        {
+            return mailbox.call(() -> {
+                T result = task.call();
+                finishTask();
+                return result;
+            });
+        } catch (RuntimeException e)
+        {
+            throw e;
+        } catch (Exception e)
+        {
+            throw new IllegalStateException("[Match] Error while running a task on the match " + matchId, e);
+        }
+    }
+
+    /**
+     * Opens an update transaction: the model updates are collected until the transaction is committed and then sent together. Transactions can
+     * be nested, the updates are sent when the outermost one is committed.
+     */
+    public void beginUpdates()
+    {
+        openTransactions++;
+    }
+
+    /**
+     * Commits the innermost update transaction.
+     */
+    public void commitUpdates()
+    {
+        if (openTransactions == 0)
+            throw new IllegalStateException("[Match] No update transaction to commit");
+
+        if (--openTransactions == 0)
+            flushUpdates();
+    }
+
+    /**
+     * Sends the collected updates, one frame for each player. The updates made useless by later ones are dropped.
+     */
+    private void flushUpdates()
+    {
+        if (pendingUpdates.isEmpty())
+            return;
+
+        List<ModelUpdate> updates = new ArrayList<>();
+        for (ModelUpdate update : UpdatesBatch.coalesce(pendingUpdates))
+        {
+            // The digest describes the state once the whole frame has been handled
+            if (update instanceof CurrentPlayerUpdate currentPlayerUpdate)
+                update = currentPlayerUpdate.withDigest(digests.current());
+
+            ModelUpdate outgoing = server.isDeltaUpdates() ? baseline.diff(update) : update;
+            updates.add(outgoing);
+            updateLog.append(outgoing);
+        }
+        pendingUpdates = new ArrayList<>();
+        long sequence = updateLog.getLastSequence();
+
+        // Players receiving the same updates share the same frame
+        Map<List<ModelUpdate>, List<PlayerConnection>> recipients = new LinkedHashMap<>();
+        for (PlayerConnection player : players)
+        {
+            List<ModelUpdate> playerUpdates = updates.stream()
+                    .filter(update -> update.getPlayerDestination().isEmpty() || update.getPlayerDestination().equals(player.getPlayerName()))
+                    .collect(Collectors.toList());
+
+            if (!playerUpdates.isEmpty())
+                recipients.computeIfAbsent(playerUpdates, key -> new ArrayList<>()).add(player);
+        }
+
+        // The spectators receive only the updates meant for everyone, usually the same frame as the players
+        if (!spectators.isEmpty())
+        {
+            List<ModelUpdate> sharedUpdates = updates.stream().filter(update -> update.getPlayerDestination().isEmpty()).collect(Collectors.toList());
+            if (!sharedUpdates.isEmpty())
+                recipients.computeIfAbsent(sharedUpdates, key -> new ArrayList<>()).addAll(spectators);
+        }
+
+        for (Map.Entry<List<ModelUpdate>, List<PlayerConnection>> entry : recipients.entrySet())
+        {
+            List<ModelUpdate> batch = entry.getKey();
+            PlayerConnection.broadcast(entry.getValue(), new SequencedUpdate(sequence, batch.size() == 1 ? batch.get(0) : new UpdatesBatch(batch)));
+        }
+    }
+
+    /**
+     * Sends to the player the updates it missed since the given sequence number, all in one frame.
+     *
+     * @return False if the log no longer contains all the missed updates.
+     */
+    private boolean replayUpdates(PlayerConnection player, long lastSequence)
+    {
+        List<ModelUpdate> missed = updateLog.since(lastSequence, player.getPlayerName().get());
+        if (missed == null)
+            return false;
+
+        // The digests describe the state after their own frame, not after the whole replay
+        missed.replaceAll(update -> update instanceof CurrentPlayerUpdate currentPlayerUpdate ? currentPlayerUpdate.withDigest(null) : update);
+
+        LOGGER.debug(() -> "Replaying " + missed.size() + " updates to " + player.getPlayerName().get());
+        if (!missed.isEmpty())
+            player.sendSnapshotUpdate(
+                    new SequencedUpdate(updateLog.getLastSequence(), missed.size() == 1 ? missed.get(0) : new UpdatesBatch(missed)));
+        return true;
+    }
+
+    /**
+     * Sends the whole state of the game to a single player or spectator, e.g. after its queued updates have been dropped. The caller doesn't wait
+     * for it.
+     * 
+     * @param player Player or spectator receiving the snapshot.
+     * @param done Run on the mailbox once the snapshot has been queued, or skipped because the player has left.
+     */
+    public void sendSnapshot(PlayerConnection player, Runnable done)
+    {
+        submit(() -> {
+            try
+            {
+                sendSnapshotInMailbox(player);
+            } finally
+            {
+                done.run();
+            }
+        });
+    }
+
+    private void sendSnapshotInMailbox(PlayerConnection player)
+    {
+        if ((!players.contains(player) && !spectators.contains(player)) || gameController.getGame().getMotherNatureIndex().isEmpty())
+            return;
+
+        snapshotTarget = player;
+        try
+        {
+            gameController.getGame().notifyPlayers();
+        } finally
+        {
+            snapshotTarget = null;
+        }
+    }
+
+    /**
+     * Sends some sections of the board state to a single player or spectator, all in one frame. The other players and the delta baseline aren't
+     * affected. The caller doesn't wait for it.
+     *
+     * @param player Player or spectator receiving the sections.
+     * @param sections Bits of the sections, see StateDigest.
+     */
+    public void sendSections(PlayerConnection player, int sections)
+    {
+        submit(() -> {
+            Game game = gameController.getGame();
+            if ((!players.contains(player) && !spectators.contains(player)) || game.getMotherNatureIndex().isEmpty())
+                return;
+
+            List<ModelUpdate> updates = new ArrayList<>();
+            if ((sections & StateDigest.ISLANDS) != 0)
+                updates.add(new IslandsUpdate(new ArrayList<>(game.getIslands()), game.getMotherNatureIndex().get()));
+            if ((sections & StateDigest.CLOUD_TILES) != 0)
+                updates.add(new CloudTilesUpdate(new ArrayList<>(game.getCloudTiles())));
+
+            List<Player> tablePlayers = game.getPlayerTableList();
+            for (int i = 0; i < tablePlayers.size(); i++)
+                if ((sections & StateDigest.boardSection(i)) != 0)
+                    updates.add(new SchoolBoardUpdate(tablePlayers.get(i).getBoard(), tablePlayers.get(i).getNickname(), i));
+
+            LOGGER.debug(() -> "Sending " + updates.size() + " sections to " + player.getPlayerName().orElse(""));
+            if (!updates.isEmpty())
+                player.sendSnapshotUpdate(
+                        new SequencedUpdate(updateLog.getLastSequence(), updates.size() == 1 ? updates.get(0) : new UpdatesBatch(updates)));
+        });
+    }
+
+    /**
+     * Runs at the end of every task of the mailbox.
+     */
+    private void finishTask()
+    {
+        checkpointIfTurnChanged();
+        publishState();
+    }
+
+    /**
+     * Saves the state of the game if the turn has changed since the last task, so that the match can be restored after a restart. The checkpoint
+     * is taken only between two turns, when no character card is active and the players have no pending selections.
+     */
+    private void checkpointIfTurnChanged()
+    {
+        if (!turnChanged || openTransactions > 0)
+            return;
+        turnChanged = false;
+
+        // An ended match must not come back after a restart
+        if (server.getRegistry().getMatch(matchId) != this)
+            return;
+
+        CheckpointStore checkpoints = server.getCheckpoints();
+        GameActionHandler handler = gameController.getGameHandler();
+        if (checkpoints == null || handler == null)
+            return;
+
+        Phase phase = handler.getGamePhase();
+        if (phase instanceof SuspendedPhase suspendedPhase)
+            phase = suspendedPhase.getPreviousPhase();
+        if (!(phase instanceof PlanPhase) && !(phase instanceof MoveStudentPhase))
+            return;
+
+        long startNanos = System.nanoTime();
+        BinaryWriter writer = new BinaryWriter(checkpointSize);
+        if (phase instanceof PlanPhase planPhase)
+        {
+            writer.writeBoolean(true);
+            writer.writeInt(planPhase.getCount());
+            writer.writeInt(planPhase.getBestPlayerIndex());
+        } else
+            writer.writeBoolean(false);
+        writer.writeBoolean(handler.isTableIndex());
+        writer.writeLong(journalSequence);
+        GameCheckpoint.write(writer, gameController.getGame());
+        for (Player player : gameController.getGame().getPlayerTableList())
+            writer.writeBoolean(player.isActive());
+
+        checkpointSize = writer.size();
+        checkpoints.save(matchId, writer.toByteArray());
+        ServerMetrics.checkpointWritten(checkpointSize, startNanos);
+
+        // The journal entries appended so far are in the checkpoint
+        if (server.getJournal() != null)
+            server.getJournal().release(matchId);
+    }
+
+    /**
+     * Called once the players of a restored match had the time to come back: the match ends if none came back, otherwise the missing players are
+     * treated as disconnected, so that the game doesn't wait for them.
+     */
+    void settleRestoredPlayers()
+    {
+        submit(() -> {
+            if (players.isEmpty())
+            {
+                server.removeMatch(this, "The match no longer exists");
+                return;
+            }
+
+            for (String name : new ArrayList<>(missingPlayers))
+                handleDeparture(name);
+        });
+    }
+
+    /**
+     * Returns the total number of players registered in the match, as published by the mailbox after its last change.
      */
     public int getPlayersNumber()
+    {
+        return playersNumber;
+    }
+
+    /**
+     * Returns the name of the current game phase, "Waiting" while the match hasn't started, as published by the mailbox after its last task.
+     */
+    public String getPhaseName()
+    {
+        return phaseName;
+    }
+
+    /**
+     * Counts the players registered in the match, must be called on the mailbox.
+     */
+    private int countPlayers()
     {
         return players.size() + missingPlayers.size();
     }
 
+    /**
+     * Publishes the state read outside of the mailbox. Called at the end of every task and before the callbacks that read it.
+     */
+    private void publishState()
+    {
+        playersNumber = countPlayers();
+
+        GameActionHandler handler = gameController.getGameHandler();
+        phaseName = handler == null ? "Waiting" : handler.getGamePhase().getClass().getSimpleName();
+    }
+
+    /**
+     * Tells whether the match is still waiting for players to join.
+     */
+    public boolean isOpen()
+    {
+        return getPlayersNumber() < gameController.getPlayersNumber();
+    }
+
+    public String getMatchId()
+    {
+        return matchId;
+    }
+
     public Controller getController()
     {
         return gameController;
@@ -263,6 +892,40 @@ public class Match implements Subscriber<ModelUpdate>
         return missingPlayers;
     }
 
+    /**
+     * Returns the connections watching the match.
+     */
+    public List<PlayerConnection> getSpectators()
+    {
+        return spectators;
+    }
+
+    /**
+     * Returns the connections receiving the updates meant for everyone, the players and the spectators.
+     */
+    private List<PlayerConnection> getAudience()
+    {
+        if (spectators.isEmpty())
+            return players;
+
+        List<PlayerConnection> audience = new ArrayList<>(players.size() + spectators.size());
+        audience.addAll(players);
+        audience.addAll(spectators);
+        return audience;
+    }
+
+    /**
+     * Returns the index of every player in the table order, by name.
+     */
+    private Map<String, Integer> getTableIndexes()
+    {
+        Map<String, Integer> indexes = new HashMap<>();
+        List<Player> tablePlayers = gameController.getGame().getPlayerTableList();
+        for (int i = 0; i < tablePlayers.size(); i++)
+            indexes.put(tablePlayers.get(i).getNickname(), i);
+        return indexes;
+    }
+
     /**
      * This method is invoked when the model has been changed.
      * 
@@ -271,14 +934,51 @@ public class Match implements Subscriber<ModelUpdate>
     @Override
     public void onNext(ModelUpdate update)
     {
-        if (update.getPlayerDestination().isPresent())
+        ServerMetrics.UPDATES_SENT.increment();
+
+        ModelUpdateEvent event = new ModelUpdateEvent();
+        if (event.shouldCommit())
+        {
+            event.matchId = matchId;
+            event.updateType = update.getClass().getSimpleName();
+            event.destination = update.getPlayerDestination().orElse("");
+            event.commit();
+        }
+
+        // Snapshots are sent whole and don't change what the other players have received
+        if (snapshotTarget != null)
+        {
+            // A spectator may have the name of a player who left, it must not receive that player's updates
+            if (update.getPlayerDestination().isEmpty()
+                    || (players.contains(snapshotTarget) && update.getPlayerDestination().equals(snapshotTarget.getPlayerName())))
+                snapshotTarget.sendSnapshotUpdate(new SequencedUpdate(updateLog.getLastSequence(), update));
+            return;
+        }
+
+        digests.record(update);
+
+        if (update instanceof CurrentPlayerUpdate)
+            turnChanged = true;
+
+        if (openTransactions > 0)
+        {
+            pendingUpdates.add(update);
+            return;
+        }
+
+        if (update instanceof CurrentPlayerUpdate currentPlayerUpdate)
+            update = currentPlayerUpdate.withDigest(digests.current());
+
+        ModelUpdate outgoing = server.isDeltaUpdates() ? baseline.diff(update) : update;
+        SequencedUpdate sequenced = new SequencedUpdate(updateLog.append(outgoing), outgoing);
+
+        if (outgoing.getPlayerDestination().isPresent())
         {
-            players.stream().filter((player) -> player.getPlayerName().equals(update.getPlayerDestination())).findFirst()
-                    .ifPresent((player) -> player.sendModelUpdate(update));
+            players.stream().filter((player) -> player.getPlayerName().equals(outgoing.getPlayerDestination())).findFirst()
+                    .ifPresent((player) -> player.sendModelUpdate(sequenced));
         } else
         {
-            for (PlayerConnection player : players)
-                player.sendModelUpdate(update);
+            PlayerConnection.broadcast(getAudience(), sequenced);
         }
     }
 
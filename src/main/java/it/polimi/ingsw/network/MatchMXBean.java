@@ -0,0 +1,30 @@
+package it.polimi.ingsw.network;
+
+/**
+ * Management interface of a match, registered as "it.polimi.ingsw:type=Match,id=..." while the match exists.
+ */
+public interface MatchMXBean
+{
+    String getMatchId();
+
+    String getGameMode();
+
+    int getMaxPlayers();
+
+    /**
+     * Returns the name of the current game phase, "Waiting" while the match hasn't started.
+     */
+    String getPhase();
+
+    String[] getPlayers();
+
+    /**
+     * Returns the names of the players disconnected during the match.
+     */
+    String[] getMissingPlayers();
+
+    /**
+     * Ends the match, sending the players back to the lobby.
+     */
+    void end();
+}
@@ -0,0 +1,120 @@
+package it.polimi.ingsw.network;
+
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import it.polimi.ingsw.logging.Log;
+import it.polimi.ingsw.logging.Logger;
+
+/**
+ * Serial executor of a match. The tasks submitted are run one at a time, in order, on the threads of the shared server executor, so the game of a
+ * match is only ever touched by one thread at a time while different matches run in parallel.
+ */
+class MatchMailbox
+{
+    private static final Logger LOGGER = Log.getLogger(MatchMailbox.class);
+
+    /**
+     * Maximum number of tasks run before giving the thread back to the executor, so that a busy match doesn't starve the others.
+     */
+    private static final int TASKS_PER_RUN = 64;
+
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    /**
+     * Thread currently running the tasks, null if none.
+     */
+    private volatile Thread runner = null;
+
+    private final String name;
+
+    MatchMailbox(String name)
+    {
+        this.name = name;
+    }
+
+    /**
+     * Queues the task, it will run after all the tasks already submitted.
+     *
+     * @param task Task to run.
+     */
+    void execute(Runnable task)
+    {
+        tasks.add(task);
+        schedule();
+    }
+
+    /**
+     * Runs the task on the mailbox and waits for its result. If the caller is already running inside the mailbox the task is run immediately,
+     * waiting for it would never end.
+     *
+     * @param task Task to run.
+     * @return The result of the task.
+     * @throws Exception Thrown by the task.
+     */
+    <T> T call(Callable<T> task) throws Exception
+    {
+        if (isMailboxThread())
+            return task.call();
+
+        FutureTask<T> future = new FutureTask<>(task);
+        execute(future);
+
+        try
+        {
+            return future.get();
+        } catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof Exception cause)
+                throw cause;
+            throw e;
+        }
+    }
+
+    /**
+     * Tells whether the calling thread is the one running the mailbox tasks.
+     */
+    boolean isMailboxThread()
+    {
+        return runner == Thread.currentThread();
+    }
+
+    private void schedule()
+    {
+        if (scheduled.compareAndSet(false, true))
+            ServerExecutor.get().execute(this::run);
+    }
+
+    private void run()
+    {
+        runner = Thread.currentThread();
+        try
+        {
+            Runnable task;
+            for (int i = 0; i < TASKS_PER_RUN && (task = tasks.poll()) != null; i++)
+            {
+                try
+                {
+                    task.run();
+                } catch (RuntimeException e)
+                {
+                    LOGGER.error(() -> "Error in match " + name, e);
+                }
+            }
+        } finally
+        {
+            runner = null;
+            scheduled.set(false);
+
+            // Tasks added while finishing would otherwise wait for the next submission
+            if (!tasks.isEmpty())
+                schedule();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package it.polimi.ingsw.network;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+import it.polimi.ingsw.logging.Log;
+import it.polimi.ingsw.logging.Logger;
+
+/**
+ * Server connection that serves the clients with non blocking channels. Instead of using a thread per player, the accepted channels are distributed
+ * among a fixed number of IoLoops, so the number of threads doesn't grow with the number of connected players.
+ */
+public class NioServerConnection extends ServerConnection
+{
+    private static final Logger LOGGER = Log.getLogger(NioServerConnection.class);
+
+    private final int ioThreads;
+
+    private IoLoop[] loops;
+
+    private int nextLoop = 0;
+
+    /**
+     * Creates a new NioServerConnection instance.
+     *
+     * @param server Server instance which handles the players.
+     * @param port Port to listen on.
+     * @param ioThreads Number of loops serving the channels.
+     * @throws IllegalArgumentException Thrown if the number of loops is not positive.
+     */
+    NioServerConnection(Server server, int port, int ioThreads) throws IllegalArgumentException
+    {
+        super(server, port);
+
+        if (ioThreads <= 0)
+            throw new IllegalArgumentException("[NioServerConnection] The number of io threads must be positive");
+
+        this.ioThreads = ioThreads;
+    }
+
+    @Override
+    public synchronized void setActive(boolean active)
+    {
+        super.setActive(active);
+
+        if (!active && loops != null)
+            for (IoLoop loop : loops)
+                loop.stop();
+    }
+
+    /**
+     * Opens the server channel, starts the loops and accepts new connection until disabled.
+     */
+    @Override
+    public void run()
+    {
+        try (ServerSocketChannel serverChannel = ServerSocketChannel.open())
+        {
+            serverChannel.bind(new InetSocketAddress(getPort()));
+            startLoops();
+            LOGGER.info(() -> "Server channel started with " + ioThreads + " io threads, listening on port " + getPort());
+
+            while (isActive())
+            {
+                try
+                {
+                    accept(serverChannel.accept());
+                    LOGGER.info(() -> "Accepted new player");
+                } catch (IOException e)
+                {
+                    LOGGER.warn(() -> "Error while accepting a player: " + e.getMessage());
+                }
+            }
+        } catch (IOException e)
+        {
+            LOGGER.error(() -> "Error during Socket initialization, quitting...");
+            Log.shutdown();
+            System.exit(-1);
+        } catch (IllegalArgumentException e)
+        {
+            LOGGER.error(() -> "The give port is not valid, quitting...");
+            Log.shutdown();
+            System.exit(-1);
+        }
+    }
+
+    private synchronized void startLoops() throws IOException
+    {
+        loops = new IoLoop[ioThreads];
+        for (int i = 0; i < ioThreads; i++)
+        {
+            loops[i] = new IoLoop();
+            new Thread(loops[i], "io-loop-" + i).start();
+        }
+    }
+
+    /**
+     * Configures the accepted channel and hands it to the next loop.
+     */
+    private void accept(SocketChannel channel) throws IOException
+    {
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+
+        IoLoop loop = loops[nextLoop];
+        nextLoop = (nextLoop + 1) % loops.length;
+
+        ChannelPlayerConnection connection = new ChannelPlayerConnection(getServer(), channel, loop);
+        ServerMetrics.CONNECTIONS_ACCEPTED.increment();
+        loop.execute(connection::register);
+    }
+}
@@ -0,0 +1,215 @@
+package it.polimi.ingsw.network;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import it.polimi.ingsw.protocol.codec.EncodedFrame;
+
+/**
+ * Bounded queue of the frames waiting to be written on a connection, filled by the game threads and drained by a single writer.
+ *
+ * When the queue overflows the connection is marked as a slow consumer: the queued model updates are dropped, and so are the next ones, because
+ * the client will receive a full snapshot once the queue is drained. Answers are never dropped, if they alone overflow the queue the connection
+ * can't keep up and has to be closed.
+ *
+ * Closing the queue drops the model updates but keeps the answers already queued, e.g. the reason of the closing, so that the writer can still
+ * write them. The transport is closed once they have been written.
+ */
+class OutboundQueue
+{
+    /**
+     * Result of an offer.
+     */
+    enum OfferResult
+    {
+        /**
+         * The frame has been queued and a writer is already running.
+         */
+        QUEUED,
+
+        /**
+         * The frame has been queued and the caller has to start a writer.
+         */
+        START_WRITER,
+
+        /**
+         * The frame has been dropped because the connection is a slow consumer or is closed.
+         */
+        DROPPED,
+
+        /**
+         * The queue is full of answers, the connection has to be closed.
+         */
+        OVERFLOW
+    }
+
+    private final int capacity;
+
+    private final Deque<Entry> frames = new ArrayDeque<>();
+
+    /**
+     * Tells whether a writer is currently draining the queue.
+     */
+    private boolean writing = false;
+
+    /**
+     * Volatile so that it can be checked without taking the queue lock.
+     */
+    private volatile boolean slowConsumer = false;
+
+    private boolean closed = false;
+
+    /**
+     * Set once the transport can be closed, or has been closed anyway.
+     */
+    private boolean released = false;
+
+    /**
+     * Set when the slow consumer has drained its queue and needs a snapshot.
+     */
+    private boolean resyncNeeded = false;
+
+    /**
+     * Set while the snapshot is being prepared, to request it only once.
+     */
+    private boolean resyncScheduled = false;
+
+    OutboundQueue(int capacity)
+    {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("[OutboundQueue] The capacity must be positive");
+
+        this.capacity = capacity;
+    }
+
+    /**
+     * Adds a frame to the queue.
+     *
+     * @param frame Frame to send.
+     * @param droppable True if the frame can be replaced by a later snapshot, i.e. it is a model update.
+     * @return What the caller has to do next.
+     */
+    synchronized OfferResult offer(EncodedFrame frame, boolean droppable)
+    {
+        if (closed || (droppable && slowConsumer))
+            return OfferResult.DROPPED;
+
+        if (frames.size() >= capacity)
+        {
+            // Make room by dropping the model updates, the snapshot will replace them
+            frames.removeIf(entry -> entry.droppable);
+            slowConsumer = true;
+
+            if (droppable)
+                return OfferResult.DROPPED;
+            if (frames.size() >= capacity)
+                return OfferResult.OVERFLOW;
+        }
+
+        frames.add(new Entry(frame, droppable));
+
+        if (writing)
+            return OfferResult.QUEUED;
+
+        writing = true;
+        return OfferResult.START_WRITER;
+    }
+
+    /**
+     * Takes the next frame to write. When it returns null the writer must stop, a new one is started by the next offer.
+     */
+    synchronized EncodedFrame poll()
+    {
+        Entry entry = frames.poll();
+        if (entry != null)
+            return entry.frame;
+
+        writing = false;
+
+        // The slow consumer caught up, the updates keep being dropped until the snapshot is queued
+        if (slowConsumer && !resyncScheduled && !closed)
+            resyncNeeded = true;
+
+        return null;
+    }
+
+    /**
+     * Called once the snapshot has been queued, from now on the model updates are queued again.
+     */
+    synchronized void endResync()
+    {
+        slowConsumer = false;
+        resyncScheduled = false;
+    }
+
+    /**
+     * Tells if the connection has caught up after being a slow consumer. Returns true only once per resync, endResync must then be called.
+     */
+    synchronized boolean takeResyncNeeded()
+    {
+        if (!resyncNeeded)
+            return false;
+
+        resyncNeeded = false;
+        resyncScheduled = true;
+        return true;
+    }
+
+    boolean isSlowConsumer()
+    {
+        return slowConsumer;
+    }
+
+    synchronized int size()
+    {
+        return frames.size();
+    }
+
+    synchronized boolean isClosed()
+    {
+        return closed;
+    }
+
+    /**
+     * Drops the queued model updates and refuses the next frames. The answers already queued are still given to the writer.
+     *
+     * @return False if the queue was already closed.
+     */
+    synchronized boolean close()
+    {
+        if (closed)
+            return false;
+
+        closed = true;
+        frames.removeIf(entry -> entry.droppable);
+        return true;
+    }
+
+    /**
+     * Tells whether the transport can be closed: the queue is closed and the writer has written every frame left. Returns true only once.
+     *
+     * @param force True to drop the frames not written yet, e.g. because the client doesn't read them or the transport is broken.
+     */
+    synchronized boolean release(boolean force)
+    {
+        if (!closed || released || (writing && !force))
+            return false;
+
+        released = true;
+        frames.clear();
+        return true;
+    }
+
+    private static class Entry
+    {
+        private final EncodedFrame frame;
+
+        private final boolean droppable;
+
+        private Entry(EncodedFrame frame, boolean droppable)
+        {
+            this.frame = frame;
+            this.droppable = droppable;
+        }
+    }
+}
@@ -1,33 +1,42 @@
 package it.polimi.ingsw.network;
 
-import java.net.Socket;
-import java.util.Map;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Optional;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import it.polimi.ingsw.jfr.PacketHandledEvent;
+import it.polimi.ingsw.logging.Log;
+import it.polimi.ingsw.logging.Logger;
+import it.polimi.ingsw.metrics.RttEstimator;
 import it.polimi.ingsw.model.exceptions.TooManyPlayersException;
 import it.polimi.ingsw.protocol.answers.Answer;
+import it.polimi.ingsw.protocol.answers.CapabilitiesAnswer;
 import it.polimi.ingsw.protocol.answers.EndMatchAnswer;
 import it.polimi.ingsw.protocol.answers.ErrorAnswer;
+import it.polimi.ingsw.protocol.answers.PongAnswer;
 import it.polimi.ingsw.protocol.answers.SetNameAnswer;
+import it.polimi.ingsw.protocol.codec.EncodedFrame;
+import it.polimi.ingsw.protocol.codec.FrameDeflater;
+import it.polimi.ingsw.protocol.commands.CapabilitiesCommand;
 import it.polimi.ingsw.protocol.commands.Command;
+import it.polimi.ingsw.protocol.commands.GetMatchesListCommand;
 import it.polimi.ingsw.protocol.commands.PingCommand;
 import it.polimi.ingsw.protocol.messages.ActionMessage;
 import it.polimi.ingsw.protocol.updates.ModelUpdate;
-import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import it.polimi.ingsw.tracing.ActionTrace;
 
 /**
- * This class is used to manages a player. His socket is listened to and every message received is handled if recognized.
+ * This class is used to manages a player. Every message received from the player is handled if recognized.
+ *
+ * The way bytes are actually exchanged with the client is left to the subclasses, which implement the transport either with a blocking socket or
+ * with a non blocking channel. Outgoing frames are never written by the caller: they are put in a bounded queue drained by the transport, so a
+ * client that doesn't read can't stall the game.
  */
-public class PlayerConnection implements Runnable
+public abstract class PlayerConnection
 {
-    private Socket playerSocket;
-
-    private ObjectInputStream inputStream;
-
-    private ObjectOutputStream outputStream;
+    private static final Logger LOGGER = Log.getLogger(PlayerConnection.class);
 
     private Server server;
 
@@ -36,32 +45,60 @@ public class PlayerConnection implements Runnable
     private boolean active = true;
 
     /**
-     * Future used to tell if the connection times out.
+     * Time in milliseconds after which a silent connection is closed, before the round trip time is known and at least afterwards.
+     */
+    public static final long WATCHDOG_TIMEOUT = 5000;
+
+    /**
+     * Maximum time in milliseconds a connection can stay silent, however slow the link is.
      */
-    private Future<?> watchdogTask = null;
+    public static final long MAX_WATCHDOG_TIMEOUT = 30000;
+
+    /**
+     * Number of heartbeats that can go missing before the connection is closed.
+     */
+    private static final int MISSED_HEARTBEATS = 4;
+
+    /**
+     * Entry of the server's heartbeat wheel used to tell if the connection times out.
+     */
+    private HeartbeatWheel.Entry watchdog = null;
+
+    /**
+     * Value of System.nanoTime() when the last packet arrived, or when the connection was opened.
+     */
+    private volatile long lastPingNanos = System.nanoTime();
+
+    /**
+     * Round trip time measured with the PingCommands echoing the server's PongAnswers.
+     */
+    private final RttEstimator rtt = new RttEstimator();
+
+    /**
+     * Maximum number of frames waiting to be written before the connection is considered a slow consumer.
+     */
+    public static final int OUTBOUND_QUEUE_CAPACITY = 256;
+
+    private final OutboundQueue outbound = new OutboundQueue(OUTBOUND_QUEUE_CAPACITY);
+
+    /**
+     * Time in milliseconds the answers queued before closing the connection have to be written, then the transport is closed anyway.
+     */
+    public static final long CLOSE_DRAIN_TIMEOUT = 2000;
+
+    /**
+     * Compressor of the outgoing frames, null until the client asks for the compression.
+     */
+    private volatile FrameDeflater deflater = null;
 
     /**
      * Creates a new PlayerConnection object.
      * 
-     * Creates also the input and output streams used to communicate with the client.
-     * 
      * @param server Server instance which creates the player connection.
-     * @param playerSocket Player socket created in the server.
-     * @throws IOException Thrown if an error occurs during streams creation.
      */
-    PlayerConnection(Server server, Socket playerSocket) throws IOException
+    PlayerConnection(Server server)
     {
         this.server = server;
-        this.playerSocket = playerSocket;
-
-        try
-        {
-            inputStream = new ObjectInputStream(playerSocket.getInputStream());
-            outputStream = new ObjectOutputStream(playerSocket.getOutputStream());
-        } catch (IOException e)
-        {
-            System.err.println("[PlayerConnection] Error during initialization of the client: " + e.getMessage());
-        }
     }
 
     public synchronized boolean isActive()
@@ -74,11 +111,6 @@ public class PlayerConnection implements Runnable
         this.active = active;
     }
 
-    public Socket getPlayerSocket()
-    {
-        return playerSocket;
-    }
-
     public Server getServer()
     {
         return server;
@@ -112,62 +144,202 @@ public class PlayerConnection implements Runnable
             }
         }
 
-        // Check if there is already a player with this name
-        System.out.println("[PlayerConnection] Checking if there is already a player with the name \"" + playerName + "\"");
-        for (PlayerConnection playerConnection : server.getLobby())
-            if (playerConnection.getPlayerName().isPresent())
-                if (playerConnection.getPlayerName().isPresent() && playerConnection.getPlayerName().get().equals(playerName))
-                {
-                    sendAnswer(new ErrorAnswer("This name is already in use"));
-                    return;
-                }
-        for (Match match : server.getAllMatches().values())
-            for (PlayerConnection playerConnection : match.getPlayers())
-                if (playerConnection.getPlayerName().isPresent() && playerConnection.getPlayerName().get().equals(playerName))
-                {
-                    sendAnswer(new ErrorAnswer("This name is already in use"));
-                    return;
-                }
+        // Reserve the name, it fails if there is already a player with this name
+        LOGGER.debug(() -> "Checking if there is already a player with the name \"" + playerName + "\"");
+        ServerRegistry registry = server.getRegistry();
+        if (!registry.claimName(playerName, this))
+        {
+            sendAnswer(new ErrorAnswer("This name is already in use"));
+            return;
+        }
+
+        // The previous name, if any, can be used by other players
+        String newName = playerName;
+        this.playerName.filter(oldName -> !oldName.equals(newName)).ifPresent(oldName -> registry.releaseName(oldName, this));
 
         this.playerName = Optional.of(playerName);
-        sendAnswer(new SetNameAnswer(playerName));
+        sendAnswer(new SetNameAnswer(playerName, registry.openSession(playerName)));
 
-        System.out.println("[PlayerConnection] Checking if the player was in a game");
-        for (Map.Entry<String, Match> match : server.getAllMatches().entrySet())
+        LOGGER.debug(() -> "Checking if the player was in a game");
+        Optional<Match> missingMatch = registry.getMatchOfMissingPlayer(playerName);
+        if (missingMatch.isPresent())
         {
-            if (match.getValue().getMissingPlayers().contains(playerName))
+            try
+            {
+                server.addPlayerToMatch(missingMatch.get().getMatchId(), this);
+            } catch (TooManyPlayersException e)
             {
-                try
-                {
-                    server.addPlayerToMatch(match.getKey(), this);
-                    break;
-                } catch (TooManyPlayersException e)
-                {
-                }
             }
+        } else if (registry.isInLobby(this))
+            server.sendMatchesList(this, new GetMatchesListCommand());
+    }
 
+    /**
+     * Logs the player in with the name of the given session. If the player was in a match it gets back its place, receiving only the updates it
+     * missed.
+     *
+     * @param sessionToken Token received by the player with its last SetNameAnswer.
+     * @param lastSequence Sequence number of the last update the player handled, 0 if it has no state of the match.
+     */
+    public void resumeSession(String sessionToken, long lastSequence)
+    {
+        ServerRegistry registry = server.getRegistry();
+        String name = registry.getSessionName(sessionToken);
+        if (name == null)
+        {
+            sendAnswer(new ErrorAnswer("The session has expired, choose a name to log in"));
+            return;
+        }
+
+        // The server may not have noticed yet that the previous connection is lost, the token proves it belongs to the same player
+        PlayerConnection previous = registry.getPlayer(name);
+        Match previousMatch = null;
+        if (previous != null && previous != this)
+        {
+            LOGGER.info(() -> "Player " + name + " resumed its session, closing its previous connection");
+
+            // The name passes to this connection right away, the previous one leaves its match later, on the match mailbox
+            previousMatch = registry.getMatchOf(previous);
+            registry.replaceName(name, previous, this);
+            previous.sendAnswer(new EndMatchAnswer("The session has been resumed by another connection"));
+            previous.close();
+        }
+
+        if (!registry.claimName(name, this))
+        {
+            sendAnswer(new ErrorAnswer("This name is already in use"));
+            return;
+        }
+
+        playerName = Optional.of(name);
+        sendAnswer(new SetNameAnswer(name, registry.openSession(name)));
+
+        if (previousMatch != null)
+            server.resumeMatch(previousMatch, this, lastSequence);
+        else
+        {
+            Optional<Match> missingMatch = registry.getMatchOfMissingPlayer(name);
+            if (missingMatch.isPresent())
+                server.resumeMatch(missingMatch.get(), this, lastSequence);
+            else if (registry.isInLobby(this))
+                server.sendMatchesList(this, new GetMatchesListCommand());
         }
     }
 
     /**
-     * Restarts the watchdog timer used to tell if the connection timed out.
+     * Restarts the watchdog timer used to tell if the connection timed out. Called for every packet received, the clients send a PingCommand only
+     * when they have nothing else to send.
      */
-    public void restartWatchdog()
+    public synchronized void restartWatchdog()
     {
-        if (watchdogTask != null)
-            watchdogTask.cancel(true);
+        lastPingNanos = System.nanoTime();
 
-        watchdogTask = Executors.newCachedThreadPool().submit(() -> {
-            try
-            {
-                Thread.sleep(5000);
-                System.out.println("Player connection timed out!");
-                sendAnswer(new EndMatchAnswer("Connection timed out"));
-                close();
-            } catch (InterruptedException e)
-            {
-            }
-        });
+        if (watchdog == null)
+            watchdog = server.getHeartbeatWheel().schedule(getWatchdogTimeout(), this::onWatchdogExpired);
+        else
+            watchdog.touch(getWatchdogTimeout());
+    }
+
+    /**
+     * Returns the time in milliseconds the connection can stay silent: a few heartbeats plus the time their delivery can take on this link, so
+     * that slow links aren't closed by mistake.
+     */
+    public long getWatchdogTimeout()
+    {
+        if (!rtt.hasSamples())
+            return WATCHDOG_TIMEOUT;
+
+        long timeout = MISSED_HEARTBEATS * PingCommand.HEARTBEAT_INTERVAL + TimeUnit.NANOSECONDS.toMillis(rtt.getReplyBoundNanos());
+        return Math.max(WATCHDOG_TIMEOUT, Math.min(MAX_WATCHDOG_TIMEOUT, timeout));
+    }
+
+    /**
+     * Measures the round trip time from the server's timestamp echoed by the ping, and answers with a PongAnswer so that the client can do the
+     * same.
+     *
+     * @param ping Ping received.
+     */
+    public void handlePing(PingCommand ping)
+    {
+        long now = System.nanoTime();
+
+        // The time the client held the timestamp before echoing it isn't part of the trip
+        if (ping.getEchoTimestamp() != 0)
+        {
+            long sample = now - ping.getEchoTimestamp() - ping.getEchoDelay();
+            rtt.sample(sample);
+            ServerMetrics.roundTripMeasured(sample);
+        }
+
+        if (ping.getTimestamp() != 0)
+            sendAnswer(new PongAnswer(ping.getTimestamp(), now));
+    }
+
+    /**
+     * Returns the smoothed round trip time in milliseconds, 0 if not measured yet.
+     */
+    public long getRttMillis()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(rtt.getSmoothedNanos());
+    }
+
+    /**
+     * Returns the smoothed variation of the round trip time in milliseconds.
+     */
+    public long getRttVariationMillis()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(rtt.getVariationNanos());
+    }
+
+    /**
+     * Called by the heartbeat wheel when no packet arrived in time.
+     */
+    private void onWatchdogExpired()
+    {
+        LOGGER.info(() -> "Player " + playerName.orElse("") + " timed out");
+        sendAnswer(new EndMatchAnswer("Connection timed out"));
+        close();
+    }
+
+    /**
+     * Enables the optional protocol features both the client and the server support, and tells the client which ones.
+     *
+     * @param requested Bit mask of the features supported by the client, see CapabilitiesCommand.
+     */
+    public void negotiateCapabilities(int requested)
+    {
+        int enabled = 0;
+
+        if ((requested & CapabilitiesCommand.DEFLATE) != 0 && server.getCompressionThreshold() > 0)
+        {
+            // The frames already queued can be compressed too, the client accepts them from now on
+            if (deflater == null)
+                deflater = new FrameDeflater(server.getCompressionThreshold());
+            enabled |= CapabilitiesCommand.DEFLATE;
+        }
+
+        sendAnswer(new CapabilitiesAnswer(enabled));
+    }
+
+    /**
+     * Returns the time in milliseconds since the last packet received, ping or not.
+     */
+    public long getLastPingAgeMillis()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastPingNanos);
+    }
+
+    /**
+     * Returns the number of frames waiting to be written.
+     */
+    public int getQueueDepth()
+    {
+        return outbound.size();
+    }
+
+    public boolean isSlowConsumer()
+    {
+        return outbound.isSlowConsumer();
     }
 
     public boolean isInAMatch()
@@ -176,47 +348,77 @@ public class PlayerConnection implements Runnable
     }
 
     /**
-     * Closes the player connection by removing it from the server and closing the socket.
+     * Closes the player connection by removing it from the server and closing the underlying transport. The answers already sent, e.g. the reason
+     * of the closing, are written first, as long as the client reads them within CLOSE_DRAIN_TIMEOUT.
      */
     public void close()
     {
-        server.removePlayerFromServer(this);
+        close(false);
+    }
+
+    /**
+     * Closes the player connection without writing the answers left, because the transport is broken.
+     */
+    protected void abort()
+    {
+        close(true);
+    }
+
+    private void close(boolean force)
+    {
+        synchronized (this)
+        {
+            if (watchdog != null)
+                watchdog.cancel();
+        }
+
+        if (outbound.close())
+        {
+            server.removePlayerFromServer(this);
+            server.connectionClosed(this);
+
+            // The writer closes the transport once the queue is empty, unless the client stops reading
+            if (!force)
+                server.getHeartbeatWheel().schedule(CLOSE_DRAIN_TIMEOUT, () -> releaseTransport(true));
+        }
+
+        releaseTransport(force);
+    }
+
+    private void releaseTransport(boolean force)
+    {
+        if (!outbound.release(force))
+            return;
 
         try
         {
-            playerSocket.close();
+            closeTransport();
         } catch (IOException e)
         {
-            System.err.println("[PlayerConnection] An error occurred while closing the player's connection");
-            System.err.println("[PlayerConnection] " + e.getMessage());
+            LOGGER.warn(() -> "An error occurred while closing the player's connection: " + e.getMessage());
         }
     }
 
     /**
-     * Keeps listening to the input stream and handles the messages from the user.
+     * Tells whether the connection has been closed, even if the last answers are still being written.
+     */
+    public boolean isClosing()
+    {
+        return outbound.isClosed();
+    }
+
+    /**
+     * Registers the connection into the server's lobby and starts the first watchdog. Must be called by the transport once the connection is ready
+     * to exchange packets.
      */
-    @Override
-    public void run()
+    protected void onConnected()
     {
         // Register the player into the server
         server.addPlayerToLobby(this);
+        server.connectionOpened(this);
 
         // Start the first watchdog
         restartWatchdog();
-
-        try
-        {
-            while (isActive())
-                handlePacket(inputStream.readObject());
-        } catch (IOException e)
-        {
-            // The player suddenly disconnected, remove it from the server
-            server.removePlayerFromServer(this);
-        } catch (ClassNotFoundException e)
-        {
-            System.out.println("SERVER ERROR!");
-            System.out.println(e.getMessage());
-        }
     }
 
     /**
@@ -228,8 +430,19 @@ public class PlayerConnection implements Runnable
      */
     public void handlePacket(Object rawPacket)
     {
+        // The packets arriving while the last answers are written are ignored
+        if (outbound.isClosed())
+            return;
+
         if (!(rawPacket instanceof PingCommand))
-            System.out.println("[PlayerConnection] New packet received: " + rawPacket.getClass().getSimpleName());
+            LOGGER.debug(() -> "New packet received: " + rawPacket.getClass().getSimpleName());
+        ServerMetrics.packetReceived(rawPacket.getClass().getSimpleName());
+
+        // Any packet proves the client is alive
+        restartWatchdog();
+
+        PacketHandledEvent event = new PacketHandledEvent();
+        event.begin();
 
         try
         {
@@ -238,15 +451,24 @@ public class PlayerConnection implements Runnable
                 ((Command) rawPacket).applyCommand(this);
 
             // If the packet contains an action handle it
-            else if (rawPacket instanceof ActionMessage)
-                server.applyAction((ActionMessage) rawPacket, this);
+            else if (rawPacket instanceof ActionMessage action)
+                server.applyAction(action, this, ActionTrace.start(playerName.orElse(""), action.getBaseGameAction().name()));
 
             // If the packet isn't recognized, this is a major error
             else
-                System.err.println("[PlayerConnection] Packet not recognized!");
+                LOGGER.warn(() -> "Packet not recognized: " + rawPacket.getClass().getSimpleName());
         } catch (Exception e)
         {
             sendAnswer(new ErrorAnswer(e.getMessage()));
+        } finally
+        {
+            event.end();
+            if (event.shouldCommit())
+            {
+                event.player = playerName.orElse("");
+                event.packetType = rawPacket.getClass().getSimpleName();
+                event.commit();
+            }
         }
     }
 
@@ -256,22 +478,188 @@ public class PlayerConnection implements Runnable
     }
 
     public void sendModelUpdate(ModelUpdate update)
+    {
+        try
+        {
+            enqueue(encode(update), true);
+        } catch (IOException e)
+        {
+            LOGGER.error(() -> "Error while encoding " + update.getClass().getSimpleName(), e);
+        }
+    }
+
+    /**
+     * Sends an update which is part of a snapshot, it is never dropped even if the connection is a slow consumer.
+     * 
+     * @param update Update to send.
+     */
+    void sendSnapshotUpdate(ModelUpdate update)
     {
         sendObject(update);
     }
 
-    private synchronized void sendObject(Object object)
+    /**
+     * Sends an already encoded frame to the client. The same frame can be shared between many connections.
+     * 
+     * @param frame Frame to send.
+     */
+    public void sendFrame(EncodedFrame frame)
+    {
+        enqueue(frame, false);
+    }
+
+    /**
+     * Puts the frame in the outbound queue and starts the writer if needed.
+     * 
+     * @param frame Frame to send.
+     * @param droppable True if the frame contains a model update, which a later snapshot can replace.
+     */
+    private void enqueue(EncodedFrame frame, boolean droppable)
+    {
+        boolean wasSlowConsumer = outbound.isSlowConsumer();
+
+        ActionTrace trace = frame.getTrace();
+        if (trace != null)
+            trace.enqueued();
+
+        OutboundQueue.OfferResult result = outbound.offer(frame, droppable);
+        if (result == OutboundQueue.OfferResult.QUEUED || result == OutboundQueue.OfferResult.START_WRITER)
+            ServerMetrics.frameSent(frame.getTypeName(), frame.size());
+        else if (trace != null)
+            trace.dropped();
+
+        switch (result)
+        {
+            case START_WRITER -> startWriter();
+            case DROPPED -> ServerMetrics.FRAMES_DROPPED.increment();
+            case OVERFLOW -> {
+                ServerMetrics.OUTBOUND_OVERFLOWS.increment();
+                LOGGER.warn(() -> "Player " + playerName.orElse("") + " is not reading, closing the connection");
+                close();
+                return;
+            }
+            default -> {}
+        }
+
+        boolean slowConsumer = outbound.isSlowConsumer();
+        if (!wasSlowConsumer && slowConsumer)
+            LOGGER.warn(() -> "Player " + playerName.orElse("") + " is a slow consumer, its updates are dropped until it catches up");
+        else if (!droppable || !slowConsumer)
+            LOGGER.debug(() -> "Sending " + frame.getTypeName() + " to player " + playerName.orElse(""));
+    }
+
+    /**
+     * Takes the next frame to write. Must be called only by the writer started with startWriter, which has to stop when null is returned.
+     * 
+     * @return The next frame, or null if the queue is empty.
+     */
+    protected EncodedFrame nextFrame()
+    {
+        EncodedFrame frame = outbound.poll();
+
+        // A slow consumer that caught up receives the current state of its match
+        if (frame == null && outbound.takeResyncNeeded())
+            resync();
+
+        // A closed connection has written its last answers
+        if (frame == null)
+            releaseTransport(false);
+
+        return frame;
+    }
+
+    private void resync()
+    {
+        LOGGER.info(() -> "Player " + playerName.orElse("") + " caught up, sending a snapshot");
+
+        // The updates are queued again once the snapshot is, the writer doesn't wait for the match
+        server.sendSnapshot(this, outbound::endResync);
+    }
+
+    private void sendObject(Object object)
     {
-        System.out.println("[PlayerConnection] Sending " + object.getClass().getSimpleName() + " to player " + playerName.orElse(""));
         try
         {
-            outputStream.writeObject(object);
-            outputStream.flush();
-            outputStream.reset();
+            sendFrame(encode(object));
         } catch (IOException e)
         {
-            System.err.println("[PlayerConnection] Error while writing: " + e.getMessage());
+            LOGGER.error(() -> "Error while encoding " + object.getClass().getSimpleName(), e);
             close();
         }
     }
+
+    /**
+     * Encodes the object once and sends the same frame to all the given connections.
+     * 
+     * @param recipients Connections that receive the object.
+     * @param object Answer or update to send.
+     */
+    static void broadcast(Collection<PlayerConnection> recipients, Object object)
+    {
+        EncodedFrame frame;
+        try
+        {
+            frame = encode(object);
+        } catch (IOException e)
+        {
+            LOGGER.error(() -> "Error while encoding " + object.getClass().getSimpleName(), e);
+            return;
+        }
+
+        // Closing a connection removes it from the collection, so a copy is iterated
+        boolean droppable = object instanceof ModelUpdate;
+        for (PlayerConnection recipient : new ArrayList<>(recipients))
+            recipient.enqueue(frame, droppable);
+    }
+
+    /**
+     * Encodes the object, tagging the frame with the trace of the action handled by the current thread, if any.
+     */
+    private static EncodedFrame encode(Object object) throws IOException
+    {
+        EncodedFrame frame = EncodedFrame.of(object, ActionTrace.current());
+        ActionTrace.mark(ActionTrace.Stage.ENCODED);
+        return frame;
+    }
+
+    /**
+     * Returns the compressed version of the frame if the client accepts it and the frame is big enough. Must be called only by the writer, once for
+     * every frame and in the order they are written, since the compressed frames depend on the previous ones.
+     *
+     * @param frame Frame about to be written.
+     * @return The compressed frame, or null if the frame has to be written as it is.
+     */
+    protected byte[] compress(EncodedFrame frame)
+    {
+        if (deflater == null)
+            return null;
+
+        byte[] compressed = deflater.compress(frame);
+        if (compressed != null)
+            ServerMetrics.frameCompressed(frame.size(), compressed.length);
+
+        return compressed;
+    }
+
+    /**
+     * Called by the writers once a frame has been completely written.
+     */
+    protected void onFrameWritten(EncodedFrame frame)
+    {
+        if (frame.getTrace() != null)
+            frame.getTrace().written(playerName.orElse(""));
+    }
+
+    /**
+     * Starts writing the queued frames, taking them with nextFrame until it returns null. Called when the first frame is queued on an idle
+     * connection, so there is never more than one writer at a time.
+     */
+    protected abstract void startWriter();
+
+    /**
+     * Closes the socket or channel used to communicate with the client.
+     * 
+     * @throws IOException Thrown if an error occurs while closing.
+     */
+    protected abstract void closeTransport() throws IOException;
 }
@@ -1,14 +1,30 @@
 package it.polimi.ingsw.network;
 
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.concurrent.Executors;
+
+import it.polimi.ingsw.logging.AsyncAppender;
+import it.polimi.ingsw.logging.ConsoleAppender;
+import it.polimi.ingsw.logging.Log;
+import it.polimi.ingsw.logging.LogAppender;
+import it.polimi.ingsw.logging.Logger;
+import it.polimi.ingsw.logging.RollingFileAppender;
+import it.polimi.ingsw.metrics.MetricsHttpServer;
 import it.polimi.ingsw.model.GameMode;
 import it.polimi.ingsw.model.exceptions.TooManyPlayersException;
 import it.polimi.ingsw.protocol.answers.Answer;
 import it.polimi.ingsw.protocol.answers.EndMatchAnswer;
+import it.polimi.ingsw.protocol.answers.ErrorAnswer;
 import it.polimi.ingsw.protocol.answers.JoinedMatchAnswer;
 import it.polimi.ingsw.protocol.answers.MatchesListAnswer;
+import it.polimi.ingsw.protocol.codec.FrameCodec;
+import it.polimi.ingsw.protocol.commands.GetMatchesListCommand;
 import it.polimi.ingsw.protocol.messages.ActionMessage;
+import it.polimi.ingsw.tracing.ActionTrace;
+import it.polimi.ingsw.tracing.TraceRecorder;
 
 
 /**
@@ -16,13 +32,60 @@ import it.polimi.ingsw.protocol.messages.ActionMessage;
  */
 public class Server
 {
+    private static final Logger LOGGER = Log.getLogger(Server.class);
+
+    /**
+     * Number of log messages that can wait to be written before the new ones are dropped.
+     */
+    private static final int LOG_BUFFER_CAPACITY = 8192;
+
+    private static final long LOG_FILE_MAX_BYTES = 10 * 1024 * 1024;
+
+    private static final int LOG_FILE_BACKUPS = 5;
+
     private ServerConnection serverConnection;
 
-    private List<PlayerConnection> lobby;
+    /**
+     * Lobby, matches and players indexes, shared by all the connection threads.
+     */
+    private ServerRegistry registry;
 
-    private Map<String, Match> matches;
+    /**
+     * Sends the matches list changes to the lobby.
+     */
+    private LobbyFeed lobbyFeed;
+
+    /**
+     * Scheduler that tracks the liveness of every player connection.
+     */
+    private HeartbeatWheel heartbeatWheel;
 
-    private Map<PlayerConnection, Match> playersMapMatch;
+    /**
+     * Tells whether the islands and school boards updates are sent as differences from the previous ones.
+     */
+    private boolean deltaUpdates = true;
+
+    /**
+     * Minimum payload size of the frames compressed for the clients that support it, 0 to never compress.
+     */
+    private int compressionThreshold = ServerOptions.DEFAULT_COMPRESSION_THRESHOLD;
+
+    /**
+     * Management beans of the server, null if they aren't registered.
+     */
+    private ServerManagement management = null;
+
+    /**
+     * File the running matches are saved to at every turn, null if they aren't saved.
+     */
+    private CheckpointStore checkpoints = null;
+
+    private ActionJournal journal = null;
+
+    /**
+     * Set when the server has to exit once the running matches end.
+     */
+    private volatile boolean draining = false;
 
     /**
      * Creates a new server instance.
@@ -32,9 +95,12 @@ public class Server
     public Server()
     {
         serverConnection = new ServerConnection(this);
-        lobby = new ArrayList<>();
-        matches = new HashMap<>();
-        playersMapMatch = new HashMap<>();
+        registry = new ServerRegistry();
+        lobbyFeed = new LobbyFeed(this);
+
+        // 100ms of resolution is plenty for a 5 seconds timeout
+        heartbeatWheel = new HeartbeatWheel(100, 128);
+        heartbeatWheel.start();
 
         // Start a thread that controls when to close the server
         Thread quiThread = new Thread(this::waitToQuit);
@@ -53,48 +119,208 @@ public class Server
     }
 
     /**
-     * Whats for the terminal to receive a "quit" command, it then stops the server and exits.
+     * Creates a new server instance configured with the given options.
+     * 
+     * @param options Startup options of the server.
+     */
+    public Server(ServerOptions options)
+    {
+        this();
+
+        if (options.isNio())
+            serverConnection = new NioServerConnection(this, options.getPort(), options.getIoThreads());
+        else
+            serverConnection = new ServerConnection(this, options.getPort());
+
+        deltaUpdates = options.isDeltaUpdates();
+        compressionThreshold = options.getCompressionThreshold();
+
+        ServerMetrics.register(this);
+        management = new ServerManagement(this);
+
+        if (options.getCheckpointFile() != null)
+            openCheckpoints(options.getCheckpointFile());
+    }
+
+    /**
+     * Opens the checkpoint file and the journal next to it, and restores the matches saved in them. The server runs without checkpoints if the file
+     * can't be used, and with only the checkpoints if the journal can't be used.
+     */
+    private void openCheckpoints(String checkpointFile)
+    {
+        try
+        {
+            checkpoints = CheckpointStore.open(Path.of(checkpointFile), CheckpointStore.DEFAULT_CAPACITY);
+        } catch (IOException | InvalidPathException e)
+        {
+            LOGGER.warn(() -> "Can't open the checkpoint file " + checkpointFile + ", the matches won't be saved: " + e.getMessage());
+            return;
+        }
+
+        try
+        {
+            journal = ActionJournal.open(Path.of(checkpointFile + ".journal"), checkpoints);
+        } catch (IOException e)
+        {
+            LOGGER.warn(() -> "Can't open the journal of " + checkpointFile + ", the matches will be saved only at every turn: " + e.getMessage());
+        }
+
+        for (Map.Entry<String, byte[]> checkpoint : checkpoints.load().entrySet())
+        {
+            String matchId = checkpoint.getKey();
+            try
+            {
+                Match match = Match.restore(this, matchId, checkpoint.getValue());
+                registry.addMatch(matchId, match);
+                for (String name : match.getMissingPlayers())
+                    registry.addMissingPlayer(name, match);
+                if (management != null)
+                    management.matchCreated(match);
+                lobbyFeed.publish(matchId);
+
+                int replayed = match.replayJournal(journal != null ? journal.getRecoveredEntries(matchId) : List.of());
+                LOGGER.debug(() -> "Replayed " + replayed + " journal entries of match " + matchId);
+
+                heartbeatWheel.schedule(Match.RESTORE_GRACE_MILLIS, match::settleRestoredPlayers);
+            } catch (StreamCorruptedException e)
+            {
+                LOGGER.warn(() -> "Can't restore the match " + matchId + ": " + e.getMessage());
+                checkpoints.remove(matchId);
+            }
+        }
+        LOGGER.info(() -> "Restored " + registry.getMatches().size() + " matches");
+
+        if (journal != null)
+            journal.start(registry.getMatches().keySet());
+
+        heartbeatWheel.schedule(CheckpointStore.SYNC_INTERVAL_MILLIS, this::syncCheckpoints);
+    }
+
+    /**
+     * Forces the checkpoints to the disk and schedules the next force.
+     */
+    private void syncCheckpoints()
+    {
+        checkpoints.sync();
+        heartbeatWheel.schedule(CheckpointStore.SYNC_INTERVAL_MILLIS, this::syncCheckpoints);
+    }
+
+    /**
+     * Whats for the terminal to receive a "quit" command, it then stops the server and exits. The "traces" command prints the slow actions
+     * recorded.
      */
     public void waitToQuit()
     {
-        System.out.println("[Server] Type \"quit\" to exit");
+        System.out.println("[Server] Type \"quit\" to exit, \"traces\" to print the slowest recent actions");
 
         Scanner scanner = new Scanner(System.in);
         while (true)
         {
-            if (scanner.nextLine().equals("quit"))
+            String line = scanner.nextLine();
+            if (line.equals("quit"))
             {
                 scanner.close();
-                serverConnection.setActive(false);
-                System.exit(0);
+                shutdown();
                 break;
+            } else if (line.equals("traces"))
+            {
+                List<String> traces = TraceRecorder.dump();
+                System.out.println("[Server] " + traces.size() + " slow actions recorded");
+                traces.forEach(System.out::println);
             }
         }
     }
 
+    /**
+     * Stops accepting new matches and exits once the running ones have ended. The players can still join the existing matches.
+     */
+    public void drain()
+    {
+        draining = true;
+        LOGGER.info(() -> "Draining, the server exits after the last match ends");
+
+        if (registry.getMatches().isEmpty())
+            shutdown();
+    }
+
+    public boolean isDraining()
+    {
+        return draining;
+    }
+
+    private void shutdown()
+    {
+        serverConnection.setActive(false);
+        if (journal != null)
+            journal.stop();
+        if (checkpoints != null)
+            checkpoints.sync();
+        Log.shutdown();
+        System.exit(0);
+    }
+
     public synchronized ServerConnection getServerConnection()
     {
         return serverConnection;
     }
 
+    public boolean isDeltaUpdates()
+    {
+        return deltaUpdates;
+    }
+
+    /**
+     * Returns the minimum payload size of the frames to compress, 0 if the compression is disabled.
+     */
+    public int getCompressionThreshold()
+    {
+        return compressionThreshold;
+    }
+
+    public HeartbeatWheel getHeartbeatWheel()
+    {
+        return heartbeatWheel;
+    }
+
+    /**
+     * Returns the file the matches are saved to, null if they aren't saved.
+     */
+    CheckpointStore getCheckpoints()
+    {
+        return checkpoints;
+    }
+
+    /**
+     * Returns the journal of the changes to the matches, null if the matches aren't journaled.
+     */
+    ActionJournal getJournal()
+    {
+        return journal;
+    }
+
+    ServerRegistry getRegistry()
+    {
+        return registry;
+    }
+
     public Map<String, Match> getAllMatches()
     {
-        return matches;
+        return registry.getMatches();
     }
 
     public Set<String> getMatchesIds()
     {
-        return matches.keySet();
+        return registry.getMatches().keySet();
     }
 
     public Match getMatchById(String id) throws NullPointerException
     {
-        return matches.get(id);
+        return registry.getMatch(id);
     }
 
-    public List<PlayerConnection> getLobby()
+    public Set<PlayerConnection> getLobby()
     {
-        return lobby;
+        return registry.getLobby();
     }
 
     /**
@@ -107,12 +333,26 @@ public class Server
      */
     public void createMatch(String matchId, int playersNumber, GameMode mode) throws IllegalArgumentException
     {
-        // Check if a match with the same id already exists
-        if (matches.containsKey(matchId))
+        if (draining)
+            throw new IllegalArgumentException("[Server] The server is shutting down, no new matches can be created");
+
+        // Create the match, unless a match with the same id already exists
+        if (!registry.addMatch(matchId, new Match(this, matchId, playersNumber, mode)))
             throw new IllegalArgumentException("[Server] A match with id " + matchId + " already exists");
 
-        // Create the match
-        matches.put(matchId, new Match(this, matchId, playersNumber, mode));
+        ServerMetrics.MATCHES_CREATED.increment();
+        if (management != null)
+            management.matchCreated(registry.getMatch(matchId));
+        lobbyFeed.publish(matchId);
+    }
+
+    /**
+     * Updates the lobby index and feed after the players of the match changed.
+     */
+    private void matchChanged(Match match)
+    {
+        registry.updateIndex(match);
+        lobbyFeed.publish(match.getMatchId());
     }
 
     /**
@@ -134,9 +374,6 @@ public class Server
 
         // Add the player to the match
         addPlayerToMatch(matchId, player);
-
-        // Update all the players in the lobby with the new list of matches
-        sendToLobby(new MatchesListAnswer(matches));
     }
 
     /**
@@ -154,13 +391,24 @@ public class Server
         // Notify all the players
         match.sendAllAnswer(new EndMatchAnswer(message));
 
-        // Move all the players to the lobby
+        // Delete the match
+        registry.removeMatch(match);
+        if (checkpoints != null)
+            checkpoints.remove(match.getMatchId());
+        if (journal != null)
+            journal.release(match.getMatchId());
+        lobbyFeed.publish(match.getMatchId());
+        if (management != null)
+            management.matchRemoved(match);
+
+        // Move all the players and the spectators to the lobby
         for (PlayerConnection player : match.getPlayers())
             addPlayerToLobby(player);
+        for (PlayerConnection spectator : match.getSpectators())
+            addPlayerToLobby(spectator);
 
-        // Delete the match
-        matches.entrySet().removeIf(entry -> entry.getValue() == match);
-        playersMapMatch.entrySet().removeIf(entry -> entry.getValue() == match);
+        if (draining && registry.getMatches().isEmpty())
+            shutdown();
     }
 
     /**
@@ -173,9 +421,25 @@ public class Server
      */
     public void addPlayerToMatch(String matchId, PlayerConnection player)
             throws NullPointerException, IllegalArgumentException, TooManyPlayersException
+    {
+        addPlayerToMatch(matchId, player, 0);
+    }
+
+    /**
+     * Adds a player to the match identified with the given match id. A player resuming its session receives the updates following the given
+     * sequence number. The player is added on the match mailbox, it receives a JoinedMatchAnswer or the reason of the refusal.
+     *
+     * @param lastSequence Sequence number of the last update the player handled, 0 if it has no state of the match.
+     * @throws NullPointerException If the player is null.
+     * @throws IllegalArgumentException If the player lacks a nickname, if it is participating in another match, if there is already a player with
+     *         such nickname of if there is no match with the given id.
+     * @throws TooManyPlayersException If there are too many players.
+     */
+    public void addPlayerToMatch(String matchId, PlayerConnection player, long lastSequence)
+            throws NullPointerException, IllegalArgumentException, TooManyPlayersException
     {
         // Check if the player is in the lobby
-        if (!lobby.contains(player))
+        if (!registry.isInLobby(player))
             throw new IllegalArgumentException("[Server] The player must be in the lobby to be included in a game");
 
         // Check if the player has a name
@@ -183,27 +447,94 @@ public class Server
             throw new IllegalArgumentException("[Server] The player must have a name to participate in a match");
 
         // Check if the player isn't in another match
-        if (playersMapMatch.containsKey(player))
+        if (registry.getMatchOf(player) != null)
             throw new IllegalArgumentException("[Server] The player is already participating in a match");
 
         // Find the match with the given id
-        Match match = matches.get(matchId);
+        Match match = registry.getMatch(matchId);
 
         // Check if the match isn't null
         if (match == null)
             throw new IllegalArgumentException("[Server] There is no match with id " + matchId);
 
-        // Add the player to the match
-        if (match.addPlayer(player))
-        {
-            playersMapMatch.put(player, match);
+        // Reserve the place now, so that the player can't join another match while waiting for this one
+        if (!registry.joinMatch(player, match))
+            throw new IllegalArgumentException("[Server] The player is already participating in a match");
+
+        // Add the player to the match, the caller may be a loop thread that must not wait for it
+        match.addPlayer(player, lastSequence, added -> {
+            if (!added)
+            {
+                registry.leaveMatch(player);
+                return;
+            }
 
             // Remove the player from the lobby
-            lobby.remove(player);
+            removePlayerFromLobby(player);
+            matchChanged(match);
 
             // Notify the player
             player.sendAnswer(new JoinedMatchAnswer(matchId));
-        }
+        });
+    }
+
+    /**
+     * Gives a player resuming its session its place back in the match, once its previous connection, if any, has left it. If meanwhile the match
+     * has ended, or the player has no longer a place in it, the player gets the matches list instead.
+     *
+     * @param match Match the player was missing from, or the match of its previous connection.
+     * @param player Player resuming its session, with its name already claimed.
+     * @param lastSequence Sequence number of the last update the player handled.
+     */
+    void resumeMatch(Match match, PlayerConnection player, long lastSequence)
+    {
+        String name = player.getPlayerName().get();
+
+        // Queued after the removal of the previous connection, which makes the player missing
+        match.submit(() -> {
+            if (registry.getMatch(match.getMatchId()) == match && match.getMissingPlayers().contains(name))
+            {
+                try
+                {
+                    addPlayerToMatch(match.getMatchId(), player, lastSequence);
+                } catch (IllegalArgumentException | TooManyPlayersException e)
+                {
+                    player.sendAnswer(new ErrorAnswer(e.getMessage()));
+                }
+            } else if (registry.isInLobby(player))
+                sendMatchesList(player, new GetMatchesListCommand());
+        });
+    }
+
+    /**
+     * Lets a player in the lobby watch the match identified with the given match id, without taking part in it. The spectator receives the updates
+     * meant for all the players.
+     *
+     * @throws IllegalArgumentException If the player isn't in the lobby, if it lacks a nickname, if it is already watching a match or if there is no
+     *         match with the given id.
+     */
+    public void addSpectatorToMatch(String matchId, PlayerConnection spectator) throws IllegalArgumentException
+    {
+        // Players in a match or watching one aren't in the lobby
+        if (!registry.isInLobby(spectator))
+            throw new IllegalArgumentException("[Server] The player must be in the lobby to watch a match");
+
+        if (spectator.getPlayerName().isEmpty())
+            throw new IllegalArgumentException("[Server] The player must have a name to watch a match");
+
+        Match match = registry.getMatch(matchId);
+        if (match == null)
+            throw new IllegalArgumentException("[Server] There is no match with id " + matchId);
+
+        if (!registry.spectateMatch(spectator, match))
+            throw new IllegalArgumentException("[Server] The player is already watching a match");
+
+        removePlayerFromLobby(spectator);
+        match.addSpectator(spectator, added -> {
+            // The match may have ended meanwhile, then the spectator goes back to the lobby
+            if (!added && registry.stopSpectating(spectator) != null)
+                addPlayerToLobby(spectator);
+        });
     }
 
     /**
@@ -219,12 +550,25 @@ public class Server
         if (player == null)
             throw new NullPointerException("[Server] Attempting to add a null PlayerConnection to the lobby");
 
-        lobby.add(player);
-        System.out.println("[Server] Added new player to lobby");
+        registry.addToLobby(player);
+        LOGGER.info(() -> "Added player to lobby");
+
+        // A player coming back from a match receives the matches list and its changes, a new one receives them once it chooses its name
+        if (player.getPlayerName().isPresent() && !player.isClosing())
+            sendMatchesList(player, new GetMatchesListCommand());
+    }
+
+    /**
+     * Removes the player from the lobby, it no longer receives the changes to the matches list.
+     */
+    private void removePlayerFromLobby(PlayerConnection player)
+    {
+        registry.removeFromLobby(player);
+        lobbyFeed.unsubscribe(player);
     }
 
     /**
-     * Removes a player form the match he is in.
+     * Removes a player form the match he is in and brings him back to the lobby.
      * 
      * If the player isn't in any match nothing is done.
      * 
@@ -232,41 +576,91 @@ public class Server
      */
     public void removePlayerFromMatch(PlayerConnection player)
     {
-        // If the player is part of a match remove it
-        if (playersMapMatch.containsKey(player))
+        leaveMatch(player, () -> addPlayerToLobby(player));
+    }
+
+    /**
+     * Removes the player form the entire server.
+     * 
+     * It removes the player first form the lobby and then form the match (if he is in one).
+     * 
+     * @param player Player to remove.
+     */
+    public void removePlayerFromServer(PlayerConnection player)
+    {
+        // If the player is in the lobby remove it
+        removePlayerFromLobby(player);
+
+        // Whether its session stays valid is known once it has left its match
+        if (!leaveMatch(player, () -> releasePlayer(player)))
+            releasePlayer(player);
+    }
+
+    /**
+     * Removes a player or a spectator from its match. A player is removed on the match mailbox, the caller doesn't wait for it.
+     *
+     * @param player Player to remove.
+     * @param afterwards Run once the player has left the match, on the match mailbox.
+     * @return False if the player isn't in any match, then afterwards isn't run.
+     */
+    private boolean leaveMatch(PlayerConnection player, Runnable afterwards)
+    {
+        // A spectator just stops watching
+        Match spectated = registry.stopSpectating(player);
+        if (spectated != null)
         {
-            Match match = playersMapMatch.get(player);
-            match.removePlayer(player);
-            playersMapMatch.remove(player);
+            spectated.removeSpectator(player);
+            LOGGER.info(() -> "Removed spectator from match " + spectated.getMatchId());
+            afterwards.run();
+            return true;
+        }
 
-            System.out.println("[Server] Removed player from match " + player.getPlayerName().get());
+        // If the player is part of a match remove it, only one of concurrent removals gets the match
+        Match match = registry.leaveMatch(player);
+        if (match == null)
+            return false;
 
-            // And add him to the lobby
-            lobby.add(player);
+        match.removePlayer(player, () -> {
+            LOGGER.info(() -> "Removed player from match " + player.getPlayerName().get());
+            afterwards.run();
 
             if (match.getPlayers().size() == 0)
-            {
                 removeMatch(match, "The match no longer exists");
+            else
+                matchChanged(match);
+        });
+        return true;
+    }
 
-                // Update all the players in the lobby with the new list of matches
-                sendToLobby(new MatchesListAnswer(matches));
-            }
-        }
+    /**
+     * Releases the name of a player leaving the server. Its session stays valid only if it can resume its place in a match.
+     */
+    private void releasePlayer(PlayerConnection player)
+    {
+        player.getPlayerName().ifPresent(name -> {
+            // The name may already belong to a connection that resumed the session
+            if (registry.getPlayer(name) != player)
+                return;
+
+            if (registry.getMatchOfMissingPlayer(name).isEmpty())
+                registry.closeSession(name);
+            registry.releaseName(name, player);
+        });
     }
 
     /**
-     * Removes the player form the entire server.
-     * 
-     * It removes the player first form the match (if he is in one) and then removes him form the lobby.
-     * 
-     * @param player Player to remove.
+     * Registers the management bean of a connection ready to exchange packets.
      */
-    public void removePlayerFromServer(PlayerConnection player)
+    void connectionOpened(PlayerConnection player)
     {
-        removePlayerFromMatch(player);
+        if (management != null)
+            management.connectionOpened(player);
+    }
 
-        // If the player is in the lobby remove it
-        lobby.remove(player);
+    void connectionClosed(PlayerConnection player)
+    {
+        if (management != null)
+            management.connectionClosed(player);
     }
 
     /**
@@ -274,20 +668,49 @@ public class Server
      * 
      * @param action Action to apply.
      * @param player Player performing the action.
+     * @param trace Trace started when the action has been decoded.
      * @throws IllegalArgumentException Thrown if the player isn't in any match.
      */
-    public void applyAction(ActionMessage action, PlayerConnection player) throws IllegalArgumentException
+    public void applyAction(ActionMessage action, PlayerConnection player, ActionTrace trace) throws IllegalArgumentException
     {
-        // Check if the player is part of a match
-        if (!playersMapMatch.containsKey(player))
+        // Retrieve the match, checking that the player is part of one
+        Match match = registry.getMatchOf(player);
+        if (match == null)
             throw new IllegalArgumentException(
                     "[Server] The player is not part of a match, can't perform the action " + action.getBaseGameAction().name());
 
-        // Retrieve the match
-        Match match = playersMapMatch.get(player);
-
         // Perform the action
-        match.applyAction(action, player);
+        match.applyAction(action, player, trace);
+    }
+
+    /**
+     * Sends the requested page of the matches list to the player. From now on the player receives only the changes to the matches satisfying the
+     * same filter, while it stays in the lobby.
+     *
+     * @param player Player in the lobby.
+     * @param request Filter, order and page requested.
+     */
+    public void sendMatchesList(PlayerConnection player, GetMatchesListCommand request)
+    {
+        lobbyFeed.subscribe(player, request.getFilter());
+
+        int pageSize = request.getPageSize();
+        List<Match> found = registry.findMatches(request.getFilter(), request.getOrder() == GetMatchesListCommand.Order.ID_DESCENDING,
+                request.getCursor(), pageSize);
+
+        // The extra match found only tells that there is another page
+        String nextCursor = null;
+        if (found.size() > pageSize)
+        {
+            found = found.subList(0, pageSize);
+            nextCursor = found.get(pageSize - 1).getMatchId();
+        }
+
+        Map<String, Match> page = new LinkedHashMap<>();
+        for (Match match : found)
+            page.put(match.getMatchId(), match);
+
+        player.sendAnswer(new MatchesListAnswer(page, nextCursor));
     }
 
     /**
@@ -297,36 +720,129 @@ public class Server
      */
     public void sendToLobby(Answer answer)
     {
-        System.out.println("[Server] Sending answer " + answer.getClass().getSimpleName() + " to the whole lobby");
+        LOGGER.debug(() -> "Sending answer " + answer.getClass().getSimpleName() + " to the whole lobby");
+
+        PlayerConnection.broadcast(registry.getLobby(), answer);
+    }
 
-        for (PlayerConnection player : lobby)
-            player.sendAnswer(answer);
+    /**
+     * Sends the current state of its match to the given player, if it is in one or watching one.
+     * 
+     * @param player Player receiving the snapshot.
+     */
+    public void sendSnapshot(PlayerConnection player)
+    {
+        sendSnapshot(player, () -> {});
+    }
+
+    /**
+     * Sends the current state of its match to the given player, if it is in one or watching one. The caller doesn't wait for it.
+     *
+     * @param player Player receiving the snapshot.
+     * @param done Run once the snapshot has been queued, or right away if the player isn't in a match.
+     */
+    public void sendSnapshot(PlayerConnection player, Runnable done)
+    {
+        Match match = registry.getMatchOf(player);
+        if (match == null)
+            match = registry.getSpectatedMatch(player);
+
+        if (match != null)
+            match.sendSnapshot(player, done);
+        else
+            done.run();
+    }
+
+    /**
+     * Sends some sections of the board state to the player, e.g. because its copy doesn't match the digest.
+     *
+     * @param player Player receiving the sections.
+     * @param sections Bits of the sections, see StateDigest.
+     */
+    public void sendSections(PlayerConnection player, int sections)
+    {
+        Match match = registry.getMatchOf(player);
+        if (match == null)
+            match = registry.getSpectatedMatch(player);
+
+        if (match != null)
+            match.sendSections(player, sections);
     }
 
     public boolean isPlayerInAMatch(PlayerConnection player)
     {
-        return playersMapMatch.get(player) != null;
+        return registry.getMatchOf(player) != null;
     }
 
     /**
-     * Starts the server by instantiating the server class and running its server connection.
+     * Moves the logging off the calling threads: the messages are queued and written by a background thread, on the console or on a rolling file.
+     *
+     * @param options Startup options of the server.
      */
-    public static void main(String[] args)
+    private static void configureLogging(ServerOptions options)
     {
-        Server server;
+        Log.setLevel(options.getLogLevel());
 
-        if (args.length == 1)
+        LogAppender target = new ConsoleAppender();
+        if (options.getLogFile() != null)
+        {
             try
             {
-                server = new Server(Integer.parseInt(args[0]));
-            } catch (NumberFormatException e)
+                target = new RollingFileAppender(Path.of(options.getLogFile()), LOG_FILE_MAX_BYTES, LOG_FILE_BACKUPS);
+            } catch (IOException | InvalidPathException e)
             {
-                System.out.println("[Server] The specified port is not a valid number, falling back to the default");
-                server = new Server();
+                LOGGER.warn(() -> "Can't open the log file " + options.getLogFile() + ", logging on the console: " + e.getMessage());
             }
-        else
-            server = new Server();
+        }
+
+        Log.setAppender(new AsyncAppender(target, LOG_BUFFER_CAPACITY));
+    }
+
+    /**
+     * Starts serving the metrics over HTTP if a port has been given. The server runs without them if the port can't be bound.
+     */
+    private static void startMetrics(ServerOptions options)
+    {
+        if (options.getMetricsPort() == 0)
+            return;
+
+        try
+        {
+            new MetricsHttpServer(ServerMetrics.REGISTRY, options.getMetricsPort());
+            LOGGER.info(() -> "Serving the metrics on port " + options.getMetricsPort());
+        } catch (IOException e)
+        {
+            LOGGER.warn(() -> "Can't serve the metrics on port " + options.getMetricsPort() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Starts the server by instantiating the server class and running its server connection.
+     */
+    public static void main(String[] args)
+    {
+        ServerOptions options;
+
+        try
+        {
+            options = ServerOptions.parse(args);
+        } catch (IllegalArgumentException e)
+        {
+            LOGGER.warn(() -> e.getMessage() + ", falling back to the default options");
+            options = new ServerOptions();
+        }
+
+        configureLogging(options);
+
+        if (options.isVirtualThreads() && !ServerExecutor.useVirtualThreads())
+            LOGGER.warn(() -> "Virtual threads are not supported by this JVM, falling back to platform threads");
+
+        FrameCodec.setFormat(options.getCodec());
+        TraceRecorder.setThreshold(options.getTraceThreshold());
+
+        Server server = new Server(options);
+        startMetrics(options);
 
-        Executors.newCachedThreadPool().submit(server.serverConnection);
+        ServerExecutor.get().submit(server.serverConnection);
     }
 }
@@ -3,14 +3,19 @@ package it.polimi.ingsw.network;
 import java.io.IOException;
 import java.net.ServerSocket;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+
+import it.polimi.ingsw.logging.Log;
+import it.polimi.ingsw.logging.Logger;
 
 /**
- * This class is a runnable which handles the server's socket by listening for new connection. When a new client connects, a PlayerConnection is
- * created and started. The PlayerConnection will need to register itself to the Server when the client sets up the player information.
+ * This class is a runnable which handles the server's socket by listening for new connection. When a new client connects, a
+ * SocketPlayerConnection is created and started on its own thread. The PlayerConnection will need to register itself to the Server when the client
+ * sets up the player information.
  */
 public class ServerConnection implements Runnable
 {
+    private static final Logger LOGGER = Log.getLogger(ServerConnection.class);
+
     private Server server;
 
     private ExecutorService executor;
@@ -25,7 +30,7 @@ public class ServerConnection implements Runnable
     ServerConnection(Server server)
     {
         this.server = server;
-        executor = Executors.newCachedThreadPool();
+        executor = ServerExecutor.get();
     }
 
     /**
@@ -37,6 +42,16 @@ public class ServerConnection implements Runnable
         this.port = port;
     }
 
+    public Server getServer()
+    {
+        return server;
+    }
+
+    public int getPort()
+    {
+        return port;
+    }
+
     public synchronized boolean isActive()
     {
         return active;
@@ -60,11 +75,12 @@ public class ServerConnection implements Runnable
             {
                 // For now a new PlayerConnection starts running, when the user will set up it's
                 // info the class will register itself to the server
-                executor.submit(new PlayerConnection(server, serverSocket.accept()));
-                System.out.println("[ServerConnection] Accepted new player");
+                executor.submit(new SocketPlayerConnection(server, serverSocket.accept()));
+                ServerMetrics.CONNECTIONS_ACCEPTED.increment();
+                LOGGER.info(() -> "Accepted new player");
             } catch (IOException e)
             {
-                System.err.println("[Error] " + e.getMessage());
+                LOGGER.warn(() -> "Error while accepting a player: " + e.getMessage());
             }
         }
     }
@@ -78,16 +94,18 @@ public class ServerConnection implements Runnable
         try
         {
             ServerSocket socket = new ServerSocket(port);
-            System.out.println("[ServerConnection] Server socket started, listening on port " + port);
+            LOGGER.info(() -> "Server socket started, listening on port " + port);
 
             acceptConnections(socket);
         } catch (IOException e)
         {
-            System.err.println("[ServerConnection] Error during Socket initialization, quitting...");
+            LOGGER.error(() -> "Error during Socket initialization, quitting...");
+            Log.shutdown();
             System.exit(-1);
         } catch (IllegalArgumentException e)
         {
-            System.err.println("[ServerConnection] The give port is not valid, quitting...");
+            LOGGER.error(() -> "The give port is not valid, quitting...");
+            Log.shutdown();
             System.exit(-1);
         }
     }
@@ -0,0 +1,66 @@
+package it.polimi.ingsw.network;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Holds the executor shared by the whole server to run the player connections readers and the timer tasks.
+ *
+ * By default the tasks run on a single cached thread pool. When requested and supported by the running JVM, the tasks run on virtual threads
+ * instead, so that blocked reads and sleeping timeouts don't cost a platform thread each.
+ */
+public class ServerExecutor
+{
+    private static ExecutorService executor = Executors.newCachedThreadPool();
+
+    private static boolean virtualThreads = false;
+
+    private ServerExecutor()
+    {}
+
+    /**
+     * Returns the executor shared by the server.
+     */
+    public static synchronized ExecutorService get()
+    {
+        return executor;
+    }
+
+    /**
+     * Tells whether the shared executor runs the tasks on virtual threads.
+     */
+    public static synchronized boolean isUsingVirtualThreads()
+    {
+        return virtualThreads;
+    }
+
+    /**
+     * Switches the shared executor to one that starts a virtual thread for every task. Must be called before the server starts.
+     *
+     * Virtual threads are looked up by reflection so that the server still runs on JVMs that don't support them.
+     *
+     * @return True if the virtual threads are available and the executor has been switched, false otherwise.
+     */
+    public static synchronized boolean useVirtualThreads()
+    {
+        if (virtualThreads)
+            return true;
+
+        try
+        {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            ExecutorService virtualExecutor = (ExecutorService) factory.invoke(null);
+
+            // The previous pool isn't shut down, its idle threads expire on their own
+            executor = virtualExecutor;
+            virtualThreads = true;
+        } catch (ReflectiveOperationException | UnsupportedOperationException e)
+        {
+            // The JVM is too old or the virtual threads are still a preview feature
+            virtualThreads = false;
+        }
+
+        return virtualThreads;
+    }
+}
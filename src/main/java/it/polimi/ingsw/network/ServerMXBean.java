@@ -0,0 +1,49 @@
+package it.polimi.ingsw.network;
+
+/**
+ * Management interface of the server, registered as "it.polimi.ingsw:type=Server".
+ */
+public interface ServerMXBean
+{
+    int getLobbySize();
+
+    int getMatchesCount();
+
+    /**
+     * Returns the number of players logged in with a name.
+     */
+    int getConnectedPlayers();
+
+    String[] getMatchIds();
+
+    /**
+     * Returns the recent actions slower than the trace threshold, from the oldest, with the time of each stage.
+     */
+    String[] getSlowTraces();
+
+    /**
+     * Tells whether the server is waiting for the running matches to end before exiting.
+     */
+    boolean isDraining();
+
+    /**
+     * Stops accepting new matches and exits once the running ones have ended.
+     */
+    void drain();
+
+    /**
+     * Ends the given match, sending the players back to the lobby.
+     *
+     * @param matchId Id of the match to end.
+     * @return False if there is no such match.
+     */
+    boolean endMatch(String matchId);
+
+    /**
+     * Closes the connection of the player with the given name.
+     *
+     * @param playerName Name of the player.
+     * @return False if no player is logged in with that name.
+     */
+    boolean disconnectPlayer(String playerName);
+}
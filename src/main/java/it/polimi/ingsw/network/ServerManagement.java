@@ -0,0 +1,319 @@
+package it.polimi.ingsw.network;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import it.polimi.ingsw.logging.Log;
+import it.polimi.ingsw.logging.Logger;
+import it.polimi.ingsw.protocol.answers.EndMatchAnswer;
+import it.polimi.ingsw.tracing.TraceRecorder;
+
+/**
+ * Registers the management beans of the server, its matches and its connections in the platform MBean server, so that a live server can be
+ * inspected and controlled with the standard JMX tools, e.g. jconsole.
+ *
+ * A failed registration is only logged, the server works the same without its beans.
+ */
+class ServerManagement
+{
+    private static final Logger LOGGER = Log.getLogger(ServerManagement.class);
+
+    private static final String DOMAIN = "it.polimi.ingsw";
+
+    private final MBeanServer beanServer = ManagementFactory.getPlatformMBeanServer();
+
+    private final ConcurrentMap<Match, ObjectName> matches = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<PlayerConnection, ObjectName> connections = new ConcurrentHashMap<>();
+
+    /**
+     * Connections have no stable name, they are numbered instead.
+     */
+    private final AtomicLong nextConnectionId = new AtomicLong();
+
+    ServerManagement(Server server)
+    {
+        register(name("type=Server"), new ServerBean(server));
+    }
+
+    void matchCreated(Match match)
+    {
+        ObjectName name = name("type=Match,id=" + ObjectName.quote(match.getMatchId()));
+        if (name != null && register(name, new MatchBean(match)))
+            matches.put(match, name);
+    }
+
+    void matchRemoved(Match match)
+    {
+        ObjectName name = matches.remove(match);
+        if (name != null)
+            unregister(name);
+    }
+
+    void connectionOpened(PlayerConnection connection)
+    {
+        ObjectName name = name("type=Connection,id=" + nextConnectionId.incrementAndGet());
+        if (name != null && register(name, new ConnectionBean(connection)))
+            connections.put(connection, name);
+    }
+
+    void connectionClosed(PlayerConnection connection)
+    {
+        ObjectName name = connections.remove(connection);
+        if (name != null)
+            unregister(name);
+    }
+
+    private static ObjectName name(String properties)
+    {
+        try
+        {
+            return new ObjectName(DOMAIN + ":" + properties);
+        } catch (JMException e)
+        {
+            LOGGER.warn(() -> "Invalid management bean name " + properties + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private boolean register(ObjectName name, Object bean)
+    {
+        try
+        {
+            beanServer.registerMBean(bean, name);
+            return true;
+        } catch (JMException e)
+        {
+            LOGGER.warn(() -> "Can't register the management bean " + name + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void unregister(ObjectName name)
+    {
+        try
+        {
+            beanServer.unregisterMBean(name);
+        } catch (JMException e)
+        {
+            LOGGER.warn(() -> "Can't unregister the management bean " + name + ": " + e.getMessage());
+        }
+    }
+
+    private static String[] toArray(List<String> names)
+    {
+        return names.toArray(new String[0]);
+    }
+
+    private static class ServerBean implements ServerMXBean
+    {
+        private final Server server;
+
+        private ServerBean(Server server)
+        {
+            this.server = server;
+        }
+
+        @Override
+        public int getLobbySize()
+        {
+            return server.getRegistry().getLobby().size();
+        }
+
+        @Override
+        public int getMatchesCount()
+        {
+            return server.getRegistry().getMatches().size();
+        }
+
+        @Override
+        public int getConnectedPlayers()
+        {
+            return server.getRegistry().getNamesCount();
+        }
+
+        @Override
+        public String[] getMatchIds()
+        {
+            return server.getRegistry().getMatches().keySet().toArray(new String[0]);
+        }
+
+        @Override
+        public String[] getSlowTraces()
+        {
+            return toArray(TraceRecorder.dump());
+        }
+
+        @Override
+        public boolean isDraining()
+        {
+            return server.isDraining();
+        }
+
+        @Override
+        public void drain()
+        {
+            server.drain();
+        }
+
+        @Override
+        public boolean endMatch(String matchId)
+        {
+            Match match = server.getRegistry().getMatch(matchId);
+            if (match == null)
+                return false;
+
+            ServerManagement.endMatch(match);
+            return true;
+        }
+
+        @Override
+        public boolean disconnectPlayer(String playerName)
+        {
+            PlayerConnection player = server.getRegistry().getPlayer(playerName);
+            if (player == null)
+                return false;
+
+            disconnect(player);
+            return true;
+        }
+    }
+
+    private static class MatchBean implements MatchMXBean
+    {
+        private final Match match;
+
+        private MatchBean(Match match)
+        {
+            this.match = match;
+        }
+
+        @Override
+        public String getMatchId()
+        {
+            return match.getMatchId();
+        }
+
+        @Override
+        public String getGameMode()
+        {
+            return match.getController().getGameMode().name();
+        }
+
+        @Override
+        public int getMaxPlayers()
+        {
+            return match.getController().getPlayersNumber();
+        }
+
+        @Override
+        public String getPhase()
+        {
+            // Published by the mailbox, a match busy or stuck doesn't hang the reader
+            return match.getPhaseName();
+        }
+
+        @Override
+        public String[] getPlayers()
+        {
+            return toArray(match.getPlayers().stream().map(player -> player.getPlayerName().orElse("")).toList());
+        }
+
+        @Override
+        public String[] getMissingPlayers()
+        {
+            return toArray(match.getMissingPlayers());
+        }
+
+        @Override
+        public void end()
+        {
+            endMatch(match);
+        }
+    }
+
+    private static class ConnectionBean implements ConnectionMXBean
+    {
+        private final PlayerConnection connection;
+
+        private ConnectionBean(PlayerConnection connection)
+        {
+            this.connection = connection;
+        }
+
+        @Override
+        public String getPlayerName()
+        {
+            return connection.getPlayerName().orElse("");
+        }
+
+        @Override
+        public String getMatchId()
+        {
+            Match match = connection.getServer().getRegistry().getMatchOf(connection);
+            return match == null ? "" : match.getMatchId();
+        }
+
+        @Override
+        public int getQueueDepth()
+        {
+            return connection.getQueueDepth();
+        }
+
+        @Override
+        public boolean isSlowConsumer()
+        {
+            return connection.isSlowConsumer();
+        }
+
+        @Override
+        public long getLastPingAgeMillis()
+        {
+            return connection.getLastPingAgeMillis();
+        }
+
+        @Override
+        public long getRttMillis()
+        {
+            return connection.getRttMillis();
+        }
+
+        @Override
+        public long getRttVariationMillis()
+        {
+            return connection.getRttVariationMillis();
+        }
+
+        @Override
+        public long getWatchdogTimeoutMillis()
+        {
+            return connection.getWatchdogTimeout();
+        }
+
+        @Override
+        public void disconnect()
+        {
+            ServerManagement.disconnect(connection);
+        }
+    }
+
+    private static void endMatch(Match match)
+    {
+        LOGGER.info(() -> "Ending match " + match.getMatchId() + " on request of the operator");
+        // A restored match may have only missing players, it is ended anyway
+        match.submit(() -> match.endMatch("The match has been ended by the server"));
+    }
+
+    private static void disconnect(PlayerConnection connection)
+    {
+        LOGGER.info(() -> "Disconnecting player " + connection.getPlayerName().orElse("") + " on request of the operator");
+        connection.sendAnswer(new EndMatchAnswer("You have been disconnected by the server"));
+        connection.close();
+    }
+}
@@ -0,0 +1,154 @@
+package it.polimi.ingsw.network;
+
+import it.polimi.ingsw.metrics.Counter;
+import it.polimi.ingsw.metrics.LatencyHistogram;
+import it.polimi.ingsw.metrics.MetricsRegistry;
+
+/**
+ * Metrics collected by the server. They are shared by all the server instances of the process, the gauges describe the last server created with
+ * the startup options.
+ */
+public final class ServerMetrics
+{
+    public static final MetricsRegistry REGISTRY = new MetricsRegistry();
+
+    static final Counter CONNECTIONS_ACCEPTED = REGISTRY.counter("eriantys_connections_accepted_total", "Connections accepted by the server.");
+
+    static final Counter MATCHES_CREATED = REGISTRY.counter("eriantys_matches_created_total", "Matches created.");
+
+    static final Counter UPDATES_SENT = REGISTRY.counter("eriantys_updates_total", "Model updates produced by the matches.");
+
+    static final Counter FRAMES_DROPPED = REGISTRY.counter("eriantys_frames_dropped_total", "Model updates dropped for slow consumers.");
+
+    static final Counter OUTBOUND_OVERFLOWS = REGISTRY.counter("eriantys_outbound_overflows_total",
+            "Connections closed because their outbound queue was full.");
+
+    private static final Counter ACTIONS = REGISTRY.counter("eriantys_actions_total", "Player actions handled.");
+
+    private static final LatencyHistogram ACTION_DURATION = REGISTRY.histogram("eriantys_action_duration_seconds",
+            "Time taken to handle a player action, updates sending included.");
+
+    private static final Counter FRAMES_COMPRESSED = REGISTRY.counter("eriantys_frames_compressed_total", "Frames compressed before being written.");
+
+    private static final Counter COMPRESSION_INPUT_BYTES = REGISTRY.counter("eriantys_compression_input_bytes_total",
+            "Bytes of the frames compressed, before the compression.");
+
+    private static final Counter COMPRESSION_OUTPUT_BYTES = REGISTRY.counter("eriantys_compression_output_bytes_total",
+            "Bytes of the frames compressed, after the compression.");
+
+    private static final LatencyHistogram ROUND_TRIP_TIME = REGISTRY.histogram("eriantys_round_trip_time_seconds",
+            "Round trip times measured with the heartbeats.");
+
+    private static final Counter CHECKPOINTS_WRITTEN = REGISTRY.counter("eriantys_checkpoints_written_total", "Match checkpoints written.");
+
+    private static final Counter CHECKPOINT_BYTES = REGISTRY.counter("eriantys_checkpoint_bytes_total", "Bytes of the match checkpoints written.");
+
+    private static final LatencyHistogram CHECKPOINT_DURATION = REGISTRY.histogram("eriantys_checkpoint_duration_seconds",
+            "Time taken to encode and write a match checkpoint.");
+
+    private static final Counter JOURNAL_ENTRIES = REGISTRY.counter("eriantys_journal_entries_total", "Entries written to the action journal.");
+
+    private static final Counter JOURNAL_BYTES = REGISTRY.counter("eriantys_journal_bytes_total", "Bytes written to the action journal.");
+
+    private static final Counter JOURNAL_COMMITS = REGISTRY.counter("eriantys_journal_commits_total",
+            "Batches of entries written and forced to the disk together.");
+
+    private static final LatencyHistogram JOURNAL_COMMIT_DURATION = REGISTRY.histogram("eriantys_journal_commit_duration_seconds",
+            "Time taken to write and force a batch of journal entries.");
+
+    private ServerMetrics()
+    {}
+
+    /**
+     * Counts a checkpoint of a match written to the checkpoint file.
+     *
+     * @param bytes Size of the checkpoint.
+     * @param startNanos Value of System.nanoTime() when the encoding started.
+     */
+    static void checkpointWritten(int bytes, long startNanos)
+    {
+        CHECKPOINTS_WRITTEN.increment();
+        CHECKPOINT_BYTES.add(bytes);
+        CHECKPOINT_DURATION.recordSince(startNanos);
+    }
+
+    /**
+     * Counts a batch of entries written to the action journal and forced to the disk.
+     *
+     * @param entries Number of entries in the batch.
+     * @param bytes Size of the batch.
+     * @param startNanos Value of System.nanoTime() when the write started.
+     */
+    static void journalCommitted(int entries, int bytes, long startNanos)
+    {
+        JOURNAL_ENTRIES.add(entries);
+        JOURNAL_BYTES.add(bytes);
+        JOURNAL_COMMITS.increment();
+        JOURNAL_COMMIT_DURATION.recordSince(startNanos);
+    }
+
+    /**
+     * Records a round trip time measured on a connection.
+     */
+    static void roundTripMeasured(long nanos)
+    {
+        ROUND_TRIP_TIME.record(nanos);
+    }
+
+    /**
+     * Counts a frame compressed for a player.
+     *
+     * @param originalBytes Size of the frame.
+     * @param compressedBytes Size of the compressed frame.
+     */
+    static void frameCompressed(int originalBytes, int compressedBytes)
+    {
+        FRAMES_COMPRESSED.increment();
+        COMPRESSION_INPUT_BYTES.add(originalBytes);
+        COMPRESSION_OUTPUT_BYTES.add(compressedBytes);
+    }
+
+    /**
+     * Counts an action handled by a match controller.
+     *
+     * @param startNanos Value of System.nanoTime() when the handling started.
+     */
+    public static void actionHandled(long startNanos)
+    {
+        ACTIONS.increment();
+        ACTION_DURATION.recordSince(startNanos);
+    }
+
+    /**
+     * Counts a frame queued for a player.
+     *
+     * @param typeName Type of the message in the frame.
+     * @param bytes Size of the frame.
+     */
+    static void frameSent(String typeName, int bytes)
+    {
+        REGISTRY.counter("eriantys_frames_sent_total", "Frames queued for the players, by message type.", "type", typeName).increment();
+        REGISTRY.counter("eriantys_bytes_sent_total", "Bytes queued for the players, by message type.", "type", typeName).add(bytes);
+    }
+
+    /**
+     * Counts a packet received from a player.
+     *
+     * @param typeName Type of the message received.
+     */
+    static void packetReceived(String typeName)
+    {
+        REGISTRY.counter("eriantys_packets_received_total", "Packets received from the players, by message type.", "type", typeName).increment();
+    }
+
+    /**
+     * Registers the gauges describing the state of the given server.
+     */
+    static void register(Server server)
+    {
+        REGISTRY.gauge("eriantys_matches_active", "Matches currently on the server.", () -> server.getRegistry().getMatches().size());
+        REGISTRY.gauge("eriantys_lobby_players", "Players currently in the lobby.", () -> server.getRegistry().getLobby().size());
+        REGISTRY.gauge("eriantys_players_connected", "Players logged in with a name.", () -> server.getRegistry().getNamesCount());
+        REGISTRY.gauge("eriantys_spectators", "Players currently watching a match.", () -> server.getRegistry().getSpectatorsCount());
+    }
+}
@@ -0,0 +1,217 @@
+package it.polimi.ingsw.network;
+
+import it.polimi.ingsw.logging.LogLevel;
+import it.polimi.ingsw.protocol.codec.WireFormat;
+import it.polimi.ingsw.tracing.TraceRecorder;
+
+/**
+ * Startup options of the server, parsed from the command line arguments.
+ *
+ * For backward compatibility a single number is interpreted as the port, otherwise the options are given in the form "--name value".
+ */
+public class ServerOptions
+{
+    /**
+     * Default minimum payload size of the compressed frames. Smaller frames barely shrink and aren't worth the work.
+     */
+    public static final int DEFAULT_COMPRESSION_THRESHOLD = 512;
+
+    private int port = 2345;
+
+    private boolean nio = false;
+
+    private boolean virtualThreads = false;
+
+    private int ioThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    private WireFormat codec = WireFormat.BINARY;
+
+    private boolean deltaUpdates = true;
+
+    private LogLevel logLevel = LogLevel.INFO;
+
+    private String logFile = null;
+
+    private int metricsPort = 0;
+
+    private int compressionThreshold = DEFAULT_COMPRESSION_THRESHOLD;
+
+    private int traceThreshold = (int) TraceRecorder.DEFAULT_THRESHOLD_MILLIS;
+
+    private String checkpointFile = null;
+
+    /**
+     * Parses the given command line arguments.
+     *
+     * @param args Arguments passed to the server.
+     * @return The parsed options.
+     * @throws IllegalArgumentException Thrown if an option is unknown or its value is not valid.
+     */
+    public static ServerOptions parse(String[] args) throws IllegalArgumentException
+    {
+        ServerOptions options = new ServerOptions();
+
+        for (int i = 0; i < args.length; i++)
+        {
+            switch (args[i])
+            {
+                case "--port" -> options.port = parseInt(args, ++i);
+                case "--nio" -> options.nio = true;
+                case "--virtual-threads" -> options.virtualThreads = true;
+                case "--io-threads" -> options.ioThreads = parseInt(args, ++i);
+                case "--codec" -> options.codec = parseCodec(args, ++i);
+                case "--full-updates" -> options.deltaUpdates = false;
+                case "--log-level" -> options.logLevel = LogLevel.parse(parseString(args, ++i));
+                case "--log-file" -> options.logFile = parseString(args, ++i);
+                case "--metrics-port" -> options.metricsPort = parseInt(args, ++i);
+                case "--compression-threshold" -> options.compressionThreshold = parseInt(args, ++i);
+                case "--trace-threshold" -> options.traceThreshold = parseInt(args, ++i);
+                case "--checkpoint-file" -> options.checkpointFile = parseString(args, ++i);
+                default -> {
+                    // A lone number is the port, as in the previous versions
+                    if (args.length == 1)
+                        options.port = parseInt(args, i);
+                    else
+                        throw new IllegalArgumentException("[ServerOptions] Unknown option " + args[i]);
+                }
+            }
+        }
+
+        if (options.ioThreads <= 0)
+            throw new IllegalArgumentException("[ServerOptions] The number of io threads must be positive");
+        if (options.metricsPort < 0 || options.metricsPort > 65535)
+            throw new IllegalArgumentException("[ServerOptions] Invalid metrics port " + options.metricsPort);
+        if (options.compressionThreshold < 0)
+            throw new IllegalArgumentException("[ServerOptions] The compression threshold can't be negative");
+        if (options.traceThreshold < 0)
+            throw new IllegalArgumentException("[ServerOptions] The trace threshold can't be negative");
+
+        return options;
+    }
+
+    private static int parseInt(String[] args, int index) throws IllegalArgumentException
+    {
+        if (index >= args.length)
+            throw new IllegalArgumentException("[ServerOptions] Missing value for option " + args[index - 1]);
+
+        try
+        {
+            return Integer.parseInt(args[index]);
+        } catch (NumberFormatException e)
+        {
+            throw new IllegalArgumentException("[ServerOptions] " + args[index] + " is not a valid number");
+        }
+    }
+
+    private static String parseString(String[] args, int index) throws IllegalArgumentException
+    {
+        if (index >= args.length)
+            throw new IllegalArgumentException("[ServerOptions] Missing value for option " + args[index - 1]);
+
+        return args[index];
+    }
+
+    private static WireFormat parseCodec(String[] args, int index) throws IllegalArgumentException
+    {
+        if (index >= args.length)
+            throw new IllegalArgumentException("[ServerOptions] Missing value for option " + args[index - 1]);
+
+        return switch (args[index])
+        {
+            case "binary" -> WireFormat.BINARY;
+            case "java" -> WireFormat.JAVA;
+            default -> throw new IllegalArgumentException("[ServerOptions] Unknown codec " + args[index]);
+        };
+    }
+
+    public int getPort()
+    {
+        return port;
+    }
+
+    /**
+     * Tells whether the players have to be served with non blocking channels instead of a thread per socket.
+     */
+    public boolean isNio()
+    {
+        return nio;
+    }
+
+    /**
+     * Tells whether the connections readers and the timer tasks have to run on virtual threads.
+     */
+    public boolean isVirtualThreads()
+    {
+        return virtualThreads;
+    }
+
+    public int getIoThreads()
+    {
+        return ioThreads;
+    }
+
+    /**
+     * Returns the format used to encode the frames sent to the clients.
+     */
+    public WireFormat getCodec()
+    {
+        return codec;
+    }
+
+    /**
+     * Tells whether the islands and school boards updates have to be sent as differences from the previous ones.
+     */
+    public boolean isDeltaUpdates()
+    {
+        return deltaUpdates;
+    }
+
+    /**
+     * Returns the minimum level of the log messages written.
+     */
+    public LogLevel getLogLevel()
+    {
+        return logLevel;
+    }
+
+    /**
+     * Returns the file the log is written to, null to write it on the console.
+     */
+    public String getLogFile()
+    {
+        return logFile;
+    }
+
+    /**
+     * Returns the port the metrics are served on over HTTP, 0 if they aren't served.
+     */
+    public int getMetricsPort()
+    {
+        return metricsPort;
+    }
+
+    /**
+     * Returns the minimum payload size of the frames compressed for the clients that support it, 0 if the compression is disabled.
+     */
+    public int getCompressionThreshold()
+    {
+        return compressionThreshold;
+    }
+
+    /**
+     * Returns the duration in milliseconds above which the traces of the actions are kept.
+     */
+    public int getTraceThreshold()
+    {
+        return traceThreshold;
+    }
+
+    /**
+     * Returns the file the running matches are saved to and restored from, null if the matches aren't saved. The journal of the changes following
+     * the saves is kept next to it, with the .journal extension.
+     */
+    public String getCheckpointFile()
+    {
+        return checkpointFile;
+    }
+}
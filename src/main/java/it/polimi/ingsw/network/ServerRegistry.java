@@ -0,0 +1,444 @@
+package it.polimi.ingsw.network;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import it.polimi.ingsw.model.GameMode;
+import it.polimi.ingsw.protocol.commands.MatchesFilter;
+
+/**
+ * Indexes of the server state: the lobby, the matches, the match of every player and the names in use, plus a sorted index of the matches for the
+ * lobby queries. Every index is a concurrent map, so the lookups don't scan the matches and connections, logins and disconnections can happen in
+ * parallel.
+ *
+ * The single operations are atomic, e.g. claiming a name, but sequences of them aren't. Callers rely on each connection being handled by one
+ * thread at a time and on the matches changing only inside their mailbox.
+ */
+class ServerRegistry
+{
+    private final Set<PlayerConnection> lobby = ConcurrentHashMap.newKeySet();
+
+    private final ConcurrentMap<String, Match> matches = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<PlayerConnection, Match> playersMatch = new ConcurrentHashMap<>();
+
+    /**
+     * Match watched by every spectator. Spectators aren't in playersMatch, so their actions are refused.
+     */
+    private final ConcurrentMap<PlayerConnection, Match> spectatedMatches = new ConcurrentHashMap<>();
+
+    /**
+     * Connected players by name, both in the lobby and in a match.
+     */
+    private final ConcurrentMap<String, PlayerConnection> names = new ConcurrentHashMap<>();
+
+    /**
+     * Matches of the disconnected players, by name, used to put them back in their match when they log in again.
+     */
+    private final ConcurrentMap<String, Match> missingPlayers = new ConcurrentHashMap<>();
+
+    private static final SecureRandom TOKENS_RANDOM = new SecureRandom();
+
+    /**
+     * Names of the players by session token, used to log them in again when they resume their session.
+     */
+    private final ConcurrentMap<String, String> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * Current session token of every player, by name.
+     */
+    private final ConcurrentMap<String, String> sessionTokens = new ConcurrentHashMap<>();
+
+    /**
+     * Secondary index of the matches, split by game mode, players number and open state and sorted by id. A query visits only the buckets its
+     * filter accepts, starting from its cursor, so a page costs its size and not the number of matches.
+     */
+    private final ConcurrentMap<IndexKey, ConcurrentSkipListMap<String, Match>> index = new ConcurrentHashMap<>();
+
+    /**
+     * Bucket of the index each match is in.
+     */
+    private final Map<String, IndexKey> indexedMatches = new ConcurrentHashMap<>();
+
+    /**
+     * Reserves the name for the given player.
+     *
+     * @param name Name to reserve.
+     * @param player Player requesting the name.
+     * @return True if the name is now owned by the player, false if another player is using it.
+     */
+    boolean claimName(String name, PlayerConnection player)
+    {
+        PlayerConnection owner = names.putIfAbsent(name, player);
+        return owner == null || owner == player;
+    }
+
+    /**
+     * Gives the name to another connection of the same player, if it is still owned by the previous one.
+     */
+    void replaceName(String name, PlayerConnection previous, PlayerConnection player)
+    {
+        names.replace(name, previous, player);
+    }
+
+    /**
+     * Frees the name if it is owned by the given player.
+     */
+    void releaseName(String name, PlayerConnection player)
+    {
+        names.remove(name, player);
+    }
+
+    /**
+     * Returns the player logged in with the given name, null if none.
+     */
+    PlayerConnection getPlayer(String name)
+    {
+        return names.get(name);
+    }
+
+    /**
+     * Returns the number of names in use, i.e. of the players logged in.
+     */
+    int getNamesCount()
+    {
+        return names.size();
+    }
+
+    /**
+     * Issues a new session token for the player with the given name, the previous one is no longer valid.
+     *
+     * @param name Name of the player, already claimed.
+     * @return The token to give to the player.
+     */
+    String openSession(String name)
+    {
+        byte[] bytes = new byte[16];
+        TOKENS_RANDOM.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        sessions.put(token, name);
+        String previous = sessionTokens.put(name, token);
+        if (previous != null)
+            sessions.remove(previous, name);
+
+        return token;
+    }
+
+    /**
+     * Returns the name of the player owning the session token, null if the token isn't valid.
+     */
+    String getSessionName(String token)
+    {
+        return sessions.get(token);
+    }
+
+    /**
+     * Invalidates the session of the player with the given name, e.g. because it has nothing to resume anymore.
+     */
+    void closeSession(String name)
+    {
+        String token = sessionTokens.remove(name);
+        if (token != null)
+            sessions.remove(token, name);
+    }
+
+    void addToLobby(PlayerConnection player)
+    {
+        lobby.add(player);
+    }
+
+    void removeFromLobby(PlayerConnection player)
+    {
+        lobby.remove(player);
+    }
+
+    boolean isInLobby(PlayerConnection player)
+    {
+        return lobby.contains(player);
+    }
+
+    /**
+     * Returns a read only live view of the lobby.
+     */
+    Set<PlayerConnection> getLobby()
+    {
+        return Collections.unmodifiableSet(lobby);
+    }
+
+    /**
+     * Adds the match if there isn't another one with the same id.
+     *
+     * @return True if the match has been added.
+     */
+    boolean addMatch(String matchId, Match match)
+    {
+        if (matches.putIfAbsent(matchId, match) != null)
+            return false;
+
+        updateIndex(match);
+        return true;
+    }
+
+    Match getMatch(String matchId)
+    {
+        return matches.get(matchId);
+    }
+
+    /**
+     * Returns a read only live view of the matches by id.
+     */
+    Map<String, Match> getMatches()
+    {
+        return Collections.unmodifiableMap(matches);
+    }
+
+    /**
+     * Removes the match and every index entry pointing to it.
+     */
+    void removeMatch(Match match)
+    {
+        matches.remove(match.getMatchId(), match);
+        updateIndex(match);
+
+        for (PlayerConnection player : match.getPlayers())
+            playersMatch.remove(player, match);
+        for (PlayerConnection spectator : match.getSpectators())
+            spectatedMatches.remove(spectator, match);
+        for (String name : match.getMissingPlayers())
+        {
+            missingPlayers.remove(name, match);
+            closeSession(name);
+        }
+    }
+
+    /**
+     * Moves the match to the index bucket matching its current state, or removes it from the index if it is no longer registered. Must be called
+     * whenever the players of the match change.
+     */
+    synchronized void updateIndex(Match match)
+    {
+        String matchId = match.getMatchId();
+        IndexKey previous = indexedMatches.get(matchId);
+
+        if (matches.get(matchId) != match)
+        {
+            if (previous != null)
+            {
+                index.get(previous).remove(matchId, match);
+                indexedMatches.remove(matchId);
+            }
+            return;
+        }
+
+        IndexKey key = new IndexKey(match.getController().getGameMode(), match.getController().getPlayersNumber(), match.isOpen());
+        if (key.equals(previous))
+            return;
+
+        // Added to the new bucket before leaving the old one, so that concurrent queries never miss it
+        index.computeIfAbsent(key, k -> new ConcurrentSkipListMap<>()).put(matchId, match);
+        indexedMatches.put(matchId, key);
+        if (previous != null)
+            index.get(previous).remove(matchId, match);
+    }
+
+    /**
+     * Returns a page of the matches satisfying the filter, sorted by id.
+     *
+     * @param filter Conditions the matches must satisfy.
+     * @param descending True to sort the matches by descending id.
+     * @param cursor Id after which the page starts, excluded. Null to start from the first match.
+     * @param limit Maximum number of matches to return, 0 for no limit.
+     * @return Up to limit + 1 matches, the last one tells the caller that there is another page.
+     */
+    List<Match> findMatches(MatchesFilter filter, boolean descending, String cursor, int limit)
+    {
+        Comparator<String> order = descending ? Comparator.reverseOrder() : Comparator.naturalOrder();
+        PriorityQueue<BucketCursor> heads = new PriorityQueue<>((a, b) -> order.compare(a.current.getKey(), b.current.getKey()));
+
+        for (Map.Entry<IndexKey, ConcurrentSkipListMap<String, Match>> bucket : index.entrySet())
+        {
+            IndexKey key = bucket.getKey();
+            if (!filter.accepts(key.mode, key.playersNumber, key.open))
+                continue;
+
+            NavigableMap<String, Match> matchesView = descending ? bucket.getValue().descendingMap() : bucket.getValue();
+            if (cursor != null)
+                matchesView = matchesView.tailMap(cursor, false);
+
+            BucketCursor head = new BucketCursor(matchesView.entrySet().iterator());
+            if (head.advance())
+                heads.add(head);
+        }
+
+        int maxSize = limit == 0 ? Integer.MAX_VALUE : limit + 1;
+        List<Match> page = new ArrayList<>(Math.min(maxSize, 64));
+        String lastId = null;
+
+        // Merge the sorted buckets until the page is full
+        while (!heads.isEmpty() && page.size() < maxSize)
+        {
+            BucketCursor head = heads.poll();
+            Map.Entry<String, Match> entry = head.current;
+
+            // A match moving between buckets can briefly be in both, and its state may have changed since it was indexed
+            Match match = entry.getValue();
+            if (!entry.getKey().equals(lastId)
+                    && filter.accepts(match.getController().getGameMode(), match.getController().getPlayersNumber(), match.isOpen()))
+            {
+                page.add(match);
+                lastId = entry.getKey();
+            }
+
+            if (head.advance())
+                heads.add(head);
+        }
+
+        return page;
+    }
+
+    /**
+     * Records that the player is playing in the given match.
+     *
+     * @return True if the player wasn't already in a match.
+     */
+    boolean joinMatch(PlayerConnection player, Match match)
+    {
+        return playersMatch.putIfAbsent(player, match) == null;
+    }
+
+    /**
+     * Removes the player from its match index.
+     *
+     * @return The match the player was in, null if none.
+     */
+    Match leaveMatch(PlayerConnection player)
+    {
+        return playersMatch.remove(player);
+    }
+
+    Match getMatchOf(PlayerConnection player)
+    {
+        return playersMatch.get(player);
+    }
+
+    /**
+     * Records that the connection is watching the given match.
+     *
+     * @return True if the connection wasn't already watching a match.
+     */
+    boolean spectateMatch(PlayerConnection spectator, Match match)
+    {
+        return spectatedMatches.putIfAbsent(spectator, match) == null;
+    }
+
+    /**
+     * Stops the connection from watching its match.
+     *
+     * @return The match the connection was watching, null if none.
+     */
+    Match stopSpectating(PlayerConnection spectator)
+    {
+        return spectatedMatches.remove(spectator);
+    }
+
+    Match getSpectatedMatch(PlayerConnection spectator)
+    {
+        return spectatedMatches.get(spectator);
+    }
+
+    /**
+     * Returns the number of connections watching a match.
+     */
+    int getSpectatorsCount()
+    {
+        return spectatedMatches.size();
+    }
+
+    void addMissingPlayer(String name, Match match)
+    {
+        missingPlayers.put(name, match);
+    }
+
+    void removeMissingPlayer(String name, Match match)
+    {
+        missingPlayers.remove(name, match);
+    }
+
+    /**
+     * Returns the match the disconnected player with the given name was playing in.
+     */
+    Optional<Match> getMatchOfMissingPlayer(String name)
+    {
+        return Optional.ofNullable(missingPlayers.get(name));
+    }
+
+    /**
+     * Characteristics shared by the matches of an index bucket.
+     */
+    private static class IndexKey
+    {
+        private final GameMode mode;
+
+        private final int playersNumber;
+
+        private final boolean open;
+
+        private IndexKey(GameMode mode, int playersNumber, boolean open)
+        {
+            this.mode = mode;
+            this.playersNumber = playersNumber;
+            this.open = open;
+        }
+
+        @Override
+        public boolean equals(Object other)
+        {
+            return other instanceof IndexKey key && mode == key.mode && playersNumber == key.playersNumber && open == key.open;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(mode, playersNumber, open);
+        }
+    }
+
+    /**
+     * Iterator over a bucket that remembers its current entry, used to merge the buckets.
+     */
+    private static class BucketCursor
+    {
+        private final Iterator<Map.Entry<String, Match>> iterator;
+
+        private Map.Entry<String, Match> current;
+
+        private BucketCursor(Iterator<Map.Entry<String, Match>> iterator)
+        {
+            this.iterator = iterator;
+        }
+
+        private boolean advance()
+        {
+            if (!iterator.hasNext())
+                return false;
+
+            current = iterator.next();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package it.polimi.ingsw.network;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+
+import it.polimi.ingsw.jfr.SocketWriteEvent;
+import it.polimi.ingsw.logging.Log;
+import it.polimi.ingsw.logging.Logger;
+import it.polimi.ingsw.protocol.codec.EncodedFrame;
+import it.polimi.ingsw.protocol.codec.FrameCodec;
+
+/**
+ * Player connection backed by a blocking socket. A dedicated thread keeps reading frames from the socket until the connection is closed.
+ */
+public class SocketPlayerConnection extends PlayerConnection implements Runnable
+{
+    private static final Logger LOGGER = Log.getLogger(SocketPlayerConnection.class);
+
+    private Socket playerSocket;
+
+    private DataInputStream inputStream;
+
+    private DataOutputStream outputStream;
+
+    /**
+     * Creates a new SocketPlayerConnection object.
+     *
+     * Creates also the input and output streams used to communicate with the client.
+     *
+     * @param server Server instance which creates the player connection.
+     * @param playerSocket Player socket created in the server.
+     * @throws IOException Thrown if an error occurs during streams creation.
+     */
+    SocketPlayerConnection(Server server, Socket playerSocket) throws IOException
+    {
+        super(server);
+        this.playerSocket = playerSocket;
+
+        try
+        {
+            inputStream = new DataInputStream(new BufferedInputStream(playerSocket.getInputStream()));
+            outputStream = new DataOutputStream(new BufferedOutputStream(playerSocket.getOutputStream()));
+        } catch (IOException e)
+        {
+            LOGGER.error(() -> "Error during initialization of the client: " + e.getMessage());
+        }
+    }
+
+    public Socket getPlayerSocket()
+    {
+        return playerSocket;
+    }
+
+    /**
+     * Keeps listening to the input stream and handles the messages from the user.
+     */
+    @Override
+    public void run()
+    {
+        onConnected();
+
+        try
+        {
+            while (isActive())
+                handlePacket(FrameCodec.readObject(inputStream));
+        } catch (IOException e)
+        {
+            // The player suddenly disconnected, remove it from the server
+            abort();
+        } catch (ClassNotFoundException e)
+        {
+            LOGGER.error(() -> "Received an unknown class: " + e.getMessage());
+            abort();
+        }
+    }
+
+    @Override
+    protected void startWriter()
+    {
+        ServerExecutor.get().execute(this::writeFrames);
+    }
+
+    /**
+     * Writes the queued frames on the socket, blocking while the client doesn't read them.
+     */
+    private void writeFrames()
+    {
+        EncodedFrame frame;
+        while ((frame = nextFrame()) != null)
+        {
+            byte[] compressed = compress(frame);
+
+            SocketWriteEvent event = new SocketWriteEvent();
+            event.begin();
+
+            try
+            {
+                synchronized (outputStream)
+                {
+                    if (compressed != null)
+                        outputStream.write(compressed);
+                    else
+                        frame.writeTo(outputStream);
+                    outputStream.flush();
+                }
+            } catch (IOException e)
+            {
+                LOGGER.warn(() -> "Error while writing: " + e.getMessage());
+                abort();
+                return;
+            }
+
+            event.end();
+            if (event.shouldCommit())
+            {
+                event.player = getPlayerName().orElse("");
+                event.frameType = frame.getTypeName();
+                event.bytes = compressed != null ? compressed.length : frame.size();
+                event.commit();
+            }
+
+            onFrameWritten(frame);
+        }
+    }
+
+    @Override
+    protected void closeTransport() throws IOException
+    {
+        playerSocket.close();
+    }
+}
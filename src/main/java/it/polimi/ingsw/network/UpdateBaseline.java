@@ -0,0 +1,205 @@
+package it.polimi.ingsw.network;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import it.polimi.ingsw.model.Island;
+import it.polimi.ingsw.model.Professor;
+import it.polimi.ingsw.model.SchoolBoard;
+import it.polimi.ingsw.model.SchoolColor;
+import it.polimi.ingsw.model.Student;
+import it.polimi.ingsw.model.Tower;
+import it.polimi.ingsw.model.TowerColor;
+import it.polimi.ingsw.protocol.updates.IslandsDeltaUpdate;
+import it.polimi.ingsw.protocol.updates.IslandsDeltaUpdate.IslandChange;
+import it.polimi.ingsw.protocol.updates.IslandsUpdate;
+import it.polimi.ingsw.protocol.updates.ModelUpdate;
+import it.polimi.ingsw.protocol.updates.SchoolBoardDeltaUpdate;
+import it.polimi.ingsw.protocol.updates.SchoolBoardUpdate;
+
+/**
+ * Last islands and school boards state sent to the players of a match, used to replace the full updates with their differences.
+ *
+ * All the players of a match receive the same updates, so a single baseline per match is enough as long as it is reset whenever a player joins
+ * the match, making everyone receive full updates again.
+ */
+class UpdateBaseline
+{
+    private List<IslandState> islands = null;
+
+    private final Map<Integer, BoardState> boards = new HashMap<>();
+
+    /**
+     * Converts the given update into its delta from the last state sent, and records the new state. Updates without a delta version, or whose
+     * differences can't be expressed as a delta, are returned unchanged.
+     *
+     * @param update Update produced by the model.
+     * @return The update to send to the players.
+     */
+    synchronized ModelUpdate diff(ModelUpdate update)
+    {
+        if (update instanceof IslandsUpdate islandsUpdate)
+            return diffIslands(islandsUpdate);
+        if (update instanceof SchoolBoardUpdate boardUpdate)
+            return diffBoard(boardUpdate);
+
+        return update;
+    }
+
+    /**
+     * Forgets the last state sent, the next updates are sent whole.
+     */
+    synchronized void reset()
+    {
+        islands = null;
+        boards.clear();
+    }
+
+    private ModelUpdate diffIslands(IslandsUpdate update)
+    {
+        List<IslandState> previous = islands;
+        List<IslandState> current = new ArrayList<>();
+        for (Island island : update.getIslands())
+            current.add(new IslandState(island));
+
+        islands = current;
+
+        // A merge changes the islands structure, the whole list is sent
+        if (previous == null || previous.size() != current.size())
+            return update;
+
+        List<IslandChange> changes = new ArrayList<>();
+        for (int i = 0; i < current.size(); i++)
+        {
+            IslandState before = previous.get(i);
+            IslandState after = current.get(i);
+
+            if (before.tiles != after.tiles)
+                return update;
+
+            boolean changed = false;
+            IslandChange change = new IslandChange(i);
+
+            int[] added = new int[SchoolColor.values().length];
+            for (int c = 0; c < added.length; c++)
+            {
+                added[c] = after.students[c] - before.students[c];
+                if (added[c] < 0)
+                    return update;
+                changed |= added[c] != 0;
+            }
+            if (changed)
+                change.setAddedStudents(added);
+
+            if (before.towerColor != after.towerColor || before.towers != after.towers)
+            {
+                change.setTowers(after.towerColor, after.towers);
+                changed = true;
+            }
+
+            if (before.noEntryTiles != after.noEntryTiles)
+            {
+                change.setNoEntryTiles(after.noEntryTiles);
+                changed = true;
+            }
+
+            if (changed)
+                changes.add(change);
+        }
+
+        return new IslandsDeltaUpdate(current.size(), update.getMotherNatureIndex(), changes);
+    }
+
+    private ModelUpdate diffBoard(SchoolBoardUpdate update)
+    {
+        BoardState after = new BoardState(update.getBoard());
+        BoardState before = boards.put(update.getPlayerIndex(), after);
+
+        if (before == null)
+            return update;
+
+        SchoolBoardDeltaUpdate delta = new SchoolBoardDeltaUpdate(update.getPlayer(), update.getPlayerIndex());
+
+        if (!before.entrance.equals(after.entrance))
+            delta.setEntrance(after.entrance);
+
+        int[] diningChanges = new int[SchoolColor.values().length];
+        boolean diningChanged = false;
+        for (int c = 0; c < diningChanges.length; c++)
+        {
+            diningChanges[c] = after.dining[c] - before.dining[c];
+            diningChanged |= diningChanges[c] != 0;
+        }
+        if (diningChanged)
+            delta.setDiningChanges(diningChanges);
+
+        if (before.professors != after.professors)
+            delta.setProfessors(after.professors);
+
+        delta.setTowersChange(after.towers - before.towers);
+
+        if (before.coins != after.coins)
+            delta.setCoins(after.coins);
+
+        return delta;
+    }
+
+    /**
+     * Counts describing an island, the model objects can't be kept because they keep changing.
+     */
+    private static class IslandState
+    {
+        private final int tiles;
+
+        private final int[] students = new int[SchoolColor.values().length];
+
+        private final TowerColor towerColor;
+
+        private final int towers;
+
+        private final int noEntryTiles;
+
+        private IslandState(Island island)
+        {
+            tiles = island.getIslands().size();
+            for (Student student : island.getStudents())
+                students[student.getColor().ordinal()]++;
+
+            List<Tower> islandTowers = island.getTowers();
+            towerColor = islandTowers.isEmpty() ? null : islandTowers.get(0).getColor();
+            towers = islandTowers.size();
+            noEntryTiles = island.getNoEntryTiles();
+        }
+    }
+
+    /**
+     * Counts describing a school board.
+     */
+    private static class BoardState
+    {
+        private final List<SchoolColor> entrance = new ArrayList<>();
+
+        private final int[] dining = new int[SchoolColor.values().length];
+
+        private int professors = 0;
+
+        private final int towers;
+
+        private final int coins;
+
+        private BoardState(SchoolBoard board)
+        {
+            for (Student student : board.getStudentsInEntrance())
+                entrance.add(student.getColor());
+            for (SchoolColor color : SchoolColor.values())
+                dining[color.ordinal()] = board.getStudentsNumber(color);
+            for (Professor professor : board.getProfessors())
+                professors |= 1 << professor.getColor().ordinal();
+
+            towers = board.getTowers().size();
+            coins = board.getCoins();
+        }
+    }
+}
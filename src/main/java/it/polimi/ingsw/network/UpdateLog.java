@@ -0,0 +1,87 @@
+package it.polimi.ingsw.network;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import it.polimi.ingsw.protocol.updates.ModelUpdate;
+
+/**
+ * Bounded log of the last model updates sent to the players of a match, with increasing sequence numbers. A player resuming its session receives
+ * the updates it missed from here, as long as the log still contains all of them.
+ *
+ * The updates are stored as they were sent, deltas included, so replaying them in order rebuilds the state the other players have. It is used only
+ * on the match mailbox.
+ */
+class UpdateLog
+{
+    /**
+     * Every log numbers its updates in a range of its own, so that a sequence number of another match is never mistaken for one of this match.
+     */
+    private static final AtomicLong RANGES = new AtomicLong();
+
+    private static final int RANGE_BITS = 32;
+
+    private final ModelUpdate[] updates;
+
+    /**
+     * Sequence number preceding the first update.
+     */
+    private final long firstSequence;
+
+    /**
+     * Sequence number of the last update appended.
+     */
+    private long lastSequence;
+
+    UpdateLog(int capacity)
+    {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("[UpdateLog] The capacity must be positive");
+
+        updates = new ModelUpdate[capacity];
+        firstSequence = RANGES.incrementAndGet() << RANGE_BITS;
+        lastSequence = firstSequence;
+    }
+
+    /**
+     * Appends an update, overwriting the oldest one if the log is full.
+     *
+     * @return The sequence number of the update.
+     */
+    long append(ModelUpdate update)
+    {
+        lastSequence++;
+        updates[(int) (lastSequence % updates.length)] = update;
+        return lastSequence;
+    }
+
+    long getLastSequence()
+    {
+        return lastSequence;
+    }
+
+    /**
+     * Returns the updates for the given player following the given sequence number.
+     *
+     * @param sequence Sequence number of the last update the player handled.
+     * @param playerName Name of the player, the updates for the other players are skipped.
+     * @return The updates in order, null if the log doesn't cover the gap or the sequence number is unknown.
+     */
+    List<ModelUpdate> since(long sequence, String playerName)
+    {
+        long oldest = Math.max(firstSequence + 1, lastSequence - updates.length + 1);
+        if (sequence < oldest - 1 || sequence > lastSequence)
+            return null;
+
+        List<ModelUpdate> missed = new ArrayList<>((int) (lastSequence - sequence));
+        for (long i = sequence + 1; i <= lastSequence; i++)
+        {
+            ModelUpdate update = updates[(int) (i % updates.length)];
+            if (update.getPlayerDestination().isEmpty() || update.getPlayerDestination().get().equals(playerName))
+                missed.add(update);
+        }
+
+        return missed;
+    }
+}
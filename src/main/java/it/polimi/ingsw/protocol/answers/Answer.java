@@ -1,6 +1,7 @@
 package it.polimi.ingsw.protocol.answers;
 
 import it.polimi.ingsw.client.Visualizable;
+import it.polimi.ingsw.protocol.codec.BinaryEncodable;
 
 import java.io.Serial;
 import java.io.Serializable;
@@ -8,7 +9,7 @@ import java.io.Serializable;
 /**
  * Answers are the server's reply to the Commands. They are sent to the clients.
  */
-public abstract class Answer implements Serializable
+public abstract class Answer implements Serializable, BinaryEncodable
 {
     @Serial
     private static final long serialVersionUID = 3075004929990451300L;
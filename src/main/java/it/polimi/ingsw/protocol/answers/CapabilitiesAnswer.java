@@ -0,0 +1,55 @@
+package it.polimi.ingsw.protocol.answers;
+
+import java.io.Serial;
+import java.io.StreamCorruptedException;
+
+import it.polimi.ingsw.client.Visualizable;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
+
+/**
+ * Answer to a CapabilitiesCommand, with the optional protocol features enabled on the connection.
+ */
+public class CapabilitiesAnswer extends Answer
+{
+    @Serial
+    private static final long serialVersionUID = -2319404861226093475L;
+
+    private final int capabilities;
+
+    /**
+     * @param capabilities Bit mask of the enabled features, see CapabilitiesCommand.
+     */
+    public CapabilitiesAnswer(int capabilities)
+    {
+        this.capabilities = capabilities;
+    }
+
+    public int getCapabilities()
+    {
+        return capabilities;
+    }
+
+    @Override
+    public void handleAnswer(Visualizable handler)
+    {
+        // The client is always ready for the features it asked for, there is nothing to show
+    }
+
+    @Override
+    public String toString()
+    {
+        return "[CapabilitiesAnswer] Enabled features: " + capabilities;
+    }
+
+    @Override
+    public void encode(BinaryWriter writer)
+    {
+        writer.writeInt(capabilities);
+    }
+
+    public static CapabilitiesAnswer decode(BinaryReader reader) throws StreamCorruptedException
+    {
+        return new CapabilitiesAnswer(reader.readInt());
+    }
+}
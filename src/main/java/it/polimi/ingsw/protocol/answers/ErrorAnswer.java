@@ -1,8 +1,11 @@
 package it.polimi.ingsw.protocol.answers;
 
 import it.polimi.ingsw.client.Visualizable;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
 
 import java.io.Serial;
+import java.io.StreamCorruptedException;
 
 public class ErrorAnswer extends Answer
 {
@@ -32,4 +35,15 @@ public class ErrorAnswer extends Answer
     {
         handler.displayError(this);
     }
+
+    @Override
+    public void encode(BinaryWriter writer)
+    {
+        writer.writeString(errorMessage);
+    }
+
+    public static ErrorAnswer decode(BinaryReader reader) throws StreamCorruptedException
+    {
+        return new ErrorAnswer(reader.readString());
+    }
 }
@@ -1,8 +1,11 @@
 package it.polimi.ingsw.protocol.answers;
 
 import it.polimi.ingsw.client.Visualizable;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
 
 import java.io.Serial;
+import java.io.StreamCorruptedException;
 
 public class JoinedMatchAnswer extends Answer
 {
@@ -27,4 +30,15 @@ public class JoinedMatchAnswer extends Answer
     {
         handler.displayJoinedMatch(this);
     }
+
+    @Override
+    public void encode(BinaryWriter writer)
+    {
+        writer.writeString(matchId);
+    }
+
+    public static JoinedMatchAnswer decode(BinaryReader reader) throws StreamCorruptedException
+    {
+        return new JoinedMatchAnswer(reader.readString());
+    }
 }
@@ -1,12 +1,17 @@
 package it.polimi.ingsw.protocol.answers;
 
 import java.io.Serial;
+import java.io.StreamCorruptedException;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Optional;
 
 import it.polimi.ingsw.client.Visualizable;
 import it.polimi.ingsw.model.GameMode;
 import it.polimi.ingsw.network.Match;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
 
 public class MatchesListAnswer extends Answer
 {
@@ -19,11 +24,28 @@ public class MatchesListAnswer extends Answer
 
     Map<String, GameMode> gameModes;
 
+    /**
+     * Id of the last match of the page, to ask for the next one. Null if there are no more matches.
+     */
+    String nextCursor;
+
     public MatchesListAnswer(Map<String, Match> matches)
     {
-        maxNumPlayers = new HashMap<>();
-        numPlayers = new HashMap<>();
-        gameModes = new HashMap<>();
+        this(matches, null);
+    }
+
+    /**
+     * Creates a page of the matches list. The maps keep the iteration order of the given matches.
+     *
+     * @param matches Matches in the page.
+     * @param nextCursor Cursor of the next page, null if this is the last one.
+     */
+    public MatchesListAnswer(Map<String, Match> matches, String nextCursor)
+    {
+        maxNumPlayers = new LinkedHashMap<>();
+        numPlayers = new LinkedHashMap<>();
+        gameModes = new LinkedHashMap<>();
+        this.nextCursor = nextCursor;
 
         for (Map.Entry<String, Match> match : matches.entrySet())
         {
@@ -48,6 +70,11 @@ public class MatchesListAnswer extends Answer
         return gameModes;
     }
 
+    public Optional<String> getNextCursor()
+    {
+        return Optional.ofNullable(nextCursor);
+    }
+
     @Override
     public String toString()
     {
@@ -86,4 +113,35 @@ public class MatchesListAnswer extends Answer
     {
         handler.displayMatchesList(this);
     }
+
+    @Override
+    public void encode(BinaryWriter writer)
+    {
+        writer.writeInt(gameModes.size());
+        for (String matchId : gameModes.keySet())
+        {
+            writer.writeString(matchId);
+            writer.writeEnum(gameModes.get(matchId));
+            writer.writeInt(numPlayers.get(matchId));
+            writer.writeInt(maxNumPlayers.get(matchId));
+        }
+        writer.writeString(nextCursor);
+    }
+
+    public static MatchesListAnswer decode(BinaryReader reader) throws StreamCorruptedException
+    {
+        MatchesListAnswer answer = new MatchesListAnswer(new HashMap<>());
+
+        int count = reader.readCount();
+        for (int i = 0; i < count; i++)
+        {
+            String matchId = reader.readString();
+            answer.gameModes.put(matchId, reader.readEnum(GameMode.values()));
+            answer.numPlayers.put(matchId, reader.readInt());
+            answer.maxNumPlayers.put(matchId, reader.readInt());
+        }
+        answer.nextCursor = reader.readString();
+
+        return answer;
+    }
 }
@@ -0,0 +1,136 @@
+package it.polimi.ingsw.protocol.answers;
+
+import java.io.Serial;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import it.polimi.ingsw.client.Visualizable;
+import it.polimi.ingsw.model.GameMode;
+import it.polimi.ingsw.network.Match;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
+
+/**
+ * Changes to the matches list since the last one sent to the lobby: the matches created or whose players changed, and the matches removed. The
+ * client applies them to the last full MatchesListAnswer it received.
+ */
+public class MatchesListDeltaAnswer extends Answer
+{
+    @Serial
+    private static final long serialVersionUID = -6437402934213581763L;
+
+    Map<String, Integer> maxNumPlayers = new LinkedHashMap<>();
+
+    Map<String, Integer> numPlayers = new LinkedHashMap<>();
+
+    Map<String, GameMode> gameModes = new LinkedHashMap<>();
+
+    List<String> removedMatches = new ArrayList<>();
+
+    /**
+     * Adds or replaces the entry of the given match.
+     */
+    public void putMatch(String matchId, Match match)
+    {
+        maxNumPlayers.put(matchId, match.getController().getPlayersNumber());
+        numPlayers.put(matchId, match.getPlayersNumber());
+        gameModes.put(matchId, match.getController().getGameMode());
+    }
+
+    public void removeMatch(String matchId)
+    {
+        maxNumPlayers.remove(matchId);
+        numPlayers.remove(matchId);
+        gameModes.remove(matchId);
+        removedMatches.add(matchId);
+    }
+
+    public boolean isEmpty()
+    {
+        return gameModes.isEmpty() && removedMatches.isEmpty();
+    }
+
+    public List<String> getRemovedMatches()
+    {
+        return removedMatches;
+    }
+
+    /**
+     * Applies the changes to the given list. The matches keep the order in which the client shows them: the changed ones stay in their place and
+     * the created ones are appended in the order they have been sent.
+     *
+     * @param list Last full list received.
+     * @return A new list with the changes applied, the given one isn't modified since the view may still be showing it.
+     */
+    public MatchesListAnswer applyTo(MatchesListAnswer list)
+    {
+        MatchesListAnswer result = new MatchesListAnswer(new LinkedHashMap<>(), list.nextCursor);
+        for (String matchId : list.gameModes.keySet())
+        {
+            if (removedMatches.contains(matchId))
+                continue;
+
+            result.gameModes.put(matchId, gameModes.getOrDefault(matchId, list.gameModes.get(matchId)));
+            result.numPlayers.put(matchId, numPlayers.getOrDefault(matchId, list.numPlayers.get(matchId)));
+            result.maxNumPlayers.put(matchId, maxNumPlayers.getOrDefault(matchId, list.maxNumPlayers.get(matchId)));
+        }
+
+        result.gameModes.putAll(gameModes);
+        result.numPlayers.putAll(numPlayers);
+        result.maxNumPlayers.putAll(maxNumPlayers);
+
+        return result;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "[MatchesListDeltaAnswer] " + gameModes.size() + " matches changed, " + removedMatches.size() + " removed";
+    }
+
+    @Override
+    public void handleAnswer(Visualizable handler)
+    {
+        handler.displayMatchesListDelta(this);
+    }
+
+    @Override
+    public void encode(BinaryWriter writer)
+    {
+        writer.writeInt(gameModes.size());
+        for (String matchId : gameModes.keySet())
+        {
+            writer.writeString(matchId);
+            writer.writeEnum(gameModes.get(matchId));
+            writer.writeInt(numPlayers.get(matchId));
+            writer.writeInt(maxNumPlayers.get(matchId));
+        }
+
+        writer.writeInt(removedMatches.size());
+        for (String matchId : removedMatches)
+            writer.writeString(matchId);
+    }
+
+    public static MatchesListDeltaAnswer decode(BinaryReader reader) throws StreamCorruptedException
+    {
+        MatchesListDeltaAnswer answer = new MatchesListDeltaAnswer();
+
+        int count = reader.readCount();
+        for (int i = 0; i < count; i++)
+        {
+            String matchId = reader.readString();
+            answer.gameModes.put(matchId, reader.readEnum(GameMode.values()));
+            answer.numPlayers.put(matchId, reader.readInt());
+            answer.maxNumPlayers.put(matchId, reader.readInt());
+        }
+
+        count = reader.readCount();
+        for (int i = 0; i < count; i++)
+            answer.removedMatches.add(reader.readString());
+
+        return answer;
+    }
+}
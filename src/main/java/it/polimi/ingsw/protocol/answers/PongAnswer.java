@@ -0,0 +1,65 @@
+package it.polimi.ingsw.protocol.answers;
+
+import java.io.Serial;
+import java.io.StreamCorruptedException;
+
+import it.polimi.ingsw.client.Visualizable;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
+
+/**
+ * Answer to a PingCommand, it echoes the client's timestamp and carries the server's one, to be echoed by the next PingCommand.
+ */
+public class PongAnswer extends Answer
+{
+    @Serial
+    private static final long serialVersionUID = 8840625310946237351L;
+
+    private final long echoTimestamp;
+
+    private final long timestamp;
+
+    /**
+     * @param echoTimestamp Timestamp of the PingCommand answered.
+     * @param timestamp Value of System.nanoTime() on the server.
+     */
+    public PongAnswer(long echoTimestamp, long timestamp)
+    {
+        this.echoTimestamp = echoTimestamp;
+        this.timestamp = timestamp;
+    }
+
+    public long getEchoTimestamp()
+    {
+        return echoTimestamp;
+    }
+
+    public long getTimestamp()
+    {
+        return timestamp;
+    }
+
+    @Override
+    public void handleAnswer(Visualizable handler)
+    {
+        // Handled by the client before the dispatching, there is nothing to show
+    }
+
+    @Override
+    public String toString()
+    {
+        return "[PongAnswer] Echo of " + echoTimestamp;
+    }
+
+    @Override
+    public void encode(BinaryWriter writer)
+    {
+        writer.writeLong(echoTimestamp);
+        writer.writeLong(timestamp);
+    }
+
+    public static PongAnswer decode(BinaryReader reader) throws StreamCorruptedException
+    {
+        return new PongAnswer(reader.readLong(), reader.readLong());
+    }
+}
@@ -1,8 +1,11 @@
 package it.polimi.ingsw.protocol.answers;
 
 import it.polimi.ingsw.client.Visualizable;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
 
 import java.io.Serial;
+import java.io.StreamCorruptedException;
 
 public class SetNameAnswer extends Answer
 {
@@ -11,9 +14,15 @@ public class SetNameAnswer extends Answer
 
     private String name;
 
-    public SetNameAnswer(String name)
+    /**
+     * Token the client can present with a ResumeSessionCommand to log in again with the same name after losing the connection.
+     */
+    private String sessionToken;
+
+    public SetNameAnswer(String name, String sessionToken)
     {
         this.name = name;
+        this.sessionToken = sessionToken;
     }
 
     @Override
@@ -32,4 +41,21 @@ public class SetNameAnswer extends Answer
     {
         return name;
     }
+
+    public String getSessionToken()
+    {
+        return sessionToken;
+    }
+
+    @Override
+    public void encode(BinaryWriter writer)
+    {
+        writer.writeString(name);
+        writer.writeString(sessionToken);
+    }
+
+    public static SetNameAnswer decode(BinaryReader reader) throws StreamCorruptedException
+    {
+        return new SetNameAnswer(reader.readString(), reader.readString());
+    }
 }
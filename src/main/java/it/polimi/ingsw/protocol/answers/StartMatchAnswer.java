@@ -1,8 +1,11 @@
 package it.polimi.ingsw.protocol.answers;
 
 import it.polimi.ingsw.client.Visualizable;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
 
 import java.io.Serial;
+import java.io.StreamCorruptedException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -39,4 +42,25 @@ public class StartMatchAnswer extends Answer
     {
         return new HashMap<>(players);
     }
+
+    @Override
+    public void encode(BinaryWriter writer)
+    {
+        writer.writeInt(players.size());
+        for (Map.Entry<String, Integer> player : players.entrySet())
+        {
+            writer.writeString(player.getKey());
+            writer.writeInt(player.getValue());
+        }
+    }
+
+    public static StartMatchAnswer decode(BinaryReader reader) throws StreamCorruptedException
+    {
+        int count = reader.readCount();
+        Map<String, Integer> players = new HashMap<>();
+        for (int i = 0; i < count; i++)
+            players.put(reader.readString(), reader.readInt());
+
+        return new StartMatchAnswer(players);
+    }
 }
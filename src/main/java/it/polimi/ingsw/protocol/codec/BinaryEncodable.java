@@ -0,0 +1,14 @@
+package it.polimi.ingsw.protocol.codec;
+
+/**
+ * Implemented by the protocol objects that have a binary representation. The matching decoder is registered in MessageType.
+ */
+public interface BinaryEncodable
+{
+    /**
+     * Writes the fields of the object, without any type information.
+     * 
+     * @param writer Writer to use.
+     */
+    void encode(BinaryWriter writer);
+}
@@ -0,0 +1,146 @@
+package it.polimi.ingsw.protocol.codec;
+
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the values written by a BinaryWriter from a portion of a byte array.
+ *
+ * Every read checks the bounds and throws a StreamCorruptedException if the data is truncated or malformed.
+ */
+public class BinaryReader
+{
+    private final byte[] buffer;
+
+    private int position;
+
+    private final int limit;
+
+    /**
+     * Creates a new reader over the given portion of the array.
+     *
+     * @param buffer Array containing the data.
+     * @param offset Position of the first byte to read.
+     * @param length Number of bytes available.
+     */
+    public BinaryReader(byte[] buffer, int offset, int length)
+    {
+        this.buffer = buffer;
+        this.position = offset;
+        this.limit = offset + length;
+    }
+
+    public int readByte() throws StreamCorruptedException
+    {
+        ensureAvailable(1);
+        return buffer[position++];
+    }
+
+    public boolean readBoolean() throws StreamCorruptedException
+    {
+        return readByte() != 0;
+    }
+
+    public int readFixedInt() throws StreamCorruptedException
+    {
+        ensureAvailable(4);
+        int value = ((buffer[position] & 0xFF) << 24) | ((buffer[position + 1] & 0xFF) << 16) | ((buffer[position + 2] & 0xFF) << 8)
+                | (buffer[position + 3] & 0xFF);
+        position += 4;
+        return value;
+    }
+
+    public int readInt() throws StreamCorruptedException
+    {
+        long raw = readVarLong();
+        return (int) ((raw >>> 1) ^ -(raw & 1));
+    }
+
+    public long readLong() throws StreamCorruptedException
+    {
+        long raw = readVarLong();
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    public Integer readNullableInt() throws StreamCorruptedException
+    {
+        return readBoolean() ? readInt() : null;
+    }
+
+    public String readString() throws StreamCorruptedException
+    {
+        int length = readInt();
+        if (length == -1)
+            return null;
+        if (length < 0)
+            throw new StreamCorruptedException("[BinaryReader] Negative string length");
+
+        ensureAvailable(length);
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    /**
+     * Reads a constant of the given enum written with BinaryWriter.writeEnum.
+     *
+     * @param values The constants of the enum, as returned by values().
+     * @return The constant, or null if a null value was written.
+     * @throws StreamCorruptedException Thrown if the ordinal is out of range.
+     */
+    public <E extends Enum<E>> E readEnum(E[] values) throws StreamCorruptedException
+    {
+        int ordinal = readInt();
+        if (ordinal == -1)
+            return null;
+        if (ordinal < 0 || ordinal >= values.length)
+            throw new StreamCorruptedException("[BinaryReader] Invalid ordinal " + ordinal);
+
+        return values[ordinal];
+    }
+
+    /**
+     * Reads a count of elements, checking it is not negative nor larger than the remaining bytes.
+     */
+    public int readCount() throws StreamCorruptedException
+    {
+        int count = readInt();
+        if (count < 0 || count > remaining())
+            throw new StreamCorruptedException("[BinaryReader] Invalid elements count " + count);
+
+        return count;
+    }
+
+    public byte[] readBytes(int length) throws StreamCorruptedException
+    {
+        ensureAvailable(length);
+        byte[] bytes = new byte[length];
+        System.arraycopy(buffer, position, bytes, 0, length);
+        position += length;
+        return bytes;
+    }
+
+    public int remaining()
+    {
+        return limit - position;
+    }
+
+    private long readVarLong() throws StreamCorruptedException
+    {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7)
+        {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new StreamCorruptedException("[BinaryReader] Malformed variable length integer");
+    }
+
+    private void ensureAvailable(int length) throws StreamCorruptedException
+    {
+        if (length < 0 || position + length > limit)
+            throw new StreamCorruptedException("[BinaryReader] Unexpected end of data");
+    }
+}
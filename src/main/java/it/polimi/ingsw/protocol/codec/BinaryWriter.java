@@ -0,0 +1,152 @@
+package it.polimi.ingsw.protocol.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Growable buffer used to write the binary representation of the protocol objects.
+ *
+ * Integers are written as variable length quantities, so that the small numbers used by the game (indexes, counts, ids) take a single byte.
+ */
+public class BinaryWriter
+{
+    private byte[] buffer;
+
+    private int size = 0;
+
+    public BinaryWriter()
+    {
+        this(128);
+    }
+
+    /**
+     * Creates a new writer with the given initial capacity.
+     *
+     * @param capacity Initial capacity in bytes.
+     */
+    public BinaryWriter(int capacity)
+    {
+        buffer = new byte[Math.max(capacity, 16)];
+    }
+
+    public void writeByte(int value)
+    {
+        ensureCapacity(1);
+        buffer[size++] = (byte) value;
+    }
+
+    public void writeBoolean(boolean value)
+    {
+        writeByte(value ? 1 : 0);
+    }
+
+    /**
+     * Writes a 4 bytes big endian integer.
+     */
+    public void writeFixedInt(int value)
+    {
+        ensureCapacity(4);
+        buffer[size++] = (byte) (value >>> 24);
+        buffer[size++] = (byte) (value >>> 16);
+        buffer[size++] = (byte) (value >>> 8);
+        buffer[size++] = (byte) value;
+    }
+
+    /**
+     * Writes an integer with a variable number of bytes. Negative numbers are zigzag encoded so that small negative numbers stay small.
+     */
+    public void writeInt(int value)
+    {
+        writeVarLong(((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Writes a long with a variable number of bytes, zigzag encoded.
+     */
+    public void writeLong(long value)
+    {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * Writes an integer that can also be null.
+     */
+    public void writeNullableInt(Integer value)
+    {
+        writeBoolean(value != null);
+        if (value != null)
+            writeInt(value);
+    }
+
+    /**
+     * Writes a UTF-8 string preceded by its length. Null strings are allowed.
+     */
+    public void writeString(String value)
+    {
+        if (value == null)
+        {
+            writeInt(-1);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeInt(bytes.length);
+        writeBytes(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Writes the ordinal of the given enum constant. Null constants are allowed.
+     */
+    public void writeEnum(Enum<?> value)
+    {
+        writeInt(value == null ? -1 : value.ordinal());
+    }
+
+    public void writeBytes(byte[] bytes, int offset, int length)
+    {
+        ensureCapacity(length);
+        System.arraycopy(bytes, offset, buffer, size, length);
+        size += length;
+    }
+
+    /**
+     * Overwrites 4 bytes at the given position with a big endian integer, used to fill headers once the size is known.
+     */
+    public void setFixedInt(int position, int value)
+    {
+        buffer[position] = (byte) (value >>> 24);
+        buffer[position + 1] = (byte) (value >>> 16);
+        buffer[position + 2] = (byte) (value >>> 8);
+        buffer[position + 3] = (byte) value;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Returns a copy of the written bytes.
+     */
+    public byte[] toByteArray()
+    {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    private void writeVarLong(long value)
+    {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0)
+        {
+            buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[size++] = (byte) value;
+    }
+
+    private void ensureCapacity(int additional)
+    {
+        if (size + additional > buffer.length)
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + additional));
+    }
+}
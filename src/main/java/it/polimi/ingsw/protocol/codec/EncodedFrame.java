@@ -0,0 +1,106 @@
+package it.polimi.ingsw.protocol.codec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import it.polimi.ingsw.protocol.updates.SequencedUpdate;
+import it.polimi.ingsw.tracing.ActionTrace;
+
+/**
+ * Immutable frame, header included, ready to be written on any number of connections. Broadcasts encode the object once and share the same frame
+ * with every recipient. A frame produced by a player action carries the trace of the action, which the writers complete.
+ */
+public final class EncodedFrame
+{
+    private final byte[] bytes;
+
+    private final String typeName;
+
+    private final ActionTrace trace;
+
+    private EncodedFrame(byte[] bytes, String typeName, ActionTrace trace)
+    {
+        this.bytes = bytes;
+        this.typeName = typeName;
+        this.trace = trace;
+    }
+
+    /**
+     * Encodes the given object with the FrameCodec.
+     *
+     * @param object Object to encode.
+     * @return The encoded frame.
+     * @throws IOException Thrown if the object can't be encoded.
+     */
+    public static EncodedFrame of(Object object) throws IOException
+    {
+        return of(object, null);
+    }
+
+    /**
+     * Encodes the given object with the FrameCodec, tagging the frame with the trace of the action that produced it.
+     *
+     * @param object Object to encode.
+     * @param trace Trace of the action, null if none.
+     * @return The encoded frame.
+     * @throws IOException Thrown if the object can't be encoded.
+     */
+    public static EncodedFrame of(Object object, ActionTrace trace) throws IOException
+    {
+        // The sequence number wraps almost every update, the name of the update tells more
+        Object named = object instanceof SequencedUpdate sequenced ? sequenced.getUpdate() : object;
+        return new EncodedFrame(FrameCodec.encode(object), named.getClass().getSimpleName(), trace);
+    }
+
+    /**
+     * Returns the simple name of the encoded class, used for logging.
+     */
+    public String getTypeName()
+    {
+        return typeName;
+    }
+
+    /**
+     * Returns the trace of the action that produced the frame, null if none.
+     */
+    public ActionTrace getTrace()
+    {
+        return trace;
+    }
+
+    /**
+     * Returns the size of the frame in bytes, header included.
+     */
+    public int size()
+    {
+        return bytes.length;
+    }
+
+    /**
+     * Returns the bytes of the frame, which must not be modified.
+     */
+    byte[] bytes()
+    {
+        return bytes;
+    }
+
+    /**
+     * Returns a new read only buffer over the frame, every caller gets its own position.
+     */
+    public ByteBuffer asByteBuffer()
+    {
+        return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+
+    /**
+     * Writes the whole frame on the given stream.
+     *
+     * @param output Stream to write on.
+     * @throws IOException Thrown if an error occurs while writing.
+     */
+    public void writeTo(OutputStream output) throws IOException
+    {
+        output.write(bytes);
+    }
+}
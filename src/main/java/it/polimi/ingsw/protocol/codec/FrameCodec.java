@@ -0,0 +1,254 @@
+package it.polimi.ingsw.protocol.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+import java.util.Optional;
+
+/**
+ * Utility class that converts protocol objects to and from frames.
+ *
+ * A frame is made of a 4 bytes big endian length followed by the payload. Every frame is self contained so it can be decoded independently of the
+ * previous ones, this allows both the blocking and the non blocking transports to use the same format.
+ *
+ * The first byte of the payload is the MessageType id of the object, followed by its binary representation. The id 0 means that the rest of the
+ * payload is a Java serialization stream. Decoding always accepts both, the format used for encoding can be chosen.
+ *
+ * The frames sent to a client that negotiated the compression can instead be compressed, see FrameDeflater. They are marked by the highest bit of
+ * the length and aren't self contained, a connection decodes them with its own FrameInflater.
+ */
+public class FrameCodec
+{
+    /**
+     * Size in bytes of the length header placed before every payload.
+     */
+    public static final int HEADER_SIZE = 4;
+
+    /**
+     * Maximum payload size accepted, bigger frames are considered corrupted.
+     */
+    public static final int MAX_PAYLOAD_SIZE = 1 << 20;
+
+    /**
+     * Bit of the length header set on the compressed frames.
+     */
+    public static final int COMPRESSED_FLAG = 1 << 31;
+
+    private static volatile WireFormat format = WireFormat.BINARY;
+
+    private FrameCodec()
+    {}
+
+    /**
+     * Sets the format used to encode the frames.
+     *
+     * @param format Format to use.
+     * @throws NullPointerException Thrown if the format is null.
+     */
+    public static void setFormat(WireFormat format) throws NullPointerException
+    {
+        if (format == null)
+            throw new NullPointerException("[FrameCodec] Null wire format");
+
+        FrameCodec.format = format;
+    }
+
+    public static WireFormat getFormat()
+    {
+        return format;
+    }
+
+    /**
+     * Encodes the given object into a complete frame, header included.
+     *
+     * @param object Object to encode.
+     * @return The bytes of the frame.
+     * @throws IOException Thrown if the object can't be serialized.
+     */
+    public static byte[] encode(Object object) throws IOException
+    {
+        Optional<MessageType> type = MessageType.of(object.getClass());
+
+        if (format == WireFormat.BINARY && type.isPresent())
+        {
+            BinaryWriter writer = new BinaryWriter();
+
+            // Reserve the space for the header, it is filled once the payload size is known
+            writer.writeFixedInt(0);
+            writer.writeByte(type.get().getId());
+            ((BinaryEncodable) object).encode(writer);
+            writer.setFixedInt(0, writer.size() - HEADER_SIZE);
+
+            return writer.toByteArray();
+        }
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+        DataOutputStream output = new DataOutputStream(buffer);
+
+        // Reserve the space for the header, it is filled once the payload size is known
+        output.writeInt(0);
+        output.writeByte(MessageType.JAVA_SERIALIZATION_ID);
+
+        ObjectOutputStream objectOutput = new ObjectOutputStream(output);
+        objectOutput.writeObject(object);
+        objectOutput.flush();
+
+        byte[] frame = buffer.toByteArray();
+        writeInt(frame, 0, frame.length - HEADER_SIZE);
+        return frame;
+    }
+
+    /**
+     * Decodes a payload previously produced by encode, without the header.
+     *
+     * @param payload Array containing the payload.
+     * @param offset Position of the first byte of the payload.
+     * @param length Length of the payload.
+     * @return The decoded object.
+     * @throws IOException Thrown if the payload is corrupted.
+     * @throws ClassNotFoundException Thrown if the payload contains an unknown class.
+     */
+    public static Object decode(byte[] payload, int offset, int length) throws IOException, ClassNotFoundException
+    {
+        if (length < 1)
+            throw new StreamCorruptedException("[FrameCodec] Empty payload");
+
+        int id = payload[offset];
+
+        if (id == MessageType.JAVA_SERIALIZATION_ID)
+        {
+            try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(payload, offset + 1, length - 1)))
+            {
+                return input.readObject();
+            }
+        }
+
+        BinaryReader reader = new BinaryReader(payload, offset + 1, length - 1);
+        try
+        {
+            Object object = MessageType.fromId(id).decode(reader);
+
+            if (reader.remaining() != 0)
+                throw new StreamCorruptedException("[FrameCodec] " + reader.remaining() + " bytes left after decoding message type " + id);
+
+            return object;
+        } catch (RuntimeException e)
+        {
+            // The constructors validate their arguments, invalid values mean a corrupted payload
+            throw new StreamCorruptedException("[FrameCodec] Invalid message of type " + id + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Checks that the given payload length is acceptable.
+     *
+     * @param length Length read from a frame header.
+     * @throws StreamCorruptedException Thrown if the length is negative or too big.
+     */
+    public static void checkPayloadLength(int length) throws StreamCorruptedException
+    {
+        if (length < 0 || length > MAX_PAYLOAD_SIZE)
+            throw new StreamCorruptedException("[FrameCodec] Invalid frame length " + length);
+    }
+
+    /**
+     * Writes the given object as a frame on the stream.
+     *
+     * @param output Stream to write on.
+     * @param object Object to send.
+     * @throws IOException Thrown if an error occurs while writing.
+     */
+    public static void writeObject(DataOutputStream output, Object object) throws IOException
+    {
+        output.write(encode(object));
+        output.flush();
+    }
+
+    /**
+     * Blocks until a complete frame is read from the stream and decodes it.
+     *
+     * @param input Stream to read from.
+     * @return The decoded object.
+     * @throws IOException Thrown if an error occurs while reading or the frame is corrupted.
+     * @throws ClassNotFoundException Thrown if the payload contains an unknown class.
+     */
+    public static Object readObject(DataInputStream input) throws IOException, ClassNotFoundException
+    {
+        return readObject(input, null);
+    }
+
+    /**
+     * Blocks until a complete frame, possibly compressed, is read from the stream and decodes it.
+     *
+     * @param input Stream to read from.
+     * @param inflater Decompressor of the connection, null if the compressed frames aren't accepted.
+     * @return The decoded object.
+     * @throws IOException Thrown if an error occurs while reading or the frame is corrupted.
+     * @throws ClassNotFoundException Thrown if the payload contains an unknown class.
+     */
+    public static Object readObject(DataInputStream input, FrameInflater inflater) throws IOException, ClassNotFoundException
+    {
+        return decodeFrame(readFrame(input, inflater != null), inflater);
+    }
+
+    /**
+     * Blocks until a complete frame is read from the stream, without decoding it.
+     *
+     * @param input Stream to read from.
+     * @param acceptCompressed True if the compressed frames are accepted.
+     * @return The bytes of the frame, header included.
+     * @throws IOException Thrown if an error occurs while reading or the header is corrupted.
+     */
+    public static byte[] readFrame(DataInputStream input, boolean acceptCompressed) throws IOException
+    {
+        int header = input.readInt();
+        checkPayloadLength(acceptCompressed ? header & ~COMPRESSED_FLAG : header);
+
+        byte[] frame = new byte[HEADER_SIZE + (header & ~COMPRESSED_FLAG)];
+        writeInt(frame, 0, header);
+        input.readFully(frame, HEADER_SIZE, frame.length - HEADER_SIZE);
+        return frame;
+    }
+
+    /**
+     * Decodes a frame read with readFrame. The compressed frames must be decoded in the order they have been received.
+     *
+     * @param frame Bytes of the frame, header included.
+     * @param inflater Decompressor of the connection, null if the compressed frames aren't accepted.
+     * @return The decoded object.
+     * @throws IOException Thrown if the frame is corrupted.
+     * @throws ClassNotFoundException Thrown if the payload contains an unknown class.
+     */
+    public static Object decodeFrame(byte[] frame, FrameInflater inflater) throws IOException, ClassNotFoundException
+    {
+        int header = readInt(frame, 0);
+        int length = frame.length - HEADER_SIZE;
+
+        if ((header & COMPRESSED_FLAG) == 0)
+            return decode(frame, HEADER_SIZE, length);
+
+        if (inflater == null)
+            throw new StreamCorruptedException("[FrameCodec] Unexpected compressed frame");
+
+        byte[] payload = inflater.inflate(frame, HEADER_SIZE, length);
+        return decode(payload, 0, payload.length);
+    }
+
+    static void writeInt(byte[] array, int offset, int value)
+    {
+        array[offset] = (byte) (value >>> 24);
+        array[offset + 1] = (byte) (value >>> 16);
+        array[offset + 2] = (byte) (value >>> 8);
+        array[offset + 3] = (byte) value;
+    }
+
+    static int readInt(byte[] array, int offset)
+    {
+        return ((array[offset] & 0xFF) << 24) | ((array[offset + 1] & 0xFF) << 16) | ((array[offset + 2] & 0xFF) << 8) | (array[offset + 3] & 0xFF);
+    }
+}
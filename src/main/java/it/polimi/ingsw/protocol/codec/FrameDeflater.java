@@ -0,0 +1,68 @@
+package it.polimi.ingsw.protocol.codec;
+
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * Compressor of the frames sent on a single connection. All the frames go through the same deflate stream, flushed at the end of every frame, so
+ * a frame can refer to the data of the previous ones and the repeated structures of the model compress well.
+ *
+ * A compressed frame has the COMPRESSED_FLAG bit set in its length header, and its payload is the 4 bytes length of the original payload followed
+ * by the deflated data. The frames must be decompressed in the same order by a single FrameInflater, so the compressor must be used only by the
+ * writer of the connection, when the frame is written.
+ */
+public class FrameDeflater
+{
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+
+    private final int threshold;
+
+    private byte[] buffer = new byte[4096];
+
+    /**
+     * @param threshold Minimum payload size, in bytes, of the frames to compress. Smaller frames are sent as they are.
+     * @throws IllegalArgumentException Thrown if the threshold is not positive.
+     */
+    public FrameDeflater(int threshold) throws IllegalArgumentException
+    {
+        if (threshold <= 0)
+            throw new IllegalArgumentException("[FrameDeflater] The threshold must be positive");
+
+        this.threshold = threshold;
+    }
+
+    /**
+     * Compresses the frame if it is big enough.
+     *
+     * @param frame Frame to compress.
+     * @return The compressed frame, header included, or null if the frame has to be sent as it is.
+     */
+    public byte[] compress(EncodedFrame frame)
+    {
+        byte[] original = frame.bytes();
+        int payloadLength = original.length - FrameCodec.HEADER_SIZE;
+        if (payloadLength < threshold)
+            return null;
+
+        deflater.setInput(original, FrameCodec.HEADER_SIZE, payloadLength);
+
+        // Header and original length, filled at the end
+        int size = 2 * FrameCodec.HEADER_SIZE;
+        while (true)
+        {
+            if (size == buffer.length)
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+
+            int written = deflater.deflate(buffer, size, buffer.length - size, Deflater.SYNC_FLUSH);
+            size += written;
+
+            // The output is complete when the deflater didn't fill the available space
+            if (size < buffer.length)
+                break;
+        }
+
+        FrameCodec.writeInt(buffer, 0, (size - FrameCodec.HEADER_SIZE) | FrameCodec.COMPRESSED_FLAG);
+        FrameCodec.writeInt(buffer, FrameCodec.HEADER_SIZE, payloadLength);
+        return Arrays.copyOf(buffer, size);
+    }
+}
@@ -0,0 +1,62 @@
+package it.polimi.ingsw.protocol.codec;
+
+import java.io.StreamCorruptedException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Decompressor of the frames received on a single connection, the counterpart of the FrameDeflater of the sender. It keeps the state of the deflate
+ * stream between the frames, so it must see every compressed frame of the connection, in order.
+ */
+public class FrameInflater
+{
+    private final Inflater inflater = new Inflater();
+
+    private final byte[] scratch = new byte[1];
+
+    /**
+     * Decompresses the payload of a compressed frame.
+     *
+     * @param payload Array containing the compressed payload, without the header.
+     * @param offset Position of the first byte of the payload.
+     * @param length Length of the compressed payload.
+     * @return The original payload.
+     * @throws StreamCorruptedException Thrown if the payload is corrupted.
+     */
+    public byte[] inflate(byte[] payload, int offset, int length) throws StreamCorruptedException
+    {
+        if (length < FrameCodec.HEADER_SIZE)
+            throw new StreamCorruptedException("[FrameInflater] Compressed payload too short");
+
+        int originalLength = FrameCodec.readInt(payload, offset);
+        FrameCodec.checkPayloadLength(originalLength);
+
+        byte[] original = new byte[originalLength];
+        inflater.setInput(payload, offset + FrameCodec.HEADER_SIZE, length - FrameCodec.HEADER_SIZE);
+
+        try
+        {
+            int size = 0;
+            while (size < originalLength)
+            {
+                int inflated = inflater.inflate(original, size, originalLength - size);
+                if (inflated == 0 && (inflater.needsInput() || inflater.finished() || inflater.needsDictionary()))
+                    throw new StreamCorruptedException("[FrameInflater] Compressed payload shorter than declared");
+                size += inflated;
+            }
+
+            // Consume the flush marker at the end of the frame, the next frame's input replaces whatever is left
+            while (inflater.getRemaining() > 0)
+            {
+                int remaining = inflater.getRemaining();
+                if (inflater.inflate(scratch) != 0 || inflater.getRemaining() == remaining)
+                    throw new StreamCorruptedException("[FrameInflater] Compressed payload longer than declared");
+            }
+        } catch (DataFormatException e)
+        {
+            throw new StreamCorruptedException("[FrameInflater] Invalid compressed payload: " + e.getMessage());
+        }
+
+        return original;
+    }
+}
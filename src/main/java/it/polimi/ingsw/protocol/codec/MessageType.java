@@ -0,0 +1,146 @@
+package it.polimi.ingsw.protocol.codec;
+
+import java.io.StreamCorruptedException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import it.polimi.ingsw.protocol.answers.*;
+import it.polimi.ingsw.protocol.commands.*;
+import it.polimi.ingsw.protocol.messages.*;
+import it.polimi.ingsw.protocol.updates.*;
+
+/**
+ * Numeric identifiers of the protocol classes with a binary representation, together with their decoders.
+ *
+ * The id is the first byte of every frame payload. The id 0 is reserved to the objects encoded with the Java serialization. Ids must never be
+ * reused or changed once released, new classes get new ids.
+ */
+public enum MessageType
+{
+    // Commands
+    CREATE_MATCH_COMMAND(1, CreateMatchCommand.class, CreateMatchCommand::decode),
+    GET_MATCHES_LIST_COMMAND(2, GetMatchesListCommand.class, GetMatchesListCommand::decode),
+    JOIN_MATCH_COMMAND(3, JoinMatchCommand.class, JoinMatchCommand::decode),
+    PING_COMMAND(4, PingCommand.class, PingCommand::decode),
+    QUIT_GAME_COMMAND(5, QuitGameCommand.class, QuitGameCommand::decode),
+    SET_NAME_COMMAND(6, SetNameCommand.class, SetNameCommand::decode),
+    CAPABILITIES_COMMAND(7, CapabilitiesCommand.class, CapabilitiesCommand::decode),
+    RESYNC_COMMAND(8, ResyncCommand.class, ResyncCommand::decode),
+    RESUME_SESSION_COMMAND(9, ResumeSessionCommand.class, ResumeSessionCommand::decode),
+    SPECTATE_MATCH_COMMAND(10, SpectateMatchCommand.class, SpectateMatchCommand::decode),
+
+    // Action messages
+    CHARACTER_CARD_ACTION_MESSAGE(20, CharacterCardActionMessage.class, CharacterCardActionMessage::decode),
+    END_TURN_MESSAGE(21, EndTurnMessage.class, EndTurnMessage::decode),
+    MOVE_MOTHER_NATURE_MESSAGE(22, MoveMotherNatureMessage.class, MoveMotherNatureMessage::decode),
+    MOVE_STUDENT_FROM_ENTRANCE_TO_DINING_MESSAGE(23, MoveStudentFromEntranceToDiningMessage.class, MoveStudentFromEntranceToDiningMessage::decode),
+    MOVE_STUDENT_FROM_ENTRANCE_TO_ISLAND_MESSAGE(24, MoveStudentFromEntranceToIslandMessage.class, MoveStudentFromEntranceToIslandMessage::decode),
+    PLAY_ASSISTANT_CARD_MESSAGE(25, PlayAssistantCardMessage.class, PlayAssistantCardMessage::decode),
+    PLAY_CHARACTER_CARD_MESSAGE(26, PlayCharacterCardMessage.class, PlayCharacterCardMessage::decode),
+    SELECT_CLOUD_TILE_MESSAGE(27, SelectCloudTileMessage.class, SelectCloudTileMessage::decode),
+
+    // Answers
+    END_MATCH_ANSWER(40, EndMatchAnswer.class, EndMatchAnswer::decode),
+    ERROR_ANSWER(41, ErrorAnswer.class, ErrorAnswer::decode),
+    JOINED_MATCH_ANSWER(42, JoinedMatchAnswer.class, JoinedMatchAnswer::decode),
+    MATCHES_LIST_ANSWER(43, MatchesListAnswer.class, MatchesListAnswer::decode),
+    SET_NAME_ANSWER(44, SetNameAnswer.class, SetNameAnswer::decode),
+    START_MATCH_ANSWER(45, StartMatchAnswer.class, StartMatchAnswer::decode),
+    MATCHES_LIST_DELTA_ANSWER(46, MatchesListDeltaAnswer.class, MatchesListDeltaAnswer::decode),
+    CAPABILITIES_ANSWER(47, CapabilitiesAnswer.class, CapabilitiesAnswer::decode),
+    PONG_ANSWER(48, PongAnswer.class, PongAnswer::decode),
+
+    // Model updates
+    ASSISTANT_CARDS_UPDATE(60, AssistantCardsUpdate.class, AssistantCardsUpdate::decode),
+    CHARACTER_CARD_PAYLOAD_UPDATE(61, CharacterCardPayloadUpdate.class, CharacterCardPayloadUpdate::decode),
+    CHARACTER_CARDS_UPDATE(62, CharacterCardsUpdate.class, CharacterCardsUpdate::decode),
+    CLOUD_TILES_UPDATE(63, CloudTilesUpdate.class, CloudTilesUpdate::decode),
+    CURRENT_PLAYER_UPDATE(64, CurrentPlayerUpdate.class, CurrentPlayerUpdate::decode),
+    ISLANDS_UPDATE(65, IslandsUpdate.class, IslandsUpdate::decode),
+    PLAYED_ASSISTANT_CARD_UPDATE(66, PlayedAssistantCardUpdate.class, PlayedAssistantCardUpdate::decode),
+    SCHOOL_BOARD_UPDATE(67, SchoolBoardUpdate.class, SchoolBoardUpdate::decode),
+    ISLANDS_DELTA_UPDATE(68, IslandsDeltaUpdate.class, IslandsDeltaUpdate::decode),
+    SCHOOL_BOARD_DELTA_UPDATE(69, SchoolBoardDeltaUpdate.class, SchoolBoardDeltaUpdate::decode),
+    UPDATES_BATCH(70, UpdatesBatch.class, UpdatesBatch::decode),
+    SEQUENCED_UPDATE(71, SequencedUpdate.class, SequencedUpdate::decode);
+
+    /**
+     * Id reserved to the payloads encoded with the Java serialization.
+     */
+    public static final int JAVA_SERIALIZATION_ID = 0;
+
+    /**
+     * Function that rebuilds an object from its binary representation.
+     */
+    @FunctionalInterface
+    public interface Decoder
+    {
+        Object decode(BinaryReader reader) throws StreamCorruptedException;
+    }
+
+    private static final MessageType[] byId = new MessageType[128];
+
+    private static final Map<Class<?>, MessageType> byClass = new HashMap<>();
+
+    static
+    {
+        for (MessageType type : values())
+        {
+            if (byId[type.id] != null)
+                throw new IllegalStateException("[MessageType] Duplicated id " + type.id);
+
+            byId[type.id] = type;
+            byClass.put(type.type, type);
+        }
+    }
+
+    private final int id;
+
+    private final Class<? extends BinaryEncodable> type;
+
+    private final Decoder decoder;
+
+    MessageType(int id, Class<? extends BinaryEncodable> type, Decoder decoder)
+    {
+        this.id = id;
+        this.type = type;
+        this.decoder = decoder;
+    }
+
+    public int getId()
+    {
+        return id;
+    }
+
+    public Class<? extends BinaryEncodable> getType()
+    {
+        return type;
+    }
+
+    public Object decode(BinaryReader reader) throws StreamCorruptedException
+    {
+        return decoder.decode(reader);
+    }
+
+    /**
+     * Returns the message type of the given class, if it has one. Subclasses without their own id don't inherit the one of the parent.
+     */
+    public static Optional<MessageType> of(Class<?> type)
+    {
+        return Optional.ofNullable(byClass.get(type));
+    }
+
+    /**
+     * Returns the message type with the given id.
+     *
+     * @throws StreamCorruptedException Thrown if the id is unknown.
+     */
+    public static MessageType fromId(int id) throws StreamCorruptedException
+    {
+        if (id <= 0 || id >= byId.length || byId[id] == null)
+            throw new StreamCorruptedException("[MessageType] Unknown message type " + id);
+
+        return byId[id];
+    }
+}
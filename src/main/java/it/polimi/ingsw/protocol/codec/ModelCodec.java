@@ -0,0 +1,297 @@
+package it.polimi.ingsw.protocol.codec;
+
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.List;
+
+import it.polimi.ingsw.model.*;
+import it.polimi.ingsw.model.exceptions.NoLegitActionException;
+import it.polimi.ingsw.model.game.CharacterCard;
+import it.polimi.ingsw.model.game.CharacterCardType;
+import it.polimi.ingsw.model.game.GrandmaHerbs;
+import it.polimi.ingsw.model.game.Joker;
+import it.polimi.ingsw.model.game.Monk;
+import it.polimi.ingsw.model.game.Princess;
+
+/**
+ * Binary representation of the model objects carried by the protocol.
+ *
+ * Only the information needed to rebuild an equivalent object is written: students, professors and towers are reduced to their colors.
+ */
+public class ModelCodec
+{
+    private ModelCodec()
+    {}
+
+    public static void writeStudents(BinaryWriter writer, List<Student> students)
+    {
+        writer.writeInt(students.size());
+        for (Student student : students)
+            writer.writeEnum(student.getColor());
+    }
+
+    public static List<Student> readStudents(BinaryReader reader) throws StreamCorruptedException
+    {
+        int count = reader.readCount();
+        List<Student> students = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            students.add(new Student(readColor(reader)));
+        return students;
+    }
+
+    public static void writeColors(BinaryWriter writer, List<SchoolColor> colors)
+    {
+        writer.writeInt(colors.size());
+        for (SchoolColor color : colors)
+            writer.writeEnum(color);
+    }
+
+    public static List<SchoolColor> readColors(BinaryReader reader) throws StreamCorruptedException
+    {
+        int count = reader.readCount();
+        List<SchoolColor> colors = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            colors.add(readColor(reader));
+        return colors;
+    }
+
+    public static void writeAssistantCard(BinaryWriter writer, AssistantCard card)
+    {
+        writer.writeEnum(card.getWizard());
+        writer.writeInt(card.getTurnOrder());
+        writer.writeInt(card.getSteps());
+        writer.writeBoolean(card.isUsed());
+    }
+
+    public static AssistantCard readAssistantCard(BinaryReader reader) throws StreamCorruptedException
+    {
+        try
+        {
+            AssistantCard card = new AssistantCard(reader.readEnum(Wizard.values()), reader.readInt(), reader.readInt());
+            if (reader.readBoolean())
+                card.use();
+            return card;
+        } catch (NullPointerException | IllegalArgumentException e)
+        {
+            throw new StreamCorruptedException("[ModelCodec] Invalid assistant card: " + e.getMessage());
+        }
+    }
+
+    public static void writeIsland(BinaryWriter writer, Island island)
+    {
+        List<IslandTile> tiles = island.getIslands();
+        writer.writeInt(tiles.size());
+        for (IslandTile tile : tiles)
+        {
+            writeStudents(writer, tile.getStudents());
+            writer.writeEnum(tile.getTower().map(Tower::getColor).orElse(null));
+        }
+        writer.writeInt(island.getNoEntryTiles());
+    }
+
+    public static Island readIsland(BinaryReader reader) throws StreamCorruptedException
+    {
+        int tilesNumber = reader.readCount();
+        if (tilesNumber == 0)
+            throw new StreamCorruptedException("[ModelCodec] An island must have at least one tile");
+
+        try
+        {
+            List<Island> tileIslands = new ArrayList<>(tilesNumber);
+            List<TowerColor> towerColors = new ArrayList<>(tilesNumber);
+            for (int i = 0; i < tilesNumber; i++)
+            {
+                Island tileIsland = new Island();
+                for (Student student : readStudents(reader))
+                    tileIsland.addStudent(student);
+
+                tileIslands.add(tileIsland);
+                towerColors.add(reader.readEnum(TowerColor.values()));
+            }
+
+            // Merging needs a tower of the same color on every tile, the tiles without one get a placeholder removed afterwards
+            TowerColor mergeColor = towerColors.stream().filter(color -> color != null).findFirst().orElse(TowerColor.BLACK);
+            List<Tower> placeholders = new ArrayList<>();
+            for (int i = 0; i < tilesNumber; i++)
+            {
+                Tower tower = new Tower(towerColors.get(i) != null ? towerColors.get(i) : mergeColor);
+                if (towerColors.get(i) == null)
+                    placeholders.add(tower);
+                tileIslands.get(i).addTower(tower);
+            }
+
+            Island island = tileIslands.get(0);
+            for (int i = 1; i < tilesNumber; i++)
+                island.mergeIsland(tileIslands.get(i));
+
+            for (Tower placeholder : placeholders)
+                island.removeTower(placeholder);
+
+            int noEntryTiles = readCount(reader, GrandmaHerbs.INITIAL_NO_ENTRY_NUMBER, "no entry tiles");
+            for (int i = 0; i < noEntryTiles; i++)
+                island.addNoEntryTile();
+
+            return island;
+        } catch (IllegalArgumentException | NoLegitActionException e)
+        {
+            throw new StreamCorruptedException("[ModelCodec] Invalid island: " + e.getMessage());
+        }
+    }
+
+    public static void writeIslands(BinaryWriter writer, List<Island> islands)
+    {
+        writer.writeInt(islands.size());
+        for (Island island : islands)
+            writeIsland(writer, island);
+    }
+
+    public static List<Island> readIslands(BinaryReader reader) throws StreamCorruptedException
+    {
+        int count = reader.readCount();
+        List<Island> islands = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            islands.add(readIsland(reader));
+        return islands;
+    }
+
+    public static void writeCloudTile(BinaryWriter writer, CloudTile cloudTile)
+    {
+        writer.writeEnum(cloudTile.getType());
+        writeStudents(writer, cloudTile.getStudents());
+    }
+
+    public static CloudTile readCloudTile(BinaryReader reader) throws StreamCorruptedException
+    {
+        try
+        {
+            CloudTile cloudTile = new CloudTile(reader.readEnum(CloudTileType.values()));
+            for (Student student : readStudents(reader))
+                cloudTile.addStudent(student);
+            return cloudTile;
+        } catch (NullPointerException e)
+        {
+            throw new StreamCorruptedException("[ModelCodec] Invalid cloud tile: " + e.getMessage());
+        }
+    }
+
+    public static void writeSchoolBoard(BinaryWriter writer, SchoolBoard board)
+    {
+        writer.writeEnum(board.getTowerColor());
+        writer.writeEnum(board.getMode());
+
+        // The players number is derived from the entrance size, 0 means that it hasn't been set yet
+        int playersNumber = 0;
+        if (board.hasPlayersNumber())
+            playersNumber = board.getMaxStudentsInEntrance() == 9 ? 3 : 2;
+        writer.writeInt(playersNumber);
+
+        writeStudents(writer, board.getStudentsInEntrance());
+        for (SchoolColor color : SchoolColor.values())
+            writer.writeInt(board.getStudentsNumber(color));
+
+        writer.writeInt(board.getProfessors().size());
+        for (Professor professor : board.getProfessors())
+            writer.writeEnum(professor.getColor());
+
+        writer.writeInt(board.getTowers().size());
+        writer.writeInt(board.getCoins());
+    }
+
+    public static SchoolBoard readSchoolBoard(BinaryReader reader) throws StreamCorruptedException
+    {
+        try
+        {
+            SchoolBoard board = new SchoolBoard(reader.readEnum(TowerColor.values()), reader.readEnum(GameMode.values()));
+
+            int playersNumber = reader.readInt();
+            if (playersNumber != 0)
+                board.setPlayersNumber(playersNumber);
+
+            for (Student student : readStudents(reader))
+                board.addStudentToEntrance(student);
+
+            for (SchoolColor color : SchoolColor.values())
+            {
+                int students = readCount(reader, SchoolBoard.MAX_STUDENTS_PER_ROOM, "dining students");
+                for (int i = 0; i < students; i++)
+                    board.addStudentToDiningRoom(new Student(color));
+            }
+
+            int professors = reader.readCount();
+            for (int i = 0; i < professors; i++)
+                board.addProfessor(new Professor(readColor(reader)));
+
+            int towers = readCount(reader, board.hasPlayersNumber() ? board.getMaxTowers() : 0, "towers");
+            for (int i = 0; i < towers; i++)
+                board.addTower(new Tower(board.getTowerColor()));
+
+            // The dining room may have awarded some coins, the exact number is restored
+            board.removeCoins(board.getCoins());
+            board.addCoins(reader.readInt());
+
+            return board;
+        } catch (NullPointerException | IllegalArgumentException | IllegalStateException e)
+        {
+            throw new StreamCorruptedException("[ModelCodec] Invalid school board: " + e.getMessage());
+        }
+    }
+
+    public static void writeCharacterCard(BinaryWriter writer, CharacterCard card)
+    {
+        writer.writeEnum(card.getCardType());
+        writer.writeInt(card.getCost());
+        writer.writeBoolean(card.isActivated());
+        writer.writeBoolean(card.hasBeenFirstUsed());
+
+        List<Student> students = new ArrayList<>();
+        int noEntryTiles = 0;
+        if (card instanceof Monk monk)
+            students = monk.getStudents();
+        else if (card instanceof Princess princess)
+            students = princess.getStudents();
+        else if (card instanceof Joker joker)
+            students = joker.getStudents();
+        else if (card instanceof GrandmaHerbs grandmaHerbs)
+            noEntryTiles = grandmaHerbs.getNoEntryTiles();
+
+        writeStudents(writer, students);
+        writer.writeInt(noEntryTiles);
+    }
+
+    public static CharacterCard readCharacterCard(BinaryReader reader) throws StreamCorruptedException
+    {
+        try
+        {
+            CharacterCardType type = reader.readEnum(CharacterCardType.values());
+            int cost = reader.readInt();
+            boolean activated = reader.readBoolean();
+            boolean firstUsed = reader.readBoolean();
+            List<Student> students = readStudents(reader);
+            int noEntryTiles = reader.readInt();
+
+            return CharacterCard.createDetachedCharacterCard(type, cost, activated, firstUsed, students, noEntryTiles);
+        } catch (NullPointerException e)
+        {
+            throw new StreamCorruptedException("[ModelCodec] Invalid character card: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the number of times a loop adds an element to the model, which must not exceed the model's own maximum.
+     */
+    private static int readCount(BinaryReader reader, int max, String elements) throws StreamCorruptedException
+    {
+        int count = reader.readInt();
+        if (count < 0 || count > max)
+            throw new StreamCorruptedException("[ModelCodec] Invalid number of " + elements + " " + count);
+        return count;
+    }
+
+    private static SchoolColor readColor(BinaryReader reader) throws StreamCorruptedException
+    {
+        SchoolColor color = reader.readEnum(SchoolColor.values());
+        if (color == null)
+            throw new StreamCorruptedException("[ModelCodec] Null color");
+        return color;
+    }
+}
@@ -0,0 +1,17 @@
+package it.polimi.ingsw.protocol.codec;
+
+/**
+ * Formats used to encode the frames payloads.
+ */
+public enum WireFormat
+{
+    /**
+     * Hand written binary representation, falls back to the Java serialization for the classes without one.
+     */
+    BINARY,
+
+    /**
+     * Java serialization for every object.
+     */
+    JAVA
+}
@@ -0,0 +1,57 @@
+package it.polimi.ingsw.protocol.commands;
+
+import java.io.Serial;
+import java.io.StreamCorruptedException;
+
+import it.polimi.ingsw.network.PlayerConnection;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
+
+/**
+ * First command sent by the clients, it tells the server the optional protocol features the client supports. The server answers with a
+ * CapabilitiesAnswer containing the ones it enabled. Clients that don't send it get the basic protocol.
+ */
+public class CapabilitiesCommand extends Command
+{
+    @Serial
+    private static final long serialVersionUID = 4405873157930212548L;
+
+    /**
+     * The client accepts compressed frames.
+     */
+    public static final int DEFLATE = 1;
+
+    private final int capabilities;
+
+    /**
+     * @param capabilities Bit mask of the supported features.
+     */
+    public CapabilitiesCommand(int capabilities)
+    {
+        this.capabilities = capabilities;
+    }
+
+    public int getCapabilities()
+    {
+        return capabilities;
+    }
+
+    @Override
+    public void applyCommand(PlayerConnection connection) throws Exception
+    {
+        checkPlayerConnection(connection);
+
+        connection.negotiateCapabilities(capabilities);
+    }
+
+    @Override
+    public void encode(BinaryWriter writer)
+    {
+        writer.writeInt(capabilities);
+    }
+
+    public static CapabilitiesCommand decode(BinaryReader reader) throws StreamCorruptedException
+    {
+        return new CapabilitiesCommand(reader.readInt());
+    }
+}
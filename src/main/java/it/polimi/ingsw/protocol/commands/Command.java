@@ -2,12 +2,14 @@ package it.polimi.ingsw.protocol.commands;
 
 import java.io.Serial;
 import java.io.Serializable;
+
 import it.polimi.ingsw.network.PlayerConnection;
+import it.polimi.ingsw.protocol.codec.BinaryEncodable;
 
 /**
  * Commands are message used from the player before the match or to quit the game.
  */
-public abstract class Command implements Serializable
+public abstract class Command implements Serializable, BinaryEncodable
 {
     @Serial
     private static final long serialVersionUID = 3628236076897277859L;
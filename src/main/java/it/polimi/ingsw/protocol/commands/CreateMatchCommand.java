@@ -2,8 +2,11 @@ package it.polimi.ingsw.protocol.commands;
 
 import it.polimi.ingsw.model.GameMode;
 import it.polimi.ingsw.network.PlayerConnection;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
 
 import java.io.Serial;
+import java.io.StreamCorruptedException;
 
 /**
  * Command used to create and join a match.
@@ -41,4 +44,17 @@ public class CreateMatchCommand extends Command
         // Create a match and add a player to it
         connection.getServer().createMatch(matchId, playersNumber, gameMode, connection);
     }
+
+    @Override
+    public void encode(BinaryWriter writer)
+    {
+        writer.writeString(matchId);
+        writer.writeInt(playersNumber);
+        writer.writeEnum(gameMode);
+    }
+
+    public static CreateMatchCommand decode(BinaryReader reader) throws StreamCorruptedException
+    {
+        return new CreateMatchCommand(reader.readString(), reader.readInt(), reader.readEnum(GameMode.values()));
+    }
 }
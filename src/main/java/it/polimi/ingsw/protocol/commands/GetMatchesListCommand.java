@@ -1,22 +1,137 @@
 package it.polimi.ingsw.protocol.commands;
 
 import java.io.Serial;
-import java.util.Map;
-import it.polimi.ingsw.network.Match;
+import java.io.StreamCorruptedException;
+
 import it.polimi.ingsw.network.PlayerConnection;
-import it.polimi.ingsw.protocol.answers.MatchesListAnswer;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
 
+/**
+ * Asks for a page of the matches satisfying a filter. The matches are sorted by id, the answer contains the cursor to ask for the next page.
+ */
 public class GetMatchesListCommand extends Command
 {
     @Serial
     private static final long serialVersionUID = -5502527539523157024L;
 
+    /**
+     * Largest page the server returns, bigger requests are reduced to it.
+     */
+    public static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * Size of the pages when the request doesn't choose one.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    /**
+     * Order of the matches in the pages.
+     */
+    public enum Order
+    {
+        ID_ASCENDING,
+        ID_DESCENDING
+    }
+
+    private MatchesFilter filter;
+
+    private Order order;
+
+    private String cursor;
+
+    private int pageSize;
+
+    /**
+     * Asks for the first page of all the matches.
+     */
+    public GetMatchesListCommand()
+    {
+        this(null);
+    }
+
+    /**
+     * Asks for the page of all the matches following the given cursor.
+     *
+     * @param cursor Cursor received with the previous page, null for the first page.
+     */
+    public GetMatchesListCommand(String cursor)
+    {
+        this(MatchesFilter.ALL, Order.ID_ASCENDING, cursor, 0);
+    }
+
+    /**
+     * @param filter Conditions the matches must satisfy.
+     * @param order Order of the matches.
+     * @param cursor Id of the last match of the previous page, null for the first page.
+     * @param pageSize Maximum number of matches in the page, 0 for the default size.
+     */
+    public GetMatchesListCommand(MatchesFilter filter, Order order, String cursor, int pageSize)
+    {
+        if (filter == null)
+            throw new NullPointerException("[GetMatchesListCommand] Null filter");
+        if (order == null)
+            throw new NullPointerException("[GetMatchesListCommand] Null order");
+        if (pageSize < 0)
+            throw new IllegalArgumentException("[GetMatchesListCommand] Negative page size");
+
+        this.filter = filter;
+        this.order = order;
+        this.cursor = cursor;
+        this.pageSize = pageSize;
+    }
+
     public void applyCommand(PlayerConnection connection) throws IllegalArgumentException
     {
         checkPlayerConnection(connection);
 
-        Map<String, Match> matches = connection.getServer().getAllMatches();
-        MatchesListAnswer answer = new MatchesListAnswer(matches);
-        connection.sendAnswer(answer);
+        // The following changes to the list are sent by the server as they happen
+        connection.getServer().sendMatchesList(connection, this);
+    }
+
+    public MatchesFilter getFilter()
+    {
+        return filter;
+    }
+
+    public Order getOrder()
+    {
+        return order;
+    }
+
+    public String getCursor()
+    {
+        return cursor;
+    }
+
+    /**
+     * Returns the page size requested, reduced to the maximum allowed. A request without a size gets the default one, the whole list is never
+     * sent at once.
+     */
+    public int getPageSize()
+    {
+        return pageSize == 0 ? DEFAULT_PAGE_SIZE : Math.min(pageSize, MAX_PAGE_SIZE);
+    }
+
+    @Override
+    public void encode(BinaryWriter writer)
+    {
+        filter.encode(writer);
+        writer.writeEnum(order);
+        writer.writeString(cursor);
+        writer.writeInt(pageSize);
+    }
+
+    public static GetMatchesListCommand decode(BinaryReader reader) throws StreamCorruptedException
+    {
+        MatchesFilter filter = MatchesFilter.decode(reader);
+        Order order = reader.readEnum(Order.values());
+        String cursor = reader.readString();
+        int pageSize = reader.readInt();
+
+        if (order == null || pageSize < 0)
+            throw new StreamCorruptedException("[GetMatchesListCommand] Invalid page request");
+
+        return new GetMatchesListCommand(filter, order, cursor, pageSize);
     }
 }
@@ -1,8 +1,11 @@
 package it.polimi.ingsw.protocol.commands;
 
 import it.polimi.ingsw.network.PlayerConnection;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
 
 import java.io.Serial;
+import java.io.StreamCorruptedException;
 
 public class JoinMatchCommand extends Command
 {
@@ -26,4 +29,15 @@ public class JoinMatchCommand extends Command
         else
             throw new IllegalArgumentException("A match can't be created until the username has been configured");
     }
+
+    @Override
+    public void encode(BinaryWriter writer)
+    {
+        writer.writeString(matchId);
+    }
+
+    public static JoinMatchCommand decode(BinaryReader reader) throws StreamCorruptedException
+    {
+        return new JoinMatchCommand(reader.readString());
+    }
 }
@@ -0,0 +1,98 @@
+package it.polimi.ingsw.protocol.commands;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.util.Objects;
+
+import it.polimi.ingsw.model.GameMode;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
+
+/**
+ * Conditions a match must satisfy to be listed to a player in the lobby. Every condition is optional, the default filter accepts all the matches.
+ */
+public final class MatchesFilter implements Serializable
+{
+    @Serial
+    private static final long serialVersionUID = 4902154338650624713L;
+
+    /**
+     * Filter that accepts every match.
+     */
+    public static final MatchesFilter ALL = new MatchesFilter(null, null, false);
+
+    private final GameMode mode;
+
+    private final Integer playersNumber;
+
+    private final boolean onlyOpen;
+
+    /**
+     * @param mode Game mode of the matches, null for any mode.
+     * @param playersNumber Number of players of the matches, null for any number.
+     * @param onlyOpen True to list only the matches that are still waiting for players.
+     */
+    public MatchesFilter(GameMode mode, Integer playersNumber, boolean onlyOpen)
+    {
+        this.mode = mode;
+        this.playersNumber = playersNumber;
+        this.onlyOpen = onlyOpen;
+    }
+
+    /**
+     * Tells whether a match with the given characteristics satisfies the filter.
+     *
+     * @param matchMode Game mode of the match.
+     * @param matchPlayersNumber Number of players the match is made for.
+     * @param open True if the match is still waiting for players.
+     */
+    public boolean accepts(GameMode matchMode, int matchPlayersNumber, boolean open)
+    {
+        return (mode == null || mode == matchMode) && (playersNumber == null || playersNumber == matchPlayersNumber) && (!onlyOpen || open);
+    }
+
+    public GameMode getMode()
+    {
+        return mode;
+    }
+
+    public Integer getPlayersNumber()
+    {
+        return playersNumber;
+    }
+
+    public boolean isOnlyOpen()
+    {
+        return onlyOpen;
+    }
+
+    @Override
+    public boolean equals(Object other)
+    {
+        if (this == other)
+            return true;
+        if (!(other instanceof MatchesFilter filter))
+            return false;
+
+        return mode == filter.mode && Objects.equals(playersNumber, filter.playersNumber) && onlyOpen == filter.onlyOpen;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(mode, playersNumber, onlyOpen);
+    }
+
+    public void encode(BinaryWriter writer)
+    {
+        writer.writeEnum(mode);
+        writer.writeNullableInt(playersNumber);
+        writer.writeBoolean(onlyOpen);
+    }
+
+    public static MatchesFilter decode(BinaryReader reader) throws StreamCorruptedException
+    {
+        return new MatchesFilter(reader.readEnum(GameMode.values()), reader.readNullableInt(), reader.readBoolean());
+    }
+}
@@ -1,12 +1,87 @@
 package it.polimi.ingsw.protocol.commands;
 
 import it.polimi.ingsw.network.PlayerConnection;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
 
+import java.io.Serial;
+import java.io.StreamCorruptedException;
+
+/**
+ * Heartbeat sent by the clients when they have nothing else to send. It carries the client's clock, echoed back by the server in a PongAnswer so
+ * that the client can measure the round trip time, and echoes the server's clock of the last PongAnswer so that the server can measure it too.
+ *
+ * Older clients send the command without fields, the server only keeps the connection alive.
+ */
 public class PingCommand extends Command
 {
+    @Serial
+    private static final long serialVersionUID = 6213840459021764513L;
+
+    /**
+     * Time in milliseconds without sending anything after which the clients send a PingCommand.
+     */
+    public static final long HEARTBEAT_INTERVAL = 1000;
+
+    private final long timestamp;
+
+    private final long echoTimestamp;
+
+    private final long echoDelay;
+
+    public PingCommand()
+    {
+        this(0, 0, 0);
+    }
+
+    /**
+     * @param timestamp Value of System.nanoTime() on the client, 0 if no PongAnswer is wanted.
+     * @param echoTimestamp Server timestamp of the last PongAnswer received, 0 if none.
+     * @param echoDelay Nanoseconds elapsed on the client between the last PongAnswer and this command.
+     */
+    public PingCommand(long timestamp, long echoTimestamp, long echoDelay)
+    {
+        this.timestamp = timestamp;
+        this.echoTimestamp = echoTimestamp;
+        this.echoDelay = echoDelay;
+    }
+
+    public long getTimestamp()
+    {
+        return timestamp;
+    }
+
+    public long getEchoTimestamp()
+    {
+        return echoTimestamp;
+    }
+
+    public long getEchoDelay()
+    {
+        return echoDelay;
+    }
+
     @Override
     public void applyCommand(PlayerConnection connection) throws Exception
     {
-        connection.restartWatchdog();
+        checkPlayerConnection(connection);
+
+        connection.handlePing(this);
+    }
+
+    @Override
+    public void encode(BinaryWriter writer)
+    {
+        writer.writeLong(timestamp);
+        writer.writeLong(echoTimestamp);
+        writer.writeLong(echoDelay);
+    }
+
+    public static PingCommand decode(BinaryReader reader) throws StreamCorruptedException
+    {
+        if (reader.remaining() == 0)
+            return new PingCommand();
+
+        return new PingCommand(reader.readLong(), reader.readLong(), reader.readLong());
     }
 }
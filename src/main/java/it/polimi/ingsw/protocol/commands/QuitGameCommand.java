@@ -1,8 +1,11 @@
 package it.polimi.ingsw.protocol.commands;
 
 import it.polimi.ingsw.network.PlayerConnection;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
 
 import java.io.Serial;
+import java.io.StreamCorruptedException;
 
 public class QuitGameCommand extends Command
 {
@@ -17,4 +20,15 @@ public class QuitGameCommand extends Command
 
         connection.close();
     }
+
+    @Override
+    public void encode(BinaryWriter writer)
+    {
+        // No fields to write
+    }
+
+    public static QuitGameCommand decode(BinaryReader reader) throws StreamCorruptedException
+    {
+        return new QuitGameCommand();
+    }
 }
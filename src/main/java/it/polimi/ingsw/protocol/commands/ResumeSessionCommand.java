@@ -0,0 +1,66 @@
+package it.polimi.ingsw.protocol.commands;
+
+import java.io.Serial;
+import java.io.StreamCorruptedException;
+
+import it.polimi.ingsw.network.PlayerConnection;
+import it.polimi.ingsw.protocol.answers.ErrorAnswer;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
+
+/**
+ * Sent instead of a SetNameCommand by a client reconnecting after losing the connection. The token received with the last SetNameAnswer logs the
+ * player in with its previous name, and if it was in a match it receives the updates following the given sequence number.
+ */
+public class ResumeSessionCommand extends Command
+{
+    @Serial
+    private static final long serialVersionUID = -5204183371650228194L;
+
+    private final String sessionToken;
+
+    private final long lastSequence;
+
+    /**
+     * @param sessionToken Token of the session to resume.
+     * @param lastSequence Sequence number of the last update handled by the client, 0 if it has no state of the match.
+     */
+    public ResumeSessionCommand(String sessionToken, long lastSequence)
+    {
+        this.sessionToken = sessionToken;
+        this.lastSequence = lastSequence;
+    }
+
+    public String getSessionToken()
+    {
+        return sessionToken;
+    }
+
+    public long getLastSequence()
+    {
+        return lastSequence;
+    }
+
+    @Override
+    public void applyCommand(PlayerConnection connection) throws Exception
+    {
+        checkPlayerConnection(connection);
+
+        if (connection.getPlayerName().isPresent())
+            connection.sendAnswer(new ErrorAnswer("Attempting to change the player name"));
+        else
+            connection.resumeSession(sessionToken, lastSequence);
+    }
+
+    @Override
+    public void encode(BinaryWriter writer)
+    {
+        writer.writeString(sessionToken);
+        writer.writeLong(lastSequence);
+    }
+
+    public static ResumeSessionCommand decode(BinaryReader reader) throws StreamCorruptedException
+    {
+        return new ResumeSessionCommand(reader.readString(), reader.readLong());
+    }
+}
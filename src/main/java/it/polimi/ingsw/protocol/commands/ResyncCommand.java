@@ -0,0 +1,64 @@
+package it.polimi.ingsw.protocol.commands;
+
+import java.io.Serial;
+import java.io.StreamCorruptedException;
+
+import it.polimi.ingsw.network.PlayerConnection;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
+import it.polimi.ingsw.protocol.updates.StateDigest;
+
+/**
+ * Asks the server for the state of the match. A client that had to drop some model updates asks for the whole state, a client whose copy of the
+ * board doesn't match the server's digest asks only for the sections that differ.
+ */
+public class ResyncCommand extends Command
+{
+    @Serial
+    private static final long serialVersionUID = -1730046467262618514L;
+
+    private final int sections;
+
+    /**
+     * Asks for the whole state.
+     */
+    public ResyncCommand()
+    {
+        this(StateDigest.ALL);
+    }
+
+    /**
+     * @param sections Bits of the sections to send, see StateDigest.
+     */
+    public ResyncCommand(int sections)
+    {
+        this.sections = sections;
+    }
+
+    public int getSections()
+    {
+        return sections;
+    }
+
+    @Override
+    public void applyCommand(PlayerConnection connection) throws Exception
+    {
+        checkPlayerConnection(connection);
+
+        if (sections == StateDigest.ALL)
+            connection.getServer().sendSnapshot(connection);
+        else
+            connection.getServer().sendSections(connection, sections);
+    }
+
+    @Override
+    public void encode(BinaryWriter writer)
+    {
+        writer.writeFixedInt(sections);
+    }
+
+    public static ResyncCommand decode(BinaryReader reader) throws StreamCorruptedException
+    {
+        return new ResyncCommand(reader.readFixedInt());
+    }
+}
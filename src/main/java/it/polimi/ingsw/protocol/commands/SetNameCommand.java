@@ -2,8 +2,11 @@ package it.polimi.ingsw.protocol.commands;
 
 import it.polimi.ingsw.network.PlayerConnection;
 import it.polimi.ingsw.protocol.answers.ErrorAnswer;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
 
 import java.io.Serial;
+import java.io.StreamCorruptedException;
 
 public class SetNameCommand extends Command
 {
@@ -25,4 +28,15 @@ public class SetNameCommand extends Command
         else
             connection.setPlayerName(playerName);
     }
+
+    @Override
+    public void encode(BinaryWriter writer)
+    {
+        writer.writeString(playerName);
+    }
+
+    public static SetNameCommand decode(BinaryReader reader) throws StreamCorruptedException
+    {
+        return new SetNameCommand(reader.readString());
+    }
 }
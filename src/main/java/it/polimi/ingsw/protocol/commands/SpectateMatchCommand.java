@@ -0,0 +1,53 @@
+package it.polimi.ingsw.protocol.commands;
+
+import java.io.Serial;
+import java.io.StreamCorruptedException;
+
+import it.polimi.ingsw.network.PlayerConnection;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
+
+/**
+ * Asks to watch a match without playing it. The spectator receives the updates meant for all the players, never the private ones, and can't
+ * perform actions.
+ */
+public class SpectateMatchCommand extends Command
+{
+    @Serial
+    private static final long serialVersionUID = 5187386350211962237L;
+
+    private final String matchId;
+
+    public SpectateMatchCommand(String matchId)
+    {
+        this.matchId = matchId;
+    }
+
+    public String getMatchId()
+    {
+        return matchId;
+    }
+
+    @Override
+    public void applyCommand(PlayerConnection connection) throws Exception
+    {
+        checkPlayerConnection(connection);
+
+        // Check if the player has a name
+        if (connection.getPlayerName().isPresent())
+            connection.getServer().addSpectatorToMatch(matchId, connection);
+        else
+            throw new IllegalArgumentException("A match can't be watched until the username has been configured");
+    }
+
+    @Override
+    public void encode(BinaryWriter writer)
+    {
+        writer.writeString(matchId);
+    }
+
+    public static SpectateMatchCommand decode(BinaryReader reader) throws StreamCorruptedException
+    {
+        return new SpectateMatchCommand(reader.readString());
+    }
+}
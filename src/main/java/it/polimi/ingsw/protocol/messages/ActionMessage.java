@@ -2,6 +2,7 @@ package it.polimi.ingsw.protocol.messages;
 
 import it.polimi.ingsw.controller.GameActionHandler;
 import it.polimi.ingsw.model.BaseGameAction;
+import it.polimi.ingsw.protocol.codec.BinaryEncodable;
 
 import java.io.Serial;
 import java.io.Serializable;
@@ -10,7 +11,7 @@ import java.io.Serializable;
  * This class represents a message of the Command Pattern. Depending on the arrived message, we pass via parameter the object to be commanded and the
  * message itself calls a specific function of that object to execute the command. It is used to avoid non-oop style switches.
  */
-public abstract class ActionMessage implements Serializable
+public abstract class ActionMessage implements Serializable, BinaryEncodable
 {
     @Serial
     private static final long serialVersionUID = 7782867703098380154L;
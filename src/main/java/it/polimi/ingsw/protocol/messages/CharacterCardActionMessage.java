@@ -4,8 +4,12 @@ import it.polimi.ingsw.controller.GameActionHandler;
 import it.polimi.ingsw.model.BaseGameAction;
 import it.polimi.ingsw.model.ExpertGameAction;
 import it.polimi.ingsw.model.SchoolColor;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
+import it.polimi.ingsw.protocol.codec.ModelCodec;
 
 import java.io.Serial;
+import java.io.StreamCorruptedException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -61,4 +65,23 @@ public class CharacterCardActionMessage extends ActionMessage
     {
         return BaseGameAction.CHARACTER_CARD_ACTION;
     }
+
+    @Override
+    public void encode(BinaryWriter writer)
+    {
+        writer.writeEnum(action);
+        writer.writeNullableInt(selectedIsland);
+        writer.writeBoolean(selectedColors != null);
+        if (selectedColors != null)
+            ModelCodec.writeColors(writer, selectedColors);
+    }
+
+    public static CharacterCardActionMessage decode(BinaryReader reader) throws StreamCorruptedException
+    {
+        ExpertGameAction action = reader.readEnum(ExpertGameAction.values());
+        Integer selectedIsland = reader.readNullableInt();
+        List<SchoolColor> selectedColors = reader.readBoolean() ? ModelCodec.readColors(reader) : null;
+
+        return new CharacterCardActionMessage(action, selectedIsland, selectedColors);
+    }
 }
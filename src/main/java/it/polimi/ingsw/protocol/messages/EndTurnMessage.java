@@ -2,8 +2,11 @@ package it.polimi.ingsw.protocol.messages;
 
 import it.polimi.ingsw.controller.GameActionHandler;
 import it.polimi.ingsw.model.BaseGameAction;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
 
 import java.io.Serial;
+import java.io.StreamCorruptedException;
 
 /**
  * Message related to the end of the player's turn.
@@ -23,4 +26,15 @@ public class EndTurnMessage extends ActionMessage
     {
         return BaseGameAction.END_TURN;
     }
+
+    @Override
+    public void encode(BinaryWriter writer)
+    {
+        // No fields to write
+    }
+
+    public static EndTurnMessage decode(BinaryReader reader) throws StreamCorruptedException
+    {
+        return new EndTurnMessage();
+    }
 }
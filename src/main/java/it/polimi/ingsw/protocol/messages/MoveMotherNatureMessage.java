@@ -2,8 +2,11 @@ package it.polimi.ingsw.protocol.messages;
 
 import it.polimi.ingsw.controller.GameActionHandler;
 import it.polimi.ingsw.model.BaseGameAction;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
 
 import java.io.Serial;
+import java.io.StreamCorruptedException;
 
 /**
  * Message related to the movement of mother nature.
@@ -30,4 +33,15 @@ public class MoveMotherNatureMessage extends ActionMessage
     {
         return BaseGameAction.MOVE_MOTHER_NATURE;
     }
+
+    @Override
+    public void encode(BinaryWriter writer)
+    {
+        writer.writeInt(selectedIsland);
+    }
+
+    public static MoveMotherNatureMessage decode(BinaryReader reader) throws StreamCorruptedException
+    {
+        return new MoveMotherNatureMessage(reader.readInt());
+    }
 }
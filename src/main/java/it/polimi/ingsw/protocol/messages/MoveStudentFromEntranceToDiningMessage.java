@@ -3,8 +3,11 @@ package it.polimi.ingsw.protocol.messages;
 import it.polimi.ingsw.controller.GameActionHandler;
 import it.polimi.ingsw.model.BaseGameAction;
 import it.polimi.ingsw.model.SchoolColor;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
 
 import java.io.Serial;
+import java.io.StreamCorruptedException;
 
 /**
  * Message related to the movement of a student from entrance to the dining.
@@ -34,4 +37,15 @@ public class MoveStudentFromEntranceToDiningMessage extends ActionMessage
     {
         return BaseGameAction.MOVE_STUDENT_FROM_ENTRANCE_TO_DINING;
     }
+
+    @Override
+    public void encode(BinaryWriter writer)
+    {
+        writer.writeEnum(selectedColor);
+    }
+
+    public static MoveStudentFromEntranceToDiningMessage decode(BinaryReader reader) throws StreamCorruptedException
+    {
+        return new MoveStudentFromEntranceToDiningMessage(reader.readEnum(SchoolColor.values()));
+    }
 }
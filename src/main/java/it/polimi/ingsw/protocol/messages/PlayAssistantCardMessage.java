@@ -2,8 +2,11 @@ package it.polimi.ingsw.protocol.messages;
 
 import it.polimi.ingsw.controller.GameActionHandler;
 import it.polimi.ingsw.model.BaseGameAction;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
 
 import java.io.Serial;
+import java.io.StreamCorruptedException;
 
 /**
  * Message related to the played assistant card.
@@ -31,4 +34,15 @@ public class PlayAssistantCardMessage extends ActionMessage
     {
         return BaseGameAction.PLAY_ASSISTANT_CARD;
     }
+
+    @Override
+    public void encode(BinaryWriter writer)
+    {
+        writer.writeInt(selectedCard);
+    }
+
+    public static PlayAssistantCardMessage decode(BinaryReader reader) throws StreamCorruptedException
+    {
+        return new PlayAssistantCardMessage(reader.readInt());
+    }
 }
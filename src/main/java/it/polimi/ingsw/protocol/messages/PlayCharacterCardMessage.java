@@ -2,8 +2,11 @@ package it.polimi.ingsw.protocol.messages;
 
 import it.polimi.ingsw.controller.GameActionHandler;
 import it.polimi.ingsw.model.BaseGameAction;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
 
 import java.io.Serial;
+import java.io.StreamCorruptedException;
 
 /**
  * Message related to the played character card.
@@ -30,4 +33,15 @@ public class PlayCharacterCardMessage extends ActionMessage
     {
         return BaseGameAction.PLAY_CHARACTER_CARD;
     }
+
+    @Override
+    public void encode(BinaryWriter writer)
+    {
+        writer.writeInt(selectedCharacterCard);
+    }
+
+    public static PlayCharacterCardMessage decode(BinaryReader reader) throws StreamCorruptedException
+    {
+        return new PlayCharacterCardMessage(reader.readInt());
+    }
 }
@@ -2,8 +2,11 @@ package it.polimi.ingsw.protocol.messages;
 
 import it.polimi.ingsw.controller.GameActionHandler;
 import it.polimi.ingsw.model.BaseGameAction;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
 
 import java.io.Serial;
+import java.io.StreamCorruptedException;
 
 /**
  * Message related to the selection of the cloud tile.
@@ -30,4 +33,15 @@ public class SelectCloudTileMessage extends ActionMessage
     {
         return BaseGameAction.SELECT_CLOUD_TILE;
     }
+
+    @Override
+    public void encode(BinaryWriter writer)
+    {
+        writer.writeInt(selectedCloudTile);
+    }
+
+    public static SelectCloudTileMessage decode(BinaryReader reader) throws StreamCorruptedException
+    {
+        return new SelectCloudTileMessage(reader.readInt());
+    }
 }
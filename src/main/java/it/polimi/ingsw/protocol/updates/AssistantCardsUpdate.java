@@ -3,9 +3,15 @@ package it.polimi.ingsw.protocol.updates;
 import it.polimi.ingsw.client.Visualizable;
 import it.polimi.ingsw.client.cli.utils.PrintHelper;
 import it.polimi.ingsw.model.*;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
+import it.polimi.ingsw.protocol.codec.ModelCodec;
 
 import java.io.Serial;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.IntStream;
 
 public class AssistantCardsUpdate extends ModelUpdate
@@ -61,6 +67,12 @@ public class AssistantCardsUpdate extends ModelUpdate
         this.cards = cards;
     }
 
+    @Override
+    public Optional<String> getStateKey()
+    {
+        return Optional.of("assistantCards:" + playerDestination);
+    }
+
     @Override
     public void handleUpdate(Visualizable handler)
     {
@@ -97,6 +109,24 @@ public class AssistantCardsUpdate extends ModelUpdate
         return rep;
     }
 
+    @Override
+    public void encode(BinaryWriter writer)
+    {
+        writer.writeInt(cards.size());
+        for (AssistantCard card : cards)
+            ModelCodec.writeAssistantCard(writer, card);
+    }
+
+    public static AssistantCardsUpdate decode(BinaryReader reader) throws StreamCorruptedException
+    {
+        int count = reader.readCount();
+        List<AssistantCard> cards = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            cards.add(ModelCodec.readAssistantCard(reader));
+
+        return new AssistantCardsUpdate(cards);
+    }
+
     public static void main(String[] args)
     {
         Player player = new Player("pla", TowerColor.BLACK, GameMode.EXPERT);
@@ -4,10 +4,15 @@ import it.polimi.ingsw.client.Visualizable;
 import it.polimi.ingsw.model.Student;
 import it.polimi.ingsw.model.game.Game;
 import it.polimi.ingsw.model.game.GrandmaHerbs;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
+import it.polimi.ingsw.protocol.codec.ModelCodec;
 
 import java.io.Serial;
+import java.io.StreamCorruptedException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * This class has 2 optionals because a character card can have as a payload a number of students or a number of entry tiles.
@@ -85,9 +90,36 @@ public class CharacterCardPayloadUpdate extends ModelUpdate
         return noEntryTiles;
     }
 
+    @Override
+    public Optional<String> getStateKey()
+    {
+        return Optional.of("characterCardPayload:" + index);
+    }
+
     @Override
     public void handleUpdate(Visualizable handler)
     {
         handler.displayCharacterCardPayload(this);
     }
+
+    @Override
+    public void encode(BinaryWriter writer)
+    {
+        writer.writeInt(index);
+        writer.writeBoolean(students != null);
+        if (students != null)
+            ModelCodec.writeStudents(writer, students);
+        else
+            writer.writeInt(noEntryTiles);
+    }
+
+    public static CharacterCardPayloadUpdate decode(BinaryReader reader) throws StreamCorruptedException
+    {
+        int index = reader.readInt();
+
+        if (reader.readBoolean())
+            return new CharacterCardPayloadUpdate(index, ModelCodec.readStudents(reader));
+        else
+            return new CharacterCardPayloadUpdate(index, reader.readInt());
+    }
 }
@@ -4,10 +4,15 @@ import it.polimi.ingsw.client.Visualizable;
 import it.polimi.ingsw.client.cli.utils.PrintHelper;
 import it.polimi.ingsw.model.*;
 import it.polimi.ingsw.model.game.*;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
+import it.polimi.ingsw.protocol.codec.ModelCodec;
 
 import java.io.Serial;
+import java.io.StreamCorruptedException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 public class CharacterCardsUpdate extends ModelUpdate
 {
@@ -40,6 +45,12 @@ public class CharacterCardsUpdate extends ModelUpdate
         return cards;
     }
 
+    @Override
+    public Optional<String> getStateKey()
+    {
+        return Optional.of("characterCards");
+    }
+
     @Override
     public void handleUpdate(Visualizable handler)
     {
@@ -73,6 +84,24 @@ public class CharacterCardsUpdate extends ModelUpdate
     }
 
 
+    @Override
+    public void encode(BinaryWriter writer)
+    {
+        writer.writeInt(cards.size());
+        for (CharacterCard card : cards)
+            ModelCodec.writeCharacterCard(writer, card);
+    }
+
+    public static CharacterCardsUpdate decode(BinaryReader reader) throws StreamCorruptedException
+    {
+        int count = reader.readCount();
+        List<CharacterCard> cards = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            cards.add(ModelCodec.readCharacterCard(reader));
+
+        return new CharacterCardsUpdate(cards);
+    }
+
     public static void main(String[] args)
     {
         List<CharacterCard> cards = new ArrayList<CharacterCard>();
@@ -3,10 +3,15 @@ package it.polimi.ingsw.protocol.updates;
 import it.polimi.ingsw.client.Visualizable;
 import it.polimi.ingsw.client.cli.utils.PrintHelper;
 import it.polimi.ingsw.model.*;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
+import it.polimi.ingsw.protocol.codec.ModelCodec;
 
 import java.io.Serial;
+import java.io.StreamCorruptedException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 public class CloudTilesUpdate extends ModelUpdate
 {
@@ -39,6 +44,12 @@ public class CloudTilesUpdate extends ModelUpdate
         return cloudTiles;
     }
 
+    @Override
+    public Optional<String> getStateKey()
+    {
+        return Optional.of("cloudTiles");
+    }
+
     @Override
     public void handleUpdate(Visualizable handler)
     {
@@ -71,6 +82,24 @@ public class CloudTilesUpdate extends ModelUpdate
         return rep;
     }
 
+    @Override
+    public void encode(BinaryWriter writer)
+    {
+        writer.writeInt(cloudTiles.size());
+        for (CloudTile cloudTile : cloudTiles)
+            ModelCodec.writeCloudTile(writer, cloudTile);
+    }
+
+    public static CloudTilesUpdate decode(BinaryReader reader) throws StreamCorruptedException
+    {
+        int count = reader.readCount();
+        List<CloudTile> cloudTiles = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            cloudTiles.add(ModelCodec.readCloudTile(reader));
+
+        return new CloudTilesUpdate(cloudTiles);
+    }
+
     public static void main(String[] args)
     {
         List<CloudTile> cloudTiles = new ArrayList<>();
@@ -1,11 +1,16 @@
 package it.polimi.ingsw.protocol.updates;
 
 import it.polimi.ingsw.client.Visualizable;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
 
 import java.io.Serial;
+import java.io.StreamCorruptedException;
+import java.util.Optional;
 
 /**
- * Update that contains the index of the current player always based on table order.
+ * Update that contains the index of the current player always based on table order. At the turn boundaries the server attaches the digest of the
+ * board state, valid once the frame carrying the update has been handled.
  */
 public class CurrentPlayerUpdate extends ModelUpdate
 {
@@ -14,9 +19,34 @@ public class CurrentPlayerUpdate extends ModelUpdate
 
     private int currentPlayerIndex;
 
+    /**
+     * Digest of the board state, null if not attached.
+     */
+    private StateDigest digest;
+
     public CurrentPlayerUpdate(int currentPlayerIndex)
+    {
+        this(currentPlayerIndex, null);
+    }
+
+    public CurrentPlayerUpdate(int currentPlayerIndex, StateDigest digest)
     {
         this.currentPlayerIndex = currentPlayerIndex;
+        this.digest = digest;
+    }
+
+    /**
+     * Returns a copy of the update with the given digest, null to remove it.
+     */
+    public CurrentPlayerUpdate withDigest(StateDigest digest)
+    {
+        return new CurrentPlayerUpdate(currentPlayerIndex, digest);
+    }
+
+    @Override
+    public Optional<String> getStateKey()
+    {
+        return Optional.of("currentPlayer");
     }
 
     @Override
@@ -29,4 +59,24 @@ public class CurrentPlayerUpdate extends ModelUpdate
     {
         return currentPlayerIndex;
     }
+
+    public Optional<StateDigest> getDigest()
+    {
+        return Optional.ofNullable(digest);
+    }
+
+    @Override
+    public void encode(BinaryWriter writer)
+    {
+        writer.writeInt(currentPlayerIndex);
+        writer.writeBoolean(digest != null);
+        if (digest != null)
+            digest.encode(writer);
+    }
+
+    public static CurrentPlayerUpdate decode(BinaryReader reader) throws StreamCorruptedException
+    {
+        int currentPlayerIndex = reader.readInt();
+        return new CurrentPlayerUpdate(currentPlayerIndex, reader.readBoolean() ? StateDigest.decode(reader) : null);
+    }
 }
@@ -0,0 +1,258 @@
+package it.polimi.ingsw.protocol.updates;
+
+import it.polimi.ingsw.client.Visualizable;
+import it.polimi.ingsw.model.Island;
+import it.polimi.ingsw.model.SchoolColor;
+import it.polimi.ingsw.model.Student;
+import it.polimi.ingsw.model.Tower;
+import it.polimi.ingsw.model.TowerColor;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Update that contains only the differences of the islands from the previous IslandsUpdate sent to the client. It can be applied only on top of the
+ * islands the client already has, any change of the islands structure (e.g. a merge) is sent as a full IslandsUpdate instead.
+ */
+public class IslandsDeltaUpdate extends ModelUpdate
+{
+    @Serial
+    private static final long serialVersionUID = 2395618702357741203L;
+
+    /**
+     * Number of islands the delta refers to, used by the client to check it is applied on the right list.
+     */
+    private int islandsNumber;
+
+    private int motherNatureIndex;
+
+    private List<IslandChange> changes;
+
+    public IslandsDeltaUpdate(int islandsNumber, int motherNatureIndex, List<IslandChange> changes)
+    {
+        if (changes == null)
+            throw new NullPointerException("[IslandsDeltaUpdate] Null changes list");
+        if (changes.contains(null))
+            throw new NullPointerException("[IslandsDeltaUpdate] Null change inside the list");
+        if (motherNatureIndex < 0 || motherNatureIndex >= islandsNumber)
+            throw new IndexOutOfBoundsException("[IslandsDeltaUpdate] Mother nature index out of bounds");
+        if (changes.stream().anyMatch(change -> change.getIndex() >= islandsNumber))
+            throw new IndexOutOfBoundsException("[IslandsDeltaUpdate] Island index out of bounds");
+
+        this.islandsNumber = islandsNumber;
+        this.motherNatureIndex = motherNatureIndex;
+        this.changes = changes;
+    }
+
+    public int getIslandsNumber()
+    {
+        return islandsNumber;
+    }
+
+    public int getMotherNatureIndex()
+    {
+        return motherNatureIndex;
+    }
+
+    public List<IslandChange> getChanges()
+    {
+        return changes;
+    }
+
+    @Override
+    public void handleUpdate(Visualizable handler)
+    {
+        handler.displayIslandsDelta(this);
+    }
+
+    @Override
+    public void encode(BinaryWriter writer)
+    {
+        writer.writeInt(islandsNumber);
+        writer.writeInt(motherNatureIndex);
+        writer.writeInt(changes.size());
+        for (IslandChange change : changes)
+            change.encode(writer);
+    }
+
+    public static IslandsDeltaUpdate decode(BinaryReader reader) throws StreamCorruptedException
+    {
+        int islandsNumber = reader.readInt();
+        int motherNatureIndex = reader.readInt();
+
+        int count = reader.readCount();
+        List<IslandChange> changes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            changes.add(IslandChange.decode(reader));
+
+        return new IslandsDeltaUpdate(islandsNumber, motherNatureIndex, changes);
+    }
+
+    /**
+     * Changes of a single island. Every part is optional, only the ones that changed are present.
+     */
+    public static class IslandChange implements Serializable
+    {
+        @Serial
+        private static final long serialVersionUID = -7261095375183407612L;
+
+        private static final int STUDENTS = 1;
+
+        private static final int TOWERS = 2;
+
+        private static final int NO_ENTRY_TILES = 4;
+
+        private int index;
+
+        /**
+         * Number of students added for each color, indexed by ordinal. Null if no student was added.
+         */
+        private int[] addedStudents = null;
+
+        private boolean towersChanged = false;
+
+        private TowerColor towerColor = null;
+
+        private int towersNumber = 0;
+
+        private Integer noEntryTiles = null;
+
+        public IslandChange(int index)
+        {
+            if (index < 0)
+                throw new IndexOutOfBoundsException("[IslandChange] Negative island index");
+
+            this.index = index;
+        }
+
+        /**
+         * Records the students added to the island.
+         *
+         * @param addedStudents Number of new students for each color, indexed by ordinal.
+         */
+        public void setAddedStudents(int[] addedStudents)
+        {
+            if (addedStudents == null)
+                throw new NullPointerException("[IslandChange] Null students array");
+            if (addedStudents.length != SchoolColor.values().length)
+                throw new IllegalArgumentException("[IslandChange] One number for each color is needed");
+            for (int added : addedStudents)
+                if (added < 0)
+                    throw new IllegalArgumentException("[IslandChange] Students can't be removed from an island");
+
+            this.addedStudents = addedStudents.clone();
+        }
+
+        /**
+         * Records the towers now on the island.
+         *
+         * @param towerColor Color of the towers, null if there are none.
+         * @param towersNumber Number of towers.
+         */
+        public void setTowers(TowerColor towerColor, int towersNumber)
+        {
+            if (towersNumber < 0 || (towerColor == null && towersNumber != 0))
+                throw new IllegalArgumentException("[IslandChange] Invalid towers number");
+
+            this.towersChanged = true;
+            this.towerColor = towerColor;
+            this.towersNumber = towersNumber;
+        }
+
+        public void setNoEntryTiles(int noEntryTiles)
+        {
+            if (noEntryTiles < 0)
+                throw new IllegalArgumentException("[IslandChange] Negative no entry tiles");
+
+            this.noEntryTiles = noEntryTiles;
+        }
+
+        public int getIndex()
+        {
+            return index;
+        }
+
+        /**
+         * Applies the changes to the given island, which must be the state of the island before the changes.
+         *
+         * @param island Island to modify.
+         */
+        public void applyTo(Island island)
+        {
+            if (addedStudents != null)
+                for (SchoolColor color : SchoolColor.values())
+                    for (int i = 0; i < addedStudents[color.ordinal()]; i++)
+                        island.addStudent(new Student(color));
+
+            if (towersChanged)
+            {
+                island.removeAllTowers();
+                for (int i = 0; i < towersNumber; i++)
+                    island.addTower(new Tower(towerColor));
+            }
+
+            if (noEntryTiles != null)
+            {
+                while (island.getNoEntryTiles() > noEntryTiles)
+                    island.removeNoEntryTile();
+                while (island.getNoEntryTiles() < noEntryTiles)
+                    island.addNoEntryTile();
+            }
+        }
+
+        private void encode(BinaryWriter writer)
+        {
+            writer.writeInt(index);
+            writer.writeByte((addedStudents != null ? STUDENTS : 0) | (towersChanged ? TOWERS : 0) | (noEntryTiles != null ? NO_ENTRY_TILES : 0));
+
+            if (addedStudents != null)
+                for (int added : addedStudents)
+                    writer.writeInt(added);
+
+            if (towersChanged)
+            {
+                writer.writeEnum(towerColor);
+                writer.writeInt(towersNumber);
+            }
+
+            if (noEntryTiles != null)
+                writer.writeInt(noEntryTiles);
+        }
+
+        private static IslandChange decode(BinaryReader reader) throws StreamCorruptedException
+        {
+            try
+            {
+                IslandChange change = new IslandChange(reader.readInt());
+                int mask = reader.readByte();
+
+                if ((mask & STUDENTS) != 0)
+                {
+                    int[] added = new int[SchoolColor.values().length];
+                    for (int i = 0; i < added.length; i++)
+                        added[i] = reader.readInt();
+                    change.setAddedStudents(added);
+                }
+
+                if ((mask & TOWERS) != 0)
+                {
+                    TowerColor color = reader.readEnum(TowerColor.values());
+                    change.setTowers(color, reader.readInt());
+                }
+
+                if ((mask & NO_ENTRY_TILES) != 0)
+                    change.setNoEntryTiles(reader.readInt());
+
+                return change;
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e)
+            {
+                throw new StreamCorruptedException("[IslandChange] Invalid island change: " + e.getMessage());
+            }
+        }
+    }
+}
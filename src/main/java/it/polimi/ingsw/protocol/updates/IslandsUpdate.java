@@ -8,10 +8,15 @@ import it.polimi.ingsw.model.SchoolColor;
 import it.polimi.ingsw.model.Student;
 import it.polimi.ingsw.model.Tower;
 import it.polimi.ingsw.model.TowerColor;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
+import it.polimi.ingsw.protocol.codec.ModelCodec;
 
 import java.io.Serial;
+import java.io.StreamCorruptedException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 public class IslandsUpdate extends ModelUpdate
 {
@@ -58,6 +63,12 @@ public class IslandsUpdate extends ModelUpdate
         return motherNatureIndex;
     }
 
+    @Override
+    public Optional<String> getStateKey()
+    {
+        return Optional.of("islands");
+    }
+
     @Override
     public void handleUpdate(Visualizable handler)
     {
@@ -106,6 +117,20 @@ public class IslandsUpdate extends ModelUpdate
         return rep;
     }
 
+    @Override
+    public void encode(BinaryWriter writer)
+    {
+        ModelCodec.writeIslands(writer, islands);
+        writer.writeInt(motherNatureIndex);
+    }
+
+    public static IslandsUpdate decode(BinaryReader reader) throws StreamCorruptedException
+    {
+        List<Island> islands = ModelCodec.readIslands(reader);
+
+        return new IslandsUpdate(islands, reader.readInt());
+    }
+
     public static void main(String[] args)
     {
         List<Island> islands = new ArrayList<>();
@@ -1,6 +1,7 @@
 package it.polimi.ingsw.protocol.updates;
 
 import it.polimi.ingsw.client.Visualizable;
+import it.polimi.ingsw.protocol.codec.BinaryEncodable;
 
 import java.io.Serial;
 import java.io.Serializable;
@@ -11,7 +12,7 @@ import java.util.Optional;
  * communication core. The model is an observable class, observed by the so called "virtual-view" (or in this context the communication Match). When a
  * change is applied the model updates the Match with one of these messages and eventually the player to which send the message.
  */
-public abstract class ModelUpdate implements Serializable
+public abstract class ModelUpdate implements Serializable, BinaryEncodable
 {
     @Serial
     private static final long serialVersionUID = 6601821834483061246L;
@@ -49,6 +50,15 @@ public abstract class ModelUpdate implements Serializable
      */
     public abstract void handleUpdate(Visualizable handler);
 
+    /**
+     * Returns the key of the part of the model described by this update. An update carrying the whole state of a part makes the previous ones with
+     * the same key useless, so they can be dropped when sent together. Updates without a key are never dropped.
+     */
+    public Optional<String> getStateKey()
+    {
+        return Optional.empty();
+    }
+
     public Optional<String> getPlayerDestination()
     {
         return playerDestination == null ? Optional.empty() : Optional.of(playerDestination);
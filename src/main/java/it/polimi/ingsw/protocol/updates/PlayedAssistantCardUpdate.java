@@ -2,8 +2,13 @@ package it.polimi.ingsw.protocol.updates;
 
 import it.polimi.ingsw.client.Visualizable;
 import it.polimi.ingsw.model.*;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
+import it.polimi.ingsw.protocol.codec.ModelCodec;
 
 import java.io.Serial;
+import java.io.StreamCorruptedException;
+import java.util.Optional;
 
 public class PlayedAssistantCardUpdate extends ModelUpdate
 {
@@ -47,6 +52,12 @@ public class PlayedAssistantCardUpdate extends ModelUpdate
         return player;
     }
 
+    @Override
+    public Optional<String> getStateKey()
+    {
+        return Optional.of("playedAssistantCard:" + player);
+    }
+
     @Override
     public void handleUpdate(Visualizable handler)
     {
@@ -59,6 +70,20 @@ public class PlayedAssistantCardUpdate extends ModelUpdate
         return card.toString();
     }
 
+    @Override
+    public void encode(BinaryWriter writer)
+    {
+        ModelCodec.writeAssistantCard(writer, card);
+        writer.writeString(player);
+    }
+
+    public static PlayedAssistantCardUpdate decode(BinaryReader reader) throws StreamCorruptedException
+    {
+        AssistantCard card = ModelCodec.readAssistantCard(reader);
+
+        return new PlayedAssistantCardUpdate(card, reader.readString());
+    }
+
     public static void main(String[] args)
     {
         PlayedAssistantCardUpdate update = new PlayedAssistantCardUpdate(new AssistantCard(Wizard.WIZARD_3, 1, 1), "player");
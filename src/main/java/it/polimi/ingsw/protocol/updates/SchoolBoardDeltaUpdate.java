@@ -0,0 +1,239 @@
+package it.polimi.ingsw.protocol.updates;
+
+import it.polimi.ingsw.client.Visualizable;
+import it.polimi.ingsw.model.Professor;
+import it.polimi.ingsw.model.SchoolBoard;
+import it.polimi.ingsw.model.SchoolColor;
+import it.polimi.ingsw.model.Student;
+import it.polimi.ingsw.model.Tower;
+import it.polimi.ingsw.model.exceptions.EndGameException;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
+import it.polimi.ingsw.protocol.codec.ModelCodec;
+
+import java.io.Serial;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Update that contains only the differences of a school board from the previous SchoolBoardUpdate of the same player sent to the client. Every
+ * part is optional, only the ones that changed are present.
+ */
+public class SchoolBoardDeltaUpdate extends ModelUpdate
+{
+    @Serial
+    private static final long serialVersionUID = 4830125937469071265L;
+
+    private static final int ENTRANCE = 1;
+
+    private static final int DINING = 2;
+
+    private static final int PROFESSORS = 4;
+
+    private static final int TOWERS = 8;
+
+    private static final int COINS = 16;
+
+    private String player;
+
+    private int playerIndex;
+
+    /**
+     * Colors of the students now in the entrance, null if unchanged. The entrance is small so it is always sent whole.
+     */
+    private List<SchoolColor> entrance = null;
+
+    /**
+     * Difference of students in the dining room for each color, indexed by ordinal. Null if unchanged.
+     */
+    private int[] diningChanges = null;
+
+    /**
+     * Bit mask of the professors now on the board, indexed by color ordinal. Null if unchanged.
+     */
+    private Integer professors = null;
+
+    /**
+     * Difference of towers on the board.
+     */
+    private int towersChange = 0;
+
+    private Integer coins = null;
+
+    public SchoolBoardDeltaUpdate(String player, int playerIndex)
+    {
+        if (player == null)
+            throw new NullPointerException("[SchoolBoardDeltaUpdate] Null player name");
+
+        this.player = player;
+        this.playerIndex = playerIndex;
+    }
+
+    public void setEntrance(List<SchoolColor> entrance)
+    {
+        if (entrance == null)
+            throw new NullPointerException("[SchoolBoardDeltaUpdate] Null entrance");
+        if (entrance.contains(null))
+            throw new NullPointerException("[SchoolBoardDeltaUpdate] Null color inside the entrance");
+
+        this.entrance = new ArrayList<>(entrance);
+    }
+
+    public void setDiningChanges(int[] diningChanges)
+    {
+        if (diningChanges == null)
+            throw new NullPointerException("[SchoolBoardDeltaUpdate] Null dining changes");
+        if (diningChanges.length != SchoolColor.values().length)
+            throw new IllegalArgumentException("[SchoolBoardDeltaUpdate] One number for each color is needed");
+
+        this.diningChanges = diningChanges.clone();
+    }
+
+    public void setProfessors(int professors)
+    {
+        if (professors < 0 || professors >= 1 << SchoolColor.values().length)
+            throw new IllegalArgumentException("[SchoolBoardDeltaUpdate] Invalid professors mask");
+
+        this.professors = professors;
+    }
+
+    public void setTowersChange(int towersChange)
+    {
+        this.towersChange = towersChange;
+    }
+
+    public void setCoins(int coins)
+    {
+        if (coins < 0)
+            throw new IllegalArgumentException("[SchoolBoardDeltaUpdate] Negative coins");
+
+        this.coins = coins;
+    }
+
+    public String getPlayer()
+    {
+        return player;
+    }
+
+    public int getPlayerIndex()
+    {
+        return playerIndex;
+    }
+
+    /**
+     * Applies the changes to the given board, which must be the state of the board before the changes.
+     *
+     * @param board Board to modify.
+     */
+    public void applyTo(SchoolBoard board)
+    {
+        // Moving students to the dining room may award coins, the exact number is restored at the end
+        int previousCoins = board.getCoins();
+
+        if (entrance != null)
+        {
+            for (Student student : board.getStudentsInEntrance())
+                board.removeStudentFromEntrance(student);
+            for (SchoolColor color : entrance)
+                board.addStudentToEntrance(new Student(color));
+        }
+
+        if (diningChanges != null)
+        {
+            for (SchoolColor color : SchoolColor.values())
+            {
+                for (int i = 0; i < diningChanges[color.ordinal()]; i++)
+                    board.addStudentToDiningRoom(new Student(color));
+                for (int i = 0; i > diningChanges[color.ordinal()]; i--)
+                    board.removeStudentFromDining(color);
+            }
+        }
+
+        if (professors != null)
+        {
+            for (SchoolColor color : SchoolColor.values())
+            {
+                boolean present = (professors & (1 << color.ordinal())) != 0;
+                if (present && !board.hasProfessor(color))
+                    board.addProfessor(new Professor(color));
+                else if (!present && board.hasProfessor(color))
+                    board.getProfessors().stream().filter(p -> p.getColor() == color).findFirst().ifPresent(board::removeProfessor);
+            }
+        }
+
+        for (int i = 0; i < towersChange; i++)
+            board.addTower(new Tower(board.getTowerColor()));
+        for (int i = 0; i > towersChange; i--)
+        {
+            try
+            {
+                board.removeTower(board.getTowerColor());
+            } catch (EndGameException e)
+            {
+                // The board has no more towers, the server will end the match
+            }
+        }
+
+        board.removeCoins(board.getCoins());
+        board.addCoins(coins != null ? coins : previousCoins);
+    }
+
+    @Override
+    public void handleUpdate(Visualizable handler)
+    {
+        handler.displaySchoolBoardDelta(this);
+    }
+
+    @Override
+    public void encode(BinaryWriter writer)
+    {
+        writer.writeString(player);
+        writer.writeInt(playerIndex);
+        writer.writeByte((entrance != null ? ENTRANCE : 0) | (diningChanges != null ? DINING : 0) | (professors != null ? PROFESSORS : 0)
+                | (towersChange != 0 ? TOWERS : 0) | (coins != null ? COINS : 0));
+
+        if (entrance != null)
+            ModelCodec.writeColors(writer, entrance);
+        if (diningChanges != null)
+            for (int change : diningChanges)
+                writer.writeInt(change);
+        if (professors != null)
+            writer.writeInt(professors);
+        if (towersChange != 0)
+            writer.writeInt(towersChange);
+        if (coins != null)
+            writer.writeInt(coins);
+    }
+
+    public static SchoolBoardDeltaUpdate decode(BinaryReader reader) throws StreamCorruptedException
+    {
+        try
+        {
+            String player = reader.readString();
+            SchoolBoardDeltaUpdate update = new SchoolBoardDeltaUpdate(player, reader.readInt());
+            int mask = reader.readByte();
+
+            if ((mask & ENTRANCE) != 0)
+                update.setEntrance(ModelCodec.readColors(reader));
+            if ((mask & DINING) != 0)
+            {
+                int[] changes = new int[SchoolColor.values().length];
+                for (int i = 0; i < changes.length; i++)
+                    changes[i] = reader.readInt();
+                update.setDiningChanges(changes);
+            }
+            if ((mask & PROFESSORS) != 0)
+                update.setProfessors(reader.readInt());
+            if ((mask & TOWERS) != 0)
+                update.setTowersChange(reader.readInt());
+            if ((mask & COINS) != 0)
+                update.setCoins(reader.readInt());
+
+            return update;
+        } catch (NullPointerException | IllegalArgumentException e)
+        {
+            throw new StreamCorruptedException("[SchoolBoardDeltaUpdate] Invalid update: " + e.getMessage());
+        }
+    }
+}
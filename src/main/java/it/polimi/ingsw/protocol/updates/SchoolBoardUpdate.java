@@ -4,8 +4,13 @@ import it.polimi.ingsw.client.Visualizable;
 import it.polimi.ingsw.client.cli.utils.GamePieces;
 import it.polimi.ingsw.client.cli.utils.PrintHelper;
 import it.polimi.ingsw.model.*;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
+import it.polimi.ingsw.protocol.codec.ModelCodec;
 
 import java.io.Serial;
+import java.io.StreamCorruptedException;
+import java.util.Optional;
 
 public class SchoolBoardUpdate extends ModelUpdate
 {
@@ -61,6 +66,12 @@ public class SchoolBoardUpdate extends ModelUpdate
         return playerIndex;
     }
 
+    @Override
+    public Optional<String> getStateKey()
+    {
+        return Optional.of("schoolBoard:" + playerIndex);
+    }
+
     @Override
     public void handleUpdate(Visualizable handler)
     {
@@ -201,6 +212,22 @@ public class SchoolBoardUpdate extends ModelUpdate
         return rep;
     }
 
+    @Override
+    public void encode(BinaryWriter writer)
+    {
+        ModelCodec.writeSchoolBoard(writer, board);
+        writer.writeString(player);
+        writer.writeInt(playerIndex);
+    }
+
+    public static SchoolBoardUpdate decode(BinaryReader reader) throws StreamCorruptedException
+    {
+        SchoolBoard board = ModelCodec.readSchoolBoard(reader);
+        String player = reader.readString();
+
+        return new SchoolBoardUpdate(board, player, reader.readInt());
+    }
+
     public static void main(String[] args)
     {
         SchoolBoard board = new SchoolBoard(TowerColor.GREY, GameMode.EXPERT);
@@ -0,0 +1,72 @@
+package it.polimi.ingsw.protocol.updates;
+
+import it.polimi.ingsw.client.Visualizable;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
+import it.polimi.ingsw.protocol.codec.MessageType;
+
+import java.io.Serial;
+import java.io.StreamCorruptedException;
+
+/**
+ * Update tagged with the sequence number of the match's update log it brings the client to. A client resuming its session tells the server the
+ * last sequence number it handled, and receives only the updates it missed.
+ */
+public class SequencedUpdate extends ModelUpdate
+{
+    @Serial
+    private static final long serialVersionUID = 2460917385520364812L;
+
+    private final long sequence;
+
+    private final ModelUpdate update;
+
+    public SequencedUpdate(long sequence, ModelUpdate update)
+    {
+        if (update == null)
+            throw new NullPointerException("[SequencedUpdate] Null update");
+        if (update instanceof SequencedUpdate)
+            throw new IllegalArgumentException("[SequencedUpdate] Sequenced updates can't be nested");
+
+        this.sequence = sequence;
+        this.update = update;
+    }
+
+    public long getSequence()
+    {
+        return sequence;
+    }
+
+    public ModelUpdate getUpdate()
+    {
+        return update;
+    }
+
+    @Override
+    public void handleUpdate(Visualizable handler)
+    {
+        update.handleUpdate(handler);
+    }
+
+    @Override
+    public void encode(BinaryWriter writer)
+    {
+        MessageType type = MessageType.of(update.getClass())
+                .orElseThrow(() -> new IllegalStateException("[SequencedUpdate] No binary representation for " + update.getClass().getName()));
+
+        writer.writeLong(sequence);
+        writer.writeByte(type.getId());
+        update.encode(writer);
+    }
+
+    public static SequencedUpdate decode(BinaryReader reader) throws StreamCorruptedException
+    {
+        long sequence = reader.readLong();
+
+        Object update = MessageType.fromId(reader.readByte()).decode(reader);
+        if (!(update instanceof ModelUpdate) || update instanceof SequencedUpdate)
+            throw new StreamCorruptedException("[SequencedUpdate] Invalid sequenced update");
+
+        return new SequencedUpdate(sequence, (ModelUpdate) update);
+    }
+}
@@ -0,0 +1,236 @@
+package it.polimi.ingsw.protocol.updates;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.List;
+
+import it.polimi.ingsw.model.CloudTile;
+import it.polimi.ingsw.model.Island;
+import it.polimi.ingsw.model.Professor;
+import it.polimi.ingsw.model.SchoolBoard;
+import it.polimi.ingsw.model.SchoolColor;
+import it.polimi.ingsw.model.Student;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
+
+/**
+ * Hashes of the board state shared by all the players: the islands, the cloud tiles and every school board. The server sends them with the
+ * CurrentPlayerUpdate, the client compares them with the hashes of its own copy and asks for the sections that differ.
+ *
+ * The hashes describe the content and not its representation, e.g. the students are counted by color, so the copies rebuilt by applying the deltas
+ * hash as the originals.
+ */
+public class StateDigest implements Serializable
+{
+    @Serial
+    private static final long serialVersionUID = 4139875260134717729L;
+
+    /**
+     * Section bit of the islands, mother nature included.
+     */
+    public static final int ISLANDS = 1;
+
+    public static final int CLOUD_TILES = 1 << 1;
+
+    /**
+     * Every section, i.e. the whole state of the match.
+     */
+    public static final int ALL = -1;
+
+    private static final int BOARDS_SHIFT = 2;
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final long islands;
+
+    private final long cloudTiles;
+
+    private final long[] boards;
+
+    /**
+     * @param islands Hash of the islands, 0 if unknown.
+     * @param cloudTiles Hash of the cloud tiles, 0 if unknown.
+     * @param boards Hashes of the school boards by player index, 0 if unknown.
+     */
+    public StateDigest(long islands, long cloudTiles, long[] boards)
+    {
+        if (boards == null)
+            throw new NullPointerException("[StateDigest] Null boards hashes");
+
+        this.islands = islands;
+        this.cloudTiles = cloudTiles;
+        this.boards = boards.clone();
+    }
+
+    /**
+     * Returns the section bit of the school board of the given player.
+     *
+     * @param playerIndex Index of the player in the table order.
+     */
+    public static int boardSection(int playerIndex)
+    {
+        return 1 << (BOARDS_SHIFT + playerIndex);
+    }
+
+    /**
+     * Compares the hashes with the given ones.
+     *
+     * @param other Hashes of the other copy of the state.
+     * @return The bits of the sections that differ, 0 if the states are the same.
+     */
+    public int compare(StateDigest other)
+    {
+        int sections = 0;
+
+        if (islands != other.islands)
+            sections |= ISLANDS;
+        if (cloudTiles != other.cloudTiles)
+            sections |= CLOUD_TILES;
+
+        for (int i = 0; i < Math.max(boards.length, other.boards.length); i++)
+            if (i >= boards.length || i >= other.boards.length || boards[i] != other.boards[i])
+                sections |= boardSection(i);
+
+        return sections;
+    }
+
+    public void encode(BinaryWriter writer)
+    {
+        writer.writeLong(islands);
+        writer.writeLong(cloudTiles);
+        writer.writeInt(boards.length);
+        for (long board : boards)
+            writer.writeLong(board);
+    }
+
+    public static StateDigest decode(BinaryReader reader) throws StreamCorruptedException
+    {
+        long islands = reader.readLong();
+        long cloudTiles = reader.readLong();
+
+        long[] boards = new long[reader.readCount()];
+        for (int i = 0; i < boards.length; i++)
+            boards[i] = reader.readLong();
+
+        return new StateDigest(islands, cloudTiles, boards);
+    }
+
+    public static long hashIslands(List<Island> islands, int motherNatureIndex)
+    {
+        long hash = mix(FNV_OFFSET, islands.size());
+        hash = mix(hash, motherNatureIndex);
+
+        for (Island island : islands)
+        {
+            hash = mix(hash, island.getIslands().size());
+            for (SchoolColor color : SchoolColor.values())
+                hash = mix(hash, island.getStudentsByColor(color));
+            hash = mix(hash, island.getTowers().size());
+            hash = mix(hash, island.getTowers().isEmpty() ? -1 : island.getTowers().get(0).getColor().ordinal());
+            hash = mix(hash, island.getNoEntryTiles());
+        }
+
+        return hash;
+    }
+
+    public static long hashCloudTiles(List<CloudTile> cloudTiles)
+    {
+        long hash = mix(FNV_OFFSET, cloudTiles.size());
+
+        for (CloudTile cloudTile : cloudTiles)
+        {
+            hash = mix(hash, cloudTile.getType().ordinal());
+            hash = mixColors(hash, cloudTile.getStudents());
+        }
+
+        return hash;
+    }
+
+    public static long hashSchoolBoard(SchoolBoard board)
+    {
+        long hash = mix(FNV_OFFSET, board.getTowerColor().ordinal());
+
+        hash = mixColors(hash, board.getStudentsInEntrance());
+        for (SchoolColor color : SchoolColor.values())
+            hash = mix(hash, board.getStudentsNumber(color));
+
+        int professors = 0;
+        for (Professor professor : board.getProfessors())
+            professors |= 1 << professor.getColor().ordinal();
+        hash = mix(hash, professors);
+
+        hash = mix(hash, board.getTowers().size());
+        return mix(hash, board.getCoins());
+    }
+
+    private static long mixColors(long hash, List<Student> students)
+    {
+        int[] counts = new int[SchoolColor.values().length];
+        for (Student student : students)
+            counts[student.getColor().ordinal()]++;
+
+        for (int count : counts)
+            hash = mix(hash, count);
+        return hash;
+    }
+
+    /**
+     * FNV-1a step over the four bytes of the value.
+     */
+    private static long mix(long hash, int value)
+    {
+        for (int shift = 0; shift < 32; shift += 8)
+            hash = (hash ^ ((value >>> shift) & 0xff)) * FNV_PRIME;
+        return hash;
+    }
+
+    /**
+     * Keeps the hashes of a copy of the state up to date with the full updates of the islands, cloud tiles and school boards. Each update is
+     * hashed once, when it is recorded.
+     */
+    public static class Tracker
+    {
+        private long islands = 0;
+
+        private long cloudTiles = 0;
+
+        private final List<Long> boards = new ArrayList<>();
+
+        /**
+         * Records the state carried by the update, if it is one of the hashed sections. The updates sent to a single player aren't part of the
+         * shared state.
+         */
+        public void record(ModelUpdate update)
+        {
+            if (update.getPlayerDestination().isPresent())
+                return;
+
+            if (update instanceof IslandsUpdate islandsUpdate)
+                islands = hashIslands(islandsUpdate.getIslands(), islandsUpdate.getMotherNatureIndex());
+            else if (update instanceof CloudTilesUpdate cloudTilesUpdate)
+                cloudTiles = hashCloudTiles(cloudTilesUpdate.getCloudTiles());
+            else if (update instanceof SchoolBoardUpdate boardUpdate)
+            {
+                while (boards.size() <= boardUpdate.getPlayerIndex())
+                    boards.add(0L);
+                boards.set(boardUpdate.getPlayerIndex(), hashSchoolBoard(boardUpdate.getBoard()));
+            }
+        }
+
+        public StateDigest current()
+        {
+            return new StateDigest(islands, cloudTiles, boards.stream().mapToLong(Long::longValue).toArray());
+        }
+
+        public void reset()
+        {
+            islands = 0;
+            cloudTiles = 0;
+            boards.clear();
+        }
+    }
+}
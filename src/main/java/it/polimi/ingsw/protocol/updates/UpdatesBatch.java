@@ -0,0 +1,99 @@
+package it.polimi.ingsw.protocol.updates;
+
+import it.polimi.ingsw.client.Visualizable;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
+import it.polimi.ingsw.protocol.codec.MessageType;
+
+import java.io.Serial;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Update that carries all the updates produced by a single action, so that they are sent with a single frame. The client handles them in order.
+ */
+public class UpdatesBatch extends ModelUpdate
+{
+    @Serial
+    private static final long serialVersionUID = -3185520938127641820L;
+
+    private List<ModelUpdate> updates;
+
+    public UpdatesBatch(List<ModelUpdate> updates)
+    {
+        if (updates == null)
+            throw new NullPointerException("[UpdatesBatch] Null updates list");
+        if (updates.contains(null))
+            throw new NullPointerException("[UpdatesBatch] Null update inside the list");
+        if (updates.stream().anyMatch(update -> update instanceof UpdatesBatch))
+            throw new IllegalArgumentException("[UpdatesBatch] Batches can't be nested");
+
+        this.updates = new ArrayList<>(updates);
+    }
+
+    /**
+     * Removes the updates made useless by a later one with the same state key. The remaining updates keep their relative order.
+     *
+     * @param updates Updates in the order they were produced.
+     * @return The updates that still need to be sent.
+     */
+    public static List<ModelUpdate> coalesce(List<ModelUpdate> updates)
+    {
+        List<ModelUpdate> result = new ArrayList<>(updates.size());
+
+        for (ModelUpdate update : updates)
+        {
+            Optional<String> key = update.getStateKey();
+            if (key.isPresent())
+                result.removeIf(previous -> previous.getStateKey().equals(key));
+            result.add(update);
+        }
+
+        return result;
+    }
+
+    public List<ModelUpdate> getUpdates()
+    {
+        return updates;
+    }
+
+    @Override
+    public void handleUpdate(Visualizable handler)
+    {
+        for (ModelUpdate update : updates)
+            update.handleUpdate(handler);
+    }
+
+    @Override
+    public void encode(BinaryWriter writer)
+    {
+        writer.writeInt(updates.size());
+        for (ModelUpdate update : updates)
+        {
+            MessageType type = MessageType.of(update.getClass())
+                    .orElseThrow(() -> new IllegalStateException("[UpdatesBatch] No binary representation for " + update.getClass().getName()));
+
+            writer.writeByte(type.getId());
+            update.encode(writer);
+        }
+    }
+
+    public static UpdatesBatch decode(BinaryReader reader) throws StreamCorruptedException
+    {
+        int count = reader.readCount();
+        List<ModelUpdate> updates = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++)
+        {
+            Object update = MessageType.fromId(reader.readByte()).decode(reader);
+            if (!(update instanceof ModelUpdate) || update instanceof UpdatesBatch)
+                throw new StreamCorruptedException("[UpdatesBatch] Invalid update inside the batch");
+
+            updates.add((ModelUpdate) update);
+        }
+
+        return new UpdatesBatch(updates);
+    }
+}
@@ -0,0 +1,206 @@
+package it.polimi.ingsw.tracing;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Timeline of a player action through the server, from its decoding to the moment every frame it produced has been written to the recipients.
+ *
+ * The trace is created when the action is decoded and is the current trace of the match thread while the action is handled, so the controller and
+ * the encoding of the updates can mark their stages without receiving it. The frames encoded meanwhile carry it to the writers. Once the handling
+ * is over and every queued frame has been written the trace is handed to the TraceRecorder. Traces whose frames are dropped, e.g. because the
+ * connection closed, are never completed.
+ */
+public final class ActionTrace
+{
+    /**
+     * Stages of an action, in the order they are reached.
+     */
+    public enum Stage
+    {
+        DECODED,
+        VALIDATED,
+        APPLIED,
+        ENCODED,
+        ENQUEUED,
+        WRITTEN
+    }
+
+    private static final AtomicLong NEXT_ID = new AtomicLong();
+
+    private static final ThreadLocal<ActionTrace> CURRENT = new ThreadLocal<>();
+
+    private final long id = NEXT_ID.incrementAndGet();
+
+    private final String player;
+
+    private final String action;
+
+    /**
+     * Time each stage has first been reached, 0 if not yet. The written stage keeps the last write instead.
+     */
+    private final AtomicLongArray stamps = new AtomicLongArray(Stage.values().length);
+
+    /**
+     * Time the frames have been written, by recipient.
+     */
+    private final ConcurrentMap<String, Long> writes = new ConcurrentHashMap<>();
+
+    /**
+     * Queued frames not yet written, plus one while the action is being handled.
+     */
+    private final AtomicInteger pending = new AtomicInteger(1);
+
+    private ActionTrace(String player, String action)
+    {
+        this.player = player;
+        this.action = action;
+        stamps.set(Stage.DECODED.ordinal(), System.nanoTime());
+    }
+
+    /**
+     * Starts the trace of an action that has just been decoded.
+     *
+     * @param player Player sending the action.
+     * @param action Name of the action.
+     */
+    public static ActionTrace start(String player, String action)
+    {
+        return new ActionTrace(player, action);
+    }
+
+    /**
+     * Returns the trace of the action handled by the current thread, null if none.
+     */
+    public static ActionTrace current()
+    {
+        return CURRENT.get();
+    }
+
+    /**
+     * Marks the stage on the current trace, if any.
+     */
+    public static void mark(Stage stage)
+    {
+        ActionTrace trace = CURRENT.get();
+        if (trace != null)
+            trace.stamp(stage);
+    }
+
+    /**
+     * Runs the handling of the action with this trace as the current one. The trace can complete once the task returns.
+     *
+     * @param task Handling of the action.
+     */
+    public void run(Runnable task)
+    {
+        ActionTrace previous = CURRENT.get();
+        CURRENT.set(this);
+        try
+        {
+            task.run();
+        } finally
+        {
+            CURRENT.set(previous);
+            release();
+        }
+    }
+
+    /**
+     * Records that a frame of the action is being queued for a recipient. Must be called before the frame can reach the writer, so that the trace
+     * can't complete before the frame is written.
+     */
+    public void enqueued()
+    {
+        pending.incrementAndGet();
+        stamp(Stage.ENQUEUED);
+    }
+
+    /**
+     * Records that a frame announced with enqueued has not been queued after all.
+     */
+    public void dropped()
+    {
+        release();
+    }
+
+    /**
+     * Records that a frame of the action has been written.
+     *
+     * @param recipient Name of the player the frame has been written to.
+     */
+    public void written(String recipient)
+    {
+        long now = System.nanoTime();
+        writes.merge(recipient, now, Math::max);
+        stamps.accumulateAndGet(Stage.WRITTEN.ordinal(), now, Math::max);
+        release();
+    }
+
+    public long getId()
+    {
+        return id;
+    }
+
+    /**
+     * Returns the time from the decoding to the last stage reached, in nanoseconds.
+     */
+    public long getDurationNanos()
+    {
+        long last = stamps.get(Stage.DECODED.ordinal());
+        for (int i = 0; i < stamps.length(); i++)
+            last = Math.max(last, stamps.get(i));
+
+        return last - stamps.get(Stage.DECODED.ordinal());
+    }
+
+    /**
+     * Formats the trace on a single line, with the time of every stage relative to the decoding.
+     */
+    public String format()
+    {
+        long start = stamps.get(Stage.DECODED.ordinal());
+        StringBuilder builder = new StringBuilder();
+        builder.append("trace ").append(Long.toHexString(id)).append(' ').append(player).append(' ').append(action);
+        builder.append(" total ").append(toMillis(getDurationNanos())).append("ms");
+
+        for (Stage stage : Stage.values())
+        {
+            long stamp = stamps.get(stage.ordinal());
+            if (stage != Stage.DECODED && stage != Stage.WRITTEN && stamp != 0)
+                builder.append(", ").append(stage.name().toLowerCase()).append(" +").append(toMillis(stamp - start)).append("ms");
+        }
+
+        for (Map.Entry<String, Long> write : new TreeMap<>(writes).entrySet())
+            builder.append(", written ").append(write.getKey()).append(" +").append(toMillis(write.getValue() - start)).append("ms");
+
+        return builder.toString();
+    }
+
+    @Override
+    public String toString()
+    {
+        return format();
+    }
+
+    private void stamp(Stage stage)
+    {
+        stamps.compareAndSet(stage.ordinal(), 0, System.nanoTime());
+    }
+
+    private void release()
+    {
+        if (pending.decrementAndGet() == 0)
+            TraceRecorder.completed(this);
+    }
+
+    private static String toMillis(long nanos)
+    {
+        return String.format("%.3f", nanos / 1e6);
+    }
+}
@@ -0,0 +1,69 @@
+package it.polimi.ingsw.tracing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps the last completed traces slower than a threshold in a fixed size ring, so that they can be dumped while the server runs. Faster traces are
+ * discarded, recording one costs a single atomic increment.
+ */
+public final class TraceRecorder
+{
+    /**
+     * Number of slow traces kept, the oldest ones are overwritten.
+     */
+    public static final int CAPACITY = 128;
+
+    public static final long DEFAULT_THRESHOLD_MILLIS = 50;
+
+    private static final AtomicReferenceArray<ActionTrace> RING = new AtomicReferenceArray<>(CAPACITY);
+
+    private static final AtomicLong NEXT_SLOT = new AtomicLong();
+
+    private static volatile long thresholdNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_THRESHOLD_MILLIS);
+
+    private TraceRecorder()
+    {}
+
+    /**
+     * Sets the duration above which a trace is kept.
+     *
+     * @param millis Threshold in milliseconds, 0 to keep every trace.
+     */
+    public static void setThreshold(long millis)
+    {
+        if (millis < 0)
+            throw new IllegalArgumentException("[TraceRecorder] The threshold can't be negative");
+
+        thresholdNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    /**
+     * Returns the slow traces kept, formatted one per line, from the oldest.
+     */
+    public static List<String> dump()
+    {
+        long next = NEXT_SLOT.get();
+        List<String> traces = new ArrayList<>(CAPACITY);
+
+        for (long slot = Math.max(0, next - CAPACITY); slot < next; slot++)
+        {
+            ActionTrace trace = RING.get((int) (slot % CAPACITY));
+            if (trace != null)
+                traces.add(trace.format());
+        }
+
+        return traces;
+    }
+
+    static void completed(ActionTrace trace)
+    {
+        if (trace.getDurationNanos() < thresholdNanos)
+            return;
+
+        RING.set((int) (NEXT_SLOT.getAndIncrement() % CAPACITY), trace);
+    }
+}
@@ -0,0 +1,163 @@
+package it.polimi.ingsw.logging;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class to test the AsyncAppender class
+ */
+public class AsyncAppenderTest
+{
+    BlockingAppender target;
+
+    @BeforeEach
+    public void init()
+    {
+        target = new BlockingAppender();
+    }
+
+    @Test
+    public void constructorTest()
+    {
+        assertThrows(NullPointerException.class, () -> new AsyncAppender(null, 4));
+        assertThrows(IllegalArgumentException.class, () -> new AsyncAppender(target, 0));
+    }
+
+    @Test
+    public void closeFlushesTest()
+    {
+        target.release();
+        AsyncAppender appender = new AsyncAppender(target, 64);
+
+        for (int i = 0; i < 50; i++)
+            appender.append(event("Event " + i));
+        appender.close();
+
+        // Every event is written, in order, before the target is closed
+        assertEquals(50, target.messages.size());
+        for (int i = 0; i < 50; i++)
+            assertTrue(target.messages.get(i).endsWith("Event " + i));
+        assertTrue(target.closed);
+        assertEquals(0, appender.getDroppedCount());
+    }
+
+    @Test
+    public void fullRingTest() throws InterruptedException
+    {
+        // The capacity is rounded up to 4
+        AsyncAppender appender = new AsyncAppender(target, 3);
+
+        // The writer is stuck on the first event, out of the ring
+        appender.append(event("First"));
+        assertTrue(target.entered.await(5, TimeUnit.SECONDS));
+
+        for (int i = 0; i < 4; i++)
+            appender.append(event("Event " + i));
+
+        // The ring is full, the events are dropped without waiting
+        appender.append(event("Dropped"));
+        appender.append(event("Dropped"));
+        assertEquals(2, appender.getDroppedCount());
+
+        target.release();
+        appender.close();
+
+        List<String> messages = target.messages;
+        assertEquals(6, messages.size());
+        assertTrue(messages.get(0).endsWith("First"));
+        for (int i = 0; i < 4; i++)
+            assertTrue(messages.get(i + 1).endsWith("Event " + i));
+        assertTrue(messages.get(5).contains("WARN"));
+        assertTrue(messages.get(5).endsWith("2 log events dropped, the buffer was full"));
+        assertTrue(target.closed);
+    }
+
+    @Test
+    public void reuseAfterFullRingTest() throws InterruptedException
+    {
+        AsyncAppender appender = new AsyncAppender(target, 2);
+
+        appender.append(event("First"));
+        assertTrue(target.entered.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 5; i++)
+            appender.append(event("Event " + i));
+        assertEquals(3, appender.getDroppedCount());
+
+        // Once drained the ring takes the events again, and wraps around many times
+        target.release();
+        for (int i = 0; i < 20; i++)
+        {
+            awaitMessages(4 + i);
+            appender.append(event("Later " + i));
+        }
+        appender.close();
+
+        assertEquals(3, appender.getDroppedCount());
+        assertEquals(24, target.messages.size());
+        assertTrue(target.messages.get(3).endsWith("3 log events dropped, the buffer was full"));
+        for (int i = 0; i < 20; i++)
+            assertTrue(target.messages.get(i + 4).endsWith("Later " + i));
+    }
+
+    private void awaitMessages(int count) throws InterruptedException
+    {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (target.messages.size() < count)
+        {
+            assertTrue(System.nanoTime() < deadline, "The writer didn't write the events");
+            Thread.sleep(1);
+        }
+    }
+
+    private static LogEvent event(String message)
+    {
+        return new LogEvent(LogLevel.INFO, "AsyncAppenderTest", message, null);
+    }
+
+    /**
+     * Appender that keeps the formatted events, and blocks the first append until it is released.
+     */
+    private static class BlockingAppender implements LogAppender
+    {
+        private final List<String> messages = Collections.synchronizedList(new ArrayList<>());
+
+        private final CountDownLatch entered = new CountDownLatch(1);
+
+        private final CountDownLatch released = new CountDownLatch(1);
+
+        private volatile boolean closed = false;
+
+        @Override
+        public void append(LogEvent event)
+        {
+            entered.countDown();
+            try
+            {
+                released.await();
+            } catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            messages.add(event.format());
+        }
+
+        @Override
+        public void close()
+        {
+            closed = true;
+        }
+
+        private void release()
+        {
+            released.countDown();
+        }
+    }
+}
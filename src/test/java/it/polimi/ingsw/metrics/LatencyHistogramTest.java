@@ -0,0 +1,137 @@
+package it.polimi.ingsw.metrics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class to test the LatencyHistogram class and its rendering by the MetricsRegistry
+ */
+public class LatencyHistogramTest
+{
+    LatencyHistogram histogram;
+
+    @BeforeEach
+    public void init()
+    {
+        histogram = new LatencyHistogram();
+    }
+
+    @Test
+    public void bucketBoundsTest()
+    {
+        // The small values have a bucket each
+        for (int value = 0; value < 16; value++)
+        {
+            assertEquals(value, LatencyHistogram.indexOf(value));
+            assertEquals(value, LatencyHistogram.upperBoundOf(value));
+        }
+
+        // Every bucket starts right after the previous one, up to the largest value
+        int last = LatencyHistogram.indexOf(Long.MAX_VALUE);
+        for (int index = 0; index < last; index++)
+        {
+            long upper = LatencyHistogram.upperBoundOf(index);
+            assertEquals(index, LatencyHistogram.indexOf(upper));
+            assertEquals(index + 1, LatencyHistogram.indexOf(upper + 1));
+        }
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.upperBoundOf(last));
+    }
+
+    @Test
+    public void relativeErrorTest()
+    {
+        long[] values = { 16, 17, 31, 32, 100, 999, 1000, 1024, 123456, 1_000_000, 999_999_999, 1L << 40, (1L << 40) + 12345 };
+        for (long value : values)
+        {
+            long upper = LatencyHistogram.upperBoundOf(LatencyHistogram.indexOf(value));
+            assertTrue(upper >= value);
+            assertTrue(upper - value < value / 16.0, "Error too large for " + value);
+        }
+    }
+
+    @Test
+    public void quantilesTest()
+    {
+        assertEquals(0, histogram.getQuantile(0.5));
+
+        for (int value = 1; value <= 1000; value++)
+            histogram.record(value);
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500500, histogram.getSum());
+        assertEquals(LatencyHistogram.upperBoundOf(LatencyHistogram.indexOf(500)), histogram.getQuantile(0.5));
+        assertEquals(LatencyHistogram.upperBoundOf(LatencyHistogram.indexOf(990)), histogram.getQuantile(0.99));
+        assertEquals(LatencyHistogram.upperBoundOf(LatencyHistogram.indexOf(1000)), histogram.getQuantile(1));
+        assertEquals(1, histogram.getQuantile(0));
+    }
+
+    @Test
+    public void outlierTest()
+    {
+        for (int i = 0; i < 999; i++)
+            histogram.record(100);
+        histogram.record(5_000_000_000L);
+
+        // The outlier shows only in the highest quantile
+        assertEquals(LatencyHistogram.upperBoundOf(LatencyHistogram.indexOf(100)), histogram.getQuantile(0.999));
+        long max = histogram.getQuantile(1);
+        assertTrue(max >= 5_000_000_000L && max < 5_000_000_000L * 17 / 16);
+    }
+
+    @Test
+    public void negativeValueTest()
+    {
+        histogram.record(-5);
+
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.getSum());
+        assertEquals(0, histogram.getQuantile(1));
+    }
+
+    @Test
+    public void expositionFormatTest()
+    {
+        MetricsRegistry registry = new MetricsRegistry();
+        LatencyHistogram latency = registry.histogram("action_latency_seconds", "Time to apply an action");
+        assertSame(latency, registry.histogram("action_latency_seconds", "Time to apply an action"));
+        latency.record(1_000_000);
+        latency.record(3_000_000);
+
+        registry.counter("messages_total", "Messages received", "type", "Ping\"Command").add(3);
+        registry.counter("messages_total", "Messages received", "type", "EndTurnMessage").increment();
+        registry.gauge("connections", "Open connections", () -> 7);
+
+        String p50 = Double.toString(LatencyHistogram.upperBoundOf(LatencyHistogram.indexOf(1_000_000)) / 1e9);
+        String p90 = Double.toString(LatencyHistogram.upperBoundOf(LatencyHistogram.indexOf(3_000_000)) / 1e9);
+
+        // The families are sorted by name, and so are their series
+        String expected = "# HELP action_latency_seconds Time to apply an action\n"
+                + "# TYPE action_latency_seconds summary\n"
+                + "action_latency_seconds{quantile=\"0.5\"} " + p50 + "\n"
+                + "action_latency_seconds{quantile=\"0.9\"} " + p90 + "\n"
+                + "action_latency_seconds{quantile=\"0.99\"} " + p90 + "\n"
+                + "action_latency_seconds{quantile=\"0.999\"} " + p90 + "\n"
+                + "action_latency_seconds_sum 0.004\n"
+                + "action_latency_seconds_count 2\n"
+                + "# HELP connections Open connections\n"
+                + "# TYPE connections gauge\n"
+                + "connections 7\n"
+                + "# HELP messages_total Messages received\n"
+                + "# TYPE messages_total counter\n"
+                + "messages_total{type=\"EndTurnMessage\"} 1\n"
+                + "messages_total{type=\"Ping\\\"Command\"} 3\n";
+        assertEquals(expected, registry.scrape());
+    }
+
+    @Test
+    public void conflictingMetricTest()
+    {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.histogram("latency", "Latency");
+
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("latency", "Latency"));
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("latency", "Latency", "type", "Ping"));
+    }
+}
@@ -0,0 +1,172 @@
+package it.polimi.ingsw.model.game;
+
+import it.polimi.ingsw.model.*;
+import it.polimi.ingsw.model.exceptions.TooManyPlayersException;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.StreamCorruptedException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class to test the GameCheckpoint class
+ */
+public class GameCheckpointTest
+{
+    Game game;
+    Player player1 = new Player("Player1", TowerColor.BLACK, GameMode.EXPERT);
+    Player player2 = new Player("Player2", TowerColor.WHITE, GameMode.EXPERT);
+
+    @BeforeEach
+    public void init()
+    {
+        game = new Game(2, GameMode.EXPERT);
+        try
+        {
+            game.addPlayer(player1);
+            game.addPlayer(player2);
+        } catch (TooManyPlayersException e)
+        {
+            e.printStackTrace();
+        }
+        game.setupGame();
+        game.fillClouds();
+
+        // Play a few moves, so that the state isn't the initial one
+        player1.selectCard(3);
+        player2.selectCard(7);
+        game.selectPlayer(0);
+        game.setCurrentPlayerIndexByTable(0);
+        player1.selectColor(player1.getBoard().getStudentsInEntrance().get(0).getColor());
+        game.putStudentToDining(game.pickStudentFromEntrance());
+        player1.clearSelections();
+        player1.getBoard().addCoins(2);
+        game.moveMotherNature(2);
+    }
+
+    @Test
+    public void roundTripTest() throws StreamCorruptedException
+    {
+        Game restored = roundTrip(game);
+
+        assertEquals(game.getPlayersNumber(), restored.getPlayersNumber());
+        assertEquals(game.getGameMode(), restored.getGameMode());
+        assertEquals(game.getMotherNatureIndex(), restored.getMotherNatureIndex());
+        assertEquals(game.getSelectedPlayerIndex(), restored.getSelectedPlayerIndex());
+        assertEquals(game.bestPreviousPlayerIndex, restored.bestPreviousPlayerIndex);
+        assertEquals(game.currentPlayerIndexByTable, restored.currentPlayerIndexByTable);
+
+        // The bag keeps its order
+        assertEquals(colors(game.getStudentBag()), colors(restored.getStudentBag()));
+        assertEquals(game.getProfessors().stream().map(Professor::getColor).toList(),
+                restored.getProfessors().stream().map(Professor::getColor).toList());
+
+        assertEquals(game.getIslands().size(), restored.getIslands().size());
+        for (int i = 0; i < game.getIslands().size(); i++)
+            for (SchoolColor color : SchoolColor.values())
+                assertEquals(game.getIslands().get(i).getStudentsByColor(color), restored.getIslands().get(i).getStudentsByColor(color));
+
+        assertEquals(game.getCloudTiles().size(), restored.getCloudTiles().size());
+        for (int i = 0; i < game.getCloudTiles().size(); i++)
+            assertEquals(colors(game.getCloudTiles().get(i).getStudents()), colors(restored.getCloudTiles().get(i).getStudents()));
+
+        for (int i = 0; i < game.getPlayersNumber(); i++)
+        {
+            Player player = game.getPlayerTableList().get(i);
+            Player restoredPlayer = restored.getPlayerTableList().get(i);
+
+            assertEquals(player.getNickname(), restoredPlayer.getNickname());
+            assertEquals(player.getColor(), restoredPlayer.getColor());
+            assertFalse(restoredPlayer.isActive());
+            assertEquals(player.hasPlayedCard(), restoredPlayer.hasPlayedCard());
+            assertEquals(player.getSelectedCard().get().getTurnOrder(), restoredPlayer.getSelectedCard().get().getTurnOrder());
+            assertEquals(player.getCards().stream().map(AssistantCard::isUsed).toList(),
+                    restoredPlayer.getCards().stream().map(AssistantCard::isUsed).toList());
+
+            SchoolBoard board = player.getBoard();
+            SchoolBoard restoredBoard = restoredPlayer.getBoard();
+            assertEquals(colors(board.getStudentsInEntrance()), colors(restoredBoard.getStudentsInEntrance()));
+            for (SchoolColor color : SchoolColor.values())
+                assertEquals(board.getStudentsNumber(color), restoredBoard.getStudentsNumber(color));
+            assertEquals(board.getProfessors().size(), restoredBoard.getProfessors().size());
+            assertEquals(board.getTowers().size(), restoredBoard.getTowers().size());
+            assertEquals(board.getCoins(), restoredBoard.getCoins());
+        }
+
+        // The character cards decorate the restored game
+        assertEquals(game.getCharacterCards().size(), restored.getCharacterCards().size());
+        for (int i = 0; i < game.getCharacterCards().size(); i++)
+        {
+            CharacterCard card = game.getCharacterCards().get(i);
+            CharacterCard restoredCard = restored.getCharacterCards().get(i);
+
+            assertEquals(card.getCardType(), restoredCard.getCardType());
+            assertEquals(card.getCost(), restoredCard.getCost());
+            assertSame(restored, restoredCard.getInstance());
+        }
+
+        // Writing the restored game gives the same checkpoint
+        assertArrayEquals(encode(game), encode(restored));
+    }
+
+    @Test
+    public void restoredGameIsPlayableTest() throws StreamCorruptedException
+    {
+        Game restored = roundTrip(game);
+        Player restoredPlayer = restored.getSelectedPlayer().get();
+        int entrance = restoredPlayer.getBoard().getStudentsInEntrance().size();
+
+        // The restored game goes on from the checkpoint
+        restoredPlayer.selectColor(restoredPlayer.getBoard().getStudentsInEntrance().get(0).getColor());
+        restored.putStudentToDining(restored.pickStudentFromEntrance());
+        assertEquals(entrance - 1, restoredPlayer.getBoard().getStudentsInEntrance().size());
+
+        // The cards use the restored game
+        CharacterCard card = restored.getCharacterCards().get(0);
+        restored.setCurrentCharacterCard(0);
+        restoredPlayer.getBoard().addCoins(card.getCost());
+        assertDoesNotThrow(card::activate);
+        assertTrue(restored.getCurrentCharacterCard().get().isActivated());
+    }
+
+    @Test
+    public void invalidCheckpointTest()
+    {
+        byte[] checkpoint = encode(game);
+
+        // Truncated checkpoints are refused
+        byte[] truncated = Arrays.copyOf(checkpoint, checkpoint.length / 2);
+        assertThrows(StreamCorruptedException.class, () -> GameCheckpoint.read(new BinaryReader(truncated, 0, truncated.length)));
+
+        // Checkpoints of another version are refused
+        byte[] otherVersion = checkpoint.clone();
+        otherVersion[0] = 42;
+        assertThrows(StreamCorruptedException.class, () -> GameCheckpoint.read(new BinaryReader(otherVersion, 0, otherVersion.length)));
+
+        // A game not set up can't be written
+        assertThrows(IllegalStateException.class, () -> GameCheckpoint.write(new BinaryWriter(), new Game()));
+    }
+
+    private static Game roundTrip(Game game) throws StreamCorruptedException
+    {
+        byte[] checkpoint = encode(game);
+        return GameCheckpoint.read(new BinaryReader(checkpoint, 0, checkpoint.length));
+    }
+
+    private static byte[] encode(Game game)
+    {
+        BinaryWriter writer = new BinaryWriter();
+        GameCheckpoint.write(writer, game);
+        return writer.toByteArray();
+    }
+
+    private static List<SchoolColor> colors(List<Student> students)
+    {
+        return students.stream().map(Student::getColor).toList();
+    }
+}
@@ -0,0 +1,101 @@
+package it.polimi.ingsw.model.game;
+
+import it.polimi.ingsw.model.*;
+import it.polimi.ingsw.model.exceptions.TooManyPlayersException;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.StreamCorruptedException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class to test the RandomSource class
+ */
+public class RandomSourceTest
+{
+    @Test
+    public void recordingTest()
+    {
+        RandomSource source = new RandomSource();
+
+        // Draws made outside of a recording aren't kept
+        source.nextInt(10);
+        source.startRecording();
+        int first = source.nextInt(10);
+        int second = source.nextInt(3);
+        int[] draws = source.stopRecording();
+        source.nextInt(10);
+
+        assertArrayEquals(new int[] { first, second }, draws);
+        assertTrue(first >= 0 && first < 10);
+        assertTrue(second >= 0 && second < 3);
+
+        // A new recording starts empty
+        source.startRecording();
+        assertEquals(0, source.stopRecording().length);
+
+        assertThrows(IllegalArgumentException.class, () -> source.nextInt(0));
+    }
+
+    @Test
+    public void replayTest()
+    {
+        RandomSource source = new RandomSource();
+        source.replay(new int[] { 4, 7, 1 });
+
+        assertEquals(4, source.nextInt(5));
+        assertEquals(2, source.getPendingReplays());
+
+        // A draw out of bound isn't replayed
+        int value = source.nextInt(5);
+        assertTrue(value >= 0 && value < 5);
+        assertEquals(1, source.getPendingReplays());
+
+        assertEquals(1, source.nextInt(5));
+        assertEquals(0, source.getPendingReplays());
+
+        assertThrows(NullPointerException.class, () -> source.replay(null));
+    }
+
+    @Test
+    public void replayedDrawsRebuildTheGameTest() throws StreamCorruptedException
+    {
+        Game game = new Game(2, GameMode.EXPERT);
+        try
+        {
+            game.addPlayer(new Player("Player1", TowerColor.BLACK, GameMode.EXPERT));
+            game.addPlayer(new Player("Player2", TowerColor.WHITE, GameMode.EXPERT));
+        } catch (TooManyPlayersException e)
+        {
+            e.printStackTrace();
+        }
+        game.setupGame();
+
+        BinaryWriter writer = new BinaryWriter();
+        GameCheckpoint.write(writer, game);
+        byte[] checkpoint = writer.toByteArray();
+        Game copy = GameCheckpoint.read(new BinaryReader(checkpoint, 0, checkpoint.length));
+
+        // The draws of the original game make the copy pick the same students
+        game.getRandomSource().startRecording();
+        game.fillClouds();
+        int[] draws = game.getRandomSource().stopRecording();
+        assertEquals(6, draws.length);
+
+        copy.getRandomSource().replay(draws);
+        copy.fillClouds();
+        assertEquals(0, copy.getRandomSource().getPendingReplays());
+
+        for (int i = 0; i < game.getCloudTiles().size(); i++)
+            assertEquals(colors(game.getCloudTiles().get(i).getStudents()), colors(copy.getCloudTiles().get(i).getStudents()));
+        assertEquals(colors(game.getStudentBag()), colors(copy.getStudentBag()));
+    }
+
+    private static List<SchoolColor> colors(List<Student> students)
+    {
+        return students.stream().map(Student::getColor).toList();
+    }
+}
@@ -0,0 +1,206 @@
+package it.polimi.ingsw.network;
+
+import it.polimi.ingsw.metrics.Counter;
+import it.polimi.ingsw.protocol.codec.FrameCodec;
+import it.polimi.ingsw.protocol.messages.EndTurnMessage;
+import it.polimi.ingsw.protocol.messages.MoveMotherNatureMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class to test the ActionJournal class
+ */
+public class ActionJournalTest
+{
+    @TempDir
+    Path directory;
+
+    Path file;
+    CheckpointStore checkpoints;
+
+    @BeforeEach
+    public void init() throws IOException
+    {
+        file = directory.resolve("journal.bin");
+        checkpoints = CheckpointStore.open(directory.resolve("checkpoints.bin"), 64 * 1024);
+    }
+
+    @Test
+    public void recoveryTest() throws IOException
+    {
+        ActionJournal journal = ActionJournal.open(file, checkpoints);
+        assertTrue(journal.getRecoveredEntries("Match1").isEmpty());
+        journal.start(Set.of());
+
+        journal.appendAction("Match1", 1, "Player1", new MoveMotherNatureMessage(3), new int[] { 4, 2 });
+        journal.appendPresence("Match1", 2, "Player2", false);
+        journal.appendAction("Match2", 1, "Player3", new EndTurnMessage(), new int[0]);
+        journal.appendPresence("Match1", 3, "Player2", true);
+        journal.stop();
+
+        journal = ActionJournal.open(file, checkpoints);
+        List<ActionJournal.Entry> entries = journal.getRecoveredEntries("Match1");
+        assertEquals(3, entries.size());
+
+        ActionJournal.Entry action = entries.get(0);
+        assertEquals(1, action.sequence);
+        assertEquals("Player1", action.playerName);
+        assertArrayEquals(FrameCodec.encode(new MoveMotherNatureMessage(3)), FrameCodec.encode(action.action));
+        assertArrayEquals(new int[] { 4, 2 }, action.draws);
+
+        assertNull(entries.get(1).action);
+        assertEquals("Player2", entries.get(1).playerName);
+        assertFalse(entries.get(1).active);
+        assertEquals(3, entries.get(2).sequence);
+        assertTrue(entries.get(2).active);
+
+        assertEquals(1, journal.getRecoveredEntries("Match2").size());
+        assertInstanceOf(EndTurnMessage.class, journal.getRecoveredEntries("Match2").get(0).action);
+
+        // Once started the recovered entries are no longer needed
+        journal.start(Set.of("Match1"));
+        assertTrue(journal.getRecoveredEntries("Match1").isEmpty());
+        journal.stop();
+    }
+
+    @Test
+    public void groupCommitTest() throws IOException
+    {
+        Counter entries = ServerMetrics.REGISTRY.counter("eriantys_journal_entries_total", "");
+        Counter commits = ServerMetrics.REGISTRY.counter("eriantys_journal_commits_total", "");
+        long entriesBefore = entries.get();
+        long commitsBefore = commits.get();
+
+        // The entries appended while the previous batch was being forced are written together
+        ActionJournal journal = ActionJournal.open(file, checkpoints);
+        for (int i = 1; i <= 100; i++)
+            journal.appendPresence("Match" + i % 3, i, "Player1", i % 2 == 0);
+        journal.start(Set.of());
+        journal.stop();
+
+        assertEquals(100, entries.get() - entriesBefore);
+        assertEquals(1, commits.get() - commitsBefore);
+
+        journal = ActionJournal.open(file, checkpoints);
+        assertEquals(34, journal.getRecoveredEntries("Match1").size());
+        assertEquals(33, journal.getRecoveredEntries("Match2").size());
+    }
+
+    @Test
+    public void tornTailTest() throws IOException
+    {
+        ActionJournal journal = ActionJournal.open(file, checkpoints);
+        journal.start(Set.of());
+        journal.appendAction("Match1", 1, "Player1", new MoveMotherNatureMessage(1), new int[0]);
+        journal.appendAction("Match1", 2, "Player1", new MoveMotherNatureMessage(2), new int[0]);
+        journal.stop();
+        long completeSize = Files.size(file);
+
+        // The last entry was being written when the server stopped
+        journal = ActionJournal.open(file, checkpoints);
+        journal.start(Set.of("Match1"));
+        journal.appendAction("Match1", 3, "Player1", new MoveMotherNatureMessage(3), new int[] { 1, 2, 3 });
+        journal.stop();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE))
+        {
+            channel.truncate(Files.size(file) - 5);
+        }
+
+        journal = ActionJournal.open(file, checkpoints);
+        assertEquals(List.of(1L, 2L), sequences(journal.getRecoveredEntries("Match1")));
+        assertEquals(completeSize, Files.size(file));
+
+        // The new entries follow the last complete one
+        journal.start(Set.of("Match1"));
+        journal.appendAction("Match1", 3, "Player1", new EndTurnMessage(), new int[0]);
+        journal.stop();
+
+        journal = ActionJournal.open(file, checkpoints);
+        assertEquals(List.of(1L, 2L, 3L), sequences(journal.getRecoveredEntries("Match1")));
+    }
+
+    @Test
+    public void damagedEntryTest() throws IOException
+    {
+        ActionJournal journal = ActionJournal.open(file, checkpoints);
+        journal.start(Set.of());
+        journal.appendPresence("Match1", 1, "Player1", false);
+        journal.stop();
+        long firstSize = Files.size(file);
+
+        journal = ActionJournal.open(file, checkpoints);
+        journal.start(Set.of("Match1"));
+        journal.appendPresence("Match1", 2, "Player1", true);
+        journal.appendPresence("Match1", 3, "Player1", false);
+        journal.stop();
+
+        // A bit flipped in the second entry hides it and the ones after it
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE))
+        {
+            ByteBuffer damaged = ByteBuffer.allocate(1);
+            channel.read(damaged, firstSize + 20);
+            damaged.put(0, (byte) (damaged.get(0) ^ 1));
+            damaged.rewind();
+            channel.write(damaged, firstSize + 20);
+        }
+
+        journal = ActionJournal.open(file, checkpoints);
+        assertEquals(List.of(1L), sequences(journal.getRecoveredEntries("Match1")));
+        assertEquals(firstSize, Files.size(file));
+    }
+
+    @Test
+    public void notAJournalTest() throws IOException
+    {
+        Files.write(file, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9 });
+        assertThrows(IOException.class, () -> ActionJournal.open(file, checkpoints));
+    }
+
+    @Test
+    public void compactionTest() throws IOException
+    {
+        ActionJournal journal = ActionJournal.open(file, checkpoints);
+        journal.start(Set.of());
+
+        journal.appendPresence("Live", 1, "Player1", false);
+
+        // Every action of the other match is covered by a checkpoint right away
+        String longName = "P".repeat(2000);
+        long total = 0;
+        long sequence = 0;
+        while (total < 3 * ActionJournal.MIN_COMPACTION_SIZE)
+        {
+            journal.appendAction("Checkpointed", ++sequence, longName, new EndTurnMessage(), new int[0]);
+            journal.release("Checkpointed");
+            total += longName.length();
+        }
+
+        journal.appendPresence("Live", 2, "Player1", true);
+        journal.stop();
+
+        // The file has been replaced by the entries still needed, at least once
+        assertTrue(Files.size(file) < total);
+        assertFalse(Files.exists(file.resolveSibling(file.getFileName() + ".tmp")));
+
+        journal = ActionJournal.open(file, checkpoints);
+        assertEquals(List.of(1L, 2L), sequences(journal.getRecoveredEntries("Live")));
+        assertTrue(journal.getRecoveredEntries("Checkpointed").size() < sequence);
+    }
+
+    private static List<Long> sequences(List<ActionJournal.Entry> entries)
+    {
+        return entries.stream().map(entry -> entry.sequence).toList();
+    }
+}
@@ -0,0 +1,143 @@
+package it.polimi.ingsw.network;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class to test the HeartbeatWheel class
+ */
+public class HeartbeatWheelTest
+{
+    /**
+     * A revolution of the wheel lasts 40 milliseconds.
+     */
+    private static final long TICK_MILLIS = 10;
+
+    private static final int SLOTS_NUMBER = 4;
+
+    HeartbeatWheel wheel;
+
+    @BeforeEach
+    public void init()
+    {
+        wheel = new HeartbeatWheel(TICK_MILLIS, SLOTS_NUMBER);
+        wheel.start();
+    }
+
+    @AfterEach
+    public void tearDown()
+    {
+        wheel.stop();
+    }
+
+    @Test
+    public void constructorTest()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new HeartbeatWheel(0, 4));
+        assertThrows(IllegalArgumentException.class, () -> new HeartbeatWheel(10, 0));
+    }
+
+    @Test
+    public void expiryAfterDeadlineTest() throws InterruptedException
+    {
+        CountDownLatch expired = new CountDownLatch(1);
+        long start = System.nanoTime();
+        HeartbeatWheel.Entry entry = wheel.schedule(30, expired::countDown);
+
+        assertTrue(expired.await(2, TimeUnit.SECONDS));
+        assertTrue(millisSince(start) >= 30 - 1);
+        assertEquals(30, entry.getTimeout());
+    }
+
+    @Test
+    public void touchPostponesExpiryTest() throws InterruptedException
+    {
+        CountDownLatch expired = new CountDownLatch(1);
+        HeartbeatWheel.Entry entry = wheel.schedule(60, expired::countDown);
+
+        // Touched well within its timeout the entry survives many revolutions, being moved to its new slot each time
+        for (int i = 0; i < 15; i++)
+        {
+            Thread.sleep(20);
+            entry.touch();
+        }
+        assertEquals(1, expired.getCount());
+
+        long lastTouch = System.nanoTime();
+        entry.touch();
+        assertTrue(expired.await(2, TimeUnit.SECONDS));
+        assertTrue(millisSince(lastTouch) >= 60 - 1);
+    }
+
+    @Test
+    public void touchWithTimeoutTest() throws InterruptedException
+    {
+        CountDownLatch expired = new CountDownLatch(1);
+        HeartbeatWheel.Entry entry = wheel.schedule(20, expired::countDown);
+
+        // A longer timeout keeps the entry alive past its first deadline
+        long start = System.nanoTime();
+        entry.touch(120);
+        assertEquals(120, entry.getTimeout());
+        assertFalse(expired.await(80, TimeUnit.MILLISECONDS));
+        assertTrue(expired.await(2, TimeUnit.SECONDS));
+        assertTrue(millisSince(start) >= 120 - 1);
+    }
+
+    @Test
+    public void cancelPreventsExpiryTest() throws InterruptedException
+    {
+        AtomicInteger runs = new AtomicInteger();
+        HeartbeatWheel.Entry cancelled = wheel.schedule(20, runs::incrementAndGet);
+        cancelled.cancel();
+
+        // An entry scheduled later and expiring later tells that the wheel went past the cancelled one
+        CountDownLatch expired = new CountDownLatch(1);
+        wheel.schedule(60, expired::countDown);
+        assertTrue(expired.await(2, TimeUnit.SECONDS));
+        Thread.sleep(50);
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    public void deadlineLongerThanARevolutionTest() throws InterruptedException
+    {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch expired = new CountDownLatch(1);
+        long start = System.nanoTime();
+        wheel.schedule(SLOTS_NUMBER * TICK_MILLIS * 4 + 5, () -> {
+            runs.incrementAndGet();
+            expired.countDown();
+        });
+
+        // The wheel passes the entry's slot a few times before its deadline
+        assertTrue(expired.await(2, TimeUnit.SECONDS));
+        assertTrue(millisSince(start) >= SLOTS_NUMBER * TICK_MILLIS * 4 + 5 - 1);
+
+        // An expired entry runs only once
+        Thread.sleep(SLOTS_NUMBER * TICK_MILLIS * 2);
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void manyEntriesTest() throws InterruptedException
+    {
+        CountDownLatch expired = new CountDownLatch(50);
+        for (int i = 0; i < 50; i++)
+            wheel.schedule(i * 3, expired::countDown);
+
+        assertTrue(expired.await(2, TimeUnit.SECONDS));
+    }
+
+    private static long millisSince(long startNanos)
+    {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+}
@@ -0,0 +1,115 @@
+package it.polimi.ingsw.network;
+
+import it.polimi.ingsw.model.GameMode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class to test the state the Match class publishes for the readers outside of its mailbox
+ */
+public class MatchTest
+{
+    Server server;
+    Match match;
+
+    @BeforeEach
+    public void init()
+    {
+        server = new Server();
+        match = new Match(server, "m1", 2, GameMode.EXPERT);
+        assertTrue(server.getRegistry().addMatch("m1", match));
+    }
+
+    @Test
+    public void newMatchTest()
+    {
+        assertEquals(0, match.getPlayersNumber());
+        assertTrue(match.isOpen());
+        assertEquals("Waiting", match.getPhaseName());
+    }
+
+    @Test
+    public void joiningPlayersTest() throws InterruptedException
+    {
+        // The state is published before the callback, which updates the lobby
+        assertTrue(addPlayer(connection("p1")));
+        assertEquals(1, match.getPlayersNumber());
+        assertTrue(match.isOpen());
+        assertEquals("Waiting", match.getPhaseName());
+
+        assertTrue(addPlayer(connection("p2")));
+        assertEquals(2, match.getPlayersNumber());
+        assertFalse(match.isOpen());
+        assertNotEquals("Waiting", match.getPhaseName());
+    }
+
+    @Test
+    public void missingPlayerIsCountedTest() throws InterruptedException
+    {
+        TestConnection player = connection("p1");
+        addPlayer(player);
+        addPlayer(connection("p2"));
+
+        // A player leaving a started match keeps its place
+        CountDownLatch removed = new CountDownLatch(1);
+        match.removePlayer(player, removed::countDown);
+        assertTrue(removed.await(5, TimeUnit.SECONDS));
+        assertEquals(2, match.getPlayersNumber());
+        assertFalse(match.isOpen());
+        assertEquals(1, match.getPlayers().size());
+        assertTrue(match.getMissingPlayers().contains("p1"));
+    }
+
+    @Test
+    public void endedMatchRefusesPlayersTest() throws InterruptedException
+    {
+        server.getRegistry().removeMatch(match);
+        assertFalse(addPlayer(connection("p1")));
+        assertEquals(0, match.getPlayersNumber());
+    }
+
+    private TestConnection connection(String name)
+    {
+        TestConnection connection = new TestConnection(server);
+        connection.setPlayerName(name);
+        assertEquals(name, connection.getPlayerName().orElse(null));
+        return connection;
+    }
+
+    private boolean addPlayer(PlayerConnection player) throws InterruptedException
+    {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicBoolean added = new AtomicBoolean();
+        match.addPlayer(player, 0, result -> {
+            added.set(result);
+            done.countDown();
+        });
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        return added.get();
+    }
+
+    /**
+     * Connection which keeps its answers queued, without any transport.
+     */
+    private static class TestConnection extends PlayerConnection
+    {
+        private TestConnection(Server server)
+        {
+            super(server);
+        }
+
+        @Override
+        protected void startWriter()
+        {}
+
+        @Override
+        protected void closeTransport()
+        {}
+    }
+}
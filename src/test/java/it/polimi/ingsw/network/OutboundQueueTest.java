@@ -0,0 +1,142 @@
+package it.polimi.ingsw.network;
+
+import it.polimi.ingsw.network.OutboundQueue.OfferResult;
+import it.polimi.ingsw.protocol.answers.ErrorAnswer;
+import it.polimi.ingsw.protocol.codec.EncodedFrame;
+import it.polimi.ingsw.protocol.updates.CurrentPlayerUpdate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class to test the OutboundQueue class
+ */
+public class OutboundQueueTest
+{
+    OutboundQueue queue;
+    EncodedFrame answer;
+    EncodedFrame update;
+
+    @BeforeEach
+    public void init() throws IOException
+    {
+        queue = new OutboundQueue(3);
+        answer = EncodedFrame.of(new ErrorAnswer("Error"));
+        update = EncodedFrame.of(new CurrentPlayerUpdate(1));
+    }
+
+    @Test
+    public void constructorTest()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new OutboundQueue(0));
+        assertThrows(IllegalArgumentException.class, () -> new OutboundQueue(-1));
+    }
+
+    @Test
+    public void writerTest()
+    {
+        // Only the first offer starts a writer
+        assertEquals(OfferResult.START_WRITER, queue.offer(answer, false));
+        assertEquals(OfferResult.QUEUED, queue.offer(update, true));
+        assertEquals(2, queue.size());
+
+        assertSame(answer, queue.poll());
+        assertSame(update, queue.poll());
+        assertNull(queue.poll());
+
+        // The writer stopped, the next offer starts a new one
+        assertEquals(OfferResult.START_WRITER, queue.offer(update, true));
+    }
+
+    @Test
+    public void overflowDropsUpdatesTest()
+    {
+        queue.offer(update, true);
+        queue.offer(answer, false);
+        queue.offer(update, true);
+
+        // The full queue makes room for the answer by dropping the updates
+        assertEquals(OfferResult.QUEUED, queue.offer(answer, false));
+        assertTrue(queue.isSlowConsumer());
+        assertEquals(2, queue.size());
+
+        // From now on the updates are dropped, the answers are still queued
+        assertEquals(OfferResult.DROPPED, queue.offer(update, true));
+        assertEquals(OfferResult.QUEUED, queue.offer(answer, false));
+        assertEquals(3, queue.size());
+    }
+
+    @Test
+    public void overflowOfAnswersTest()
+    {
+        for (int i = 0; i < 3; i++)
+            queue.offer(answer, false);
+
+        // Nothing can be dropped, the connection has to be closed
+        assertEquals(OfferResult.OVERFLOW, queue.offer(answer, false));
+        assertEquals(3, queue.size());
+    }
+
+    @Test
+    public void resyncTest()
+    {
+        for (int i = 0; i < 4; i++)
+            queue.offer(update, true);
+        assertTrue(queue.isSlowConsumer());
+        assertEquals(0, queue.size());
+        assertFalse(queue.takeResyncNeeded());
+
+        // The resync is requested once the queue is drained, and only once
+        assertNull(queue.poll());
+        assertTrue(queue.takeResyncNeeded());
+        assertFalse(queue.takeResyncNeeded());
+        assertNull(queue.poll());
+        assertFalse(queue.takeResyncNeeded());
+
+        // The snapshot is queued as an answer, the updates are still dropped until the resync ends
+        assertEquals(OfferResult.START_WRITER, queue.offer(answer, false));
+        assertEquals(OfferResult.DROPPED, queue.offer(update, true));
+        queue.endResync();
+        assertFalse(queue.isSlowConsumer());
+        assertEquals(OfferResult.QUEUED, queue.offer(update, true));
+    }
+
+    @Test
+    public void closeTest()
+    {
+        queue.offer(update, true);
+        queue.offer(answer, false);
+
+        // The updates are dropped, the answers are still written
+        assertTrue(queue.close());
+        assertFalse(queue.close());
+        assertTrue(queue.isClosed());
+        assertEquals(OfferResult.DROPPED, queue.offer(answer, false));
+        assertEquals(1, queue.size());
+
+        // The writer is still running, the transport is released once it has written everything
+        assertFalse(queue.release(false));
+        assertSame(answer, queue.poll());
+        assertNull(queue.poll());
+        assertFalse(queue.takeResyncNeeded());
+        assertTrue(queue.release(false));
+        assertFalse(queue.release(true));
+    }
+
+    @Test
+    public void forcedReleaseTest()
+    {
+        assertFalse(queue.release(true));
+
+        queue.offer(answer, false);
+        queue.close();
+
+        // A client that doesn't read is released anyway
+        assertTrue(queue.release(true));
+        assertEquals(0, queue.size());
+        assertFalse(queue.release(false));
+    }
+}
@@ -0,0 +1,99 @@
+package it.polimi.ingsw.network;
+
+import it.polimi.ingsw.protocol.answers.EndMatchAnswer;
+import it.polimi.ingsw.protocol.answers.ErrorAnswer;
+import it.polimi.ingsw.protocol.codec.FrameCodec;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class to test the closing of a PlayerConnection
+ */
+public class PlayerConnectionTest
+{
+    ServerSocket serverSocket;
+    Socket client;
+    DataInputStream clientInput;
+    SocketPlayerConnection connection;
+
+    @BeforeEach
+    public void init() throws IOException
+    {
+        serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        client = new Socket(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort());
+        client.setSoTimeout(5000);
+        clientInput = new DataInputStream(new BufferedInputStream(client.getInputStream()));
+        connection = new SocketPlayerConnection(new Server(), serverSocket.accept());
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException
+    {
+        client.close();
+        serverSocket.close();
+    }
+
+    @Test
+    public void answerBeforeCloseIsDeliveredTest() throws IOException, ClassNotFoundException
+    {
+        connection.sendAnswer(new EndMatchAnswer("Connection timed out"));
+        connection.close();
+
+        // The answer arrives before the socket is closed
+        Object answer = FrameCodec.readObject(clientInput);
+        assertInstanceOf(EndMatchAnswer.class, answer);
+        assertEquals("[EndMatchAnswer] Connection timed out", answer.toString());
+        assertThrows(EOFException.class, () -> FrameCodec.readObject(clientInput));
+    }
+
+    @Test
+    public void answersKeepTheirOrderTest() throws IOException, ClassNotFoundException
+    {
+        for (int i = 0; i < 10; i++)
+            connection.sendAnswer(new ErrorAnswer("Error " + i));
+        connection.sendAnswer(new EndMatchAnswer("You have been disconnected by the server"));
+        connection.close();
+
+        for (int i = 0; i < 10; i++)
+            assertEquals("[ErrorAnswer] Error: Error " + i, FrameCodec.readObject(clientInput).toString());
+        assertInstanceOf(EndMatchAnswer.class, FrameCodec.readObject(clientInput));
+        assertThrows(EOFException.class, () -> FrameCodec.readObject(clientInput));
+    }
+
+    @Test
+    public void closedConnectionRefusesAnswersTest() throws IOException
+    {
+        connection.close();
+        assertTrue(connection.isClosing());
+
+        // Nothing is written after the close
+        connection.sendAnswer(new ErrorAnswer("Too late"));
+        assertEquals(0, connection.getQueueDepth());
+        assertThrows(EOFException.class, () -> FrameCodec.readObject(clientInput));
+    }
+
+    @Test
+    public void brokenSocketClosesTheConnectionTest() throws IOException, InterruptedException
+    {
+        Thread reader = new Thread(connection);
+        reader.start();
+
+        // The reader closes the connection as soon as the client goes away, without waiting for the watchdog
+        client.close();
+        reader.join(5000);
+        assertFalse(reader.isAlive());
+        assertTrue(connection.isClosing());
+        assertTrue(connection.getPlayerSocket().isClosed());
+    }
+}
@@ -0,0 +1,148 @@
+package it.polimi.ingsw.network;
+
+import it.polimi.ingsw.model.GameMode;
+import it.polimi.ingsw.protocol.commands.MatchesFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class to test the matches index of the ServerRegistry class
+ */
+public class ServerRegistryTest
+{
+    Server server;
+    ServerRegistry registry;
+
+    @BeforeEach
+    public void init()
+    {
+        server = new Server();
+        registry = new ServerRegistry();
+
+        // Ids spread over the buckets so that every page needs a merge
+        addMatch("m0", 2, GameMode.CLASSIC);
+        addMatch("m1", 3, GameMode.EXPERT);
+        addMatch("m2", 2, GameMode.EXPERT);
+        addMatch("m3", 2, GameMode.CLASSIC);
+        addMatch("m4", 3, GameMode.CLASSIC);
+        addMatch("m5", 2, GameMode.EXPERT);
+        addMatch("m6", 3, GameMode.EXPERT);
+    }
+
+    @Test
+    public void mergeBucketsTest()
+    {
+        assertEquals(List.of("m0", "m1", "m2", "m3", "m4", "m5", "m6"), ids(registry.findMatches(MatchesFilter.ALL, false, null, 0)));
+        assertEquals(List.of("m1", "m2", "m5", "m6"), ids(registry.findMatches(new MatchesFilter(GameMode.EXPERT, null, false), false, null, 0)));
+        assertEquals(List.of("m0", "m2", "m3", "m5"), ids(registry.findMatches(new MatchesFilter(null, 2, false), false, null, 0)));
+        assertEquals(List.of("m4"), ids(registry.findMatches(new MatchesFilter(GameMode.CLASSIC, 3, true), false, null, 0)));
+    }
+
+    @Test
+    public void descendingTest()
+    {
+        assertEquals(List.of("m6", "m5", "m4", "m3", "m2", "m1", "m0"), ids(registry.findMatches(MatchesFilter.ALL, true, null, 0)));
+        assertEquals(List.of("m6", "m5", "m2", "m1"), ids(registry.findMatches(new MatchesFilter(GameMode.EXPERT, null, false), true, null, 0)));
+        assertEquals(List.of("m3", "m2"), ids(registry.findMatches(new MatchesFilter(null, 2, false), true, "m5", 1)));
+    }
+
+    @Test
+    public void limitTest()
+    {
+        // One more match than the limit tells that there is a next page
+        assertEquals(List.of("m0", "m1", "m2", "m3"), ids(registry.findMatches(MatchesFilter.ALL, false, null, 3)));
+        assertEquals(List.of("m4", "m5", "m6"), ids(registry.findMatches(MatchesFilter.ALL, false, "m3", 3)));
+        assertEquals(List.of("m6"), ids(registry.findMatches(MatchesFilter.ALL, false, "m5", 1)));
+    }
+
+    @Test
+    public void cursorTest()
+    {
+        // The cursor is excluded and doesn't have to be the id of an existing match
+        assertEquals(List.of("m3", "m4"), ids(registry.findMatches(MatchesFilter.ALL, false, "m2", 1)));
+        assertEquals(List.of("m3", "m5"), ids(registry.findMatches(new MatchesFilter(null, 2, false), false, "m21", 0)));
+        assertEquals(List.of(), ids(registry.findMatches(MatchesFilter.ALL, false, "m6", 0)));
+        assertEquals(List.of("m1", "m0"), ids(registry.findMatches(MatchesFilter.ALL, true, "m2", 0)));
+
+        // Walk the pages with the last match of each page
+        List<String> walked = new ArrayList<>();
+        String cursor = null;
+        List<Match> page;
+        do
+        {
+            page = registry.findMatches(MatchesFilter.ALL, false, cursor, 2);
+            List<Match> shown = page.subList(0, Math.min(2, page.size()));
+            walked.addAll(ids(shown));
+            cursor = shown.isEmpty() ? null : shown.get(shown.size() - 1).getMatchId();
+        } while (page.size() > 2);
+        assertEquals(List.of("m0", "m1", "m2", "m3", "m4", "m5", "m6"), walked);
+    }
+
+    @Test
+    public void moveBetweenBucketsTest()
+    {
+        MatchesFilter open = new MatchesFilter(null, null, true);
+        TestMatch match = (TestMatch) registry.getMatch("m3");
+
+        // The match is full, its state is checked even before the index is updated
+        match.open = false;
+        assertEquals(List.of("m0", "m1", "m2", "m4", "m5", "m6"), ids(registry.findMatches(open, false, null, 0)));
+        registry.updateIndex(match);
+        assertEquals(List.of("m0", "m1", "m2", "m4", "m5", "m6"), ids(registry.findMatches(open, false, null, 0)));
+        assertEquals(List.of("m0", "m1", "m2", "m3", "m4", "m5", "m6"), ids(registry.findMatches(MatchesFilter.ALL, false, null, 0)));
+
+        // Back to the open bucket, it is listed once
+        match.open = true;
+        registry.updateIndex(match);
+        assertEquals(List.of("m2", "m3", "m4"), ids(registry.findMatches(open, false, "m1", 2)));
+
+        // A removed match leaves the index
+        registry.removeMatch(match);
+        assertEquals(List.of("m0", "m1", "m2", "m4", "m5", "m6"), ids(registry.findMatches(MatchesFilter.ALL, false, null, 0)));
+    }
+
+    @Test
+    public void addMatchTest()
+    {
+        assertFalse(registry.addMatch("m1", new TestMatch(server, "m1", 2, GameMode.CLASSIC)));
+        assertEquals(List.of("m1"), ids(registry.findMatches(new MatchesFilter(GameMode.EXPERT, 3, false), false, "m0", 1).subList(0, 1)));
+        assertEquals(GameMode.EXPERT, registry.getMatch("m1").getController().getGameMode());
+    }
+
+    private void addMatch(String matchId, int playersNumber, GameMode mode)
+    {
+        assertTrue(registry.addMatch(matchId, new TestMatch(server, matchId, playersNumber, mode)));
+    }
+
+    private static List<String> ids(List<Match> matches)
+    {
+        List<String> ids = new ArrayList<>();
+        for (Match match : matches)
+            ids.add(match.getMatchId());
+        return ids;
+    }
+
+    /**
+     * Match whose open state is set by the test, without any player joining it.
+     */
+    private static class TestMatch extends Match
+    {
+        private boolean open = true;
+
+        private TestMatch(Server server, String matchId, int playersNumber, GameMode mode)
+        {
+            super(server, matchId, playersNumber, mode);
+        }
+
+        @Override
+        public boolean isOpen()
+        {
+            return open;
+        }
+    }
+}
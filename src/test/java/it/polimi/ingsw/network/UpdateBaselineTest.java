@@ -0,0 +1,217 @@
+package it.polimi.ingsw.network;
+
+import it.polimi.ingsw.model.*;
+import it.polimi.ingsw.protocol.codec.BinaryReader;
+import it.polimi.ingsw.protocol.codec.BinaryWriter;
+import it.polimi.ingsw.protocol.codec.ModelCodec;
+import it.polimi.ingsw.protocol.updates.IslandsDeltaUpdate;
+import it.polimi.ingsw.protocol.updates.IslandsUpdate;
+import it.polimi.ingsw.protocol.updates.ModelUpdate;
+import it.polimi.ingsw.protocol.updates.SchoolBoardDeltaUpdate;
+import it.polimi.ingsw.protocol.updates.SchoolBoardUpdate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class to test the UpdateBaseline class, by applying the deltas it computes to a copy of the previous state
+ */
+public class UpdateBaselineTest
+{
+    UpdateBaseline baseline;
+    List<Island> islands;
+    SchoolBoard board;
+
+    @BeforeEach
+    public void init()
+    {
+        baseline = new UpdateBaseline();
+
+        islands = new ArrayList<>();
+        for (int i = 0; i < 12; i++)
+        {
+            Island island = new Island();
+            island.addStudent(new Student(SchoolColor.values()[i % SchoolColor.values().length]));
+            islands.add(island);
+        }
+
+        board = new SchoolBoard(TowerColor.BLACK, GameMode.EXPERT);
+        board.setPlayersNumber(2);
+        for (SchoolColor color : List.of(SchoolColor.RED, SchoolColor.RED, SchoolColor.GREEN, SchoolColor.BLUE, SchoolColor.PINK))
+            board.addStudentToEntrance(new Student(color));
+        board.addStudentToDiningRoom(new Student(SchoolColor.YELLOW));
+        board.addStudentToDiningRoom(new Student(SchoolColor.YELLOW));
+        board.addProfessor(new Professor(SchoolColor.YELLOW));
+        for (int i = 0; i < 8; i++)
+            board.addTower(new Tower(TowerColor.BLACK));
+    }
+
+    @Test
+    public void islandsDeltaTest() throws StreamCorruptedException
+    {
+        // The first update is sent whole
+        assertInstanceOf(IslandsUpdate.class, baseline.diff(new IslandsUpdate(islands, 0)));
+        List<Island> client = copyIslands(islands);
+
+        islands.get(3).addStudent(new Student(SchoolColor.RED));
+        islands.get(3).addStudent(new Student(SchoolColor.RED));
+        islands.get(5).addTower(new Tower(TowerColor.WHITE));
+        islands.get(7).addNoEntryTile();
+
+        IslandsDeltaUpdate delta = assertInstanceOf(IslandsDeltaUpdate.class, baseline.diff(new IslandsUpdate(islands, 4)));
+        assertEquals(3, delta.getChanges().size());
+        assertEquals(4, delta.getMotherNatureIndex());
+        applyIslands(delta, client);
+        assertIslandsEqual(islands, client);
+
+        // A tower changing color and a no entry tile going back to the card
+        islands.get(5).removeAllTowers();
+        islands.get(5).addTower(new Tower(TowerColor.GREY));
+        islands.get(7).removeNoEntryTile();
+
+        delta = assertInstanceOf(IslandsDeltaUpdate.class, baseline.diff(new IslandsUpdate(islands, 4)));
+        assertEquals(2, delta.getChanges().size());
+        applyIslands(delta, client);
+        assertIslandsEqual(islands, client);
+
+        // Nothing changed, only the mother nature position is sent
+        delta = assertInstanceOf(IslandsDeltaUpdate.class, baseline.diff(new IslandsUpdate(islands, 6)));
+        assertTrue(delta.getChanges().isEmpty());
+    }
+
+    @Test
+    public void mergeFallbackTest() throws StreamCorruptedException
+    {
+        baseline.diff(new IslandsUpdate(islands, 0));
+
+        islands.get(0).addTower(new Tower(TowerColor.WHITE));
+        islands.get(1).addTower(new Tower(TowerColor.WHITE));
+        islands.get(0).mergeIsland(islands.remove(1));
+
+        // The islands structure changed, the whole list is sent
+        assertInstanceOf(IslandsUpdate.class, baseline.diff(new IslandsUpdate(islands, 0)));
+        List<Island> client = copyIslands(islands);
+
+        // The following deltas refer to the merged islands
+        islands.get(0).addStudent(new Student(SchoolColor.PINK));
+        IslandsDeltaUpdate delta = assertInstanceOf(IslandsDeltaUpdate.class, baseline.diff(new IslandsUpdate(islands, 0)));
+        assertEquals(11, delta.getIslandsNumber());
+        applyIslands(delta, client);
+        assertIslandsEqual(islands, client);
+    }
+
+    @Test
+    public void studentsDecreaseFallbackTest()
+    {
+        baseline.diff(new IslandsUpdate(islands, 0));
+
+        // Students never leave an island, a list where they did is sent whole
+        islands.set(2, new Island());
+        assertInstanceOf(IslandsUpdate.class, baseline.diff(new IslandsUpdate(islands, 0)));
+
+        // A list of a different size too, e.g. a new game
+        assertInstanceOf(IslandsUpdate.class, baseline.diff(new IslandsUpdate(islands.subList(0, 10), 0)));
+    }
+
+    @Test
+    public void schoolBoardDeltaTest() throws StreamCorruptedException
+    {
+        assertInstanceOf(SchoolBoardUpdate.class, baseline.diff(new SchoolBoardUpdate(board, "Player1", 0)));
+        SchoolBoard client = copyBoard(board);
+
+        // Students moved to the dining room, a professor won, a tower built and coins spent
+        board.removeStudentFromEntrance(SchoolColor.RED);
+        board.addStudentToDiningRoom(new Student(SchoolColor.RED));
+        board.removeStudentFromEntrance(SchoolColor.GREEN);
+        board.addStudentToDiningRoom(new Student(SchoolColor.GREEN));
+        board.addProfessor(new Professor(SchoolColor.RED));
+        board.removeTower(TowerColor.BLACK);
+        board.addCoins(3);
+        assertDelta(client);
+
+        // Students back from the dining room, a professor lost and a tower back on the board
+        board.removeStudentFromDining(SchoolColor.YELLOW);
+        board.removeProfessor(board.getProfessors().stream().filter(p -> p.getColor() == SchoolColor.YELLOW).findFirst().get());
+        board.addTower(new Tower(TowerColor.BLACK));
+        board.removeCoins(2);
+        board.addStudentToEntrance(new Student(SchoolColor.PINK));
+        assertDelta(client);
+
+        // Nothing changed
+        assertDelta(client);
+    }
+
+    @Test
+    public void boardsOfDifferentPlayersTest()
+    {
+        SchoolBoard other = new SchoolBoard(TowerColor.WHITE, GameMode.EXPERT);
+        other.setPlayersNumber(2);
+
+        // Each player has its own baseline, the first update of a player is sent whole
+        baseline.diff(new SchoolBoardUpdate(board, "Player1", 0));
+        assertInstanceOf(SchoolBoardUpdate.class, baseline.diff(new SchoolBoardUpdate(other, "Player2", 1)));
+        assertInstanceOf(SchoolBoardDeltaUpdate.class, baseline.diff(new SchoolBoardUpdate(other, "Player2", 1)));
+
+        // After a reset everything is sent whole again
+        baseline.reset();
+        assertInstanceOf(SchoolBoardUpdate.class, baseline.diff(new SchoolBoardUpdate(board, "Player1", 0)));
+        assertInstanceOf(IslandsUpdate.class, baseline.diff(new IslandsUpdate(islands, 0)));
+    }
+
+    private void assertDelta(SchoolBoard client)
+    {
+        ModelUpdate update = baseline.diff(new SchoolBoardUpdate(board, "Player1", 0));
+        assertInstanceOf(SchoolBoardDeltaUpdate.class, update).applyTo(client);
+        assertArrayEquals(encode(board), encode(client));
+    }
+
+    private static void applyIslands(IslandsDeltaUpdate delta, List<Island> client)
+    {
+        assertEquals(client.size(), delta.getIslandsNumber());
+        for (IslandsDeltaUpdate.IslandChange change : delta.getChanges())
+            change.applyTo(client.get(change.getIndex()));
+    }
+
+    private static void assertIslandsEqual(List<Island> expected, List<Island> actual)
+    {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++)
+            assertArrayEquals(encode(expected.get(i)), encode(actual.get(i)), "Island " + i);
+    }
+
+    private static List<Island> copyIslands(List<Island> islands) throws StreamCorruptedException
+    {
+        List<Island> copies = new ArrayList<>();
+        for (Island island : islands)
+        {
+            byte[] bytes = encode(island);
+            copies.add(ModelCodec.readIsland(new BinaryReader(bytes, 0, bytes.length)));
+        }
+        return copies;
+    }
+
+    private static SchoolBoard copyBoard(SchoolBoard board) throws StreamCorruptedException
+    {
+        byte[] bytes = encode(board);
+        return ModelCodec.readSchoolBoard(new BinaryReader(bytes, 0, bytes.length));
+    }
+
+    private static byte[] encode(Island island)
+    {
+        BinaryWriter writer = new BinaryWriter();
+        ModelCodec.writeIsland(writer, island);
+        return writer.toByteArray();
+    }
+
+    private static byte[] encode(SchoolBoard board)
+    {
+        BinaryWriter writer = new BinaryWriter();
+        ModelCodec.writeSchoolBoard(writer, board);
+        return writer.toByteArray();
+    }
+}
@@ -0,0 +1,106 @@
+package it.polimi.ingsw.network;
+
+import it.polimi.ingsw.protocol.updates.AssistantCardsUpdate;
+import it.polimi.ingsw.protocol.updates.CurrentPlayerUpdate;
+import it.polimi.ingsw.protocol.updates.ModelUpdate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class to test the UpdateLog class
+ */
+public class UpdateLogTest
+{
+    UpdateLog log;
+    List<ModelUpdate> appended;
+    long start;
+
+    @BeforeEach
+    public void init()
+    {
+        log = new UpdateLog(4);
+        appended = new ArrayList<>();
+        start = log.getLastSequence();
+    }
+
+    @Test
+    public void constructorTest()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new UpdateLog(0));
+
+        // Every log has its own range of sequence numbers
+        UpdateLog other = new UpdateLog(4);
+        assertNotEquals(start, other.getLastSequence());
+        other.append(new CurrentPlayerUpdate(0));
+        assertNull(log.since(other.getLastSequence(), "Player1"));
+    }
+
+    @Test
+    public void sinceTest()
+    {
+        append(3);
+
+        assertEquals(start + 3, log.getLastSequence());
+        assertEquals(appended, log.since(start, "Player1"));
+        assertEquals(appended.subList(1, 3), log.since(start + 1, "Player1"));
+        assertEquals(List.of(), log.since(start + 3, "Player1"));
+
+        // A sequence number from the future is unknown
+        assertNull(log.since(start + 4, "Player1"));
+    }
+
+    @Test
+    public void playerDestinationTest()
+    {
+        ModelUpdate broadcast = new CurrentPlayerUpdate(0);
+        ModelUpdate forPlayer1 = new AssistantCardsUpdate("Player1", new ArrayList<>());
+        ModelUpdate forPlayer2 = new AssistantCardsUpdate("Player2", new ArrayList<>());
+        log.append(broadcast);
+        log.append(forPlayer1);
+        log.append(forPlayer2);
+
+        assertEquals(List.of(broadcast, forPlayer1), log.since(start, "Player1"));
+        assertEquals(List.of(broadcast, forPlayer2), log.since(start, "Player2"));
+    }
+
+    @Test
+    public void wraparoundTest()
+    {
+        append(10);
+
+        // Only the last 4 updates are kept, in order across the end of the array
+        assertEquals(start + 10, log.getLastSequence());
+        assertEquals(appended.subList(6, 10), log.since(start + 6, "Player1"));
+        assertEquals(appended.subList(8, 10), log.since(start + 8, "Player1"));
+        assertEquals(List.of(), log.since(start + 10, "Player1"));
+    }
+
+    @Test
+    public void evictedSequenceTest()
+    {
+        append(10);
+
+        // The player missed an update that has been overwritten, it needs a snapshot
+        assertNull(log.since(start + 5, "Player1"));
+        assertNull(log.since(start, "Player1"));
+
+        append(1);
+        assertNull(log.since(start + 6, "Player1"));
+        assertEquals(appended.subList(7, 11), log.since(start + 7, "Player1"));
+    }
+
+    private void append(int count)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            ModelUpdate update = new CurrentPlayerUpdate(appended.size() % 2);
+            assertEquals(start + appended.size() + 1, log.append(update));
+            appended.add(update);
+        }
+    }
+}
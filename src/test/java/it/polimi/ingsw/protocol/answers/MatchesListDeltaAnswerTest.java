@@ -0,0 +1,87 @@
+package it.polimi.ingsw.protocol.answers;
+
+import it.polimi.ingsw.model.GameMode;
+import it.polimi.ingsw.network.Match;
+import it.polimi.ingsw.network.Server;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class to test the MatchesListDeltaAnswer class
+ */
+public class MatchesListDeltaAnswerTest
+{
+    Server server;
+    MatchesListAnswer list;
+
+    @BeforeEach
+    public void init()
+    {
+        server = new Server();
+
+        // A page in the order the server listed it, which isn't the hash order of the ids
+        Map<String, Match> page = new LinkedHashMap<>();
+        for (String matchId : List.of("zeta", "alpha", "mid", "beta"))
+            page.put(matchId, new Match(server, matchId, 3, GameMode.CLASSIC));
+        list = new MatchesListAnswer(page, "beta");
+    }
+
+    @Test
+    public void changesKeepTheOrderTest()
+    {
+        MatchesListDeltaAnswer delta = new MatchesListDeltaAnswer();
+        delta.putMatch("mid", new Match(server, "mid", 2, GameMode.EXPERT));
+        delta.removeMatch("alpha");
+        delta.putMatch("new2", new Match(server, "new2", 2, GameMode.CLASSIC));
+        delta.putMatch("new1", new Match(server, "new1", 3, GameMode.EXPERT));
+
+        MatchesListAnswer result = delta.applyTo(list);
+
+        // The changed match stays in its place, the created ones are appended in the order they have been sent
+        assertEquals(List.of("zeta", "mid", "beta", "new2", "new1"), new ArrayList<>(result.getGameModes().keySet()));
+        assertEquals(List.of("zeta", "mid", "beta", "new2", "new1"), new ArrayList<>(result.getNumPlayers().keySet()));
+        assertEquals(GameMode.EXPERT, result.getGameModes().get("mid"));
+        assertEquals(2, result.getMaxNumPlayers().get("mid"));
+        assertEquals(3, result.getMaxNumPlayers().get("zeta"));
+        assertEquals("beta", result.getNextCursor().orElse(null));
+
+        // The list shown by the view isn't modified
+        assertEquals(List.of("zeta", "alpha", "mid", "beta"), new ArrayList<>(list.getGameModes().keySet()));
+        assertEquals(GameMode.CLASSIC, list.getGameModes().get("mid"));
+    }
+
+    @Test
+    public void consecutiveDeltasTest()
+    {
+        MatchesListDeltaAnswer first = new MatchesListDeltaAnswer();
+        first.putMatch("beta", new Match(server, "beta", 2, GameMode.CLASSIC));
+        MatchesListDeltaAnswer second = new MatchesListDeltaAnswer();
+        second.putMatch("zeta", new Match(server, "zeta", 2, GameMode.CLASSIC));
+        second.removeMatch("mid");
+
+        MatchesListAnswer result = second.applyTo(first.applyTo(list));
+        assertEquals(List.of("zeta", "alpha", "beta"), new ArrayList<>(result.getGameModes().keySet()));
+        assertEquals(2, result.getMaxNumPlayers().get("zeta"));
+        assertEquals(2, result.getMaxNumPlayers().get("beta"));
+    }
+
+    @Test
+    public void recreatedMatchTest()
+    {
+        // A match removed and created again within the same window moves to the end
+        MatchesListDeltaAnswer delta = new MatchesListDeltaAnswer();
+        delta.removeMatch("zeta");
+        delta.putMatch("zeta", new Match(server, "zeta", 2, GameMode.EXPERT));
+
+        MatchesListAnswer result = delta.applyTo(list);
+        assertEquals(List.of("alpha", "mid", "beta", "zeta"), new ArrayList<>(result.getGameModes().keySet()));
+        assertEquals(GameMode.EXPERT, result.getGameModes().get("zeta"));
+    }
+}
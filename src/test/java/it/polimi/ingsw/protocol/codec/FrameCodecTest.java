@@ -0,0 +1,253 @@
+package it.polimi.ingsw.protocol.codec;
+
+import it.polimi.ingsw.model.*;
+import it.polimi.ingsw.model.exceptions.TooManyPlayersException;
+import it.polimi.ingsw.model.game.Game;
+import it.polimi.ingsw.network.Server;
+import it.polimi.ingsw.protocol.answers.*;
+import it.polimi.ingsw.protocol.commands.*;
+import it.polimi.ingsw.protocol.messages.*;
+import it.polimi.ingsw.protocol.updates.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class to test the FrameCodec class and the binary representation of every MessageType
+ */
+public class FrameCodecTest
+{
+    Game game;
+    Server server;
+
+    @BeforeEach
+    public void init()
+    {
+        game = new Game(2, GameMode.EXPERT);
+        try
+        {
+            game.addPlayer(new Player("Player1", TowerColor.BLACK, GameMode.EXPERT));
+            game.addPlayer(new Player("Player2", TowerColor.WHITE, GameMode.EXPERT));
+        } catch (TooManyPlayersException e)
+        {
+            e.printStackTrace();
+        }
+        game.setupGame();
+        game.fillClouds();
+        game.getPlayerTableList().get(1).getBoard().addCoins(3);
+
+        server = new Server();
+        server.createMatch("Match1", 3, GameMode.EXPERT);
+        server.createMatch("Match2", 2, GameMode.CLASSIC);
+    }
+
+    @AfterEach
+    public void tearDown()
+    {
+        FrameCodec.setFormat(WireFormat.BINARY);
+    }
+
+    @Test
+    public void everyMessageTypeRoundTripTest() throws IOException, ClassNotFoundException
+    {
+        Map<MessageType, Object> samples = samples();
+
+        // A new message type must come with its sample
+        for (MessageType type : MessageType.values())
+            assertTrue(samples.containsKey(type), "No sample for " + type);
+
+        for (Map.Entry<MessageType, Object> sample : samples.entrySet())
+        {
+            Object message = sample.getValue();
+            byte[] frame = FrameCodec.encode(message);
+            assertEquals(sample.getKey().getId(), frame[FrameCodec.HEADER_SIZE], "Wrong id for " + sample.getKey());
+
+            Object decoded = decode(frame);
+            assertEquals(message.getClass(), decoded.getClass());
+
+            // Every field is written back the same, the samples have different values so that swapped fields are caught
+            assertArrayEquals(frame, FrameCodec.encode(decoded), "Different encoding after decoding " + sample.getKey());
+        }
+    }
+
+    @Test
+    public void fieldsRoundTripTest() throws IOException, ClassNotFoundException
+    {
+        PingCommand ping = (PingCommand) roundTrip(new PingCommand(11, 22, 33));
+        assertEquals(11, ping.getTimestamp());
+        assertEquals(22, ping.getEchoTimestamp());
+        assertEquals(33, ping.getEchoDelay());
+
+        PongAnswer pong = (PongAnswer) roundTrip(new PongAnswer(44, 55));
+        assertEquals(44, pong.getEchoTimestamp());
+        assertEquals(55, pong.getTimestamp());
+
+        ResumeSessionCommand resume = (ResumeSessionCommand) roundTrip(new ResumeSessionCommand("token", 1234567890123L));
+        assertEquals("token", resume.getSessionToken());
+        assertEquals(1234567890123L, resume.getLastSequence());
+
+        SetNameAnswer setName = (SetNameAnswer) roundTrip(new SetNameAnswer("Player1", "token"));
+        assertEquals("Player1", setName.getName());
+        assertEquals("token", setName.getSessionToken());
+
+        GetMatchesListCommand request = (GetMatchesListCommand) roundTrip(
+                new GetMatchesListCommand(new MatchesFilter(GameMode.CLASSIC, 3, true), GetMatchesListCommand.Order.ID_DESCENDING, "m7", 5));
+        assertEquals(GameMode.CLASSIC, request.getFilter().getMode());
+        assertEquals(3, request.getFilter().getPlayersNumber());
+        assertEquals(GetMatchesListCommand.Order.ID_DESCENDING, request.getOrder());
+        assertEquals("m7", request.getCursor());
+        assertEquals(5, request.getPageSize());
+
+        MatchesListAnswer list = (MatchesListAnswer) roundTrip(matchesList());
+        assertEquals(List.of("Match1", "Match2"), new ArrayList<>(list.getGameModes().keySet()));
+        assertEquals(GameMode.CLASSIC, list.getGameModes().get("Match2"));
+        assertEquals(3, list.getMaxNumPlayers().get("Match1"));
+        assertEquals(Optional.of("Match2"), list.getNextCursor());
+
+        SequencedUpdate sequenced = (SequencedUpdate) roundTrip(new SequencedUpdate(99, new CurrentPlayerUpdate(1)));
+        assertEquals(99, sequenced.getSequence());
+        assertInstanceOf(CurrentPlayerUpdate.class, sequenced.getUpdate());
+    }
+
+    @Test
+    public void javaSerializationFallbackTest() throws IOException, ClassNotFoundException
+    {
+        // Classes without a message type are serialized
+        ArrayList<String> list = new ArrayList<>(List.of("a", "b"));
+        byte[] frame = FrameCodec.encode(list);
+        assertEquals(MessageType.JAVA_SERIALIZATION_ID, frame[FrameCodec.HEADER_SIZE]);
+        assertEquals(list, decode(frame));
+
+        // With the Java format every message is serialized, and still decoded
+        Map<MessageType, Object> samples = samples();
+        // The character cards decorate the game, which cannot be serialized
+        samples.remove(MessageType.CHARACTER_CARDS_UPDATE);
+
+        FrameCodec.setFormat(WireFormat.JAVA);
+        for (Object message : samples.values())
+        {
+            frame = FrameCodec.encode(message);
+            assertEquals(MessageType.JAVA_SERIALIZATION_ID, frame[FrameCodec.HEADER_SIZE]);
+
+            Object decoded = decode(frame);
+            assertEquals(message.getClass(), decoded.getClass());
+
+            FrameCodec.setFormat(WireFormat.BINARY);
+            assertArrayEquals(FrameCodec.encode(message), FrameCodec.encode(decoded), "Different object after the serialization of " + message);
+            FrameCodec.setFormat(WireFormat.JAVA);
+        }
+    }
+
+    @Test
+    public void corruptedPayloadTest() throws IOException
+    {
+        byte[] frame = FrameCodec.encode(new CreateMatchCommand("Match1", 2, GameMode.EXPERT));
+
+        // Unknown ids, truncated payloads and bytes left over are refused
+        byte[] unknown = frame.clone();
+        unknown[FrameCodec.HEADER_SIZE] = 127;
+        assertThrows(StreamCorruptedException.class, () -> decode(unknown));
+        int length = frame.length - FrameCodec.HEADER_SIZE;
+        assertThrows(StreamCorruptedException.class, () -> FrameCodec.decode(frame, FrameCodec.HEADER_SIZE, length - 1));
+
+        byte[] longer = Arrays.copyOf(frame, frame.length + 1);
+        assertThrows(StreamCorruptedException.class, () -> FrameCodec.decode(longer, FrameCodec.HEADER_SIZE, longer.length - FrameCodec.HEADER_SIZE));
+        assertThrows(StreamCorruptedException.class, () -> FrameCodec.decode(frame, FrameCodec.HEADER_SIZE, 0));
+    }
+
+    private Map<MessageType, Object> samples()
+    {
+        Map<MessageType, Object> samples = new EnumMap<>(MessageType.class);
+
+        samples.put(MessageType.CREATE_MATCH_COMMAND, new CreateMatchCommand("Match3", 3, GameMode.CLASSIC));
+        samples.put(MessageType.GET_MATCHES_LIST_COMMAND,
+                new GetMatchesListCommand(new MatchesFilter(GameMode.EXPERT, 2, true), GetMatchesListCommand.Order.ID_DESCENDING, "Match1", 7));
+        samples.put(MessageType.JOIN_MATCH_COMMAND, new JoinMatchCommand("Match1"));
+        samples.put(MessageType.PING_COMMAND, new PingCommand(1, 2, 3));
+        samples.put(MessageType.QUIT_GAME_COMMAND, new QuitGameCommand());
+        samples.put(MessageType.SET_NAME_COMMAND, new SetNameCommand("Player1"));
+        samples.put(MessageType.CAPABILITIES_COMMAND, new CapabilitiesCommand(CapabilitiesCommand.DEFLATE));
+        samples.put(MessageType.RESYNC_COMMAND, new ResyncCommand(StateDigest.ISLANDS | StateDigest.boardSection(1)));
+        samples.put(MessageType.RESUME_SESSION_COMMAND, new ResumeSessionCommand("token", 42));
+        samples.put(MessageType.SPECTATE_MATCH_COMMAND, new SpectateMatchCommand("Match2"));
+
+        samples.put(MessageType.CHARACTER_CARD_ACTION_MESSAGE,
+                new CharacterCardActionMessage(ExpertGameAction.MOVE_STUDENT_FROM_CHARACTER_CARD_TO_ISLAND, 5,
+                        Arrays.asList(SchoolColor.RED, SchoolColor.BLUE)));
+        samples.put(MessageType.END_TURN_MESSAGE, new EndTurnMessage());
+        samples.put(MessageType.MOVE_MOTHER_NATURE_MESSAGE, new MoveMotherNatureMessage(3));
+        samples.put(MessageType.MOVE_STUDENT_FROM_ENTRANCE_TO_DINING_MESSAGE, new MoveStudentFromEntranceToDiningMessage(SchoolColor.GREEN));
+        samples.put(MessageType.MOVE_STUDENT_FROM_ENTRANCE_TO_ISLAND_MESSAGE, new MoveStudentFromEntranceToIslandMessage(SchoolColor.PINK, 9));
+        samples.put(MessageType.PLAY_ASSISTANT_CARD_MESSAGE, new PlayAssistantCardMessage(4));
+        samples.put(MessageType.PLAY_CHARACTER_CARD_MESSAGE, new PlayCharacterCardMessage(2));
+        samples.put(MessageType.SELECT_CLOUD_TILE_MESSAGE, new SelectCloudTileMessage(1));
+
+        samples.put(MessageType.END_MATCH_ANSWER, new EndMatchAnswer("The match has ended"));
+        samples.put(MessageType.ERROR_ANSWER, new ErrorAnswer("Error"));
+        samples.put(MessageType.JOINED_MATCH_ANSWER, new JoinedMatchAnswer("Match1"));
+        samples.put(MessageType.MATCHES_LIST_ANSWER, matchesList());
+        samples.put(MessageType.SET_NAME_ANSWER, new SetNameAnswer("Player1", "token"));
+        samples.put(MessageType.START_MATCH_ANSWER, new StartMatchAnswer(Map.of("Player1", 0, "Player2", 1)));
+        MatchesListDeltaAnswer delta = new MatchesListDeltaAnswer();
+        delta.putMatch("Match1", server.getMatchById("Match1"));
+        delta.removeMatch("Match4");
+        samples.put(MessageType.MATCHES_LIST_DELTA_ANSWER, delta);
+        samples.put(MessageType.CAPABILITIES_ANSWER, new CapabilitiesAnswer(CapabilitiesCommand.DEFLATE));
+        samples.put(MessageType.PONG_ANSWER, new PongAnswer(5, 6));
+
+        Player player = game.getPlayerTableList().get(1);
+        samples.put(MessageType.ASSISTANT_CARDS_UPDATE, new AssistantCardsUpdate("Player2", player.getCards()));
+        samples.put(MessageType.CHARACTER_CARD_PAYLOAD_UPDATE,
+                new CharacterCardPayloadUpdate(1, Arrays.asList(new Student(SchoolColor.YELLOW), new Student(SchoolColor.RED))));
+        samples.put(MessageType.CHARACTER_CARDS_UPDATE, new CharacterCardsUpdate(game.getCharacterCards()));
+        samples.put(MessageType.CLOUD_TILES_UPDATE, new CloudTilesUpdate(game.getCloudTiles()));
+        samples.put(MessageType.CURRENT_PLAYER_UPDATE, new CurrentPlayerUpdate(1, new StateDigest(7, 8, new long[] { 9, 10 })));
+        samples.put(MessageType.ISLANDS_UPDATE, new IslandsUpdate(game.getIslands(), game.getMotherNatureIndex().get()));
+        samples.put(MessageType.PLAYED_ASSISTANT_CARD_UPDATE, new PlayedAssistantCardUpdate(player.getCards().get(6), "Player2"));
+        samples.put(MessageType.SCHOOL_BOARD_UPDATE, new SchoolBoardUpdate(player.getBoard(), "Player2", 1));
+
+        IslandsDeltaUpdate.IslandChange change = new IslandsDeltaUpdate.IslandChange(4);
+        change.setAddedStudents(new int[] { 0, 1, 2, 0, 1 });
+        change.setTowers(TowerColor.WHITE, 2);
+        change.setNoEntryTiles(1);
+        samples.put(MessageType.ISLANDS_DELTA_UPDATE, new IslandsDeltaUpdate(11, 6, Arrays.asList(change)));
+
+        SchoolBoardDeltaUpdate boardDelta = new SchoolBoardDeltaUpdate("Player1", 0);
+        boardDelta.setEntrance(Arrays.asList(SchoolColor.BLUE, SchoolColor.GREEN));
+        boardDelta.setDiningChanges(new int[] { 1, 0, 0, 2, 0 });
+        boardDelta.setProfessors(0b101);
+        boardDelta.setTowersChange(-1);
+        boardDelta.setCoins(4);
+        samples.put(MessageType.SCHOOL_BOARD_DELTA_UPDATE, boardDelta);
+
+        samples.put(MessageType.UPDATES_BATCH,
+                new UpdatesBatch(Arrays.asList(new CurrentPlayerUpdate(0), new CloudTilesUpdate(game.getCloudTiles()))));
+        samples.put(MessageType.SEQUENCED_UPDATE, new SequencedUpdate(12, new PlayedAssistantCardUpdate(player.getCards().get(2), "Player2")));
+
+        return samples;
+    }
+
+    private MatchesListAnswer matchesList()
+    {
+        Map<String, it.polimi.ingsw.network.Match> matches = new LinkedHashMap<>();
+        matches.put("Match1", server.getMatchById("Match1"));
+        matches.put("Match2", server.getMatchById("Match2"));
+        return new MatchesListAnswer(matches, "Match2");
+    }
+
+    private static Object roundTrip(Object message) throws IOException, ClassNotFoundException
+    {
+        return decode(FrameCodec.encode(message));
+    }
+
+    private static Object decode(byte[] frame) throws IOException, ClassNotFoundException
+    {
+        return FrameCodec.decode(frame, FrameCodec.HEADER_SIZE, frame.length - FrameCodec.HEADER_SIZE);
+    }
+}
@@ -0,0 +1,133 @@
+package it.polimi.ingsw.protocol.codec;
+
+import it.polimi.ingsw.protocol.answers.EndMatchAnswer;
+import it.polimi.ingsw.protocol.answers.ErrorAnswer;
+import it.polimi.ingsw.protocol.updates.CurrentPlayerUpdate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class to test the FrameDeflater and FrameInflater classes, which share the deflate stream of a connection
+ */
+public class FrameCompressionTest
+{
+    private static final int THRESHOLD = 64;
+
+    FrameDeflater deflater;
+    FrameInflater inflater;
+
+    @BeforeEach
+    public void init()
+    {
+        deflater = new FrameDeflater(THRESHOLD);
+        inflater = new FrameInflater();
+    }
+
+    @Test
+    public void constructorTest()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new FrameDeflater(0));
+    }
+
+    @Test
+    public void consecutiveFramesTest() throws IOException, ClassNotFoundException
+    {
+        // Small frames are sent as they are and don't go through the stream, the others refer to the previous ones
+        String repeated = "The match is full ".repeat(10);
+        List<Object> objects = List.of(new ErrorAnswer(repeated), new CurrentPlayerUpdate(1), new ErrorAnswer(randomText(10000)),
+                new EndMatchAnswer("Bye"), new ErrorAnswer(repeated), new ErrorAnswer(repeated + "The match is full "), new CurrentPlayerUpdate(0),
+                new ErrorAnswer(repeated));
+
+        List<byte[]> compressed = new ArrayList<>();
+        for (Object object : objects)
+        {
+            EncodedFrame frame = EncodedFrame.of(object);
+            byte[] bytes = deflater.compress(frame);
+            assertEquals(frame.size() - FrameCodec.HEADER_SIZE < THRESHOLD, bytes == null);
+            compressed.add(bytes);
+
+            byte[] sent = bytes != null ? bytes : frame.bytes();
+            assertEquals(sent.length - FrameCodec.HEADER_SIZE, FrameCodec.readInt(sent, 0) & ~FrameCodec.COMPRESSED_FLAG);
+            assertEquals(bytes != null, (FrameCodec.readInt(sent, 0) & FrameCodec.COMPRESSED_FLAG) != 0);
+
+            // The receiver gets back the same payload
+            assertArrayEquals(frame.bytes(), EncodedFrame.of(FrameCodec.decodeFrame(sent, inflater)).bytes());
+        }
+
+        // The repeated frame is compressed against the history of the stream
+        assertTrue(compressed.get(4).length < compressed.get(0).length);
+        assertTrue(compressed.get(7).length <= compressed.get(4).length);
+    }
+
+    @Test
+    public void payloadTest() throws IOException
+    {
+        EncodedFrame frame = EncodedFrame.of(new ErrorAnswer(randomText(300)));
+        byte[] bytes = deflater.compress(frame);
+
+        byte[] payload = inflater.inflate(bytes, FrameCodec.HEADER_SIZE, bytes.length - FrameCodec.HEADER_SIZE);
+        assertArrayEquals(Arrays.copyOfRange(frame.bytes(), FrameCodec.HEADER_SIZE, frame.size()), payload);
+    }
+
+    @Test
+    public void truncatedPayloadTest() throws IOException
+    {
+        byte[] bytes = deflater.compress(EncodedFrame.of(new ErrorAnswer(randomText(300))));
+
+        // Half of the deflated data is missing
+        int length = bytes.length - FrameCodec.HEADER_SIZE;
+        assertThrows(StreamCorruptedException.class, () -> inflater.inflate(bytes, FrameCodec.HEADER_SIZE, length / 2 + FrameCodec.HEADER_SIZE / 2));
+        assertThrows(StreamCorruptedException.class, () -> new FrameInflater().inflate(bytes, FrameCodec.HEADER_SIZE, FrameCodec.HEADER_SIZE - 1));
+    }
+
+    @Test
+    public void longerPayloadTest() throws IOException
+    {
+        byte[] first = deflater.compress(EncodedFrame.of(new ErrorAnswer(randomText(300))));
+        byte[] second = deflater.compress(EncodedFrame.of(new ErrorAnswer(randomText(300))));
+
+        // The deflated data of both frames with the original length of the first one
+        byte[] joined = new byte[first.length + second.length - 2 * FrameCodec.HEADER_SIZE];
+        System.arraycopy(first, 0, joined, 0, first.length);
+        System.arraycopy(second, 2 * FrameCodec.HEADER_SIZE, joined, first.length, second.length - 2 * FrameCodec.HEADER_SIZE);
+        assertThrows(StreamCorruptedException.class, () -> inflater.inflate(joined, FrameCodec.HEADER_SIZE, joined.length - FrameCodec.HEADER_SIZE));
+    }
+
+    @Test
+    public void invalidPayloadTest() throws IOException
+    {
+        byte[] bytes = deflater.compress(EncodedFrame.of(new ErrorAnswer(randomText(300))));
+        int length = bytes.length - FrameCodec.HEADER_SIZE;
+
+        // A declared length not allowed for a frame
+        byte[] negative = bytes.clone();
+        FrameCodec.writeInt(negative, FrameCodec.HEADER_SIZE, -1);
+        assertThrows(StreamCorruptedException.class, () -> new FrameInflater().inflate(negative, FrameCodec.HEADER_SIZE, length));
+
+        // Data that isn't deflated
+        byte[] garbage = bytes.clone();
+        Arrays.fill(garbage, 2 * FrameCodec.HEADER_SIZE, garbage.length, (byte) 0xFF);
+        assertThrows(StreamCorruptedException.class, () -> new FrameInflater().inflate(garbage, FrameCodec.HEADER_SIZE, length));
+
+        // A compressed frame can't be decoded without an inflater
+        assertThrows(StreamCorruptedException.class, () -> FrameCodec.decodeFrame(bytes, null));
+    }
+
+    private static String randomText(int length)
+    {
+        Random random = new Random(length);
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++)
+            text.append((char) ('a' + random.nextInt(26)));
+        return text.toString();
+    }
+}
@@ -0,0 +1,115 @@
+package it.polimi.ingsw.protocol.codec;
+
+import it.polimi.ingsw.model.*;
+import it.polimi.ingsw.model.game.GrandmaHerbs;
+import org.junit.jupiter.api.Test;
+
+import java.io.StreamCorruptedException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class to test the ModelCodec class
+ */
+public class ModelCodecTest
+{
+    @Test
+    public void schoolBoardRoundTripTest() throws StreamCorruptedException
+    {
+        SchoolBoard board = new SchoolBoard(TowerColor.WHITE, GameMode.EXPERT);
+        board.setPlayersNumber(3);
+        board.addStudentToEntrance(new Student(SchoolColor.RED));
+        for (int i = 0; i < SchoolBoard.MAX_STUDENTS_PER_ROOM; i++)
+            board.addStudentToDiningRoom(new Student(SchoolColor.GREEN));
+        for (int i = 0; i < board.getMaxTowers(); i++)
+            board.addTower(new Tower(TowerColor.WHITE));
+
+        SchoolBoard restored = read(writeSchoolBoard(board));
+        assertEquals(9, restored.getMaxStudentsInEntrance());
+        assertEquals(SchoolBoard.MAX_STUDENTS_PER_ROOM, restored.getStudentsNumber(SchoolColor.GREEN));
+        assertEquals(board.getMaxTowers(), restored.getTowers().size());
+        assertEquals(board.getCoins(), restored.getCoins());
+    }
+
+    @Test
+    public void schoolBoardWithoutPlayersNumberTest() throws StreamCorruptedException
+    {
+        SchoolBoard restored = read(writeSchoolBoard(new SchoolBoard(TowerColor.BLACK, GameMode.CLASSIC)));
+        assertFalse(restored.hasPlayersNumber());
+        assertEquals(0, restored.getTowers().size());
+    }
+
+    @Test
+    public void hostileDiningStudentsTest()
+    {
+        assertThrows(StreamCorruptedException.class, () -> read(schoolBoard(Integer.MAX_VALUE, 0)));
+        assertThrows(StreamCorruptedException.class, () -> read(schoolBoard(-1, 0)));
+        assertThrows(StreamCorruptedException.class, () -> read(schoolBoard(SchoolBoard.MAX_STUDENTS_PER_ROOM + 1, 0)));
+    }
+
+    @Test
+    public void hostileTowersTest() throws StreamCorruptedException
+    {
+        assertEquals(8, read(schoolBoard(0, 8)).getTowers().size());
+        assertThrows(StreamCorruptedException.class, () -> read(schoolBoard(0, 9)));
+        assertThrows(StreamCorruptedException.class, () -> read(schoolBoard(0, Integer.MAX_VALUE)));
+        assertThrows(StreamCorruptedException.class, () -> read(schoolBoard(0, -1)));
+    }
+
+    @Test
+    public void hostileNoEntryTilesTest() throws StreamCorruptedException
+    {
+        assertEquals(GrandmaHerbs.INITIAL_NO_ENTRY_NUMBER, readIsland(island(GrandmaHerbs.INITIAL_NO_ENTRY_NUMBER)).getNoEntryTiles());
+        assertThrows(StreamCorruptedException.class, () -> readIsland(island(GrandmaHerbs.INITIAL_NO_ENTRY_NUMBER + 1)));
+        assertThrows(StreamCorruptedException.class, () -> readIsland(island(Integer.MAX_VALUE)));
+        assertThrows(StreamCorruptedException.class, () -> readIsland(island(-1)));
+    }
+
+    private static byte[] writeSchoolBoard(SchoolBoard board)
+    {
+        BinaryWriter writer = new BinaryWriter();
+        ModelCodec.writeSchoolBoard(writer, board);
+        return writer.toByteArray();
+    }
+
+    /**
+     * Writes a two players board with the given number of green students in the dining room and of towers.
+     */
+    private static byte[] schoolBoard(int greenStudents, int towers)
+    {
+        BinaryWriter writer = new BinaryWriter();
+        writer.writeEnum(TowerColor.BLACK);
+        writer.writeEnum(GameMode.CLASSIC);
+        writer.writeInt(2);
+        writer.writeInt(0);
+        for (SchoolColor color : SchoolColor.values())
+            writer.writeInt(color == SchoolColor.GREEN ? greenStudents : 0);
+        writer.writeInt(0);
+        writer.writeInt(towers);
+        writer.writeInt(0);
+        return writer.toByteArray();
+    }
+
+    /**
+     * Writes a single tile island without students and tower, with the given number of no entry tiles.
+     */
+    private static byte[] island(int noEntryTiles)
+    {
+        BinaryWriter writer = new BinaryWriter();
+        writer.writeInt(1);
+        writer.writeInt(0);
+        writer.writeEnum(null);
+        writer.writeInt(noEntryTiles);
+        return writer.toByteArray();
+    }
+
+    private static SchoolBoard read(byte[] bytes) throws StreamCorruptedException
+    {
+        return ModelCodec.readSchoolBoard(new BinaryReader(bytes, 0, bytes.length));
+    }
+
+    private static Island readIsland(byte[] bytes) throws StreamCorruptedException
+    {
+        return ModelCodec.readIsland(new BinaryReader(bytes, 0, bytes.length));
+    }
+}